@@ -0,0 +1,77 @@
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * Runs a benchmarked operation repeatedly for a fixed time and measures how long it takes and how
+ * much it allocates. Every invocation is preceded by an untimed setup, so operations that change the
+ * fixture can start from the same state each time.
+ * <p>
+ * Only the time spent in the operation itself is counted. Allocation is read from the thread's
+ * allocated-bytes counter before and after the operation.
+ */
+public class BenchmarkHarness {
+
+    /** The thread bean used to read the allocated bytes of the current thread. */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** Receives the results of the operations, so the JIT cannot remove them. */
+    private static volatile int sink;
+
+    /** The time spent warming up before every measurement, in milliseconds. */
+    private final long warmupMillis;
+
+    /** The time spent measuring, in milliseconds. */
+    private final long measureMillis;
+
+    /**
+     * Constructs a new {@code BenchmarkHarness}.
+     *
+     * @param warmupMillis  the time spent warming up before every measurement, in milliseconds
+     * @param measureMillis the time spent measuring, in milliseconds
+     */
+    public BenchmarkHarness(long warmupMillis, long measureMillis) {
+        this.warmupMillis = warmupMillis;
+        this.measureMillis = measureMillis;
+    }
+
+    /**
+     * Warms up and then measures an operation.
+     *
+     * @param setup     prepares the fixture before every invocation, not timed
+     * @param operation the operation to measure
+     * @return the {@link BenchmarkResult}
+     */
+    public BenchmarkResult measure(Runnable setup, Supplier<?> operation) {
+        run(setup, operation, warmupMillis);
+        return run(setup, operation, measureMillis);
+    }
+
+    /**
+     * Invokes an operation until the specified time has passed.
+     *
+     * @param setup     prepares the fixture before every invocation
+     * @param operation the operation to invoke
+     * @param millis    the wall time to keep invoking the operation, in milliseconds
+     * @return the {@link BenchmarkResult} of the invocations
+     */
+    private static BenchmarkResult run(Runnable setup, Supplier<?> operation, long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        long operations = 0;
+        long nanos = 0;
+        long bytes = 0;
+        do {
+            setup.run();
+            long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            Object result = operation.get();
+            nanos += System.nanoTime() - start;
+            bytes += THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            sink += result == null ? 0 : result.hashCode();
+            operations++;
+        } while (System.nanoTime() < deadline);
+        return new BenchmarkResult(operations, nanos, bytes);
+    }
+}
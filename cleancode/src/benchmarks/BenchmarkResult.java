@@ -0,0 +1,47 @@
+package benchmarks;
+
+/**
+ * The outcome of measuring an operation with a {@link BenchmarkHarness}.
+ *
+ * @param operations the number of invocations
+ * @param nanos      the time spent in the invocations, in nanoseconds
+ * @param bytes      the bytes allocated by the invocations
+ */
+public record BenchmarkResult(long operations, long nanos, long bytes) {
+
+    /**
+     * Calculates the throughput.
+     *
+     * @return the invocations per second
+     */
+    public double operationsPerSecond() {
+        return operations * 1e9 / Math.max(1, nanos);
+    }
+
+    /**
+     * Calculates the average time of an invocation.
+     *
+     * @return the average time in microseconds
+     */
+    public double averageMicros() {
+        return nanos / 1e3 / Math.max(1, operations);
+    }
+
+    /**
+     * Calculates the average allocation of an invocation.
+     *
+     * @return the allocated bytes per invocation
+     */
+    public double bytesPerOperation() {
+        return (double) bytes / Math.max(1, operations);
+    }
+
+    /**
+     * Calculates the allocation rate while the operation runs.
+     *
+     * @return the allocated megabytes per second
+     */
+    public double allocationRate() {
+        return bytes * 1e9 / Math.max(1, nanos) / (1024 * 1024);
+    }
+}
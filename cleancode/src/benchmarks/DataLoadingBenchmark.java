@@ -0,0 +1,258 @@
+package benchmarks;
+
+import saxion.dataprovider.DataProvider;
+import saxion.dataprovider.reader.CsvAdapter;
+import saxion.dataprovider.reader.JsonAdapter;
+import saxion.dataprovider.reader.Mapper;
+import saxion.dataprovider.reader.SourceAdapter;
+import saxion.models.Print;
+import saxion.models.Spool;
+import saxion.printers.Printer;
+import saxion.printers.PrinterFactory;
+import saxion.simulation.DatasetFormat;
+import saxion.simulation.TaskArrival;
+import saxion.simulation.WorkloadConfig;
+import saxion.simulation.WorkloadGenerator;
+import saxion.simulation.WorkloadGenerator.Dataset;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Measures the data-loading path layer by layer: the {@link CsvAdapter} and {@link JsonAdapter} parsing
+ * a file into records, the {@link Mapper} turning records into objects, and
+ * {@link DataProvider#readFromFile(String, Class, boolean)} doing both. Every dataset is read from
+ * files of growing size in both formats written by the {@link WorkloadGenerator}; nothing is read from
+ * the network or the class path.
+ * <p>
+ * The {@link Mapper} is measured on records that were parsed beforehand and are handed out again and
+ * again, so its numbers exclude parsing. Records per second, megabytes of file per second and bytes
+ * allocated per record are reported.
+ * <p>
+ * Run with the record counts to measure, by default 1k to 1M. The JSON adapter keeps the whole parsed
+ * array in memory, so 10M records need a heap of several gigabytes:
+ * {@code java -Xmx8g -cp bin:lib/json-simple-1.1.1.jar benchmarks.DataLoadingBenchmark 1000 10000000}
+ */
+public class DataLoadingBenchmark {
+
+    /** Record counts that are measured if none are given. */
+    private static final int[] DEFAULT_RECORD_COUNTS = {1_000, 10_000, 100_000, 1_000_000};
+
+    /** Number of parsed records the {@link Mapper} benchmark cycles through. */
+    private static final int MAPPER_POOL_SIZE = 1_000;
+
+    /** Time spent warming up every benchmark, in milliseconds. */
+    private static final long WARMUP_MILLIS = 300;
+
+    /** Time spent measuring every benchmark, in milliseconds. */
+    private static final long MEASURE_MILLIS = 1_000;
+
+    /** Seed of the generated files. */
+    private static final long SEED = 42;
+
+    /** Format of a row of the report. */
+    private static final String ROW = "%-14s %-8s %-5s %10s %14s %10s %12s%n";
+
+    public static void main(String[] args) throws IOException {
+        int[] recordCounts = args.length == 0
+                ? DEFAULT_RECORD_COUNTS
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        BenchmarkHarness harness = new BenchmarkHarness(WARMUP_MILLIS, MEASURE_MILLIS);
+        Path directory = Files.createTempDirectory("data-loading-benchmark");
+        try {
+            System.out.printf(ROW, "benchmark", "dataset", "format", "records", "records/s", "MB/s", "B/record");
+            for (int records : recordCounts) {
+                for (Dataset dataset : Dataset.values()) {
+                    for (DatasetFormat format : DatasetFormat.values()) {
+                        run(harness, directory, dataset, format, records);
+                    }
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Generates a file and runs every benchmark on it.
+     *
+     * @param harness   the {@link BenchmarkHarness}
+     * @param directory the directory for the generated files
+     * @param dataset   the {@link Dataset} of the records
+     * @param format    the {@link DatasetFormat} of the file
+     * @param records   the number of records
+     * @throws IOException if the file cannot be written or deleted
+     */
+    private static void run(BenchmarkHarness harness, Path directory, Dataset dataset, DatasetFormat format,
+                            int records) throws IOException {
+        String name = dataset.name().toLowerCase();
+        Path file = directory.resolve(name + "-" + records + format.extension());
+        Path poolFile = directory.resolve(name + "-pool" + format.extension());
+        generator(records).write(dataset, file, format);
+        generator(Math.min(records, MAPPER_POOL_SIZE)).write(dataset, poolFile, format);
+        long bytes = Files.size(file);
+        try {
+            print("adapter", dataset, format, records, bytes,
+                    harness.measure(() -> { }, () -> parse(file, format)));
+
+            List<HashMap<String, Object>> pool = new ArrayList<>();
+            try (Reader reader = Files.newBufferedReader(poolFile)) {
+                adapter(reader, format).readAll(true).forEachRemaining(pool::add);
+            }
+            Function<HashMap<String, Object>, ?> mapper = mapper(dataset);
+            print("Mapper", dataset, format, records, -1,
+                    harness.measure(() -> { }, () -> map(pool, records, mapper)));
+
+            DataProvider dataProvider = new DataProvider();
+            Class<?> type = type(dataset);
+            print("readFromFile", dataset, format, records, bytes,
+                    harness.measure(() -> { }, () -> {
+                        try {
+                            return dataProvider.readFromFile(file.toString(), type, true).size();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+        } finally {
+            Files.delete(file);
+            Files.delete(poolFile);
+        }
+    }
+
+    /**
+     * Creates a generator whose datasets all have the same number of records.
+     *
+     * @param records the number of records
+     * @return the {@link WorkloadGenerator}
+     */
+    private static WorkloadGenerator generator(int records) {
+        return new WorkloadGenerator(WorkloadConfig.defaults(SEED).withCounts(records, records, 1, records));
+    }
+
+    /**
+     * Parses a file into records without mapping them.
+     *
+     * @param file   the file
+     * @param format the {@link DatasetFormat} of the file
+     * @return the number of records
+     */
+    private static int parse(Path file, DatasetFormat format) {
+        try (Reader reader = Files.newBufferedReader(file)) {
+            Iterator<HashMap<String, Object>> records = adapter(reader, format).readAll(true);
+            int count = 0;
+            while (records.hasNext()) {
+                records.next();
+                count++;
+            }
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Maps parsed records to objects, handing out the pool of records again and again.
+     *
+     * @param pool    the parsed records
+     * @param records the number of records to map
+     * @param mapper  the mapping function of the dataset
+     * @return the number of objects
+     */
+    private static int map(List<HashMap<String, Object>> pool, int records, Function<HashMap<String, Object>, ?> mapper) {
+        SourceAdapter source = header -> new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < records;
+            }
+
+            @Override
+            public HashMap<String, Object> next() {
+                return pool.get(next++ % pool.size());
+            }
+        };
+        Iterator<?> objects = new Mapper(source).readAll(mapper, true);
+        int count = 0;
+        while (objects.hasNext()) {
+            objects.next();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Creates the adapter of a format.
+     *
+     * @param reader the reader of the file
+     * @param format the {@link DatasetFormat} of the file
+     * @return the {@link SourceAdapter}
+     */
+    private static SourceAdapter adapter(Reader reader, DatasetFormat format) {
+        return format == DatasetFormat.CSV ? new CsvAdapter(reader) : new JsonAdapter(reader);
+    }
+
+    /**
+     * Gets the mapping function the data provider uses for a dataset.
+     *
+     * @param dataset the {@link Dataset}
+     * @return the mapping function
+     */
+    private static Function<HashMap<String, Object>, ?> mapper(Dataset dataset) {
+        return switch (dataset) {
+            case PRINTERS -> PrinterFactory::fromMap;
+            case PRINTS -> Print::fromMap;
+            case SPOOLS -> Spool::fromMap;
+            case TASKS -> TaskArrival::fromMap;
+        };
+    }
+
+    /**
+     * Gets the class the data provider maps a dataset to.
+     *
+     * @param dataset the {@link Dataset}
+     * @return the class
+     */
+    private static Class<?> type(Dataset dataset) {
+        return switch (dataset) {
+            case PRINTERS -> Printer.class;
+            case PRINTS -> Print.class;
+            case SPOOLS -> Spool.class;
+            case TASKS -> TaskArrival.class;
+        };
+    }
+
+    /**
+     * Prints a row of the report.
+     *
+     * @param benchmark the name of the benchmark
+     * @param dataset   the {@link Dataset}
+     * @param format    the {@link DatasetFormat}
+     * @param records   the number of records per operation
+     * @param bytes     the size of the file, or a negative value if no file is read
+     * @param result    the {@link BenchmarkResult}
+     */
+    private static void print(String benchmark, Dataset dataset, DatasetFormat format, int records, long bytes,
+                              BenchmarkResult result) {
+        double operationsPerSecond = result.operationsPerSecond();
+        System.out.printf(ROW, benchmark, dataset.name().toLowerCase(), format.name().toLowerCase(), records,
+                String.format("%.0f", operationsPerSecond * records),
+                bytes < 0 ? "-" : String.format("%.1f", operationsPerSecond * bytes / (1024 * 1024)),
+                String.format("%.0f", result.bytesPerOperation() / records));
+    }
+}
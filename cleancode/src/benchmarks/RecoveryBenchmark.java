@@ -0,0 +1,194 @@
+package benchmarks;
+
+import saxion.PrintManager;
+import saxion.journal.Snapshot;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.observer.TaskObserver;
+import saxion.printers.Printer;
+import saxion.types.FilamentType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Measures how long a {@link PrintManager} takes to recover its state from the journal directory,
+ * for growing journal lengths, once with snapshots disabled (the whole journal is replayed) and
+ * once with the default snapshot interval (only the tail after the latest snapshot is replayed).
+ * It also measures the pause of capturing a {@link Snapshot}, which scheduling waits for at every
+ * checkpoint, for growing numbers of pending tasks.
+ * <p>
+ * Run with the shipped resources on the class path:
+ * {@code java -cp bin:lib/json-simple-1.1.1.jar:src/main/resources benchmarks.RecoveryBenchmark}
+ */
+public class RecoveryBenchmark {
+
+    /** Journal lengths, in entries, that are measured. */
+    private static final int[] JOURNAL_LENGTHS = {10_000, 100_000, 1_000_000};
+
+    /** Number of timed recoveries per configuration; the median is reported. */
+    private static final int RUNS = 5;
+
+    /** Numbers of pending tasks for which the capture pause is measured. */
+    private static final int[] PENDING_COUNTS = {10_000, 100_000, 1_000_000};
+
+    /** Number of untimed captures before the timed ones. */
+    private static final int WARMUP_CAPTURES = 20;
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("%12s %22s %22s%n", "entries", "journal only (ms)", "snapshot + tail (ms)");
+        for (int entries : JOURNAL_LENGTHS) {
+            double journalOnly = measure(entries, Long.MAX_VALUE);
+            double withSnapshots = measure(entries, saxion.journal.StateStore.DEFAULT_SNAPSHOT_INTERVAL);
+            System.out.printf("%12d %22.1f %22.1f%n", entries, journalOnly, withSnapshots);
+        }
+        System.out.printf("%n%12s %22s%n", "pending", "capture pause (ms)");
+        for (int pending : PENDING_COUNTS) {
+            System.out.printf("%12d %22.1f%n", pending, measureCapture(pending));
+        }
+    }
+
+    /**
+     * Queues the specified number of tasks and measures the median time to capture a snapshot.
+     *
+     * @param pending the number of pending tasks
+     * @return the median capture time in milliseconds
+     * @throws IOException if the data cannot be loaded
+     */
+    private static double measureCapture(int pending) throws IOException {
+        PrintManager printManager = newPrintManager();
+        Random random = new Random(42);
+        List<Print> prints = printManager.getPrints();
+        List<String> colors = printManager.getSpoolHandler().getAvailableColors(1);
+        for (int i = 0; i < pending; i++) {
+            printManager.getPendingPrintTasks().add(new PrintTask(prints.get(random.nextInt(prints.size())),
+                    List.of(colors.get(random.nextInt(colors.size()))), FilamentType.PLA, random.nextInt(3)));
+        }
+        for (int i = 0; i < WARMUP_CAPTURES; i++) {
+            Snapshot.capture(printManager, 1);
+        }
+        double[] times = new double[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            Snapshot.capture(printManager, 1);
+            times[run] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+
+    /**
+     * Writes a journal of the specified length and measures the median recovery time.
+     *
+     * @param entries          the number of journal entries to write
+     * @param snapshotInterval the snapshot interval used while writing
+     * @return the median recovery time in milliseconds
+     * @throws IOException if the journal cannot be written or read
+     */
+    private static double measure(int entries, long snapshotInterval) throws IOException {
+        Path directory = Files.createTempDirectory("recovery-benchmark");
+        try {
+            writeJournal(directory, entries, snapshotInterval);
+
+            double[] times = new double[RUNS];
+            for (int run = 0; run < RUNS; run++) {
+                PrintManager printManager = newPrintManager();
+                long start = System.nanoTime();
+                printManager.openJournal(directory, snapshotInterval);
+                times[run] = (System.nanoTime() - start) / 1_000_000.0;
+                printManager.closeJournal();
+            }
+            Arrays.sort(times);
+            return times[RUNS / 2];
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * Drives a print manager through add, start and finish cycles until the journal contains
+     * the specified number of entries.
+     *
+     * @param directory        the journal directory
+     * @param entries          the number of journal entries to write
+     * @param snapshotInterval the snapshot interval
+     * @throws IOException if the journal cannot be written
+     */
+    private static void writeJournal(Path directory, int entries, long snapshotInterval) throws IOException {
+        PrintManager printManager = newPrintManager();
+        printManager.openJournal(directory, snapshotInterval);
+        long[] written = new long[1];
+        printManager.addTaskObserver(new TaskObserver() {
+            @Override
+            public void taskAdded(PrintTask task) {
+                written[0]++;
+            }
+
+            @Override
+            public void taskStarted(Printer printer, PrintTask task) {
+                written[0]++;
+            }
+
+            @Override
+            public void spoolsChanged(Printer printer, List<saxion.models.Spool> spools, int changes) {
+                written[0]++;
+            }
+
+            @Override
+            public void taskFinished(Printer printer, PrintTask task, boolean successful) {
+                written[0]++;
+            }
+        });
+
+        Random random = new Random(42);
+        String printName = printManager.getPrints().get(0).getName();
+        int colorCount = printManager.getSpoolHandler().getAvailableColors(1).size();
+        List<Printer> printers = printManager.getPrinterHandler().getPrinters();
+        while (written[0] < entries) {
+            for (int i = 0; i < printers.size(); i++) {
+                printManager.createSelectedColorsList();
+                printManager.addSelectedColors(1, random.nextInt(colorCount) + 1);
+                printManager.addNewPrintTask(printName, 1);
+            }
+            printManager.startPrintQueue();
+            for (Printer printer : printers) {
+                if (printer.getTask() != null) {
+                    printManager.finalizeRunningTask(printer.getId(), random.nextInt(10) != 0);
+                }
+            }
+        }
+        printManager.closeJournal();
+    }
+
+    /**
+     * Creates a print manager loaded with the shipped prints, spools and printers.
+     *
+     * @return the loaded {@link PrintManager}
+     * @throws IOException if the shipped resources cannot be read
+     */
+    private static PrintManager newPrintManager() throws IOException {
+        PrintManager printManager = new PrintManager();
+        printManager.readData(new String[0]);
+        return printManager;
+    }
+
+    /**
+     * Deletes a directory and its contents.
+     *
+     * @param directory the directory to delete
+     * @throws IOException if a file cannot be deleted
+     */
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
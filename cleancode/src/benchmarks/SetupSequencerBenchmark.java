@@ -0,0 +1,117 @@
+package benchmarks;
+
+import saxion.PrintManager;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.planning.SetupPlan;
+import saxion.planning.SetupSequencer;
+import saxion.printers.MultiColor;
+import saxion.printers.Printer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how fast the {@link SetupSequencer} plans the upcoming tasks of a multi-color printer, for
+ * growing queue depths and color cardinalities. A cold plan orders the runs from scratch; an incremental
+ * plan follows a plan of the same printer after one task has left or joined the queue.
+ * <p>
+ * Run with the shipped resources on the class path:
+ * {@code java -cp bin:lib/json-simple-1.1.1.jar:src/main/resources benchmarks.SetupSequencerBenchmark}
+ */
+public class SetupSequencerBenchmark {
+
+    /** Numbers of pending tasks. */
+    private static final int[] QUEUE_DEPTHS = {100, 300, 1_000};
+
+    /** Numbers of distinct colors per filament type. */
+    private static final int[] COLOR_COUNTS = {4, 16};
+
+    /** The share of multi-color printers and tasks. */
+    private static final double MULTI_COLOR_SHARE = 0.25;
+
+    /** The number of printers of the farm. */
+    private static final int FLEET_SIZE = 100;
+
+    /** Time spent warming up every benchmark, in milliseconds. */
+    private static final long WARMUP_MILLIS = 1_000;
+
+    /** Time spent measuring every benchmark, in milliseconds. */
+    private static final long MEASURE_MILLIS = 500;
+
+    /** Seed of the queues and the changed tasks. */
+    private static final long SEED = 42;
+
+    /** Format of a row of the report. */
+    private static final String ROW = "%-12s %6s %7s %6s %8s %12s %12s %10s%n";
+
+    public static void main(String[] args) throws IOException {
+        PrintManager shipped = new PrintManager();
+        shipped.readData(new String[0]);
+        BenchmarkHarness harness = new BenchmarkHarness(WARMUP_MILLIS, MEASURE_MILLIS);
+
+        System.out.printf(ROW, "benchmark", "queue", "colors", "runs", "changes", "ops/s", "us/op", "B/op");
+        for (int queueDepth : QUEUE_DEPTHS) {
+            for (int colorCount : COLOR_COUNTS) {
+                StrategyFixture fixture = StrategyFixture.synthetic(
+                        shipped, FLEET_SIZE, queueDepth, colorCount, MULTI_COLOR_SHARE, SEED);
+                Printer printer = multiColorPrinter(fixture.getPrinters());
+                PrintTaskQueue queue = fixture.copyQueue();
+                SetupPlan plan = new SetupSequencer(SetupSequencer.DEFAULT_HORIZON).plan(printer, queue);
+
+                print("cold", harness.measure(() -> { },
+                        () -> new SetupSequencer(SetupSequencer.DEFAULT_HORIZON).plan(printer, queue)),
+                        queueDepth, colorCount, plan);
+
+                SetupSequencer sequencer = new SetupSequencer(SetupSequencer.DEFAULT_HORIZON);
+                sequencer.plan(printer, queue);
+                List<PrintTask> tasks = new ArrayList<>(queue);
+                Random random = new Random(SEED);
+                PrintTask[] removed = new PrintTask[1];
+                print("incremental", harness.measure(() -> {
+                    if (removed[0] == null) {
+                        removed[0] = tasks.get(random.nextInt(tasks.size()));
+                        queue.remove(removed[0]);
+                    } else {
+                        queue.add(removed[0]);
+                        removed[0] = null;
+                    }
+                }, () -> sequencer.plan(printer, queue)), queueDepth, colorCount, plan);
+            }
+        }
+    }
+
+    /**
+     * Finds the first multi-color printer of the farm, or else its first printer.
+     *
+     * @param printers the printers of the farm
+     * @return the printer to plan for
+     */
+    private static Printer multiColorPrinter(List<Printer> printers) {
+        for (Printer printer : printers) {
+            if (printer instanceof MultiColor) {
+                return printer;
+            }
+        }
+        return printers.get(0);
+    }
+
+    /**
+     * Prints a row of the report.
+     *
+     * @param benchmark  the name of the benchmark
+     * @param result     the {@link BenchmarkResult}
+     * @param queueDepth the queue depth column
+     * @param colorCount the color cardinality column
+     * @param plan       a cold plan of the configuration, for the runs and changes columns
+     */
+    private static void print(String benchmark, BenchmarkResult result, int queueDepth, int colorCount,
+                              SetupPlan plan) {
+        System.out.printf(ROW, benchmark, queueDepth, colorCount, plan.runs().size(), plan.spoolChanges(),
+                String.format("%.0f", result.operationsPerSecond()),
+                String.format("%.2f", result.averageMicros()),
+                String.format("%.0f", result.bytesPerOperation()));
+    }
+}
@@ -0,0 +1,204 @@
+package benchmarks;
+
+import saxion.PrintManager;
+import saxion.models.PrintTaskQueue;
+import saxion.models.Spool;
+import saxion.printers.Printer;
+import saxion.simulation.SimulatedClock;
+import saxion.strategy.ColorRunBatching;
+import saxion.strategy.EarliestDeadlineFirst;
+import saxion.strategy.EfficientSpoolChange;
+import saxion.strategy.LessSpoolChanges;
+import saxion.strategy.PrintingStrategy;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Measures how fast the strategies select a task for a printer, and how fast
+ * {@link PrintManager#startPrintQueue()} fills a whole farm, for the shipped farm and for synthetic
+ * farms of growing fleet size, queue depth, color cardinality and multi-color share.
+ * <p>
+ * Every invocation starts from the same state: the printer (or farm) is reset and gets fresh
+ * copies of the queue and the free spools, outside the timed section. For every configuration the
+ * throughput, the average time and the allocation per invocation and per second are reported.
+ * <p>
+ * Run with the shipped resources on the class path:
+ * {@code java -cp bin:lib/json-simple-1.1.1.jar:src/main/resources benchmarks.StrategyBenchmark}
+ */
+public class StrategyBenchmark {
+
+    /** Fleet sizes of the synthetic farms. */
+    private static final int[] FLEET_SIZES = {100, 500};
+
+    /** Numbers of pending tasks. */
+    private static final int[] QUEUE_DEPTHS = {10, 100, 1_000};
+
+    /** Numbers of distinct colors per filament type of the synthetic farms. */
+    private static final int[] COLOR_COUNTS = {4, 16};
+
+    /** Shares of multi-color printers and tasks of the synthetic farms. */
+    private static final double[] MULTI_COLOR_SHARES = {0.0, 0.25};
+
+    /** Time spent warming up every benchmark, in milliseconds. */
+    private static final long WARMUP_MILLIS = 200;
+
+    /** Time spent measuring every benchmark, in milliseconds. */
+    private static final long MEASURE_MILLIS = 500;
+
+    /** Seed of the queues. */
+    private static final long SEED = 42;
+
+    /** Format of a row of the report. */
+    private static final String ROW = "%-22s %7s %6s %7s %6s %12s %12s %12s %10s%n";
+
+    public static void main(String[] args) throws IOException {
+        PrintManager shipped = new PrintManager();
+        shipped.readData(new String[0]);
+        BenchmarkHarness harness = new BenchmarkHarness(WARMUP_MILLIS, MEASURE_MILLIS);
+
+        System.out.printf(ROW, "benchmark", "fleet", "queue", "colors", "multi",
+                "ops/s", "us/op", "B/op", "MB/s");
+        for (int queueDepth : QUEUE_DEPTHS) {
+            run(harness, StrategyFixture.shipped(shipped, queueDepth, SEED),
+                    "shipped", queueDepth, "shipped", "shipped");
+        }
+        for (int fleetSize : FLEET_SIZES) {
+            for (int queueDepth : QUEUE_DEPTHS) {
+                for (int colorCount : COLOR_COUNTS) {
+                    for (double multiColorShare : MULTI_COLOR_SHARES) {
+                        StrategyFixture fixture = StrategyFixture.synthetic(
+                                shipped, fleetSize, queueDepth, colorCount, multiColorShare, SEED);
+                        run(harness, fixture, Integer.toString(fleetSize), queueDepth,
+                                Integer.toString(colorCount), Double.toString(multiColorShare));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs every benchmark on a fixture and prints the results.
+     *
+     * @param harness    the {@link BenchmarkHarness}
+     * @param fixture    the {@link StrategyFixture}
+     * @param fleet      the fleet size column
+     * @param queueDepth the queue depth column
+     * @param colors     the color cardinality column
+     * @param multiColor the multi-color share column
+     */
+    private static void run(BenchmarkHarness harness, StrategyFixture fixture,
+                            String fleet, int queueDepth, String colors, String multiColor) {
+        print("LessSpoolChanges", measureSelection(harness, fixture, new LessSpoolChanges()),
+                fleet, queueDepth, colors, multiColor);
+        print("EfficientSpoolChange", measureSelection(harness, fixture, new EfficientSpoolChange()),
+                fleet, queueDepth, colors, multiColor);
+        print("ColorRunBatching", measureSelection(harness, fixture, new ColorRunBatching()),
+                fleet, queueDepth, colors, multiColor);
+        Selection deadlines = new Selection(fixture,
+                new EarliestDeadlineFirst(new SimulatedClock(StrategyFixture.NOW_MILLIS)),
+                fixture::copyQueueWithDeadlines);
+        print("EarliestDeadlineFirst", harness.measure(deadlines::reset, deadlines::select),
+                fleet, queueDepth, colors, multiColor);
+        PrintManager[] printManager = new PrintManager[1];
+        print("startPrintQueue", harness.measure(
+                        () -> printManager[0] = fixture.newPrintManager(1),
+                        () -> printManager[0].startPrintQueue()),
+                fleet, queueDepth, colors, multiColor);
+    }
+
+    /**
+     * Measures how fast a strategy selects a task, cycling through the printers of the farm.
+     *
+     * @param harness  the {@link BenchmarkHarness}
+     * @param fixture  the {@link StrategyFixture}
+     * @param strategy the {@link PrintingStrategy} to measure
+     * @return the {@link BenchmarkResult}
+     */
+    private static BenchmarkResult measureSelection(BenchmarkHarness harness, StrategyFixture fixture,
+                                                    PrintingStrategy strategy) {
+        Selection selection = new Selection(fixture, strategy, fixture::copyQueue);
+        return harness.measure(selection::reset, selection::select);
+    }
+
+    /**
+     * Prints a row of the report.
+     *
+     * @param benchmark  the name of the benchmark
+     * @param result     the {@link BenchmarkResult}
+     * @param fleet      the fleet size column
+     * @param queueDepth the queue depth column
+     * @param colors     the color cardinality column
+     * @param multiColor the multi-color share column
+     */
+    private static void print(String benchmark, BenchmarkResult result,
+                              String fleet, int queueDepth, String colors, String multiColor) {
+        System.out.printf(ROW, benchmark, fleet, queueDepth, colors, multiColor,
+                String.format("%.0f", result.operationsPerSecond()),
+                String.format("%.2f", result.averageMicros()),
+                String.format("%.0f", result.bytesPerOperation()),
+                String.format("%.1f", result.allocationRate()));
+    }
+
+    /**
+     * The state of one task selection: the next printer of the farm with fresh copies of the queue
+     * and the free spools.
+     */
+    private static final class Selection {
+
+        /** The farm. */
+        private final StrategyFixture fixture;
+
+        /** The strategy being measured. */
+        private final PrintingStrategy strategy;
+
+        /** The source of fresh copies of the queue. */
+        private final Supplier<PrintTaskQueue> queues;
+
+        /** The position of the next printer. */
+        private int next;
+
+        /** The printer to select a task for. */
+        private Printer printer;
+
+        /** The pending tasks. */
+        private PrintTaskQueue queue;
+
+        /** The free spools. */
+        private List<Spool> freeSpools;
+
+        /**
+         * Constructs a new {@code Selection}.
+         *
+         * @param fixture  the farm
+         * @param strategy the strategy being measured
+         * @param queues   the source of fresh copies of the queue
+         */
+        private Selection(StrategyFixture fixture, PrintingStrategy strategy, Supplier<PrintTaskQueue> queues) {
+            this.fixture = fixture;
+            this.strategy = strategy;
+            this.queues = queues;
+        }
+
+        /**
+         * Moves to the next printer and resets it, the queue and the free spools.
+         */
+        private void reset() {
+            int index = next++ % fixture.getPrinters().size();
+            fixture.resetPrinter(index);
+            printer = fixture.getPrinters().get(index);
+            queue = queues.get();
+            freeSpools = fixture.copyFreeSpools();
+        }
+
+        /**
+         * Lets the strategy select a task for the printer.
+         *
+         * @return the messages of the strategy
+         */
+        private String select() {
+            return strategy.selectPrintTask(printer, queue, fixture.getPrinters(), freeSpools);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package benchmarks;
+
+import saxion.PrintManager;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.models.Spool;
+import saxion.models.SpoolPool;
+import saxion.printers.MultiColor;
+import saxion.printers.Printer;
+import saxion.simulation.SyntheticFarm;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A farm to benchmark the strategies on: printers with spools loaded, the remaining free spools and
+ * a queue of pending tasks. The farm is either a copy of the shipped one or a scaled-up synthetic
+ * variant with a chosen fleet size, color cardinality and multi-color share.
+ * <p>
+ * Benchmarks change the farm, so {@link #resetPrinter(int)} and {@link #newPrintManager(int)} bring
+ * it back to its initial state before every invocation.
+ * <p>
+ * For deadline-aware strategies the same queue is also available with deadlines: a share of the tasks
+ * is due around {@link #NOW_MILLIS}, some of them already too late, some urgent and some with time to spare.
+ */
+public class StrategyFixture {
+
+    /** The current time of the deadlines, in milliseconds since the epoch. */
+    public static final long NOW_MILLIS = 1_700_000_000_000L;
+
+    /** The share of the tasks that have a deadline. */
+    private static final double DEADLINE_SHARE = 0.3;
+
+    /** The earliest slack of a deadline; negative slack is already too late. */
+    private static final long MIN_SLACK_MILLIS = -2 * 3_600_000L;
+
+    /** The latest slack of a deadline. */
+    private static final long MAX_SLACK_MILLIS = 6 * 3_600_000L;
+
+    /** The number of spools per printer in a synthetic farm. */
+    private static final int SPOOLS_PER_PRINTER = 4;
+
+    /** The filament types in the order the synthetic spools cycle through them. */
+    private static final FilamentType[] TYPES = FilamentType.values();
+
+    /** The catalogue. */
+    private final List<Print> prints;
+
+    /** The printers of the farm. */
+    private final List<Printer> printers;
+
+    /** The spools initially loaded in each printer, by position in {@link #printers}. */
+    private final List<List<Spool>> loadedSpools = new ArrayList<>();
+
+    /** All spools of the farm. */
+    private final List<Spool> spools;
+
+    /** The spools that are not loaded in a printer. */
+    private final List<Spool> freeSpools;
+
+    /** The pending tasks. */
+    private final List<PrintTask> queue = new ArrayList<>();
+
+    /** The pending tasks, a share of them with a deadline. */
+    private final List<PrintTask> deadlineQueue = new ArrayList<>();
+
+    /**
+     * Loads spools in the printers and fills the queue.
+     *
+     * @param prints          the catalogue
+     * @param printers        the printers of the farm
+     * @param spools          all spools of the farm
+     * @param queueDepth      the number of pending tasks
+     * @param multiColorShare the share of tasks using more than one color, or a negative value to
+     *                        pick prints uniformly from the catalogue
+     * @param random          the seeded source of the queue
+     */
+    private StrategyFixture(List<Print> prints, List<Printer> printers, List<Spool> spools,
+                            int queueDepth, double multiColorShare, Random random) {
+        this.prints = prints;
+        this.printers = printers;
+        this.spools = spools;
+        this.freeSpools = new ArrayList<>(spools);
+        for (Printer printer : printers) {
+            loadedSpools.add(loadSpools(printer));
+        }
+        fillQueue(queueDepth, multiColorShare, random);
+        addDeadlines(random);
+    }
+
+    /**
+     * Creates a copy of the shipped farm.
+     *
+     * @param shipped    a {@link PrintManager} loaded with the shipped prints, spools and printers
+     * @param queueDepth the number of pending tasks
+     * @param seed       the seed of the queue
+     * @return the fixture
+     */
+    public static StrategyFixture shipped(PrintManager shipped, int queueDepth, long seed) {
+        List<Printer> templates = shipped.getPrinterHandler().getPrinters();
+        List<Spool> spoolTemplates = shipped.getSpoolHandler().getSpools();
+        return new StrategyFixture(shipped.getPrints(),
+                SyntheticFarm.printers(templates, templates.size()),
+                SyntheticFarm.spools(spoolTemplates, spoolTemplates.size()),
+                queueDepth, -1, new Random(seed));
+    }
+
+    /**
+     * Creates a synthetic farm from the shipped printers and prints.
+     *
+     * @param shipped         a {@link PrintManager} loaded with the shipped prints, spools and printers
+     * @param fleetSize       the number of printers
+     * @param queueDepth      the number of pending tasks
+     * @param colorCount      the number of distinct colors per filament type
+     * @param multiColorShare the share of multi-color printers and of multi-color tasks
+     * @param seed            the seed of the queue
+     * @return the fixture
+     */
+    public static StrategyFixture synthetic(PrintManager shipped, int fleetSize, int queueDepth,
+                                            int colorCount, double multiColorShare, long seed) {
+        List<Printer> printers = SyntheticFarm.printers(
+                shipped.getPrinterHandler().getPrinters(), fleetSize, multiColorShare);
+
+        List<Spool> spoolTemplates = shipped.getSpoolHandler().getSpools();
+        List<String> palette = palette(spoolTemplates, colorCount);
+        List<Spool> spools = new ArrayList<>();
+        for (int id = 1; id <= fleetSize * SPOOLS_PER_PRINTER; id++) {
+            spools.add(new Spool(id,
+                    palette.get((id - 1) % colorCount),
+                    TYPES[(id - 1) / colorCount % TYPES.length],
+                    spoolTemplates.get((id - 1) % spoolTemplates.size()).getLength()));
+        }
+        return new StrategyFixture(shipped.getPrints(), printers, spools,
+                queueDepth, multiColorShare, new Random(seed));
+    }
+
+    /**
+     * Gets the printers of the farm.
+     *
+     * @return the printers
+     */
+    public List<Printer> getPrinters() {
+        return printers;
+    }
+
+    /**
+     * Creates a copy of the pending tasks that a benchmark may change.
+     *
+     * @return the pending tasks
+     */
+    public PrintTaskQueue copyQueue() {
+        return new PrintTaskQueue(queue);
+    }
+
+    /**
+     * Creates a copy of the pending tasks with deadlines that a benchmark may change.
+     *
+     * @return the pending tasks, a share of them due around {@link #NOW_MILLIS}
+     */
+    public PrintTaskQueue copyQueueWithDeadlines() {
+        return new PrintTaskQueue(deadlineQueue);
+    }
+
+    /**
+     * Creates a copy of the free spools that a benchmark may change, indexed by color as in the application.
+     *
+     * @return the free spools
+     */
+    public List<Spool> copyFreeSpools() {
+        return new SpoolPool(freeSpools);
+    }
+
+    /**
+     * Removes the task of a printer and loads its initial spools again.
+     *
+     * @param index the position of the printer in {@link #getPrinters()}
+     */
+    public void resetPrinter(int index) {
+        Printer printer = printers.get(index);
+        printer.setTask(null);
+        if (!loadedSpools.get(index).isEmpty()) {
+            printer.setCurrentSpools(loadedSpools.get(index));
+        }
+    }
+
+    /**
+     * Resets the farm and creates a {@link PrintManager} running it, with the queue added.
+     *
+     * @param strategy the strategy choice of {@link PrintManager#setPrintingStrategy(int)}
+     * @return the new manager
+     */
+    public PrintManager newPrintManager(int strategy) {
+        for (int i = 0; i < printers.size(); i++) {
+            resetPrinter(i);
+        }
+        PrintManager printManager = new PrintManager();
+        printManager.setPrints(prints);
+        printManager.setPrinters(printers);
+        printManager.getSpoolHandler().setSpools(spools);
+        printManager.getSpoolHandler().setFreeSpools(copyFreeSpools());
+        printManager.setPrintingStrategy(strategy);
+        for (PrintTask task : queue) {
+            printManager.addNewPrintTask(task.getPrint().getName(), task.getFilamentType(), task.getColors());
+        }
+        return printManager;
+    }
+
+    /**
+     * Loads free spools of a single filament type in a printer, as many as it holds.
+     *
+     * @param printer the printer
+     * @return the loaded spools
+     */
+    private List<Spool> loadSpools(Printer printer) {
+        int slots = printer instanceof MultiColor ? ((MultiColor) printer).getMaxColors() : 1;
+        List<Spool> loaded = new ArrayList<>();
+        for (Spool spool : freeSpools) {
+            if (loaded.size() == slots) {
+                break;
+            }
+            if (loaded.isEmpty() || spool.getFilamentType() == loaded.get(0).getFilamentType()
+                    && loaded.stream().noneMatch(other -> other.getColor().equals(spool.getColor()))) {
+                loaded.add(spool);
+            }
+        }
+        freeSpools.removeAll(loaded);
+        if (!loaded.isEmpty()) {
+            printer.setCurrentSpools(loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Fills the queue with random tasks in colors the farm has spools of.
+     *
+     * @param queueDepth      the number of tasks
+     * @param multiColorShare the share of multi-color tasks, or a negative value to pick prints uniformly
+     * @param random          the seeded source of the tasks
+     */
+    private void fillQueue(int queueDepth, double multiColorShare, Random random) {
+        Map<FilamentType, List<String>> colors = new EnumMap<>(FilamentType.class);
+        for (Spool spool : spools) {
+            List<String> typeColors = colors.computeIfAbsent(spool.getFilamentType(), type -> new ArrayList<>());
+            if (!typeColors.contains(spool.getColor())) {
+                typeColors.add(spool.getColor());
+            }
+        }
+        List<FilamentType> types = new ArrayList<>(colors.keySet());
+        List<Print> singleColor = prints.stream().filter(print -> print.getFilamentLength().size() == 1).toList();
+        List<Print> multiColor = prints.stream().filter(print -> print.getFilamentLength().size() > 1).toList();
+
+        while (queue.size() < queueDepth) {
+            Print print;
+            if (multiColorShare < 0) {
+                print = prints.get(random.nextInt(prints.size()));
+            } else if (!multiColor.isEmpty() && random.nextDouble() < multiColorShare) {
+                print = multiColor.get(random.nextInt(multiColor.size()));
+            } else {
+                print = singleColor.get(random.nextInt(singleColor.size()));
+            }
+            FilamentType type = types.get(random.nextInt(types.size()));
+            List<String> available = new ArrayList<>(colors.get(type));
+            if (available.size() < print.getFilamentLength().size()) {
+                print = singleColor.get(random.nextInt(singleColor.size()));
+            }
+            Collections.shuffle(available, random);
+            queue.add(new PrintTask(print, List.copyOf(available.subList(0, print.getFilamentLength().size())), type));
+        }
+    }
+
+    /**
+     * Copies the queue and gives a share of the tasks a deadline.
+     *
+     * @param random the seeded source of the deadlines
+     */
+    private void addDeadlines(Random random) {
+        for (PrintTask task : queue) {
+            long deadlineMillis = PrintTask.NO_DEADLINE;
+            if (random.nextDouble() < DEADLINE_SHARE) {
+                deadlineMillis = NOW_MILLIS + task.getPrint().getPrintTime() * 60_000L + MIN_SLACK_MILLIS
+                        + (long) (random.nextDouble() * (MAX_SLACK_MILLIS - MIN_SLACK_MILLIS));
+            }
+            deadlineQueue.add(new PrintTask(task.getId(), task.getPrint(), task.getColors(), task.getFilamentType(),
+                    task.getPriority(), deadlineMillis));
+        }
+    }
+
+    /**
+     * Builds a palette of colors: the shipped colors first, then numbered ones.
+     *
+     * @param spools     the shipped spools
+     * @param colorCount the number of colors
+     * @return the palette
+     */
+    private static List<String> palette(List<Spool> spools, int colorCount) {
+        List<String> palette = new ArrayList<>();
+        for (Spool spool : spools) {
+            if (palette.size() < colorCount && !palette.contains(spool.getColor())) {
+                palette.add(spool.getColor());
+            }
+        }
+        while (palette.size() < colorCount) {
+            palette.add("Color " + (palette.size() + 1));
+        }
+        return palette;
+    }
+}
@@ -0,0 +1,111 @@
+package benchmarks;
+
+import saxion.PrintManager;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.types.FilamentType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how long it takes to take a task out of the pending queue and put it back, as happens when a
+ * strategy starts a task and the task fails, and to scan the whole queue in order, for growing queue
+ * depths. The {@link PrintTaskQueue} is compared with the plain list the queue used to be, which finds the
+ * task by scanning.
+ * <p>
+ * Run with the shipped resources on the class path:
+ * {@code java -cp bin:lib/json-simple-1.1.1.jar:src/main/resources benchmarks.TaskQueueBenchmark}
+ */
+public class TaskQueueBenchmark {
+
+    /** Numbers of pending tasks. */
+    private static final int[] QUEUE_DEPTHS = {1_000, 10_000, 100_000};
+
+    /** The number of order priorities the tasks are spread over. */
+    private static final int PRIORITIES = 4;
+
+    /** Time spent warming up every benchmark, in milliseconds. */
+    private static final long WARMUP_MILLIS = 200;
+
+    /** Time spent measuring every benchmark, in milliseconds. */
+    private static final long MEASURE_MILLIS = 500;
+
+    /** Seed of the queues and the removed tasks. */
+    private static final long SEED = 42;
+
+    /** Format of a row of the report. */
+    private static final String ROW = "%-16s %8s %12s %12s %10s%n";
+
+    public static void main(String[] args) throws IOException {
+        PrintManager shipped = new PrintManager();
+        shipped.readData(new String[0]);
+        Print print = shipped.getPrints().get(0);
+        BenchmarkHarness harness = new BenchmarkHarness(WARMUP_MILLIS, MEASURE_MILLIS);
+
+        System.out.printf(ROW, "benchmark", "queue", "ops/s", "us/op", "B/op");
+        for (int queueDepth : QUEUE_DEPTHS) {
+            Random random = new Random(SEED);
+            List<PrintTask> tasks = new ArrayList<>(queueDepth);
+            for (int i = 0; i < queueDepth; i++) {
+                tasks.add(new PrintTask(print, List.of("Red"), FilamentType.PLA, random.nextInt(PRIORITIES)));
+            }
+            print("ArrayList", measure(harness, new ArrayList<>(tasks), tasks), queueDepth);
+            print("PrintTaskQueue", measure(harness, new PrintTaskQueue(tasks), tasks), queueDepth);
+            print("ArrayList scan", measureScan(harness, new ArrayList<>(tasks)), queueDepth);
+            print("Queue scan", measureScan(harness, new PrintTaskQueue(tasks)), queueDepth);
+        }
+    }
+
+    /**
+     * Measures removing a random task from a queue and adding it again.
+     *
+     * @param harness the {@link BenchmarkHarness}
+     * @param queue   the queue holding the tasks
+     * @param tasks   the tasks
+     * @return the {@link BenchmarkResult}
+     */
+    private static BenchmarkResult measure(BenchmarkHarness harness, Collection<PrintTask> queue,
+                                           List<PrintTask> tasks) {
+        Random random = new Random(SEED);
+        PrintTask[] next = new PrintTask[1];
+        return harness.measure(
+                () -> next[0] = tasks.get(random.nextInt(tasks.size())),
+                () -> queue.remove(next[0]) && queue.add(next[0]));
+    }
+
+    /**
+     * Measures visiting every task of a queue in order.
+     *
+     * @param harness the {@link BenchmarkHarness}
+     * @param queue   the queue holding the tasks
+     * @return the {@link BenchmarkResult}
+     */
+    private static BenchmarkResult measureScan(BenchmarkHarness harness, Collection<PrintTask> queue) {
+        return harness.measure(() -> { }, () -> {
+            long priorities = 0;
+            for (PrintTask task : queue) {
+                priorities += task.getPriority();
+            }
+            return priorities;
+        });
+    }
+
+    /**
+     * Prints a row of the report.
+     *
+     * @param benchmark  the name of the benchmark
+     * @param result     the {@link BenchmarkResult}
+     * @param queueDepth the queue depth column
+     */
+    private static void print(String benchmark, BenchmarkResult result, int queueDepth) {
+        System.out.printf(ROW, benchmark, queueDepth,
+                String.format("%.0f", result.operationsPerSecond()),
+                String.format("%.2f", result.averageMicros()),
+                String.format("%.0f", result.bytesPerOperation()));
+    }
+}
@@ -15,6 +15,9 @@ public class Dashboard implements Observer {
     /** The number of prints successfully fulfilled. */
     private int printsFulfilled;
 
+    /** The number of starts on spools with too little filament that were prevented. */
+    private int preventedStarts;
+
     /**
      * Constructs a new {@code Dashboard} and registers it as an observer
      * to the specified {@link PrintManager}.
@@ -35,17 +38,19 @@ public class Dashboard implements Observer {
     public void update(PrintEvent event) {
         this.spoolChangeCount = event.getSpoolChangeCount();
         this.printsFulfilled = event.getPrintsFulfilled();
+        this.preventedStarts = event.getPreventedStarts();
     }
 
     /**
      * Retrieves the current dashboard statistics as a formatted string.
      *
-     * @return a string displaying the number of spool changes and prints fulfilled
+     * @return a string displaying the number of spool changes, prints fulfilled and prevented starts
      */
     public String getStats() {
         return "==================== DASHBOARD ====================\n" +
                 "Spool changes: " + spoolChangeCount + "\n" +
                 "Prints fulfilled: " + printsFulfilled + "\n" +
+                "Starts on too short spools prevented: " + preventedStarts + "\n" +
                 "===================================================";
     }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package saxion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The `LaunchOptions` class splits the command-line arguments into the positional data files
+ * (prints, spools and printers, in that order) and optional {@code --name=value} settings.
+ */
+public class LaunchOptions {
+
+    /** Prefix that marks an optional setting. */
+    private static final String OPTION_PREFIX = "--";
+
+    /** The positional arguments in their original order. */
+    private final List<String> dataFiles = new ArrayList<>();
+
+    /** The optional settings by name. */
+    private final Map<String, String> options = new HashMap<>();
+
+    /**
+     * Parses the specified command-line arguments.
+     *
+     * @param args the command-line arguments
+     */
+    public LaunchOptions(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith(OPTION_PREFIX)) {
+                int separator = arg.indexOf('=');
+                if (separator < 0) {
+                    options.put(arg.substring(OPTION_PREFIX.length()), "");
+                } else {
+                    options.put(arg.substring(OPTION_PREFIX.length(), separator), arg.substring(separator + 1));
+                }
+            } else {
+                dataFiles.add(arg);
+            }
+        }
+    }
+
+    /**
+     * Gets the positional data file arguments.
+     *
+     * @return an array with the file names for prints, spools, and printers in order
+     */
+    public String[] getDataFiles() {
+        return dataFiles.toArray(new String[0]);
+    }
+
+    /**
+     * Gets the value of an optional setting.
+     *
+     * @param name the name of the setting without the {@code --} prefix
+     * @return the value of the setting, or {@code null} if it was not given
+     */
+    public String getOption(String name) {
+        return options.get(name);
+    }
+
+    /**
+     * Gets the value of an optional setting, or a default if it was not given.
+     *
+     * @param name         the name of the setting without the {@code --} prefix
+     * @param defaultValue the value used if the setting was not given
+     * @return the value of the setting
+     */
+    public String getOption(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    /**
+     * Gets the value of an optional whole-number setting, or a default if it was not given.
+     *
+     * @param name         the name of the setting without the {@code --} prefix
+     * @param defaultValue the value used if the setting was not given
+     * @return the value of the setting
+     * @throws IllegalArgumentException if the value is not a whole number
+     */
+    public int getIntOption(String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a whole number: " + value);
+        }
+    }
+
+    /**
+     * Gets the value of an optional numeric setting, or a default if it was not given.
+     *
+     * @param name         the name of the setting without the {@code --} prefix
+     * @param defaultValue the value used if the setting was not given
+     * @return the value of the setting
+     * @throws IllegalArgumentException if the value is not a number
+     */
+    public double getDoubleOption(String name, double defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a number: " + value);
+        }
+    }
+}
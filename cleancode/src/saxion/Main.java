@@ -1,5 +1,6 @@
 package saxion;
 
+import saxion.api.ApiServer;
 import saxion.facade.*;
 import saxion.input.ConsoleInput;
 import saxion.input.UserInput;
@@ -41,6 +42,11 @@ public class Main {
      * The application's entry point.
      *
      * @param args command-line arguments, including paths to data files for initialization
+     *             an optional {@code --journal=<directory>} to persist the scheduling state
+     *             an optional {@code --history=<directory>} to keep the history of finished runs
+     *             an optional {@code --pack-plates=1} to print small tasks side by side on one build plate
+     *             an optional {@code --metrics-port=<port>} to serve Prometheus metrics
+     *             and an optional {@code --api-port=<port>} to serve the JSON API
      */
     public static void main(String[] args) {
         new Main(
@@ -56,16 +62,56 @@ public class Main {
      * @param args command-line arguments passed during application startup
      */
     public void run(String[] args) {
+        LaunchOptions options = new LaunchOptions(args);
         try {
-            facade.readData(args);
+            facade.readData(options.getDataFiles());
         } catch (Exception e) {
             terminal.show("Failed to read files");
         }
 
+        String journalDirectory = options.getOption("journal");
+        if (journalDirectory != null) {
+            try {
+                facade.openJournal(journalDirectory);
+            } catch (Exception e) {
+                terminal.show("Failed to open journal: " + e.getMessage());
+            }
+        }
+
+        facade.setPlatePacking("1".equals(options.getOption("pack-plates")));
+
+        String historyDirectory = options.getOption("history");
+        if (historyDirectory != null) {
+            try {
+                facade.openHistory(historyDirectory);
+            } catch (Exception e) {
+                terminal.show("Failed to open run history: " + e.getMessage());
+            }
+        }
+
+        String metricsPort = options.getOption("metrics-port");
+        if (metricsPort != null) {
+            try {
+                facade.startMetricsServer(Integer.parseInt(metricsPort));
+            } catch (Exception e) {
+                terminal.show("Failed to start metrics server: " + e.getMessage());
+            }
+        }
+
+        ApiServer apiServer = null;
+        String apiPort = options.getOption("api-port");
+        if (apiPort != null) {
+            try {
+                apiServer = new ApiServer(Integer.parseInt(apiPort), facade);
+            } catch (Exception e) {
+                terminal.show("Failed to start API server: " + e.getMessage());
+            }
+        }
+
         int choice = 1;
-        while (choice > 0 && choice < 11) {
+        while (choice > 0 && choice < 12) {
             terminal.show(facade.displayMenu());
-            choice = consoleInput.getIntInput(0, 10);
+            choice = consoleInput.getIntInput(0, 11);
             switch (choice) {
                 case 0 -> {break;}
                 case 1 -> addNewPrintTask();
@@ -78,15 +124,35 @@ public class Main {
                 case 8 -> showSpools();
                 case 9 -> showPendingPrintTasks();
                 case 10 -> showDashboardStats();
+                case 11 -> showSpoolForecast();
             }
         }
+
+        if (apiServer != null) {
+            apiServer.close();
+        }
+        try {
+            facade.shutdown();
+        } catch (Exception e) {
+            terminal.show("Failed to shut down: " + e.getMessage());
+        }
     }
 
     /**
-     * Displays dashboard statistics.
+     * Displays dashboard statistics, printer utilization, queue wait times and the latency of the scheduling operations.
      */
     public void showDashboardStats() {
         terminal.show(facade.getDashboardStats());
+        terminal.show(facade.getUtilizationReport());
+        terminal.show(facade.getWaitTimeReport());
+        terminal.show(facade.getLatencyReport());
+    }
+
+    /**
+     * Displays when the loaded spools run short and the spool changes to prepare before the printers go idle.
+     */
+    public void showSpoolForecast() {
+        terminal.show(facade.getSpoolForecastReport());
     }
 
     /**
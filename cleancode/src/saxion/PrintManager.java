@@ -4,20 +4,43 @@ import saxion.dataprovider.DataProvider;
 import saxion.handlers.PrintTaskHandler;
 import saxion.handlers.PrinterHandler;
 import saxion.handlers.SpoolHandler;
+import saxion.history.RunHistory;
+import saxion.history.RunHistoryRecorder;
+import saxion.journal.StateStore;
+import saxion.metrics.LatencyMetrics;
+import saxion.metrics.Operation;
+import saxion.metrics.UtilizationTracker;
+import saxion.metrics.WaitTimeTracker;
+import saxion.models.PlateTask;
 import saxion.models.Print;
 import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
 import saxion.models.Spool;
 import saxion.observer.Observable;
 import saxion.observer.Observer;
 import saxion.observer.PrintEvent;
+import saxion.observer.TaskObserver;
+import saxion.planning.PlatePacker;
+import saxion.planning.SpoolForecast;
+import saxion.planning.SpoolForecaster;
+import saxion.planning.StagedSpoolChange;
 import saxion.printers.Printer;
+import saxion.strategy.ColorRunBatching;
+import saxion.strategy.EarliestDeadlineFirst;
 import saxion.strategy.EfficientSpoolChange;
 import saxion.strategy.LessSpoolChanges;
+import saxion.strategy.PrintingStrategy;
+import saxion.time.TimeSource;
 import saxion.types.FilamentType;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The main manager class for handling printing tasks, printers, and spools.
@@ -25,6 +48,7 @@ import java.util.List;
  * observer pattern notifications.
  */
 public class PrintManager implements Observable, Observer {
+
     private final PrintTaskHandler printTaskHandler;
     private final PrinterHandler printerHandler;
     private final SpoolHandler spoolHandler;
@@ -34,22 +58,37 @@ public class PrintManager implements Observable, Observer {
     private List<String> selectedColors;
 
     private final List<Observer> observers = new ArrayList<>();
-    private final LessSpoolChanges lessSpoolChanges = new LessSpoolChanges();
-    private final EfficientSpoolChange efficientSpoolChange = new EfficientSpoolChange();
+    private final List<TaskObserver> taskObservers = new ArrayList<>();
+    private final LatencyMetrics latencyMetrics = new LatencyMetrics();
+    private UtilizationTracker utilizationTracker = new UtilizationTracker(TimeSource.SYSTEM);
+    private final WaitTimeTracker waitTimeTracker = new WaitTimeTracker();
+    private final Map<String, PrintingStrategy> strategies = new LinkedHashMap<>();
     private int spoolChangeCount = 0;
     private int printsFulfilled = 0;
+    private int preventedStartCount = 0;
+    private StateStore stateStore;
+    private RunHistory runHistory;
+    private TimeSource timeSource = TimeSource.SYSTEM;
+    private final EarliestDeadlineFirst earliestDeadlineFirst = new EarliestDeadlineFirst(timeSource);
+    private final SpoolForecaster spoolForecaster = new SpoolForecaster(timeSource);
+    private PlatePacker platePacker;
 
     /**
      * Constructs a new {@code PrintManager} and initializes its handlers and strategies.
      */
     public PrintManager() {
+        LessSpoolChanges lessSpoolChanges = new LessSpoolChanges();
         this.printTaskHandler = new PrintTaskHandler(lessSpoolChanges);
         this.printerHandler = new PrinterHandler();
         this.spoolHandler = new SpoolHandler();
         this.dataProvider = new DataProvider();
 
-        lessSpoolChanges.addObserver(this);
-        efficientSpoolChange.addObserver(this);
+        registerPrintingStrategy("Less spool changes", lessSpoolChanges);
+        registerPrintingStrategy("Efficient Spool usage", new EfficientSpoolChange());
+        registerPrintingStrategy("Earliest deadline first", earliestDeadlineFirst);
+        registerPrintingStrategy("Color runs", new ColorRunBatching());
+        addTaskObserver(utilizationTracker);
+        addTaskObserver(waitTimeTracker);
     }
 
     /**
@@ -61,6 +100,15 @@ public class PrintManager implements Observable, Observer {
         return List.copyOf(prints);
     }
 
+    /**
+     * Sets the catalogue of prints that can be added to the queue.
+     *
+     * @param prints the list of {@link Print} objects to set
+     */
+    public void setPrints(List<Print> prints) {
+        this.prints = new ArrayList<>(prints);
+    }
+
     /**
      * Retrieves the number of prints managed by this manager.
      *
@@ -70,6 +118,33 @@ public class PrintManager implements Observable, Observer {
         return prints.size();
     }
 
+    /**
+     * Retrieves the number of spool changes counted by this manager.
+     *
+     * @return the spool change count
+     */
+    public int getSpoolChangeCount() {
+        return spoolChangeCount;
+    }
+
+    /**
+     * Retrieves the number of prints fulfilled by this manager.
+     *
+     * @return the prints fulfilled count
+     */
+    public int getPrintsFulfilled() {
+        return printsFulfilled;
+    }
+
+    /**
+     * Retrieves the number of starts on spools with too little filament that the strategies prevented.
+     *
+     * @return the prevented start count
+     */
+    public int getPreventedStartCount() {
+        return preventedStartCount;
+    }
+
     /**
      * Retrieves the spool handler used by this manager.
      *
@@ -97,25 +172,96 @@ public class PrintManager implements Observable, Observer {
      */
     public String addNewPrintTask(String printName, int filamentType) {
         try {
-            FilamentType type = FilamentType.getFilamentType(filamentType);
-            Print print = getPrintByName(printName);
-            spoolHandler.validateColors(selectedColors, type);
-
-            return printTaskHandler.addNewPrintTask(print, selectedColors, type);
+            addNewPrintTask(printName, FilamentType.getFilamentType(filamentType), selectedColors);
+            return "Print task added to the queue";
         } catch (IllegalArgumentException e) {
             return e.getMessage();
         }
     }
 
     /**
-     * Retrieves the list of pending print tasks.
+     * Adds a new print task with the specified colors to the queue.
      *
-     * @return a list of {@link PrintTask} objects
+     * @param printName    the name of the print
+     * @param filamentType the {@link FilamentType} required for the task
+     * @param colors       the colors of the task, one per filament of the print
+     * @return the queued {@link PrintTask}
+     * @throws IllegalArgumentException if the print does not exist or a color is not available
      */
-    public List<PrintTask> getPendingPrintTasks() {
+    public PrintTask addNewPrintTask(String printName, FilamentType filamentType, List<String> colors) {
+        return addNewPrintTask(printName, filamentType, colors, PrintTask.DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Adds a new print task with the specified colors and order priority to the queue.
+     *
+     * @param printName    the name of the print
+     * @param filamentType the {@link FilamentType} required for the task
+     * @param colors       the colors of the task, one per filament of the print
+     * @param priority     the order priority; tasks with a higher priority are started first
+     * @return the queued {@link PrintTask}
+     * @throws IllegalArgumentException if the print does not exist or a color is not available
+     */
+    public PrintTask addNewPrintTask(String printName, FilamentType filamentType, List<String> colors, int priority) {
+        return addNewPrintTask(printName, filamentType, colors, priority, PrintTask.NO_DEADLINE);
+    }
+
+    /**
+     * Adds a new print task with the specified colors, order priority and deadline to the queue.
+     *
+     * @param printName      the name of the print
+     * @param filamentType   the {@link FilamentType} required for the task
+     * @param colors         the colors of the task, one per filament of the print
+     * @param priority       the order priority; tasks with a higher priority are started first
+     * @param deadlineMillis the time the print is due in milliseconds since the epoch, or {@link PrintTask#NO_DEADLINE}
+     * @return the queued {@link PrintTask}
+     * @throws IllegalArgumentException if the print does not exist or a color is not available
+     */
+    public PrintTask addNewPrintTask(String printName, FilamentType filamentType, List<String> colors, int priority,
+                                     long deadlineMillis) {
+        Print print = getPrintByName(printName);
+        spoolHandler.validateColors(colors, filamentType);
+
+        PrintTask task = printTaskHandler.addNewPrintTask(print, colors, filamentType, priority, deadlineMillis);
+        task.markEnqueued(timeSource.nanoTime());
+        for (TaskObserver observer : taskObservers) {
+            observer.taskAdded(task);
+        }
+        checkpointIfDue();
+        return task;
+    }
+
+    /**
+     * Retrieves the queue of pending print tasks.
+     *
+     * @return the {@link PrintTaskQueue}, in priority order
+     */
+    public PrintTaskQueue getPendingPrintTasks() {
         return printTaskHandler.getPendingPrintTasks();
     }
 
+    /**
+     * Changes the order priority of a pending task, which moves it to its new place in the queue.
+     *
+     * @param taskId   the identifier of the task
+     * @param priority the new priority
+     * @return the re-prioritised {@link PrintTask}
+     * @throws IllegalArgumentException if no such task is pending
+     */
+    public PrintTask changeTaskPriority(long taskId, int priority) {
+        PrintTask task = printTaskHandler.getPendingPrintTasks().get(taskId);
+        if (task == null) {
+            throw new IllegalArgumentException("Task " + taskId + " is not pending");
+        }
+        int previousPriority = task.getPriority();
+        printTaskHandler.getPendingPrintTasks().changePriority(task, priority);
+        for (TaskObserver observer : taskObservers) {
+            observer.taskPriorityChanged(task, previousPriority);
+        }
+        checkpointIfDue();
+        return task;
+    }
+
     /**
      * Retrieves a print object by its name.
      *
@@ -138,21 +284,73 @@ public class PrintManager implements Observable, Observer {
      * @return a message indicating the status of the task finalization
      */
     public String finalizeRunningTask(int printerId, boolean isSuccessful) {
-        Printer printer = printerHandler.getRunningPrinterById(printerId);
+        long start = latencyMetrics.start();
+        try {
+            return finalizeRunningTask(printerHandler.getRunningPrinterById(printerId), isSuccessful);
+        } finally {
+            latencyMetrics.stop(Operation.FINALIZE_TASK, start);
+        }
+    }
+
+    /**
+     * Finalizes the running task on the specified printer. Every part of a plate counts as a fulfilled
+     * print, and a failed plate puts its parts back in the queue one by one.
+     *
+     * @param printer      the running {@link Printer}
+     * @param isSuccessful whether the task was successfully completed
+     * @return a message indicating the status of the task finalization
+     */
+    private String finalizeRunningTask(Printer printer, boolean isSuccessful) {
+        PrintTask task = finishTask(printer, isSuccessful);
+        for (TaskObserver observer : taskObservers) {
+            observer.taskFinished(printer, task, isSuccessful);
+        }
+        checkpointIfDue();
+        return "Task " + task.getPrint().getName() + " "
+                + task.getFilamentType() + " removed from printer " + printer.getName();
+    }
+
+    /**
+     * Restores that the running task of a printer finished, e.g. while a journal is replayed. The task
+     * leaves the printer as in {@link #finalizeRunningTask(int, boolean)}, but no task observer is told:
+     * the trackers did not see the task start either, and it finished before they were there.
+     *
+     * @param printerId    the ID of the printer
+     * @param isSuccessful whether the task was successfully completed
+     */
+    public void restoreFinishedTask(int printerId, boolean isSuccessful) {
+        finishTask(printerHandler.getRunningPrinterById(printerId), isSuccessful);
+    }
+
+    /**
+     * Takes the running task off a printer: its filament off the spools and, if it failed, its parts
+     * back in the queue.
+     *
+     * @param printer      the running {@link Printer}
+     * @param isSuccessful whether the task was successfully completed
+     * @return the finished {@link PrintTask}
+     */
+    private PrintTask finishTask(Printer printer, boolean isSuccessful) {
         PrintTask task = removeTaskFromPrinter(printer);
+        List<PrintTask> parts = PlateTask.partsOf(task);
+        long now = timeSource.nanoTime();
+        task.markFinished(now);
         if (!isSuccessful) {
-            printTaskHandler.addNewPrintTask(task);
+            for (PrintTask part : parts) {
+                part.markRequeued(now);
+                printTaskHandler.addNewPrintTask(part);
+            }
         } else {
-            printsFulfilled++;
+            printsFulfilled += parts.size();
             notifyObservers();
         }
         spoolHandler.reduceSpoolLength(printer, task);
-        return "Task " + task.getPrint().getName() + " "
-                + task.getFilamentType() + " removed from printer " + printer.getName();
+        return task;
     }
 
     /**
-     * Removes a task from a printer and updates spool usage.
+     * Removes a task from a printer. The filament the task used is taken off the spools by
+     * {@link SpoolHandler#reduceSpoolLength(Printer, PrintTask)} when the task is finalized.
      *
      * @param printer the {@link Printer} to remove the task from
      * @return the removed {@link PrintTask}
@@ -160,10 +358,6 @@ public class PrintManager implements Observable, Observer {
     public PrintTask removeTaskFromPrinter(Printer printer) {
         PrintTask task = printer.getTask();
         printer.setTask(null);
-        List<Spool> spools = printer.getCurrentSpools();
-        for (int i = 0; i < spools.size() && i < task.getColors().size(); i++) {
-            spools.get(i).reduceLength(task.getPrint().getFilamentLength().get(i));
-        }
         return task;
     }
 
@@ -173,6 +367,7 @@ public class PrintManager implements Observable, Observer {
      * @return a string summarizing the tasks assigned to printers
      */
     public String startPrintQueue() {
+        long start = latencyMetrics.start();
         StringBuilder result = new StringBuilder();
         for (Printer printer : printerHandler.getPrinters()) {
             if (printer.getTask() == null) {
@@ -183,29 +378,65 @@ public class PrintManager implements Observable, Observer {
                 }
             }
         }
+        checkpointIfDue();
+        latencyMetrics.stop(Operation.START_QUEUE, start);
 
         return result.toString();
     }
 
     /**
-     * Sets the printing strategy based on user choice.
+     * Sets the printing strategy based on user choice. Choices outside the registered strategies are ignored.
      *
-     * @param strategyChoice the strategy choice: 1 for Less Spool Changes, 2 for Efficient Spool Usage
+     * @param strategyChoice the strategy choice, numbered from 1 in the order of {@link #getAvailableStrategies()}:
+     *                       1 for Less Spool Changes, 2 for Efficient Spool Usage, 3 for Earliest Deadline First,
+     *                       4 for Color Runs
      */
     public void setPrintingStrategy(int strategyChoice) {
-        switch (strategyChoice) {
-            case 1 -> printTaskHandler.setPrintingStrategy(lessSpoolChanges);
-            case 2 -> printTaskHandler.setPrintingStrategy(efficientSpoolChange);
+        List<String> names = getAvailableStrategies();
+        if (strategyChoice >= 1 && strategyChoice <= names.size()) {
+            setPrintingStrategy(names.get(strategyChoice - 1));
+        }
+    }
+
+    /**
+     * Sets the printing strategy by its registered name.
+     *
+     * @param name the name of the strategy
+     * @throws IllegalArgumentException if no strategy is registered under the name
+     */
+    public void setPrintingStrategy(String name) {
+        PrintingStrategy strategy = strategies.get(name);
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unknown printing strategy: " + name);
+        }
+        printTaskHandler.setPrintingStrategy(strategy);
+    }
+
+    /**
+     * Registers a printing strategy so that it can be chosen by name or number. Strategies that report
+     * spool changes as an {@link Observable} are observed by this manager.
+     *
+     * @param name     the name shown to the user
+     * @param strategy the {@link PrintingStrategy}
+     * @throws IllegalArgumentException if a strategy is already registered under the name
+     */
+    public void registerPrintingStrategy(String name, PrintingStrategy strategy) {
+        if (strategies.containsKey(name)) {
+            throw new IllegalArgumentException("Printing strategy already registered: " + name);
+        }
+        strategies.put(name, strategy);
+        if (strategy instanceof Observable) {
+            ((Observable) strategy).addObserver(this);
         }
     }
 
     /**
      * Retrieves the available printing strategies.
      *
-     * @return a list of strategy names
+     * @return a list of strategy names in the order they were registered
      */
     public List<String> getAvailableStrategies() {
-        return List.of("Less spool changes", "Efficient Spool usage");
+        return List.copyOf(strategies.keySet());
     }
 
     /**
@@ -217,20 +448,66 @@ public class PrintManager implements Observable, Observer {
     public String selectPrintTask(int printerId) {
         try {
             Printer printer = printerHandler.getPrinterById(printerId);
-            return selectPrintTask(printer);
+            String result = selectPrintTask(printer);
+            checkpointIfDue();
+            return result;
         } catch (IllegalArgumentException e) {
             return e.getMessage();
         }
     }
 
     /**
-     * Selects a print task for the specified printer.
+     * Selects a print task for the specified printer. When plate packing is on, the started task shares
+     * the build plate with the queued tasks that fit next to it. When a task is started and the loaded
+     * spools will not last for the next task the printer can print on them, an instruction to prepare the
+     * spool change while the task runs is appended.
      *
      * @param printer the {@link Printer} for which a print task is being selected
      * @return a string describing the selected print task or {@code null} if no task could be selected
      */
     private String selectPrintTask(Printer printer) {
-        return printTaskHandler.selectPrintTask(printer, spoolHandler.getFreeSpools());
+        PrintTask previousTask = printer.getTask();
+        List<Spool> previousSpools = printer.getCurrentSpools();
+        int previousSpoolChangeCount = spoolChangeCount;
+
+        long start = latencyMetrics.start();
+        String result = printTaskHandler.selectPrintTask(printer, spoolHandler.getFreeSpools());
+        latencyMetrics.stop(Operation.SELECT_TASK, start);
+
+        int changes = spoolChangeCount - previousSpoolChangeCount;
+        List<Spool> spools = printer.getCurrentSpools();
+        if (changes > 0 || !spools.equals(previousSpools)) {
+            for (TaskObserver observer : taskObservers) {
+                observer.spoolsChanged(printer, spools, changes);
+            }
+        }
+        PrintTask task = printer.getTask();
+        if (task != null && task != previousTask) {
+            if (platePacker != null) {
+                task = platePacker.pack(printer, task, printTaskHandler.getPendingPrintTasks());
+                if (task instanceof PlateTask) {
+                    printer.setTask(task);
+                    result = result + System.lineSeparator() + "- Plate: Packed "
+                            + (((PlateTask) task).getParts().size() - 1) + " more task(s) next to it on printer "
+                            + printer.getName();
+                }
+            }
+            task.markStarted(timeSource.nanoTime());
+            for (TaskObserver observer : taskObservers) {
+                observer.taskStarted(printer, task);
+            }
+            StagedSpoolChange change = spoolForecaster.checkNextTask(printer,
+                    printTaskHandler.getPendingPrintTasks(), spoolHandler.getFreeSpools());
+            if (change != null) {
+                result = result + System.lineSeparator() + change.instruction();
+            }
+        } else if (task == null) {
+            boolean tasksPending = !printTaskHandler.getPendingPrintTasks().isEmpty();
+            for (TaskObserver observer : taskObservers) {
+                observer.noTaskSelected(printer, tasksPending);
+            }
+        }
+        return result;
     }
 
 
@@ -261,12 +538,197 @@ public class PrintManager implements Observable, Observer {
      * @throws FileNotFoundException if any of the files are not found
      */
     public void readData(String[] args) throws FileNotFoundException {
+        long start = latencyMetrics.start();
         String printsFile = args.length > 0 ? args[0] : "";
         String spoolsFile = args.length > 1 ? args[1] : "";
         String printersFile = args.length > 2 ? args[2] : "";
         prints = dataProvider.readFromFile(printsFile, Print.class, true);
         spoolHandler.setSpools(dataProvider.readFromFile(spoolsFile, Spool.class, true));
         setPrinters(dataProvider.readFromFile(printersFile, Printer.class, true));
+        latencyMetrics.stop(Operation.READ_DATA, start);
+    }
+
+    /**
+     * Opens the journal in the specified directory. The latest snapshot and the journal written
+     * after it are replayed first, so the queue, printer assignments and spools are restored to
+     * the state they had before the application stopped. Afterwards every scheduling step is
+     * journaled. Must be called after {@link #readData(String[])}.
+     *
+     * @param directory the directory containing the journal and snapshots
+     * @throws IOException if the journal cannot be opened or read
+     */
+    public void openJournal(Path directory) throws IOException {
+        openJournal(directory, StateStore.DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Opens the journal in the specified directory with a custom snapshot interval.
+     *
+     * @param directory        the directory containing the journal and snapshots
+     * @param snapshotInterval the number of journal entries after which a snapshot is taken
+     * @throws IOException if the journal cannot be opened or read
+     * @see #openJournal(Path)
+     */
+    public void openJournal(Path directory, long snapshotInterval) throws IOException {
+        StateStore store = new StateStore(directory, this, snapshotInterval);
+        store.open();
+        stateStore = store;
+    }
+
+    /**
+     * Forces every journaled event to disk and closes the journal, if one is open.
+     *
+     * @throws IOException if the journal cannot be closed
+     */
+    public void closeJournal() throws IOException {
+        if (stateStore != null) {
+            stateStore.close();
+        }
+    }
+
+    /**
+     * Opens the run history in the specified directory. From then on every finished task is
+     * stored as a run that can be queried through {@link #getRunHistory()}.
+     *
+     * @param directory the directory containing the run history
+     * @throws IOException if the run history cannot be opened
+     */
+    public void openHistory(Path directory) throws IOException {
+        RunHistory history = new RunHistory(directory);
+        history.open();
+        runHistory = history;
+        addTaskObserver(new RunHistoryRecorder(history, timeSource));
+    }
+
+    /**
+     * Closes the run history, if one is open.
+     *
+     * @throws IOException if the run history cannot be closed
+     */
+    public void closeHistory() throws IOException {
+        if (runHistory != null) {
+            runHistory.close();
+        }
+    }
+
+    /**
+     * Retrieves the history of finished runs.
+     *
+     * @return the {@link RunHistory}, or {@code null} if no history was opened
+     */
+    public RunHistory getRunHistory() {
+        return runHistory;
+    }
+
+    /**
+     * Retrieves the latency recorded for the scheduling operations.
+     *
+     * @return the {@link LatencyMetrics}
+     */
+    public LatencyMetrics getLatencyMetrics() {
+        return latencyMetrics;
+    }
+
+    /**
+     * Retrieves the tracker of the time every printer spends busy, idle, blocked and changing spools.
+     *
+     * @return the {@link UtilizationTracker}
+     */
+    public UtilizationTracker getUtilizationTracker() {
+        return utilizationTracker;
+    }
+
+    /**
+     * Retrieves the tracker of the time tasks wait in the queue before they are started.
+     *
+     * @return the {@link WaitTimeTracker}
+     */
+    public WaitTimeTracker getWaitTimeTracker() {
+        return waitTimeTracker;
+    }
+
+    /**
+     * Projects when the loaded spools run short if the queue runs as it is now, and which spool changes
+     * can be prepared before the printers go idle.
+     *
+     * @return the {@link SpoolForecast}
+     */
+    public SpoolForecast forecastSpools() {
+        return spoolForecaster.forecast(printerHandler.getPrinters(), printTaskHandler.getPendingPrintTasks(),
+                spoolHandler.getFreeSpools());
+    }
+
+    /**
+     * Turns packing several queued tasks onto the build plate of a started task on or off. Only tasks of
+     * the same filament type and colors are packed together, and the plate is started and finished as one.
+     *
+     * @param enabled {@code true} to pack plates from now on
+     */
+    public void setPlatePacking(boolean enabled) {
+        platePacker = enabled ? new PlatePacker(timeSource) : null;
+    }
+
+    /**
+     * Checks whether started tasks share their build plate with other queued tasks.
+     *
+     * @return {@code true} if plate packing is on
+     */
+    public boolean isPlatePacking() {
+        return platePacker != null;
+    }
+
+    /**
+     * Retrieves the source of the time used to timestamp scheduling events.
+     *
+     * @return the {@link TimeSource}
+     */
+    public TimeSource getTimeSource() {
+        return timeSource;
+    }
+
+    /**
+     * Sets the source of the time used to timestamp scheduling events, to measure the slack of
+     * deadlines and to forecast spool use, e.g. a simulated clock. Restarts the utilization tracking, and must be called before
+     * the run history is opened.
+     *
+     * @param timeSource the {@link TimeSource} to use
+     */
+    public void setTimeSource(TimeSource timeSource) {
+        this.timeSource = timeSource;
+        earliestDeadlineFirst.setTimeSource(timeSource);
+        spoolForecaster.setTimeSource(timeSource);
+        if (platePacker != null) {
+            platePacker.setTimeSource(timeSource);
+        }
+        setUtilizationTracker(new UtilizationTracker(timeSource));
+    }
+
+    /**
+     * Replaces the utilization tracker, e.g. with one using a different spool change estimate.
+     *
+     * @param utilizationTracker the {@link UtilizationTracker} to use from now on
+     */
+    public void setUtilizationTracker(UtilizationTracker utilizationTracker) {
+        removeTaskObserver(this.utilizationTracker);
+        this.utilizationTracker = utilizationTracker;
+        addTaskObserver(utilizationTracker);
+    }
+
+    /**
+     * Takes a snapshot of the state if the journal has grown enough since the last one.
+     * Called at the end of every scheduling operation, when the state is consistent.
+     *
+     * @throws UncheckedIOException if the next journal segment cannot be created
+     */
+    private void checkpointIfDue() {
+        if (stateStore == null) {
+            return;
+        }
+        try {
+            stateStore.checkpointIfDue();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
@@ -298,21 +760,39 @@ public class PrintManager implements Observable, Observer {
         observers.remove(observer);
     }
 
+    /**
+     * Adds an observer to be notified of every individual scheduling step.
+     *
+     * @param observer the {@link TaskObserver} to add
+     */
+    public void addTaskObserver(TaskObserver observer) {
+        taskObservers.add(observer);
+    }
+
+    /**
+     * Removes an observer of the individual scheduling steps.
+     *
+     * @param observer the {@link TaskObserver} to remove
+     */
+    public void removeTaskObserver(TaskObserver observer) {
+        taskObservers.remove(observer);
+    }
+
     /**
      * Notifies all observers about the current print-related events, such as spool changes
      * or completed prints.
      */
     @Override
     public void notifyObservers() {
-        PrintEvent event = new PrintEvent(spoolChangeCount, printsFulfilled);
+        PrintEvent event = new PrintEvent(spoolChangeCount, printsFulfilled, preventedStartCount);
         for (Observer observer : observers) {
             observer.update(event);
         }
     }
 
     /**
-     * Updates the manager with a new print event. The event contains the number of spool changes
-     * and completed prints to update the internal state of the manager.
+     * Updates the manager with a new print event. The event contains the number of spool changes,
+     * completed prints and prevented starts to update the internal state of the manager.
      *
      * @param event the {@link PrintEvent} containing spool change and print fulfillment information
      */
@@ -320,5 +800,6 @@ public class PrintManager implements Observable, Observer {
     public void update(PrintEvent event) {
         spoolChangeCount += event.getSpoolChangeCount();
         printsFulfilled += event.getPrintsFulfilled();
+        preventedStartCount += event.getPreventedStarts();
     }
 }
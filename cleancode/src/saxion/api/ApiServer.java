@@ -0,0 +1,595 @@
+package saxion.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import saxion.facade.Facade;
+import saxion.facade.ListingFilter;
+import saxion.facade.Page;
+import saxion.models.PrintTask;
+import saxion.types.FilamentType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Serves a JSON API in front of the {@link Facade} on the JDK's built-in HTTP server, so the farm can
+ * be operated by several clients and by scripts next to the console menu. Requests are handled on a
+ * pool of background threads; the facade serializes their access to the printing system.
+ * <p>
+ * Routes:
+ * <ul>
+ *     <li>{@code GET /api/prints}, {@code /api/printers}, {@code /api/spools} and {@code /api/tasks} list
+ *     the state of the farm a page at a time, as {@code {"items": [...], "nextCursor": ...}}. The query
+ *     takes {@code cursor} and {@code limit} (default {@value #DEFAULT_LIMIT}) and the filters
+ *     {@code filamentType}, {@code color}, {@code type} (of printers), {@code minSize} and {@code maxSize};</li>
+ *     <li>{@code GET /api/spools/forecast} projects when the loaded spools run short and lists the spool
+ *     changes to prepare;</li>
+ *     <li>{@code GET /api/strategies} lists the printing strategies;</li>
+ *     <li>{@code POST /api/tasks} with {@code {"print": ..., "filamentType": "PLA", "colors": [...]}} and
+ *     an optional {@code "priority"} and {@code "deadline"} (milliseconds since the epoch) queues a task;
+ *     {@code PUT /api/tasks/<id>/priority} with
+ *     {@code {"priority": ...}} moves a pending task;</li>
+ *     <li>{@code POST /api/printers/<id>/complete} and {@code /api/printers/<id>/fail} finish the running
+ *     task of a printer and return the printer with its next task;</li>
+ *     <li>{@code POST /api/queue/start} offers the queue to every free printer;</li>
+ *     <li>{@code PUT /api/strategy} with {@code {"name": ...}} switches the printing strategy;</li>
+ *     <li>{@code GET /api/events} streams the changes of the farm as server-sent events, see
+ *     {@link EventStream}. Every stream is written by its own thread, so it does not hold up the
+ *     other requests.</li>
+ * </ul>
+ * Invalid requests are answered with status 400 and conflicts with the state of the farm with 409, both
+ * with an {@code {"error": ...}} body.
+ */
+public class ApiServer implements Closeable {
+
+    /** The content type of every response. */
+    private static final String CONTENT_TYPE = "application/json; charset=utf-8";
+
+    /** The number of connections waiting to be accepted. */
+    private static final int BACKLOG = 1024;
+
+    /** The number of items on a page if the query does not give a limit. */
+    private static final int DEFAULT_LIMIT = 100;
+
+    /** The parameters a listing query may have. */
+    private static final Set<String> LISTING_PARAMETERS =
+            Set.of("cursor", "limit", "filamentType", "color", "type", "minSize", "maxSize");
+
+    /** The prefix of every route. */
+    private static final String PREFIX = "/api/";
+
+    /** The route of the event stream. */
+    private static final String EVENTS = PREFIX + "events";
+
+    /** The time after which an idle event stream gets a comment, so proxies keep the connection open. */
+    private static final long HEARTBEAT_MILLIS = 15_000;
+
+    /**
+     * Disables Nagle's algorithm on the connections of the built-in server, unless configured otherwise.
+     * Otherwise every response on a kept-alive connection waits for the client's delayed acknowledgement,
+     * about 40 milliseconds. The server reads the setting once, when the first server is created.
+     */
+    static {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /** The HTTP server. */
+    private final HttpServer server;
+
+    /** The threads handling the requests. */
+    private final ExecutorService executor;
+
+    /** The threads writing the event streams, one per client. */
+    private final ExecutorService streams;
+
+    /** The facade operating the farm. */
+    private final Facade facade;
+
+    /** The events of the farm for the streaming clients. */
+    private final EventStream events = new EventStream();
+
+    /**
+     * A response to a request.
+     *
+     * @param status the HTTP status code
+     * @param body   the value encoded as the JSON body, or {@code null} for an empty body
+     */
+    private record Response(int status, Object body) {
+    }
+
+    /**
+     * A paged listing of the facade.
+     */
+    @FunctionalInterface
+    private interface Listing {
+
+        /**
+         * Gets a page of the listing.
+         *
+         * @param filter the {@link ListingFilter}
+         * @param cursor the cursor of the previous page, or {@code null} for the first page
+         * @param limit  the largest number of items on the page
+         * @return the {@link Page}
+         */
+        Page<?> page(ListingFilter filter, String cursor, int limit);
+    }
+
+    /**
+     * Starts a new {@code ApiServer} on the specified port with a thread per processor.
+     *
+     * @param port   the port to listen on
+     * @param facade the {@link Facade} operating the farm
+     * @throws IOException if the server cannot be started
+     */
+    public ApiServer(int port, Facade facade) throws IOException {
+        this.facade = facade;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "api-server-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger streamCount = new AtomicInteger();
+        this.streams = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "api-events-" + streamCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        facade.addTaskObserver(events);
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.createContext(PREFIX, this::handle);
+        server.createContext(EVENTS, this::subscribe);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Answers a request, turning rejected operations into error responses.
+     *
+     * @param exchange the HTTP exchange
+     * @throws IOException if the request cannot be read or the response cannot be written
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Response response;
+            try {
+                response = route(exchange);
+            } catch (IllegalArgumentException e) {
+                response = error(400, e.getMessage());
+            } catch (IllegalStateException e) {
+                response = error(409, e.getMessage());
+            }
+            send(exchange, response);
+        }
+    }
+
+    /**
+     * Starts the event stream of a client and hands it to a thread of its own.
+     *
+     * @param exchange the HTTP exchange
+     * @throws IOException if the response cannot be written
+     */
+    private void subscribe(HttpExchange exchange) throws IOException {
+        Response rejection = null;
+        if (!EVENTS.equals(exchange.getRequestURI().getPath())) {
+            rejection = error(404, "No such resource: " + exchange.getRequestURI().getPath());
+        } else if (!"GET".equals(exchange.getRequestMethod())) {
+            rejection = error(405, "Use GET");
+        }
+        EventStream.Subscriber subscriber = null;
+        if (rejection == null) {
+            try {
+                subscriber = events.subscribe();
+            } catch (IllegalStateException e) {
+                rejection = error(503, e.getMessage());
+            }
+        }
+        if (rejection != null) {
+            try (exchange) {
+                send(exchange, rejection);
+            }
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        EventStream.Subscriber stream = subscriber;
+        streams.execute(() -> write(exchange, stream));
+    }
+
+    /**
+     * Writes the events of a client until it disconnects or the server stops. Every write takes all
+     * events that arrived since the previous one.
+     *
+     * @param exchange   the HTTP exchange
+     * @param subscriber the {@link EventStream.Subscriber} of the client
+     */
+    private void write(HttpExchange exchange, EventStream.Subscriber subscriber) {
+        try (exchange; OutputStream out = exchange.getResponseBody()) {
+            out.write(": connected\n\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            String frames;
+            while ((frames = subscriber.take(HEARTBEAT_MILLIS)) != null) {
+                out.write((frames.isEmpty() ? ": heartbeat\n\n" : frames).getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The client disconnected.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            events.unsubscribe(subscriber);
+        }
+    }
+
+    /**
+     * Finds and runs the operation of a request.
+     *
+     * @param exchange the HTTP exchange
+     * @return the {@link Response}
+     * @throws IOException              if the request body cannot be read
+     * @throws IllegalArgumentException if the request is invalid
+     * @throws IllegalStateException    if the operation conflicts with the state of the farm
+     */
+    private Response route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().substring(PREFIX.length()).split("/");
+        switch (path[0]) {
+            case "prints" -> {
+                if (path.length == 1) {
+                    return list(method, exchange, facade::getPrints);
+                }
+            }
+            case "spools" -> {
+                if (path.length == 1) {
+                    return list(method, exchange, facade::getSpools);
+                }
+                if (path.length == 2 && "forecast".equals(path[1])) {
+                    return get(method, facade::getSpoolForecast);
+                }
+            }
+            case "strategies" -> {
+                if (path.length == 1) {
+                    return get(method, facade::getStrategyNames);
+                }
+            }
+            case "tasks" -> {
+                if (path.length == 1 && "POST".equals(method)) {
+                    return new Response(201, addTask(readBody(exchange)));
+                }
+                if (path.length == 1) {
+                    return list(method, exchange, facade::getPendingPrintTasks);
+                }
+                if (path.length == 3 && "priority".equals(path[2])) {
+                    if (!"PUT".equals(method)) {
+                        return error(405, "Use PUT");
+                    }
+                    return new Response(200, facade.changeTaskPriority(parseTaskId(path[1]),
+                            requireInteger(readBody(exchange), "priority")));
+                }
+            }
+            case "printers" -> {
+                if (path.length == 1) {
+                    return list(method, exchange, facade::getPrinters);
+                }
+                if (path.length == 3 && ("complete".equals(path[2]) || "fail".equals(path[2]))) {
+                    if (!"POST".equals(method)) {
+                        return error(405, "Use POST");
+                    }
+                    return new Response(200, facade.finishPrintTask(parseId(path[1]), "complete".equals(path[2])));
+                }
+            }
+            case "queue" -> {
+                if (path.length == 2 && "start".equals(path[1])) {
+                    if (!"POST".equals(method)) {
+                        return error(405, "Use POST");
+                    }
+                    return new Response(200, Map.of("result", facade.startPrintQueue()));
+                }
+            }
+            case "strategy" -> {
+                if (path.length == 1) {
+                    if (!"PUT".equals(method)) {
+                        return error(405, "Use PUT");
+                    }
+                    facade.changePrintStrategy(requireString(readBody(exchange), "name"));
+                    return new Response(204, null);
+                }
+            }
+            default -> {
+            }
+        }
+        return error(404, "No such resource: " + exchange.getRequestURI().getPath());
+    }
+
+    /**
+     * Answers a paged listing, which only supports GET.
+     *
+     * @param method   the request method
+     * @param exchange the HTTP exchange
+     * @param listing  the {@link Listing}
+     * @return the {@link Response}
+     * @throws IllegalArgumentException if the query is invalid
+     */
+    private static Response list(String method, HttpExchange exchange, Listing listing) {
+        if (!"GET".equals(method)) {
+            return error(405, "Use GET");
+        }
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        for (String name : query.keySet()) {
+            if (!LISTING_PARAMETERS.contains(name)) {
+                throw new IllegalArgumentException("Unknown query parameter: " + name);
+            }
+        }
+        String filamentType = query.get("filamentType");
+        ListingFilter filter = new ListingFilter(
+                filamentType == null ? null : parseFilamentType(filamentType),
+                query.get("color"),
+                query.get("type"),
+                parseInteger(query, "minSize"),
+                parseInteger(query, "maxSize")
+        );
+        Integer limit = parseInteger(query, "limit");
+        return new Response(200, listing.page(filter, query.get("cursor"), limit == null ? DEFAULT_LIMIT : limit));
+    }
+
+    /**
+     * Answers a listing, which only supports GET.
+     *
+     * @param method  the request method
+     * @param listing the listing of the facade
+     * @return the {@link Response}
+     */
+    private static Response get(String method, Supplier<?> listing) {
+        if (!"GET".equals(method)) {
+            return error(405, "Use GET");
+        }
+        return new Response(200, listing.get());
+    }
+
+    /**
+     * Queues the task described by a request body.
+     *
+     * @param body the request body
+     * @return the queued task
+     * @throws IllegalArgumentException if the body does not describe a valid task
+     */
+    private Object addTask(JSONObject body) {
+        String print = requireString(body, "print");
+        FilamentType filamentType = parseFilamentType(requireString(body, "filamentType"));
+        if (!(body.get("colors") instanceof List<?>)) {
+            throw new IllegalArgumentException("Missing array: colors");
+        }
+        List<String> colors = new ArrayList<>();
+        for (Object color : (List<?>) body.get("colors")) {
+            colors.add(String.valueOf(color));
+        }
+        return facade.addPrintTask(print, filamentType, colors,
+                body.get("priority") == null ? PrintTask.DEFAULT_PRIORITY : requireInteger(body, "priority"),
+                body.get("deadline") == null ? PrintTask.NO_DEADLINE : requireLong(body, "deadline"));
+    }
+
+    /**
+     * Parses a filament type, ignoring case.
+     *
+     * @param name the name of the filament type
+     * @return the {@link FilamentType}
+     * @throws IllegalArgumentException if there is no such filament type
+     */
+    private static FilamentType parseFilamentType(String name) {
+        try {
+            return FilamentType.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown filament type: " + name);
+        }
+    }
+
+    /**
+     * Splits a query string into its decoded parameters.
+     *
+     * @param rawQuery the encoded query, or {@code null} if there is none
+     * @return the parameters by name
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            String name = separator < 0 ? parameter : parameter.substring(0, separator);
+            String value = separator < 0 ? "" : parameter.substring(separator + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    /**
+     * Gets a whole-number query parameter.
+     *
+     * @param query the parameters
+     * @param name  the name of the parameter
+     * @return the value, or {@code null} if the parameter is missing
+     * @throws IllegalArgumentException if the value is not a whole number
+     */
+    private static Integer parseInteger(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a whole number: " + value);
+        }
+    }
+
+    /**
+     * Reads a request body as a JSON object.
+     *
+     * @param exchange the HTTP exchange
+     * @return the parsed object
+     * @throws IOException              if the body cannot be read
+     * @throws IllegalArgumentException if the body is not a JSON object
+     */
+    private static JSONObject readBody(HttpExchange exchange) throws IOException {
+        String text = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        try {
+            Object body = new JSONParser().parse(text);
+            if (!(body instanceof JSONObject)) {
+                throw new IllegalArgumentException("The body must be a JSON object");
+            }
+            return (JSONObject) body;
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Malformed JSON at position " + e.getPosition());
+        }
+    }
+
+    /**
+     * Gets a string member of a request body.
+     *
+     * @param body the request body
+     * @param name the name of the member
+     * @return the value
+     * @throws IllegalArgumentException if the member is missing or not a string
+     */
+    private static String requireString(JSONObject body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Missing string: " + name);
+        }
+        return (String) value;
+    }
+
+    /**
+     * Gets a whole-number member of a request body.
+     *
+     * @param body the request body
+     * @param name the name of the member
+     * @return the value
+     * @throws IllegalArgumentException if the member is missing or not a whole number in the range of an int
+     */
+    private static int requireInteger(JSONObject body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof Long) || (Long) value != ((Long) value).intValue()) {
+            throw new IllegalArgumentException("Missing whole number: " + name);
+        }
+        return ((Long) value).intValue();
+    }
+
+    /**
+     * Gets a whole-number member of a request body that may exceed the range of an int, such as a time.
+     *
+     * @param body the request body
+     * @param name the name of the member
+     * @return the value
+     * @throws IllegalArgumentException if the member is missing or not a whole number
+     */
+    private static long requireLong(JSONObject body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof Long)) {
+            throw new IllegalArgumentException("Missing whole number: " + name);
+        }
+        return (Long) value;
+    }
+
+    /**
+     * Parses a task ID of a path.
+     *
+     * @param id the path segment
+     * @return the ID
+     * @throws IllegalArgumentException if the segment is not a number
+     */
+    private static long parseTaskId(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid task ID: " + id);
+        }
+    }
+
+    /**
+     * Parses a printer ID of a path.
+     *
+     * @param id the path segment
+     * @return the ID
+     * @throws IllegalArgumentException if the segment is not a number
+     */
+    private static int parseId(String id) {
+        try {
+            return Integer.parseInt(id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid printer ID: " + id);
+        }
+    }
+
+    /**
+     * Creates an error response.
+     *
+     * @param status  the HTTP status code
+     * @param message the error message
+     * @return the {@link Response}
+     */
+    private static Response error(int status, String message) {
+        return new Response(status, Map.of("error", String.valueOf(message)));
+    }
+
+    /**
+     * Writes a response.
+     *
+     * @param exchange the HTTP exchange
+     * @param response the {@link Response}
+     * @throws IOException if the response cannot be written
+     */
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        if (response.body() == null) {
+            exchange.sendResponseHeaders(response.status(), -1);
+            return;
+        }
+        byte[] body = JsonEncoder.encode(response.body()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(response.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        facade.removeTaskObserver(events);
+        events.close();
+        server.stop(0);
+        executor.shutdown();
+        streams.shutdown();
+    }
+}
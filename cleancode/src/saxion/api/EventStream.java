@@ -0,0 +1,309 @@
+package saxion.api;
+
+import saxion.facade.PrintTaskDTO;
+import saxion.facade.SpoolDTO;
+import saxion.models.PlateTask;
+import saxion.models.PrintTask;
+import saxion.models.Spool;
+import saxion.observer.TaskObserver;
+import saxion.printers.Printer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@link TaskObserver} that turns the scheduling steps of the farm into server-sent events for the
+ * subscribed clients. Every event is encoded once, on the scheduling thread, and only if someone is
+ * subscribed.
+ * <p>
+ * Every subscriber has its own buffer of events that were not written yet. The buffer keeps only the
+ * latest event per task and per printer's spools: every event carries the full state of what it is
+ * about, so a slow client skips the steps in between instead of falling behind. The one exception is
+ * the number of spool changes, which counts the changes of one step, so a spools event that replaces
+ * an unwritten one carries the changes of both and is encoded again for that client. If the buffer still
+ * grows past {@value #MAX_PENDING} events, it is dropped and the client is told to {@code resync},
+ * that is, to fetch the listings again.
+ * <p>
+ * Events:
+ * <ul>
+ *     <li>{@code queued}, {@code priority}, {@code started}, {@code completed} and {@code failed} with the
+ *     {@code task} and, once started, the ID of the {@code printer}. A failed task is back in the queue;</li>
+ *     <li>{@code spools} with the {@code printer}, the spools to load in slot order and the number of
+ *     {@code changes} the operator has to make.</li>
+ * </ul>
+ */
+public final class EventStream implements TaskObserver {
+
+    /** The largest number of unwritten events of a subscriber. */
+    public static final int MAX_PENDING = 1024;
+
+    /** The largest number of subscribers at a time. */
+    public static final int MAX_SUBSCRIBERS = 64;
+
+    /** The subscribed clients. */
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /** The ID of the latest event; only used on the scheduling thread. */
+    private long lastId;
+
+    /**
+     * The data of a task event.
+     *
+     * @param task    the task
+     * @param printer the ID of the printer, or {@code null} if the task is pending
+     */
+    private record TaskEvent(PrintTaskDTO task, Integer printer) {
+    }
+
+    /**
+     * The data of a spool event.
+     *
+     * @param printer the ID of the printer
+     * @param spools  the spools to load, in slot order
+     * @param changes the number of spool changes
+     */
+    private record SpoolEvent(int printer, List<SpoolDTO> spools, int changes) {
+    }
+
+    /**
+     * An encoded event.
+     *
+     * @param id   the ID of the event
+     * @param type the type of the event
+     * @param data the data of the event
+     * @param text the frame to write
+     */
+    private record Frame(long id, String type, Record data, String text) {
+
+        /**
+         * Encodes an event.
+         *
+         * @param id   the ID of the event
+         * @param type the type of the event
+         * @param data the data of the event
+         * @return the {@link Frame}
+         */
+        private static Frame of(long id, String type, Record data) {
+            StringBuilder frame = new StringBuilder(128);
+            frame.append("id: ").append(id).append("\nevent: ").append(type).append("\ndata: ");
+            JsonEncoder.append(frame, data);
+            return new Frame(id, type, data, frame.append("\n\n").toString());
+        }
+
+        /**
+         * Gets the frame that replaces this unwritten frame and a later one about the same task or printer:
+         * the later frame, carrying the spool changes of both if they are spools events.
+         *
+         * @param later the later {@link Frame}
+         * @return the frame to write instead of both
+         */
+        private Frame mergedWith(Frame later) {
+            if (!(data instanceof SpoolEvent) || !(later.data instanceof SpoolEvent)) {
+                return later;
+            }
+            SpoolEvent spools = (SpoolEvent) later.data;
+            return of(later.id, later.type, new SpoolEvent(spools.printer(), spools.spools(),
+                    ((SpoolEvent) data).changes() + spools.changes()));
+        }
+    }
+
+    /**
+     * The buffer of a subscribed client, filled on the scheduling thread and drained by the thread
+     * writing to the client.
+     */
+    public static final class Subscriber {
+
+        /** The unwritten frames by the task or printer they are about, oldest first. */
+        private final Map<String, Frame> pending = new LinkedHashMap<>();
+
+        /** Whether events were dropped since the last write. */
+        private boolean overflowed;
+
+        /** Whether the stream has ended. */
+        private boolean closed;
+
+        /**
+         * Adds a frame, replacing the unwritten frame about the same task or printer.
+         *
+         * @param key   the task or printer the frame is about
+         * @param frame the {@link Frame}
+         */
+        private synchronized void offer(String key, Frame frame) {
+            if (closed || overflowed) {
+                return;
+            }
+            Frame previous = pending.remove(key);
+            pending.put(key, previous == null ? frame : previous.mergedWith(frame));
+            if (pending.size() > MAX_PENDING) {
+                pending.clear();
+                overflowed = true;
+            }
+            notifyAll();
+        }
+
+        /**
+         * Waits for frames and takes all of them.
+         *
+         * @param timeoutMillis the longest time to wait
+         * @return the frames, an empty string if none arrived in time, or {@code null} if the stream has ended
+         * @throws InterruptedException if the thread is interrupted while waiting
+         */
+        public synchronized String take(long timeoutMillis) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            long remaining = timeoutMillis;
+            while (!closed && !overflowed && pending.isEmpty() && remaining > 0) {
+                wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            if (closed) {
+                return null;
+            }
+            StringBuilder frames = new StringBuilder();
+            if (overflowed) {
+                frames.append("event: resync\ndata: {}\n\n");
+                overflowed = false;
+            }
+            for (Frame frame : pending.values()) {
+                frames.append(frame.text());
+            }
+            pending.clear();
+            return frames.toString();
+        }
+
+        /**
+         * Ends the stream and wakes up the writing thread.
+         */
+        public synchronized void close() {
+            closed = true;
+            pending.clear();
+            notifyAll();
+        }
+    }
+
+    /**
+     * Subscribes a new client.
+     *
+     * @return the {@link Subscriber}
+     * @throws IllegalStateException if {@value #MAX_SUBSCRIBERS} clients are subscribed already
+     */
+    public synchronized Subscriber subscribe() {
+        if (subscribers.size() >= MAX_SUBSCRIBERS) {
+            throw new IllegalStateException("Too many event subscribers");
+        }
+        Subscriber subscriber = new Subscriber();
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Unsubscribes a client and ends its stream.
+     *
+     * @param subscriber the {@link Subscriber}
+     */
+    public synchronized void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.close();
+    }
+
+    /**
+     * Ends the streams of all clients.
+     */
+    public synchronized void close() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * Publishes that a task was queued.
+     *
+     * @param task the {@link PrintTask} that was queued
+     */
+    @Override
+    public void taskAdded(PrintTask task) {
+        if (!subscribers.isEmpty()) {
+            publish("task:" + task.getId(), "queued", new TaskEvent(task.toDTO(), null));
+        }
+    }
+
+    /**
+     * Publishes that the priority of a pending task changed.
+     *
+     * @param task             the {@link PrintTask} with its new priority
+     * @param previousPriority the priority it had before
+     */
+    @Override
+    public void taskPriorityChanged(PrintTask task, int previousPriority) {
+        if (!subscribers.isEmpty()) {
+            publish("task:" + task.getId(), "priority", new TaskEvent(task.toDTO(), null));
+        }
+    }
+
+    /**
+     * Publishes that a task, or every part of a plate, was started.
+     *
+     * @param printer the {@link Printer} that started the task
+     * @param task    the {@link PrintTask} that was started
+     */
+    @Override
+    public void taskStarted(Printer printer, PrintTask task) {
+        if (!subscribers.isEmpty()) {
+            for (PrintTask part : PlateTask.partsOf(task)) {
+                publish("task:" + part.getId(), "started", new TaskEvent(part.toDTO(), printer.getId()));
+            }
+        }
+    }
+
+    /**
+     * Publishes the spools a printer needs.
+     *
+     * @param printer the {@link Printer} whose spools were changed
+     * @param spools  the spools loaded in the printer, in slot order
+     * @param changes the number of spool changes the operator has to perform
+     */
+    @Override
+    public void spoolsChanged(Printer printer, List<Spool> spools, int changes) {
+        if (!subscribers.isEmpty()) {
+            List<SpoolDTO> loaded = new ArrayList<>(spools.size());
+            for (Spool spool : spools) {
+                loaded.add(spool == null ? null : spool.toDTO());
+            }
+            publish("spools:" + printer.getId(), "spools", new SpoolEvent(printer.getId(), loaded, changes));
+        }
+    }
+
+    /**
+     * Publishes that a task, or every part of a plate, was completed or failed.
+     *
+     * @param printer    the {@link Printer} the task was running on
+     * @param task       the finished {@link PrintTask}
+     * @param successful {@code true} if the print was fulfilled; {@code false} if it failed and was re-queued
+     */
+    @Override
+    public void taskFinished(Printer printer, PrintTask task, boolean successful) {
+        if (!subscribers.isEmpty()) {
+            for (PrintTask part : PlateTask.partsOf(task)) {
+                publish("task:" + part.getId(), successful ? "completed" : "failed",
+                        new TaskEvent(part.toDTO(), printer.getId()));
+            }
+        }
+    }
+
+    /**
+     * Encodes an event and hands it to every subscriber.
+     *
+     * @param key  the task or printer the event is about
+     * @param type the type of the event
+     * @param data the data of the event
+     */
+    private void publish(String key, String type, Record data) {
+        Frame frame = Frame.of(++lastId, type, data);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(key, frame);
+        }
+    }
+}
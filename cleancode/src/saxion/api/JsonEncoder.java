@@ -0,0 +1,194 @@
+package saxion.api;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes the DTO records of the facade and plain values as JSON. A record becomes an object with
+ * a member per component; its accessors are looked up once per record class. Enums are written as
+ * their names and collections, arrays of objects and iterators as arrays.
+ */
+final class JsonEncoder {
+
+    /** The component names and accessors per record class. */
+    private static final Map<Class<?>, Accessors> ACCESSORS = new ConcurrentHashMap<>();
+
+    /**
+     * The components of a record class.
+     *
+     * @param names   the component names, already quoted and followed by a colon
+     * @param methods the accessor methods, in the same order
+     */
+    private record Accessors(String[] names, Method[] methods) {
+    }
+
+    /**
+     * Prevents instantiation.
+     */
+    private JsonEncoder() {
+    }
+
+    /**
+     * Encodes a value as JSON.
+     *
+     * @param value the value
+     * @return the JSON text
+     * @throws IllegalStateException if a record component cannot be read
+     */
+    static String encode(Object value) {
+        StringBuilder json = new StringBuilder(256);
+        append(json, value);
+        return json.toString();
+    }
+
+    /**
+     * Appends the JSON encoding of a value.
+     *
+     * @param json  the text to append to
+     * @param value the value
+     * @throws IllegalStateException if a record component cannot be read
+     */
+    static void append(StringBuilder json, Object value) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof Number) {
+            appendNumber(json, (Number) value);
+        } else if (value instanceof Boolean) {
+            json.append(value);
+        } else if (value instanceof Enum<?>) {
+            appendString(json, ((Enum<?>) value).name());
+        } else if (value instanceof Record) {
+            appendRecord(json, (Record) value);
+        } else if (value instanceof Map<?, ?>) {
+            json.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                appendString(json, String.valueOf(entry.getKey()));
+                json.append(':');
+                append(json, entry.getValue());
+            }
+            json.append('}');
+        } else if (value instanceof Iterable<?>) {
+            appendArray(json, ((Iterable<?>) value).iterator());
+        } else if (value instanceof Iterator<?>) {
+            appendArray(json, (Iterator<?>) value);
+        } else if (value instanceof Object[]) {
+            appendArray(json, Arrays.asList((Object[]) value).iterator());
+        } else {
+            appendString(json, value.toString());
+        }
+    }
+
+    /**
+     * Appends a record as an object.
+     *
+     * @param json   the text to append to
+     * @param record the record
+     * @throws IllegalStateException if a component cannot be read
+     */
+    private static void appendRecord(StringBuilder json, Record record) {
+        Accessors accessors = ACCESSORS.computeIfAbsent(record.getClass(), JsonEncoder::accessors);
+        json.append('{');
+        for (int i = 0; i < accessors.methods().length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(accessors.names()[i]);
+            try {
+                append(json, accessors.methods()[i].invoke(record));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot read " + accessors.names()[i] + " of " + record.getClass(), e);
+            }
+        }
+        json.append('}');
+    }
+
+    /**
+     * Looks up the components of a record class.
+     *
+     * @param type the record class
+     * @return the {@link Accessors}
+     */
+    private static Accessors accessors(Class<?> type) {
+        RecordComponent[] components = type.getRecordComponents();
+        String[] names = new String[components.length];
+        Method[] methods = new Method[components.length];
+        for (int i = 0; i < components.length; i++) {
+            StringBuilder name = new StringBuilder();
+            appendString(name, components[i].getName());
+            names[i] = name.append(':').toString();
+            methods[i] = components[i].getAccessor();
+            methods[i].setAccessible(true);
+        }
+        return new Accessors(names, methods);
+    }
+
+    /**
+     * Appends the elements of an iterator as an array.
+     *
+     * @param json     the text to append to
+     * @param elements the elements
+     */
+    private static void appendArray(StringBuilder json, Iterator<?> elements) {
+        json.append('[');
+        boolean first = true;
+        while (elements.hasNext()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            append(json, elements.next());
+        }
+        json.append(']');
+    }
+
+    /**
+     * Appends a number; values that JSON cannot represent become {@code null}.
+     *
+     * @param json   the text to append to
+     * @param number the number
+     */
+    private static void appendNumber(StringBuilder json, Number number) {
+        if ((number instanceof Double || number instanceof Float) && !Double.isFinite(number.doubleValue())) {
+            json.append("null");
+        } else {
+            json.append(number);
+        }
+    }
+
+    /**
+     * Appends a quoted and escaped string.
+     *
+     * @param json  the text to append to
+     * @param value the string
+     */
+    static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -6,7 +6,9 @@ import saxion.dataprovider.reader.Mapper;
 import saxion.dataprovider.reader.SourceAdapter;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -17,6 +19,7 @@ import saxion.models.Print;
 import saxion.models.Spool;
 import saxion.printers.Printer;
 import saxion.printers.PrinterFactory;
+import saxion.simulation.TaskArrival;
 
 /**
  * A class responsible for providing data from various sources (e.g., JSON, CSV)
@@ -55,6 +58,7 @@ public class DataProvider {
         typeMappers.put(Printer.class, PrinterFactory::fromMap);
         typeMappers.put(Print.class, Print::fromMap);
         typeMappers.put(Spool.class, Spool::fromMap);
+        typeMappers.put(TaskArrival.class, TaskArrival::fromMap);
     }
 
     /**
@@ -81,12 +85,18 @@ public class DataProvider {
      * @param type     the class of the target type
      * @return a {@link List} of objects of the specified type
      * @throws FileNotFoundException if the file cannot be found
+     * @throws UncheckedIOException  if the file cannot be closed
      */
     public <T> List<T> readJson(String filename, Class<T> type) throws FileNotFoundException {
-        Reader reader = FileProvider.getReaderFromResource(filename);
-        sourceAdapter = new JsonAdapter(reader);
-        Function<HashMap<String, Object>, T> mapper = getMapper(type);
-        return this.loadData(m -> m.readAll(mapper, true));
+        try (Reader reader = FileProvider.getReaderFromResource(filename)) {
+            sourceAdapter = new JsonAdapter(reader);
+            Function<HashMap<String, Object>, T> mapper = getMapper(type);
+            return this.loadData(m -> m.readAll(mapper, true));
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
@@ -98,12 +108,18 @@ public class DataProvider {
      * @param header   whether the first row contains column headers
      * @return a {@link List} of objects of the specified type
      * @throws FileNotFoundException if the file cannot be found
+     * @throws UncheckedIOException  if the file cannot be closed
      */
     public <T> List<T> readCSV(String filename, Class<T> type, boolean header) throws FileNotFoundException {
-        Reader reader = FileProvider.getReaderFromResource(filename);
-        sourceAdapter = new CsvAdapter(reader);
-        Function<HashMap<String, Object>, T> mapper = getMapper(type);
-        return this.loadData(m -> m.readAll(mapper, header));
+        try (Reader reader = FileProvider.getReaderFromResource(filename)) {
+            sourceAdapter = new CsvAdapter(reader);
+            Function<HashMap<String, Object>, T> mapper = getMapper(type);
+            return this.loadData(m -> m.readAll(mapper, header));
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
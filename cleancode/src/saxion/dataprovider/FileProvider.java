@@ -6,18 +6,22 @@ import java.io.Reader;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
- * Utility class for providing file readers from resources.
+ * Utility class for providing file readers from resources, or from the file system if there is no
+ * resource with the given name.
  */
 public class FileProvider {
 
     /**
-     * Retrieves a {@link Reader} for the specified resource file.
+     * Retrieves a {@link Reader} for the specified resource file. If there is no such resource, the
+     * filename is read as a path on the file system.
      *
-     * @param filename the name of the resource file
+     * @param filename the name of the resource file, or a path
      * @return a {@link Reader} for reading the file's content
-     * @throws FileNotFoundException    if the resource file is not found
+     * @throws FileNotFoundException    if neither the resource nor the file is found
      * @throws IllegalArgumentException if the filename is null or empty
      */
     public static Reader getReaderFromResource(String filename) throws FileNotFoundException {
@@ -27,6 +31,9 @@ public class FileProvider {
 
         URL resource = FileProvider.class.getResource("/" + filename);
         if (resource == null) {
+            if (Files.isRegularFile(Path.of(filename))) {
+                return new FileReader(filename);
+            }
             throw new FileNotFoundException("Resource not found: " + filename);
         }
 
@@ -2,25 +2,55 @@ package saxion.facade;
 
 import saxion.Dashboard;
 import saxion.PrintManager;
+import saxion.history.PrintRun;
+import saxion.history.RunHistory;
+import saxion.metrics.FarmMetrics;
+import saxion.metrics.MetricsServer;
+import saxion.metrics.PrometheusExporter;
 import saxion.menu.MenuPrinter;
 import saxion.models.Print;
 import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
 import saxion.models.Spool;
+import saxion.observer.TaskObserver;
+import saxion.planning.SpoolForecast;
 import saxion.printers.Printer;
+import saxion.printers.StandardFDM;
 import saxion.types.FilamentType;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 
 /**
  * The `Facade` class serves as a unified interface to simplify interaction with the underlying
  * printing system components, including print tasks, printers, spools, and strategies.
+ * <p>
+ * Every method that touches the printing system is synchronized, so the console menu and the
+ * HTTP API can use the same facade at the same time. Listings are copied while the lock is held.
  */
 public class Facade {
     private final PrintManager printManager;
     private final Dashboard dashboard;
     private final MenuPrinter menuPrinter;
+    private MetricsServer metricsServer;
+
+    /** The index of the paged print listing, built when first needed. */
+    private ListingIndex<Print> printIndex;
+
+    /** The index of the paged spool listing, built when first needed. */
+    private ListingIndex<Spool> spoolIndex;
+
+    /** The index of the paged printer listing, built when first needed. */
+    private ListingIndex<Printer> printerIndex;
+
+    /** The length of the rolling window of the utilization report: one hour. */
+    private static final long UTILIZATION_WINDOW_MILLIS = 3_600_000;
 
     /**
      * Constructs a new {@code Facade} and initializes its components.
@@ -36,11 +66,59 @@ public class Facade {
      *
      * @return a string containing the dashboard statistics
      */
-    public String getDashboardStats() {
+    public synchronized String getDashboardStats() {
         printManager.notifyObservers();
         return dashboard.getStats();
     }
 
+    /**
+     * Retrieves the p50, p99, p99.9 and maximum latency of the scheduling operations.
+     *
+     * @return a string containing the latency report
+     */
+    public synchronized String getLatencyReport() {
+        return printManager.getLatencyMetrics().getReport();
+    }
+
+    /**
+     * Retrieves the share of the last hour every printer and printer type spent busy, idle,
+     * blocked and changing spools.
+     *
+     * @return a string containing the utilization report
+     */
+    public synchronized String getUtilizationReport() {
+        return printManager.getUtilizationTracker()
+                .getReport(printManager.getPrinterHandler().getPrinters(), UTILIZATION_WINDOW_MILLIS);
+    }
+
+    /**
+     * Retrieves the p50, p90, p99 and maximum time recent tasks waited in the queue, per filament
+     * type, for re-queued tasks and per print.
+     *
+     * @return a string containing the wait time report
+     */
+    public synchronized String getWaitTimeReport() {
+        return printManager.getWaitTimeTracker().getReport();
+    }
+
+    /**
+     * Retrieves when the loaded spools are expected to run short and the spool changes to prepare.
+     *
+     * @return a string containing the spool forecast report
+     */
+    public synchronized String getSpoolForecastReport() {
+        return printManager.forecastSpools().format();
+    }
+
+    /**
+     * Retrieves when the loaded spools are expected to run short and the spool changes to prepare.
+     *
+     * @return the {@link SpoolForecast}
+     */
+    public synchronized SpoolForecast getSpoolForecast() {
+        return printManager.forecastSpools();
+    }
+
     /**
      * Registers the status of a printer after a task is completed.
      *
@@ -48,7 +126,7 @@ public class Facade {
      * @param isSuccessful whether the task was successfully completed
      * @return a string containing the result of the status registration
      */
-    public String registerPrinterStatus(int printerId, boolean isSuccessful) {
+    public synchronized String registerPrinterStatus(int printerId, boolean isSuccessful) {
         String result = "-----------------------------------\n";
         result += printManager.finalizeRunningTask(printerId, isSuccessful);
         result += System.lineSeparator();
@@ -63,17 +141,59 @@ public class Facade {
      * @param filamentType  the type of filament for the task
      * @return a string describing the result of adding the task
      */
-    public String addNewPrintTask(Integer printChoice, Integer filamentType) {
+    public synchronized String addNewPrintTask(Integer printChoice, Integer filamentType) {
         List<String> prints = printManager.getPrints().stream().map(Print::getName).toList();
         return printManager.addNewPrintTask(prints.get(printChoice - 1), filamentType);
     }
 
+    /**
+     * Adds a new print task with the specified colors, order priority and deadline to the queue.
+     *
+     * @param printName      the name of the print
+     * @param filamentType   the {@link FilamentType} of the task
+     * @param colors         the colors of the task, one per filament of the print
+     * @param priority       the order priority; tasks with a higher priority are started first
+     * @param deadlineMillis the time the print is due in milliseconds since the epoch, or {@link PrintTask#NO_DEADLINE}
+     * @return the queued task as a {@link PrintTaskDTO}
+     * @throws IllegalArgumentException if the print does not exist or a color is not available
+     */
+    public synchronized PrintTaskDTO addPrintTask(String printName, FilamentType filamentType, List<String> colors,
+                                                  int priority, long deadlineMillis) {
+        return printManager.addNewPrintTask(printName, filamentType, colors, priority, deadlineMillis).toDTO();
+    }
+
+    /**
+     * Changes the order priority of a pending task.
+     *
+     * @param taskId   the identifier of the task
+     * @param priority the new priority
+     * @return the task as a {@link PrintTaskDTO}
+     * @throws IllegalArgumentException if no such task is pending
+     */
+    public synchronized PrintTaskDTO changeTaskPriority(long taskId, int priority) {
+        return printManager.changeTaskPriority(taskId, priority).toDTO();
+    }
+
+    /**
+     * Completes or fails the running task of a printer and lets the printer select its next task.
+     *
+     * @param printerId    the ID of the printer
+     * @param isSuccessful whether the task was successfully completed
+     * @return the printer after selecting its next task, as a {@link PrinterDTO}
+     * @throws IllegalStateException if the printer does not exist or is not running a task
+     */
+    public synchronized PrinterDTO finishPrintTask(int printerId, boolean isSuccessful) {
+        printManager.finalizeRunningTask(printerId, isSuccessful);
+        printManager.selectPrintTask(printerId);
+        return printManager.getPrinterHandler().getPrinterById(printerId).toDTO();
+    }
+
     /**
      * Retrieves the list of available prints as a formatted string.
      *
      * @return a string displaying the available prints
      */
-    public String getAvailablePrints() {
+    public synchronized String getAvailablePrints() {
         List<String> prints = printManager.getPrints().stream().map(Print::getName).toList();
         return menuPrinter.displayOptions(prints, "Prints", true);
     }
@@ -84,7 +204,7 @@ public class Facade {
      * @param filamentType the filament type as an integer
      * @return a string displaying the available colors
      */
-    public String getColorsOptions(Integer filamentType) {
+    public synchronized String getColorsOptions(Integer filamentType) {
         List<String> colors = printManager.getSpoolHandler().getAvailableColors(filamentType);
         List<String> colorsWithFilament = colors.stream()
                 .map(color -> color + " (" + FilamentType.getFilamentType(filamentType) + ")").toList();
@@ -96,7 +216,7 @@ public class Facade {
      *
      * @return a string displaying the available strategies
      */
-    public String getAvailableStrategies() {
+    public synchronized String getAvailableStrategies() {
         return menuPrinter.displayOptions(
                 printManager.getAvailableStrategies(), "Strategies", true
         );
@@ -126,8 +246,104 @@ public class Facade {
      * @param args an array of file paths for prints, spools, and printers
      * @throws FileNotFoundException if any of the files cannot be found
      */
-    public void readData(String[] args) throws FileNotFoundException {
+    public synchronized void readData(String[] args) throws FileNotFoundException {
         printManager.readData(args);
+        clearIndexes();
+    }
+
+    /**
+     * Opens the scheduling journal in the specified directory and restores the state it records.
+     *
+     * @param directory the directory containing the journal
+     * @throws IOException if the journal cannot be opened or read
+     */
+    public synchronized void openJournal(String directory) throws IOException {
+        printManager.openJournal(Path.of(directory));
+    }
+
+    /**
+     * Turns packing queued tasks of the same filament type and colors onto the build plate of a started
+     * task on or off.
+     *
+     * @param enabled {@code true} to pack plates
+     */
+    public synchronized void setPlatePacking(boolean enabled) {
+        printManager.setPlatePacking(enabled);
+    }
+
+    /**
+     * Opens the history of finished runs in the specified directory.
+     *
+     * @param directory the directory containing the run history
+     * @throws IOException if the run history cannot be opened
+     */
+    public synchronized void openHistory(String directory) throws IOException {
+        printManager.openHistory(Path.of(directory));
+    }
+
+    /**
+     * Starts serving the farm metrics in the Prometheus format at {@code /metrics} on the specified port.
+     * Must be called after the data and the journal have been loaded.
+     *
+     * @param port the port to listen on
+     * @throws IOException if the server cannot be started
+     */
+    public synchronized void startMetricsServer(int port) throws IOException {
+        FarmMetrics farmMetrics = new FarmMetrics(printManager);
+        metricsServer = new MetricsServer(port, new PrometheusExporter(farmMetrics, printManager.getLatencyMetrics()));
+        printManager.addTaskObserver(farmMetrics);
+    }
+
+    /**
+     * Adds an observer of the scheduling steps of the printing system. The observer is called while
+     * the facade is locked, so it should only hand the changes on.
+     *
+     * @param observer the {@link TaskObserver} to add
+     */
+    public synchronized void addTaskObserver(TaskObserver observer) {
+        printManager.addTaskObserver(observer);
+    }
+
+    /**
+     * Removes an observer of the scheduling steps of the printing system.
+     *
+     * @param observer the {@link TaskObserver} to remove
+     */
+    public synchronized void removeTaskObserver(TaskObserver observer) {
+        printManager.removeTaskObserver(observer);
+    }
+
+    /**
+     * Retrieves the most recent runs of a printer from the run history.
+     *
+     * @param printerId the ID of the printer
+     * @param limit     the maximum number of runs
+     * @return an iterator of {@link PrintRun} objects, newest first; empty if no history was opened
+     * @throws IOException if the run history cannot be read
+     */
+    public synchronized Iterator<PrintRun> getRecentRuns(int printerId, int limit) throws IOException {
+        RunHistory history = printManager.getRunHistory();
+        if (history == null) {
+            return List.<PrintRun>of().iterator();
+        }
+        return history.getRecentRuns(printerId, limit).iterator();
+    }
+
+    /**
+     * Releases the resources held by the printing system, stopping the metrics server and
+     * forcing the journal and the run history to disk.
+     *
+     * @throws IOException if the journal or the run history cannot be closed
+     */
+    public synchronized void shutdown() throws IOException {
+        if (metricsServer != null) {
+            metricsServer.close();
+        }
+        try {
+            printManager.closeJournal();
+        } finally {
+            printManager.closeHistory();
+        }
     }
 
     /**
@@ -135,7 +351,7 @@ public class Facade {
      *
      * @return the size of the prints list
      */
-    public Integer getPrintSize() {
+    public synchronized Integer getPrintSize() {
         return printManager.getPrintsSize();
     }
 
@@ -144,16 +360,35 @@ public class Facade {
      *
      * @param strategyChoice the index of the chosen strategy
      */
-    public void changePrintStrategy(int strategyChoice) {
+    public synchronized void changePrintStrategy(int strategyChoice) {
         printManager.setPrintingStrategy(strategyChoice);
     }
 
+    /**
+     * Changes the current printing strategy by its name.
+     *
+     * @param strategyName the name of the strategy
+     * @throws IllegalArgumentException if no strategy has the name
+     */
+    public synchronized void changePrintStrategy(String strategyName) {
+        printManager.setPrintingStrategy(strategyName);
+    }
+
+    /**
+     * Retrieves the names of the available printing strategies.
+     *
+     * @return the strategy names, in the order of their numbers
+     */
+    public synchronized List<String> getStrategyNames() {
+        return printManager.getAvailableStrategies();
+    }
+
     /**
      * Retrieves the number of available printing strategies.
      *
      * @return the size of the strategies list
      */
-    public Integer getStrategiesSize() {
+    public synchronized Integer getStrategiesSize() {
         return printManager.getAvailableStrategies().size();
     }
 
@@ -162,7 +397,7 @@ public class Facade {
      *
      * @return a string summarizing the tasks started
      */
-    public String startPrintQueue() {
+    public synchronized String startPrintQueue() {
         return printManager.startPrintQueue();
     }
 
@@ -172,7 +407,7 @@ public class Facade {
      * @param printChoice the index of the selected print
      * @return the number of filament colors
      */
-    public Integer getFilamentColorsNumber(Integer printChoice) {
+    public synchronized Integer getFilamentColorsNumber(Integer printChoice) {
         return printManager.getPrints().get(printChoice - 1).getFilamentLength().size();
     }
 
@@ -182,14 +417,14 @@ public class Facade {
      * @param filamentType the filament type as an integer
      * @return the number of available colors
      */
-    public Integer getColorsSize(Integer filamentType) {
+    public synchronized Integer getColorsSize(Integer filamentType) {
         return printManager.getSpoolHandler().getAvailableColors(filamentType).size();
     }
 
     /**
      * Initializes the selected colors list for a print task.
      */
-    public void createSelectedColorsList() {
+    public synchronized void createSelectedColorsList() {
         printManager.createSelectedColorsList();
     }
 
@@ -199,7 +434,7 @@ public class Facade {
      * @param filamentType the filament type as an integer
      * @param colorChoice  the index of the selected color
      */
-    public void addSelectedColors(Integer filamentType, Integer colorChoice) {
+    public synchronized void addSelectedColors(Integer filamentType, Integer colorChoice) {
         printManager.addSelectedColors(filamentType, colorChoice);
     }
 
@@ -208,9 +443,10 @@ public class Facade {
      *
      * @return an iterator of {@link PrintDTO} objects
      */
-    public Iterator<PrintDTO> getPrints() {
+    public synchronized Iterator<PrintDTO> getPrints() {
         return printManager.getPrints().stream()
                 .map(Print::toDTO)
+                .toList()
                 .iterator();
     }
 
@@ -219,9 +455,10 @@ public class Facade {
      *
      * @return an iterator of {@link SpoolDTO} objects
      */
-    public Iterator<SpoolDTO> getSpools() {
+    public synchronized Iterator<SpoolDTO> getSpools() {
         return printManager.getSpoolHandler().getSpools().stream()
                 .map(Spool::toDTO)
+                .toList()
                 .iterator();
     }
 
@@ -230,9 +467,10 @@ public class Facade {
      *
      * @return an iterator of {@link PrintTaskDTO} objects
      */
-    public Iterator<PrintTaskDTO> getPendingPrintTasks() {
+    public synchronized Iterator<PrintTaskDTO> getPendingPrintTasks() {
         return printManager.getPendingPrintTasks().stream()
                 .map(PrintTask::toDTO)
+                .toList()
                 .iterator();
     }
 
@@ -241,9 +479,10 @@ public class Facade {
      *
      * @return an iterator of {@link PrinterDTO} objects
      */
-    public Iterator<PrinterDTO> getPrinters() {
+    public synchronized Iterator<PrinterDTO> getPrinters() {
         return printManager.getPrinterHandler().getPrinters().stream()
                 .map(Printer::toDTO)
+                .toList()
                 .iterator();
     }
 
@@ -252,10 +491,11 @@ public class Facade {
      *
      * @return an iterator of {@link PrinterDTO} objects for running printers
      */
-    public Iterator<PrinterDTO> getRunningPrinters() {
+    public synchronized Iterator<PrinterDTO> getRunningPrinters() {
         return printManager.getPrinterHandler().getPrinters().stream()
                 .filter(printer -> printer.getTask() != null)
                 .map(Printer::toDTO)
+                .toList()
                 .iterator();
     }
 
@@ -264,7 +504,7 @@ public class Facade {
      *
      * @return a list of printer IDs
      */
-    public List<Integer> getRunningPrintersIds() {
+    public synchronized List<Integer> getRunningPrintersIds() {
         return printManager.getPrinterHandler().getPrinters().stream()
                 .filter(printer -> printer.getTask() != null)
                 .map(Printer::getId)
@@ -276,7 +516,121 @@ public class Facade {
      *
      * @param printers the list of {@link Printer} objects
      */
-    public void setPrinters(List<Printer> printers){
+    public synchronized void setPrinters(List<Printer> printers){
         printManager.setPrinters(printers);
+        clearIndexes();
+    }
+
+    /**
+     * Retrieves a page of the prints, in catalogue order.
+     *
+     * @param filter the {@link ListingFilter}; prints can only be filtered by size
+     * @param cursor the cursor of the previous page, or {@code null} for the first page
+     * @param limit  the largest number of prints on the page
+     * @return a {@link Page} of {@link PrintDTO} objects
+     * @throws IllegalArgumentException if the filter, the cursor or the limit is invalid
+     */
+    public synchronized Page<PrintDTO> getPrints(ListingFilter filter, String cursor, int limit) {
+        if (printIndex == null) {
+            List<Print> prints = printManager.getPrints();
+            Map<Print, Integer> positions = new IdentityHashMap<>();
+            for (int i = 0; i < prints.size(); i++) {
+                positions.put(prints.get(i), i);
+            }
+            printIndex = new ListingIndex<>(prints, positions::get, Map.of(),
+                    print -> Math.max(print.getWidth(), Math.max(print.getLength(), print.getHeight())));
+        }
+        return printIndex.page(filter, cursor, limit).map(Print::toDTO);
+    }
+
+    /**
+     * Retrieves a page of the spools, ordered by ID.
+     *
+     * @param filter the {@link ListingFilter}; spools can be filtered by filament type and color
+     * @param cursor the cursor of the previous page, or {@code null} for the first page
+     * @param limit  the largest number of spools on the page
+     * @return a {@link Page} of {@link SpoolDTO} objects
+     * @throws IllegalArgumentException if the filter, the cursor or the limit is invalid
+     */
+    public synchronized Page<SpoolDTO> getSpools(ListingFilter filter, String cursor, int limit) {
+        if (spoolIndex == null) {
+            spoolIndex = new ListingIndex<>(printManager.getSpoolHandler().getSpools(), Spool::getId,
+                    Map.of("filamentType", spool -> spool.getFilamentType().name(), "color", Spool::getColor), null);
+        }
+        return spoolIndex.page(filter, cursor, limit).map(Spool::toDTO);
+    }
+
+    /**
+     * Retrieves a page of the printers, ordered by ID.
+     *
+     * @param filter the {@link ListingFilter}; printers can be filtered by type and size
+     * @param cursor the cursor of the previous page, or {@code null} for the first page
+     * @param limit  the largest number of printers on the page
+     * @return a {@link Page} of {@link PrinterDTO} objects
+     * @throws IllegalArgumentException if the filter, the cursor or the limit is invalid
+     */
+    public synchronized Page<PrinterDTO> getPrinters(ListingFilter filter, String cursor, int limit) {
+        if (printerIndex == null) {
+            printerIndex = new ListingIndex<>(printManager.getPrinterHandler().getPrinters(), Printer::getId,
+                    Map.of("printerType", printer -> printer.getClass().getSimpleName()),
+                    Facade::buildSize);
+        }
+        return printerIndex.page(filter, cursor, limit).map(Printer::toDTO);
+    }
+
+    /**
+     * Retrieves a page of the pending print tasks, ordered by ID. The queue keeps its tasks ordered by ID,
+     * also per filament type and per color, so the page starts at the cursor in the smallest of those that
+     * the filter allows and only the page is read and converted.
+     *
+     * @param filter the {@link ListingFilter}; tasks can be filtered by filament type and by one of their colors
+     * @param cursor the cursor of the previous page, or {@code null} for the first page
+     * @param limit  the largest number of tasks on the page
+     * @return a {@link Page} of {@link PrintTaskDTO} objects
+     * @throws IllegalArgumentException if the filter, the cursor or the limit is invalid
+     */
+    public synchronized Page<PrintTaskDTO> getPendingPrintTasks(ListingFilter filter, String cursor, int limit) {
+        if (filter.printerType() != null || filter.hasSizeRange()) {
+            throw new IllegalArgumentException("Tasks can only be filtered by filament type and color");
+        }
+        PrintTaskQueue queue = printManager.getPendingPrintTasks();
+        NavigableMap<Long, PrintTask> candidates = queue.getTasksById();
+        if (filter.filamentType() != null) {
+            candidates = queue.getTasksByFilamentType(filter.filamentType());
+        }
+        if (filter.color() != null) {
+            NavigableMap<Long, PrintTask> withColor = queue.getTasksByColor(filter.color());
+            if (withColor.size() < candidates.size()) {
+                candidates = withColor;
+            }
+        }
+        return ListingIndex.page(candidates,
+                task -> (filter.filamentType() == null || task.getFilamentType() == filter.filamentType())
+                        && (filter.color() == null
+                        || task.getColors().stream().anyMatch(color -> color.equalsIgnoreCase(filter.color()))),
+                cursor, limit).map(PrintTask::toDTO);
+    }
+
+    /**
+     * Computes the size of a printer: the longest edge of its build volume.
+     *
+     * @param printer the {@link Printer}
+     * @return the size in millimeters, or {@code 0} if the printer has no known build volume
+     */
+    private static int buildSize(Printer printer) {
+        if (!(printer instanceof StandardFDM)) {
+            return 0;
+        }
+        StandardFDM fdm = (StandardFDM) printer;
+        return Math.max(fdm.getMaxX(), Math.max(fdm.getMaxY(), fdm.getMaxZ()));
+    }
+
+    /**
+     * Drops the listing indexes after the prints, spools or printers were replaced.
+     */
+    private void clearIndexes() {
+        printIndex = null;
+        spoolIndex = null;
+        printerIndex = null;
     }
 }
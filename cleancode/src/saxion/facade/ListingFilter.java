@@ -0,0 +1,57 @@
+package saxion.facade;
+
+import saxion.types.FilamentType;
+
+/**
+ * The filters of a paged listing; {@code null} components do not filter. Not every listing supports
+ * every filter: prints only have a size, printers a type and a size, spools and tasks a filament type
+ * and a color. The size of a print is its longest edge and the size of a printer the longest edge of
+ * its build volume, both in millimeters.
+ *
+ * @param filamentType the {@link FilamentType} of spools and tasks
+ * @param color        a color of spools and tasks, ignoring case
+ * @param printerType  the type of printers, the name of their class ignoring case
+ * @param minSize      the smallest size in millimeters
+ * @param maxSize      the largest size in millimeters
+ */
+public record ListingFilter(
+        FilamentType filamentType,
+        String color,
+        String printerType,
+        Integer minSize,
+        Integer maxSize
+) {
+
+    /** The filter that lets everything through. */
+    public static final ListingFilter NONE = new ListingFilter(null, null, null, null, null);
+
+    /**
+     * Validates the filter.
+     *
+     * @throws IllegalArgumentException if the size range is empty
+     */
+    public ListingFilter {
+        if (minSize != null && maxSize != null && minSize > maxSize) {
+            throw new IllegalArgumentException("The smallest size cannot exceed the largest size");
+        }
+    }
+
+    /**
+     * Checks whether the filter has a size range.
+     *
+     * @return {@code true} if a smallest or largest size is given
+     */
+    public boolean hasSizeRange() {
+        return minSize != null || maxSize != null;
+    }
+
+    /**
+     * Checks whether a size lies in the range of the filter.
+     *
+     * @param size the size in millimeters
+     * @return {@code true} if the size is within the range or there is no range
+     */
+    public boolean matchesSize(int size) {
+        return (minSize == null || size >= minSize) && (maxSize == null || size <= maxSize);
+    }
+}
@@ -0,0 +1,297 @@
+package saxion.facade;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * An index over a collection that does not change, for paged listings. The items are ordered by a
+ * unique key, which is also the cursor of a page. Every attribute keeps a list of items per value and
+ * sizes keep a list per bucket of {@value #SIZE_BUCKET} millimeters, all ordered by key. A page only
+ * visits the candidates of the most selective filter, starting at the cursor with a binary search, and
+ * merges the buckets of a size range by key. Collections that change are kept ordered by their owner and
+ * paged with {@link #page(NavigableMap, Predicate, String, int)}.
+ *
+ * @param <T> the type of the items
+ */
+final class ListingIndex<T> {
+
+    /** The width of a size bucket in millimeters. */
+    static final int SIZE_BUCKET = 10;
+
+    /** The largest number of items on a page. */
+    static final int MAX_LIMIT = 1000;
+
+    /** The key of an item. */
+    private final ToLongFunction<T> key;
+
+    /** The attribute values of an item by attribute name. */
+    private final Map<String, Function<T, String>> attributes;
+
+    /** The size of an item, or {@code null} if the items have no size. */
+    private final ToIntFunction<T> size;
+
+    /** All items, ordered by key. */
+    private final List<T> all;
+
+    /** The items per lower-case value, per attribute name, ordered by key. */
+    private final Map<String, Map<String, List<T>>> byAttribute = new HashMap<>();
+
+    /** The items per size bucket, ordered by key. */
+    private final NavigableMap<Integer, List<T>> bySize = new TreeMap<>();
+
+    /**
+     * A position in one of the key-ordered candidate lists of a page.
+     */
+    private final class Run {
+
+        /** The candidate list. */
+        private final List<T> items;
+
+        /** The position of the next item. */
+        private int position;
+
+        /**
+         * Constructs a new {@code Run}.
+         *
+         * @param items    the candidate list
+         * @param position the position of the first item
+         */
+        private Run(List<T> items, int position) {
+            this.items = items;
+            this.position = position;
+        }
+
+        /**
+         * Gets the key of the next item.
+         *
+         * @return the key
+         */
+        private long nextKey() {
+            return key.applyAsLong(items.get(position));
+        }
+    }
+
+    /**
+     * Builds a new {@code ListingIndex}.
+     *
+     * @param items      the items
+     * @param key        the unique key of an item
+     * @param attributes the attribute values of an item by attribute name
+     * @param size       the size of an item in millimeters, or {@code null} if the items have no size
+     */
+    ListingIndex(Collection<T> items, ToLongFunction<T> key, Map<String, Function<T, String>> attributes,
+                 ToIntFunction<T> size) {
+        this.key = key;
+        this.attributes = attributes;
+        this.size = size;
+        List<T> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingLong(key));
+        this.all = sorted;
+        for (T item : sorted) {
+            for (Map.Entry<String, Function<T, String>> attribute : attributes.entrySet()) {
+                byAttribute.computeIfAbsent(attribute.getKey(), name -> new HashMap<>())
+                        .computeIfAbsent(attribute.getValue().apply(item).toLowerCase(), value -> new ArrayList<>())
+                        .add(item);
+            }
+            if (size != null) {
+                bySize.computeIfAbsent(Math.floorDiv(size.applyAsInt(item), SIZE_BUCKET), bucket -> new ArrayList<>())
+                        .add(item);
+            }
+        }
+    }
+
+    /**
+     * Gets a page of the items that pass a filter.
+     *
+     * @param filter the filter; only the attributes and size of the index may be used
+     * @param cursor the cursor of a previous page, or {@code null} for the first page
+     * @param limit  the largest number of items on the page
+     * @return the {@link Page}
+     * @throws IllegalArgumentException if the filter uses something the index does not have, the cursor
+     *                                  is invalid or the limit is out of range
+     */
+    Page<T> page(ListingFilter filter, String cursor, int limit) {
+        checkLimit(limit);
+        long after = parseCursor(cursor);
+        Map<String, String> values = values(filter);
+
+        Collection<List<T>> candidates = List.of(all);
+        long candidateCount = all.size();
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            List<T> matching = byAttribute.getOrDefault(value.getKey(), Map.of()).getOrDefault(value.getValue(), List.of());
+            if (matching.size() < candidateCount) {
+                candidates = List.of(matching);
+                candidateCount = matching.size();
+            }
+        }
+        if (filter.hasSizeRange()) {
+            if (size == null) {
+                throw new IllegalArgumentException("This listing cannot be filtered by size");
+            }
+            Collection<List<T>> buckets = bySize.subMap(
+                    filter.minSize() == null ? Integer.MIN_VALUE : Math.floorDiv(filter.minSize(), SIZE_BUCKET), true,
+                    filter.maxSize() == null ? Integer.MAX_VALUE : Math.floorDiv(filter.maxSize(), SIZE_BUCKET), true
+            ).values();
+            long bucketCount = buckets.stream().mapToLong(List::size).sum();
+            if (bucketCount < candidateCount) {
+                candidates = buckets;
+            }
+        }
+
+        PriorityQueue<Run> runs = new PriorityQueue<>(Comparator.comparingLong(Run::nextKey));
+        for (List<T> list : candidates) {
+            int position = firstAfter(list, after);
+            if (position < list.size()) {
+                runs.add(new Run(list, position));
+            }
+        }
+        List<T> items = new ArrayList<>();
+        while (!runs.isEmpty()) {
+            Run run = runs.poll();
+            T item = run.items.get(run.position++);
+            if (run.position < run.items.size()) {
+                runs.add(run);
+            }
+            if (matches(item, values, filter)) {
+                if (items.size() == limit) {
+                    return new Page<>(items, Long.toString(key.applyAsLong(items.get(limit - 1))));
+                }
+                items.add(item);
+            }
+        }
+        return new Page<>(items, null);
+    }
+
+    /**
+     * Gets a page of items that are kept ordered by key elsewhere, such as the pending tasks. The page
+     * starts right after the cursor and reads on only until it is full.
+     *
+     * @param items  the items by key, ideally the fewest that can pass the filter
+     * @param filter the condition an item must meet
+     * @param cursor the cursor of a previous page, or {@code null} for the first page
+     * @param limit  the largest number of items on the page
+     * @param <T>    the type of the items
+     * @return the {@link Page}
+     * @throws IllegalArgumentException if the cursor is invalid or the limit is out of range
+     */
+    static <T> Page<T> page(NavigableMap<Long, T> items, Predicate<T> filter, String cursor, int limit) {
+        checkLimit(limit);
+        List<T> page = new ArrayList<>();
+        long last = 0;
+        for (Map.Entry<Long, T> item : items.tailMap(parseCursor(cursor), false).entrySet()) {
+            if (filter.test(item.getValue())) {
+                if (page.size() == limit) {
+                    return new Page<>(page, Long.toString(last));
+                }
+                page.add(item.getValue());
+                last = item.getKey();
+            }
+        }
+        return new Page<>(page, null);
+    }
+
+    /**
+     * Collects the attribute values a filter asks for.
+     *
+     * @param filter the filter
+     * @return the lower-case values by attribute name
+     * @throws IllegalArgumentException if the filter uses an attribute the index does not have
+     */
+    private Map<String, String> values(ListingFilter filter) {
+        Map<String, String> values = new HashMap<>();
+        if (filter.filamentType() != null) {
+            values.put("filamentType", filter.filamentType().name().toLowerCase());
+        }
+        if (filter.color() != null) {
+            values.put("color", filter.color().toLowerCase());
+        }
+        if (filter.printerType() != null) {
+            values.put("printerType", filter.printerType().toLowerCase());
+        }
+        for (String name : values.keySet()) {
+            if (!attributes.containsKey(name)) {
+                throw new IllegalArgumentException("This listing cannot be filtered by " + name);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Checks whether an item passes a filter.
+     *
+     * @param item   the item
+     * @param values the lower-case attribute values the filter asks for
+     * @param filter the filter
+     * @return {@code true} if the item has every value and lies in the size range
+     */
+    private boolean matches(T item, Map<String, String> values, ListingFilter filter) {
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            if (!attributes.get(value.getKey()).apply(item).equalsIgnoreCase(value.getValue())) {
+                return false;
+            }
+        }
+        return !filter.hasSizeRange() || filter.matchesSize(size.applyAsInt(item));
+    }
+
+    /**
+     * Finds the first item of a key-ordered list with a key above a cursor.
+     *
+     * @param list  the list
+     * @param after the key of the cursor
+     * @return the position of the item, or the size of the list if there is none
+     */
+    private int firstAfter(List<T> list, long after) {
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (key.applyAsLong(list.get(middle)) <= after) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Parses a cursor.
+     *
+     * @param cursor the cursor, or {@code null} for the first page
+     * @return the key after which the page starts
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    private static long parseCursor(String cursor) {
+        if (cursor == null) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Checks the number of items asked for.
+     *
+     * @param limit the largest number of items on a page
+     * @throws IllegalArgumentException if the limit is not between 1 and {@link #MAX_LIMIT}
+     */
+    private static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("The limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package saxion.facade;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of a listing.
+ *
+ * @param items      the items of the page, in the order of the listing
+ * @param nextCursor the cursor of the next page, or {@code null} if this is the last page
+ * @param <T>        the type of the items
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+
+    /**
+     * Converts the items of the page, keeping the cursor.
+     *
+     * @param mapper the conversion of an item
+     * @param <R>    the type of the converted items
+     * @return the converted page
+     */
+    public <R> Page<R> map(Function<T, R> mapper) {
+        return new Page<>(items.stream().map(mapper).toList(), nextCursor);
+    }
+}
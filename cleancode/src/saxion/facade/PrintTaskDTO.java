@@ -5,7 +5,10 @@ import saxion.types.FilamentType;
 import java.util.List;
 
 public record PrintTaskDTO(
+        long id,
         String print,
         List<String> colors,
-        FilamentType filamentType
+        FilamentType filamentType,
+        int priority,
+        Long deadline
 ) {}
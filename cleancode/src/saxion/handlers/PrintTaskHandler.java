@@ -2,12 +2,12 @@ package saxion.handlers;
 
 import saxion.models.Print;
 import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
 import saxion.models.Spool;
 import saxion.printers.Printer;
 import saxion.strategy.PrintingStrategy;
 import saxion.types.FilamentType;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -16,8 +16,8 @@ import java.util.List;
  */
 public class PrintTaskHandler {
 
-    /** The list of pending print tasks waiting for execution. */
-    private List<PrintTask> pendingPrintTasks;
+    /** The queue of pending print tasks waiting for execution, in priority order. */
+    private PrintTaskQueue pendingPrintTasks;
 
     /** The list of printers available for executing print tasks. */
     private List<Printer> printers;
@@ -31,7 +31,7 @@ public class PrintTaskHandler {
      * @param printingStrategy the {@link PrintingStrategy} to use for task selection
      */
     public PrintTaskHandler(PrintingStrategy printingStrategy) {
-        this.pendingPrintTasks = new ArrayList<>();
+        this.pendingPrintTasks = new PrintTaskQueue();
         this.printingStrategy = printingStrategy;
     }
 
@@ -59,16 +59,45 @@ public class PrintTaskHandler {
      * @param print        the {@link Print} object representing the task
      * @param colors       a {@link List} of colors required for the task
      * @param filamentType the type of filament required for the task
-     * @return a message indicating the task was successfully added to the queue
+     * @return the {@link PrintTask} that was added to the queue
      */
-    public String addNewPrintTask(Print print, List<String> colors, FilamentType filamentType) {
-        PrintTask printTask = new PrintTask(print, colors, filamentType);
+    public PrintTask addNewPrintTask(Print print, List<String> colors, FilamentType filamentType) {
+        return addNewPrintTask(print, colors, filamentType, PrintTask.DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Adds a new print task with the specified order priority to the queue.
+     *
+     * @param print        the {@link Print} object representing the task
+     * @param colors       a {@link List} of colors required for the task
+     * @param filamentType the type of filament required for the task
+     * @param priority     the order priority; tasks with a higher priority are started first
+     * @return the {@link PrintTask} that was added to the queue
+     */
+    public PrintTask addNewPrintTask(Print print, List<String> colors, FilamentType filamentType, int priority) {
+        return addNewPrintTask(print, colors, filamentType, priority, PrintTask.NO_DEADLINE);
+    }
+
+    /**
+     * Adds a new print task with the specified order priority and deadline to the queue.
+     *
+     * @param print          the {@link Print} object representing the task
+     * @param colors         a {@link List} of colors required for the task
+     * @param filamentType   the type of filament required for the task
+     * @param priority       the order priority; tasks with a higher priority are started first
+     * @param deadlineMillis the time the print is due in milliseconds since the epoch, or {@link PrintTask#NO_DEADLINE}
+     * @return the {@link PrintTask} that was added to the queue
+     */
+    public PrintTask addNewPrintTask(Print print, List<String> colors, FilamentType filamentType, int priority,
+                                     long deadlineMillis) {
+        PrintTask printTask = new PrintTask(print, colors, filamentType, priority, deadlineMillis);
         pendingPrintTasks.add(printTask);
-        return "Print task added to the queue";
+        return printTask;
     }
 
     /**
-     * Adds an existing print task to the queue.
+     * Adds an existing print task to the queue. A task that failed goes back to the place its priority,
+     * deadline and age give it, not to the end of the queue.
      *
      * @param printTask the {@link PrintTask} to add to the queue
      */
@@ -97,11 +126,11 @@ public class PrintTaskHandler {
     }
 
     /**
-     * Gets the list of pending print tasks waiting for execution.
+     * Gets the queue of pending print tasks waiting for execution.
      *
-     * @return a {@link List} of {@link PrintTask} objects
+     * @return the {@link PrintTaskQueue}, in priority order
      */
-    public List<PrintTask> getPendingPrintTasks() {
+    public PrintTaskQueue getPendingPrintTasks() {
         return pendingPrintTasks;
     }
 }
@@ -2,6 +2,7 @@ package saxion.handlers;
 
 import saxion.models.PrintTask;
 import saxion.models.Spool;
+import saxion.models.SpoolPool;
 import saxion.printers.Printer;
 import saxion.types.FilamentType;
 
@@ -17,8 +18,8 @@ public class SpoolHandler {
     /** The list of all spools available in the system. */
     private List<Spool> spools;
 
-    /** The list of free spools available for use. */
-    private List<Spool> freeSpools;
+    /** The free spools available for use, grouped by color. */
+    private SpoolPool freeSpools;
 
     /**
      * Gets the list of all spools.
@@ -30,14 +31,50 @@ public class SpoolHandler {
     }
 
     /**
-     * Gets the list of free spools available for use.
+     * Gets the free spools available for use.
      *
-     * @return a {@link List} of {@link Spool} objects representing free spools
+     * @return a {@link SpoolPool} of the free spools
      */
-    public List<Spool> getFreeSpools() {
+    public SpoolPool getFreeSpools() {
         return freeSpools;
     }
 
+    /**
+     * Replaces the list of free spools, for example when restoring a snapshot.
+     *
+     * @param freeSpools a {@link List} of {@link Spool} objects that are not loaded in any printer
+     */
+    public void setFreeSpools(List<Spool> freeSpools) {
+        this.freeSpools = new SpoolPool(freeSpools);
+    }
+
+    /**
+     * Retrieves a spool by its unique ID.
+     *
+     * @param spoolId the ID of the spool to retrieve
+     * @return the {@link Spool} with the specified ID
+     * @throws IllegalStateException if no spool with the given ID is found
+     */
+    public Spool getSpoolById(int spoolId) {
+        return spools.stream()
+                .filter(spool -> spool.getId() == spoolId)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Cannot find a spool with ID " + spoolId));
+    }
+
+    /**
+     * Loads the specified spools into a printer. The spools that were loaded before are returned
+     * to the free spools and the new spools are taken from them.
+     *
+     * @param printer the {@link Printer} to load the spools into
+     * @param spools  the {@link Spool} objects to load, in slot order
+     */
+    public void loadSpools(Printer printer, List<Spool> spools) {
+        freeSpools.addAll(printer.getCurrentSpools());
+        freeSpools.removeAll(spools);
+        printer.setCurrentSpools(spools);
+    }
+
     /**
      * Validates that the specified colors and filament type are available in the spools.
      *
@@ -98,6 +135,6 @@ public class SpoolHandler {
      */
     public void setSpools(List<Spool> spools) {
         this.spools = spools;
-        this.freeSpools = new ArrayList<>(spools);
+        this.freeSpools = new SpoolPool(spools);
     }
 }
@@ -0,0 +1,40 @@
+package saxion.history;
+
+import saxion.types.FilamentType;
+
+import java.util.List;
+
+/**
+ * A finished print run as stored in the {@link RunHistory}.
+ *
+ * @param taskId       the identifier of the task that was printed
+ * @param printerId    the ID of the printer that ran the task
+ * @param printName    the name of the print
+ * @param colors       the colors of the task
+ * @param filamentType the filament type of the task
+ * @param startMillis  the time the run started in milliseconds since the epoch, or {@code -1} if unknown
+ * @param endMillis    the time the run was finished in milliseconds since the epoch
+ * @param successful   {@code true} if the print was fulfilled; {@code false} if it failed
+ * @param spoolIds     the IDs of the spools loaded during the run, in slot order
+ */
+public record PrintRun(
+        long taskId,
+        int printerId,
+        String printName,
+        List<String> colors,
+        FilamentType filamentType,
+        long startMillis,
+        long endMillis,
+        boolean successful,
+        int[] spoolIds
+) {
+
+    /**
+     * Gets the actual duration of the run.
+     *
+     * @return the duration in milliseconds, or {@code -1} if the start of the run is unknown
+     */
+    public long durationMillis() {
+        return startMillis < 0 ? -1 : endMillis - startMillis;
+    }
+}
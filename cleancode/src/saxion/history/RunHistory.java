@@ -0,0 +1,511 @@
+package saxion.history;
+
+import saxion.types.FilamentType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only store of finished print runs, partitioned into one file per day (UTC).
+ * <p>
+ * Every run is stored as a fixed-size record, in the order the runs finished, so a time range is
+ * found with a binary search on the end time. Each record links to the previous record of the same
+ * printer in its partition, so the runs of one printer are scanned without reading the others.
+ * Print names and color combinations are stored once in a dictionary and referenced by code.
+ * Partitions are read through memory mapping, so the heap does not grow with the number of runs.
+ */
+public class RunHistory implements Closeable {
+
+    /** The size of a record in bytes. */
+    static final int RECORD_SIZE = 64;
+
+    /** The maximum number of spool IDs stored per run. */
+    public static final int MAX_SPOOLS = 4;
+
+    /** The number of milliseconds in a partition. */
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /** Separator between the colors of a color combination in the dictionary. */
+    private static final String COLOR_SEPARATOR = "\u001F";
+
+    /** File name pattern of the partitions. */
+    private static final Pattern PARTITION_NAME = Pattern.compile("runs-(\\d{4}-\\d{2}-\\d{2})\\.dat");
+
+    /* Offsets of the fields within a record. */
+    private static final int TASK_ID = 0;
+    private static final int START = 8;
+    private static final int END = 16;
+    private static final int PRINTER_ID = 24;
+    private static final int PRINT_CODE = 28;
+    private static final int COLORS_CODE = 32;
+    private static final int PREVIOUS = 36;
+    private static final int FILAMENT_TYPE = 40;
+    private static final int SUCCESSFUL = 41;
+    private static final int SPOOL_COUNT = 42;
+    private static final int SPOOL_IDS = 44;
+
+    /** The directory containing the partitions and the dictionary. */
+    private final Path directory;
+
+    /** The days for which a partition exists, in epoch days. */
+    private final TreeSet<Long> partitions = new TreeSet<>();
+
+    /** The dictionary entries by code. */
+    private final List<String> dictionary = new ArrayList<>();
+
+    /** The dictionary codes by entry. */
+    private final Map<String, Integer> dictionaryCodes = new HashMap<>();
+
+    /** Buffer used to write a record. */
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+
+    /** Stream appending new entries to the dictionary file. */
+    private DataOutputStream dictionaryOut;
+
+    /** The partition that is currently written, or {@code null}. */
+    private FileChannel activeChannel;
+
+    /** The day of the partition that is currently written. */
+    private long activeDay = -1;
+
+    /** The number of records in the partition that is currently written. */
+    private int activeCount;
+
+    /** The index of the last record of every printer in the partition that is currently written. */
+    private final Map<Integer, Integer> activeHeads = new HashMap<>();
+
+    /** The end time of the last appended run; later runs never end before it. */
+    private long lastEndMillis = Long.MIN_VALUE;
+
+    /**
+     * Constructs a new {@code RunHistory} stored in the specified directory.
+     *
+     * @param directory the directory containing the partitions
+     */
+    public RunHistory(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the store, loading the dictionary and the list of partitions.
+     *
+     * @throws IOException if the directory or the dictionary cannot be read
+     */
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        Path dictionaryFile = directory.resolve("dictionary.dat");
+        if (Files.exists(dictionaryFile)) {
+            long validLength = 0;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(dictionaryFile)))) {
+                while (true) {
+                    byte[] bytes = new byte[in.readUnsignedShort()];
+                    in.readFully(bytes);
+                    addToDictionary(new String(bytes, StandardCharsets.UTF_8));
+                    validLength += 2 + bytes.length;
+                }
+            } catch (EOFException ignored) {
+                // A partially written last entry is dropped, no run refers to it.
+            }
+            try (FileChannel channel = FileChannel.open(dictionaryFile, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        dictionaryOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                dictionaryFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> PARTITION_NAME.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .forEach(matcher -> partitions.add(LocalDate.parse(matcher.group(1)).toEpochDay()));
+        }
+        if (!partitions.isEmpty()) {
+            long lastDay = partitions.last();
+            try (FileChannel channel = FileChannel.open(partitionFile(lastDay), StandardOpenOption.READ)) {
+                int count = (int) (channel.size() / RECORD_SIZE);
+                if (count > 0) {
+                    ByteBuffer last = ByteBuffer.allocate(RECORD_SIZE);
+                    channel.read(last, (long) (count - 1) * RECORD_SIZE);
+                    lastEndMillis = last.getLong(END);
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends a finished run. Only the first {@link #MAX_SPOOLS} spool IDs are stored. A run that
+     * ends before the previously appended run, e.g. because the clock was set back, is stored with
+     * the end time of that run so the partitions stay ordered.
+     *
+     * @param run the {@link PrintRun} to store
+     * @throws IOException if the run cannot be written
+     */
+    public synchronized void append(PrintRun run) throws IOException {
+        long endMillis = Math.max(run.endMillis(), lastEndMillis);
+        long day = Math.floorDiv(endMillis, MILLIS_PER_DAY);
+        if (activeChannel == null || day != activeDay) {
+            openPartition(day);
+        }
+
+        int printCode = encode(run.printName());
+        int colorsCode = encode(String.join(COLOR_SEPARATOR, run.colors()));
+        int spoolCount = Math.min(run.spoolIds().length, MAX_SPOOLS);
+
+        record.clear();
+        record.putLong(TASK_ID, run.taskId())
+                .putLong(START, run.startMillis())
+                .putLong(END, endMillis)
+                .putInt(PRINTER_ID, run.printerId())
+                .putInt(PRINT_CODE, printCode)
+                .putInt(COLORS_CODE, colorsCode)
+                .putInt(PREVIOUS, activeHeads.getOrDefault(run.printerId(), -1))
+                .put(FILAMENT_TYPE, (byte) run.filamentType().ordinal())
+                .put(SUCCESSFUL, (byte) (run.successful() ? 1 : 0))
+                .put(SPOOL_COUNT, (byte) spoolCount);
+        for (int i = 0; i < MAX_SPOOLS; i++) {
+            record.putInt(SPOOL_IDS + i * 4, i < spoolCount ? run.spoolIds()[i] : 0);
+        }
+        long position = (long) activeCount * RECORD_SIZE;
+        while (record.hasRemaining()) {
+            position += activeChannel.write(record, position);
+        }
+
+        activeHeads.put(run.printerId(), activeCount);
+        activeCount++;
+        lastEndMillis = endMillis;
+    }
+
+    /**
+     * Scans the runs that ended within the specified time range, oldest first.
+     *
+     * @param fromMillis the start of the range in milliseconds since the epoch, inclusive
+     * @param toMillis   the end of the range in milliseconds since the epoch, inclusive
+     * @param consumer   receives every run in the range
+     * @throws IOException if a partition cannot be read
+     */
+    public synchronized void scan(long fromMillis, long toMillis, Consumer<PrintRun> consumer) throws IOException {
+        for (long day : partitionsBetween(fromMillis, toMillis)) {
+            MappedByteBuffer buffer = map(day);
+            int count = buffer.capacity() / RECORD_SIZE;
+            for (int i = firstEndingAtOrAfter(buffer, count, fromMillis); i < count; i++) {
+                if (endMillis(buffer, i) > toMillis) {
+                    break;
+                }
+                consumer.accept(read(buffer, i));
+            }
+        }
+    }
+
+    /**
+     * Scans the runs of one printer that ended within the specified time range, newest first.
+     * The scan stops as soon as the consumer returns {@code false}.
+     *
+     * @param printerId  the ID of the printer
+     * @param fromMillis the start of the range in milliseconds since the epoch, inclusive
+     * @param toMillis   the end of the range in milliseconds since the epoch, inclusive
+     * @param consumer   receives the runs of the printer and returns whether to continue
+     * @throws IOException if a partition cannot be read
+     */
+    public synchronized void scanPrinter(int printerId, long fromMillis, long toMillis, Predicate<PrintRun> consumer)
+            throws IOException {
+        for (long day : partitionsBetween(fromMillis, toMillis).descendingSet()) {
+            MappedByteBuffer buffer = map(day);
+            int index = day == activeDay
+                    ? activeHeads.getOrDefault(printerId, -1)
+                    : lastRecordOf(day, buffer, printerId);
+            while (index >= 0) {
+                long endMillis = endMillis(buffer, index);
+                if (endMillis < fromMillis) {
+                    return;
+                }
+                if (endMillis <= toMillis && !consumer.test(read(buffer, index))) {
+                    return;
+                }
+                index = buffer.getInt(index * RECORD_SIZE + PREVIOUS);
+            }
+        }
+    }
+
+    /**
+     * Gets the most recent runs of a printer.
+     *
+     * @param printerId the ID of the printer
+     * @param limit     the maximum number of runs
+     * @return the runs of the printer, newest first
+     * @throws IOException if a partition cannot be read
+     */
+    public List<PrintRun> getRecentRuns(int printerId, int limit) throws IOException {
+        List<PrintRun> runs = new ArrayList<>();
+        if (limit > 0) {
+            scanPrinter(printerId, Long.MIN_VALUE, Long.MAX_VALUE, run -> {
+                runs.add(run);
+                return runs.size() < limit;
+            });
+        }
+        return runs;
+    }
+
+    /**
+     * Forces the partition that is currently written to disk and closes the store.
+     *
+     * @throws IOException if the store cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (activeChannel != null) {
+            activeChannel.force(false);
+            activeChannel.close();
+            activeChannel = null;
+        }
+        if (dictionaryOut != null) {
+            dictionaryOut.close();
+            dictionaryOut = null;
+        }
+    }
+
+    /**
+     * Switches to the partition of the specified day, continuing it if it already exists.
+     *
+     * @param day the day in epoch days
+     * @throws IOException if the partition cannot be opened
+     */
+    private void openPartition(long day) throws IOException {
+        if (activeChannel != null) {
+            activeChannel.force(false);
+            activeChannel.close();
+            writeHeads(activeDay, activeHeads);
+        }
+        Files.deleteIfExists(headsFile(day));
+        activeChannel = FileChannel.open(partitionFile(day),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeDay = day;
+        activeCount = (int) (activeChannel.size() / RECORD_SIZE);
+        activeHeads.clear();
+        if (activeCount > 0) {
+            MappedByteBuffer buffer = activeChannel.map(FileChannel.MapMode.READ_ONLY, 0, (long) activeCount * RECORD_SIZE);
+            for (int i = 0; i < activeCount; i++) {
+                activeHeads.put(buffer.getInt(i * RECORD_SIZE + PRINTER_ID), i);
+            }
+        }
+        partitions.add(day);
+    }
+
+    /**
+     * Maps the complete records of the partition of the specified day.
+     *
+     * @param day the day in epoch days
+     * @return the mapped records
+     * @throws IOException if the partition cannot be read
+     */
+    private MappedByteBuffer map(long day) throws IOException {
+        try (FileChannel channel = FileChannel.open(partitionFile(day), StandardOpenOption.READ)) {
+            long size = day == activeDay
+                    ? (long) activeCount * RECORD_SIZE
+                    : channel.size() / RECORD_SIZE * RECORD_SIZE;
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Selects the partitions that can contain runs that ended within the specified time range.
+     *
+     * @param fromMillis the start of the range
+     * @param toMillis   the end of the range
+     * @return the days of the partitions
+     */
+    private TreeSet<Long> partitionsBetween(long fromMillis, long toMillis) {
+        if (fromMillis > toMillis) {
+            return new TreeSet<>();
+        }
+        return new TreeSet<>(partitions.subSet(
+                Math.floorDiv(fromMillis, MILLIS_PER_DAY), true,
+                Math.floorDiv(toMillis, MILLIS_PER_DAY), true));
+    }
+
+    /**
+     * Finds the first record that ended at or after the specified time with a binary search.
+     *
+     * @param buffer     the mapped records
+     * @param count      the number of records
+     * @param fromMillis the time
+     * @return the index of the record, or {@code count} if there is none
+     */
+    private static int firstEndingAtOrAfter(ByteBuffer buffer, int count, long fromMillis) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (endMillis(buffer, middle) < fromMillis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Writes the index of the last record of every printer of a partition that is no longer written.
+     *
+     * @param day   the day of the partition in epoch days
+     * @param heads the index of the last record by printer ID
+     * @throws IOException if the index cannot be written
+     */
+    private void writeHeads(long day, Map<Integer, Integer> heads) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(headsFile(day))))) {
+            out.writeInt(heads.size());
+            for (Map.Entry<Integer, Integer> head : heads.entrySet()) {
+                out.writeInt(head.getKey());
+                out.writeInt(head.getValue());
+            }
+        }
+    }
+
+    /**
+     * Finds the last record of a printer in a partition that is no longer written. Uses the index
+     * written when the partition was closed, or searches the partition if there is none.
+     *
+     * @param day       the day of the partition in epoch days
+     * @param buffer    the mapped records
+     * @param printerId the ID of the printer
+     * @return the index of the record, or {@code -1} if the printer has no runs in the partition
+     * @throws IOException if the index cannot be read
+     */
+    private int lastRecordOf(long day, ByteBuffer buffer, int printerId) throws IOException {
+        Path headsFile = headsFile(day);
+        if (Files.exists(headsFile)) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(headsFile))) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    int id = in.readInt();
+                    int index = in.readInt();
+                    if (id == printerId) {
+                        return index;
+                    }
+                }
+                return -1;
+            }
+        }
+        for (int i = buffer.capacity() / RECORD_SIZE - 1; i >= 0; i--) {
+            if (buffer.getInt(i * RECORD_SIZE + PRINTER_ID) == printerId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the end time of a record.
+     *
+     * @param buffer the mapped records
+     * @param index  the index of the record
+     * @return the end time in milliseconds since the epoch
+     */
+    private static long endMillis(ByteBuffer buffer, int index) {
+        return buffer.getLong(index * RECORD_SIZE + END);
+    }
+
+    /**
+     * Reads a record.
+     *
+     * @param buffer the mapped records
+     * @param index  the index of the record
+     * @return the run stored in the record
+     */
+    private PrintRun read(ByteBuffer buffer, int index) {
+        int offset = index * RECORD_SIZE;
+        String colors = dictionary.get(buffer.getInt(offset + COLORS_CODE));
+        int[] spoolIds = new int[buffer.get(offset + SPOOL_COUNT)];
+        for (int i = 0; i < spoolIds.length; i++) {
+            spoolIds[i] = buffer.getInt(offset + SPOOL_IDS + i * 4);
+        }
+        return new PrintRun(
+                buffer.getLong(offset + TASK_ID),
+                buffer.getInt(offset + PRINTER_ID),
+                dictionary.get(buffer.getInt(offset + PRINT_CODE)),
+                colors.isEmpty() ? List.of() : Arrays.asList(colors.split(COLOR_SEPARATOR)),
+                FilamentType.values()[buffer.get(offset + FILAMENT_TYPE)],
+                buffer.getLong(offset + START),
+                buffer.getLong(offset + END),
+                buffer.get(offset + SUCCESSFUL) != 0,
+                spoolIds
+        );
+    }
+
+    /**
+     * Gets the dictionary code of an entry, adding it to the dictionary if it is new.
+     *
+     * @param entry the entry
+     * @return the code of the entry
+     * @throws IOException if the new entry cannot be written
+     */
+    private int encode(String entry) throws IOException {
+        Integer code = dictionaryCodes.get(entry);
+        if (code != null) {
+            return code;
+        }
+        byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Dictionary entry is too long");
+        }
+        dictionaryOut.writeShort(bytes.length);
+        dictionaryOut.write(bytes);
+        dictionaryOut.flush();
+        return addToDictionary(entry);
+    }
+
+    /**
+     * Adds an entry to the in-memory dictionary.
+     *
+     * @param entry the entry
+     * @return the code of the entry
+     */
+    private int addToDictionary(String entry) {
+        dictionary.add(entry);
+        dictionaryCodes.put(entry, dictionary.size() - 1);
+        return dictionary.size() - 1;
+    }
+
+    /**
+     * Resolves the file of the partition of the specified day.
+     *
+     * @param day the day in epoch days
+     * @return the partition file
+     */
+    private Path partitionFile(long day) {
+        return directory.resolve("runs-" + LocalDate.ofEpochDay(day) + ".dat");
+    }
+
+    /**
+     * Resolves the file of the index of the last record of every printer of the partition of the specified day.
+     *
+     * @param day the day in epoch days
+     * @return the index file
+     */
+    private Path headsFile(long day) {
+        return directory.resolve("runs-" + LocalDate.ofEpochDay(day) + ".idx");
+    }
+}
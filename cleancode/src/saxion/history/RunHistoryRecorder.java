@@ -0,0 +1,89 @@
+package saxion.history;
+
+import saxion.models.PlateTask;
+import saxion.models.PrintTask;
+import saxion.models.Spool;
+import saxion.observer.TaskObserver;
+import saxion.printers.Printer;
+import saxion.time.TimeSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link TaskObserver} that stores every finished task as a {@link PrintRun} in a {@link RunHistory}.
+ */
+public class RunHistoryRecorder implements TaskObserver {
+
+    /** The history the runs are stored in. */
+    private final RunHistory history;
+
+    /** The source of the start and end times of the runs. */
+    private final TimeSource timeSource;
+
+    /** The start time of the running task of every printer, by printer ID. */
+    private final Map<Integer, Long> startTimes = new HashMap<>();
+
+    /**
+     * Constructs a new {@code RunHistoryRecorder} storing the runs in the specified history.
+     *
+     * @param history    the {@link RunHistory} to store the runs in
+     * @param timeSource the {@link TimeSource} providing the start and end times
+     */
+    public RunHistoryRecorder(RunHistory history, TimeSource timeSource) {
+        this.history = history;
+        this.timeSource = timeSource;
+    }
+
+    /**
+     * Remembers when a task was started on a printer.
+     *
+     * @param printer the {@link Printer} that started the task
+     * @param task    the {@link PrintTask} that was started
+     */
+    @Override
+    public void taskStarted(Printer printer, PrintTask task) {
+        startTimes.put(printer.getId(), timeSource.currentTimeMillis());
+    }
+
+    /**
+     * Stores the finished task with the spools that were loaded while it ran; a plate is stored as one
+     * run per part. The start time is unknown if the task was already running when the application was
+     * started.
+     *
+     * @param printer    the {@link Printer} the task was running on
+     * @param task       the finished {@link PrintTask}
+     * @param successful whether the print was fulfilled
+     * @throws UncheckedIOException if the run cannot be stored
+     */
+    @Override
+    public void taskFinished(Printer printer, PrintTask task, boolean successful) {
+        Long startMillis = startTimes.remove(printer.getId());
+        List<Spool> spools = printer.getCurrentSpools();
+        int[] spoolIds = new int[spools.size()];
+        for (int i = 0; i < spoolIds.length; i++) {
+            spoolIds[i] = spools.get(i).getId();
+        }
+        long endMillis = timeSource.currentTimeMillis();
+        try {
+            for (PrintTask part : PlateTask.partsOf(task)) {
+                history.append(new PrintRun(
+                        part.getId(),
+                        printer.getId(),
+                        part.getPrint().getName(),
+                        part.getColors(),
+                        part.getFilamentType(),
+                        startMillis == null ? -1 : startMillis,
+                        endMillis,
+                        successful,
+                        spoolIds
+                ));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,610 @@
+package saxion.journal;
+
+import saxion.models.PrintTask;
+import saxion.types.FilamentType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only write-ahead journal of scheduling events.
+ * <p>
+ * Entries are encoded into an in-memory buffer, so appending costs a memory copy and no I/O.
+ * A background flusher thread swaps that buffer out at most every {@link #GROUP_COMMIT_NANOS}
+ * and writes it to the journal file with a single {@code fsync} (group commit). The file is
+ * preallocated in large zero-filled steps so that the regular flushes do not have to update
+ * the file metadata.
+ * <p>
+ * Every entry is stored as {@code [int length][byte type][payload][int crc32c]}. A zero length
+ * marks the end of the written part of the preallocated file; a torn or corrupt entry ends the
+ * replay as well.
+ * <p>
+ * A journal can be continued in a new file with {@link #create(Path, Journal)}. The new journal
+ * closes its predecessor before it writes its first batch, so a later file never becomes durable
+ * before an earlier one.
+ */
+public class Journal implements Closeable {
+
+    /** Maximum time a written entry waits before it is forced to disk. */
+    public static final long GROUP_COMMIT_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    /** The number of bytes the journal file is extended by when it runs out of preallocated space. */
+    private static final long PREALLOCATION_STEP = 16L * 1024 * 1024;
+
+    /** Size of each of the two append buffers. */
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    /** Length field, type byte and checksum that surround every payload. */
+    private static final int ENTRY_OVERHEAD = Integer.BYTES + 1 + Integer.BYTES;
+
+    /** The channel of the journal file. */
+    private final FileChannel channel;
+
+    /** Guards the append buffer and the positions below. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signalled when the active buffer has data that should be flushed. */
+    private final Condition flushRequested = lock.newCondition();
+
+    /** Signalled when a flush has completed. */
+    private final Condition flushed = lock.newCondition();
+
+    /** Checksum used while encoding entries; only used while holding the lock. */
+    private final CRC32C checksum = new CRC32C();
+
+    /** The buffer entries are currently appended to. */
+    private ByteBuffer active = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /** The buffer that is being written by the flusher thread. */
+    private ByteBuffer flushing = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /** Start of the entry currently being written; only used while holding the lock. */
+    private int pendingEntryStart;
+
+    /** Logical end of the journal including entries that are still buffered. */
+    private long appendedPosition;
+
+    /** Logical end of the journal that has been forced to disk. */
+    private long durablePosition;
+
+    /** File position the next flush is written to; only used by the flusher thread. */
+    private long filePosition;
+
+    /** Size of the preallocated journal file; only used by the flusher thread. */
+    private long preallocatedSize;
+
+    /** The last I/O failure of the flusher thread, rethrown to appenders. */
+    private volatile IOException failure;
+
+    /** Whether the journal has been closed. */
+    private volatile boolean closed;
+
+    /** Background thread performing the group commits. */
+    private final Thread flusher;
+
+    /** The journal this one continues; closed before the first batch of this journal is written. */
+    private Journal predecessor;
+
+    /**
+     * Constructs a new {@code Journal} that continues writing at the given position.
+     *
+     * @param channel       the channel of the journal file
+     * @param endOfEntries  the position directly after the last valid entry
+     * @param predecessor   the journal this one continues, or {@code null}
+     * @throws IOException if the size of the file cannot be determined
+     */
+    private Journal(FileChannel channel, long endOfEntries, Journal predecessor) throws IOException {
+        this.channel = channel;
+        this.predecessor = predecessor;
+        this.filePosition = endOfEntries;
+        this.appendedPosition = endOfEntries;
+        this.durablePosition = endOfEntries;
+        this.preallocatedSize = channel.size();
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    /**
+     * Opens the journal file, replays every valid entry into the visitor and prepares the journal
+     * for appending directly after the last valid entry.
+     *
+     * @param file    the journal file; created if it does not exist
+     * @param visitor the {@link JournalVisitor} receiving the replayed entries
+     * @return the opened {@code Journal}
+     * @throws IOException if the file cannot be opened or read
+     */
+    public static Journal open(Path file, JournalVisitor visitor) throws IOException {
+        FileChannel channel = FileChannel.open(
+                file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+        long endOfEntries = replay(channel, visitor);
+        Journal journal = new Journal(channel, endOfEntries, null);
+        journal.flusher.start();
+        return journal;
+    }
+
+    /**
+     * Creates a new, empty journal file that continues the specified journal. The predecessor
+     * stays open until this journal writes its first batch or is closed itself, so the caller
+     * does not wait for the predecessor's final flush.
+     *
+     * @param file        the journal file to create
+     * @param predecessor the journal that is continued, or {@code null}
+     * @return the created {@code Journal}
+     * @throws IOException if the file already exists or cannot be created
+     */
+    public static Journal create(Path file, Journal predecessor) throws IOException {
+        FileChannel channel = FileChannel.open(
+                file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+        Journal journal = new Journal(channel, 0, predecessor);
+        journal.flusher.start();
+        return journal;
+    }
+
+    /**
+     * Replays every valid entry of a journal file that is no longer written to.
+     *
+     * @param file    the journal file
+     * @param visitor the {@link JournalVisitor} receiving the entries
+     * @throws IOException if the file cannot be read
+     */
+    public static void replay(Path file, JournalVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            replay(channel, visitor);
+        }
+    }
+
+    /**
+     * Appends a {@link JournalEntryType#TASK_ADDED} entry.
+     *
+     * @param taskId         the identifier of the added task
+     * @param printName      the name of the print
+     * @param filamentType   the filament type of the task
+     * @param colors         the colors of the task
+     * @param priority       the order priority of the task
+     * @param deadlineMillis the deadline of the task, or {@link PrintTask#NO_DEADLINE}
+     */
+    public void taskAdded(long taskId, String printName, FilamentType filamentType, List<String> colors, int priority,
+                          long deadlineMillis) {
+        byte[] name = printName.getBytes(StandardCharsets.UTF_8);
+        byte[][] encodedColors = new byte[colors.size()][];
+        int size = Long.BYTES + 1 + Short.BYTES + name.length + 1 + Integer.BYTES + Long.BYTES;
+        for (int i = 0; i < encodedColors.length; i++) {
+            encodedColors[i] = colors.get(i).getBytes(StandardCharsets.UTF_8);
+            size += Short.BYTES + encodedColors[i].length;
+        }
+
+        ByteBuffer buffer = begin(JournalEntryType.TASK_ADDED, size);
+        try {
+            buffer.putLong(taskId);
+            buffer.put((byte) filamentType.ordinal());
+            putBytes(buffer, name);
+            buffer.put((byte) encodedColors.length);
+            for (byte[] color : encodedColors) {
+                putBytes(buffer, color);
+            }
+            buffer.putInt(priority);
+            buffer.putLong(deadlineMillis);
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Appends a {@link JournalEntryType#TASK_PRIORITY} entry.
+     *
+     * @param taskId   the identifier of the pending task
+     * @param priority the new order priority of the task
+     */
+    public void taskPriorityChanged(long taskId, int priority) {
+        ByteBuffer buffer = begin(JournalEntryType.TASK_PRIORITY, Long.BYTES + Integer.BYTES);
+        try {
+            buffer.putLong(taskId);
+            buffer.putInt(priority);
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Appends a {@link JournalEntryType#TASK_STARTED} entry.
+     *
+     * @param printerId the ID of the printer the task was started on
+     * @param taskId    the identifier of the started task
+     */
+    public void taskStarted(int printerId, long taskId) {
+        appendPrinterTask(JournalEntryType.TASK_STARTED, printerId, taskId);
+    }
+
+    /**
+     * Appends a {@link JournalEntryType#TASK_PACKED} entry.
+     *
+     * @param printerId the ID of the printer whose build plate the task joined
+     * @param taskId    the identifier of the packed task
+     */
+    public void taskPacked(int printerId, long taskId) {
+        appendPrinterTask(JournalEntryType.TASK_PACKED, printerId, taskId);
+    }
+
+    /**
+     * Appends a {@link JournalEntryType#SPOOL_CHANGE} entry.
+     *
+     * @param printerId the ID of the printer whose spools were changed
+     * @param changes   the number of spool changes that were counted
+     * @param spoolIds  the IDs of the spools loaded after the change, in slot order
+     */
+    public void spoolsChanged(int printerId, int changes, int[] spoolIds) {
+        ByteBuffer buffer = begin(
+                JournalEntryType.SPOOL_CHANGE, Integer.BYTES + Short.BYTES + 1 + spoolIds.length * Integer.BYTES
+        );
+        try {
+            buffer.putInt(printerId);
+            buffer.putShort((short) changes);
+            buffer.put((byte) spoolIds.length);
+            for (int spoolId : spoolIds) {
+                buffer.putInt(spoolId);
+            }
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Appends a {@link JournalEntryType#TASK_COMPLETED} or {@link JournalEntryType#TASK_FAILED} entry.
+     *
+     * @param printerId  the ID of the printer the task was running on
+     * @param taskId     the identifier of the finished task
+     * @param successful {@code true} for a completion; {@code false} for a failure
+     */
+    public void taskFinished(int printerId, long taskId, boolean successful) {
+        appendPrinterTask(
+                successful ? JournalEntryType.TASK_COMPLETED : JournalEntryType.TASK_FAILED, printerId, taskId
+        );
+    }
+
+    /**
+     * Blocks until every entry appended so far has been forced to disk.
+     *
+     * @throws UncheckedIOException if the flusher failed to write the journal
+     */
+    public void sync() {
+        lock.lock();
+        try {
+            long target = appendedPosition;
+            flushRequested.signal();
+            while (durablePosition < target) {
+                checkFailure();
+                flushed.awaitNanos(GROUP_COMMIT_NANOS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces all appended entries to disk, stops the flusher thread and closes the journal file.
+     * Closing a journal that is already closed has no effect.
+     *
+     * @throws IOException if the journal file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        sync();
+        closed = true;
+        lock.lock();
+        try {
+            flushRequested.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closePredecessor();
+        channel.close();
+        checkFailure();
+    }
+
+    /**
+     * Appends an entry that consists of a printer ID and a task identifier.
+     *
+     * @param type      the type of the entry
+     * @param printerId the ID of the printer
+     * @param taskId    the identifier of the task
+     */
+    private void appendPrinterTask(JournalEntryType type, int printerId, long taskId) {
+        ByteBuffer buffer = begin(type, Integer.BYTES + Long.BYTES);
+        try {
+            buffer.putInt(printerId);
+            buffer.putLong(taskId);
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Takes the lock, makes room for an entry with the given payload size and writes its header.
+     * Must always be followed by {@link #end()}.
+     *
+     * @param type        the type of the entry
+     * @param payloadSize the exact size of the payload in bytes
+     * @return the buffer the payload has to be written to
+     */
+    private ByteBuffer begin(JournalEntryType type, int payloadSize) {
+        int entrySize = payloadSize + ENTRY_OVERHEAD;
+        if (entrySize > BUFFER_SIZE) {
+            throw new IllegalArgumentException("Journal entry too large: " + entrySize + " bytes");
+        }
+        lock.lock();
+        try {
+            checkFailure();
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            while (active.remaining() < entrySize) {
+                flushRequested.signal();
+                flushed.awaitUninterruptibly();
+                checkFailure();
+            }
+        } catch (RuntimeException e) {
+            lock.unlock();
+            throw e;
+        }
+        pendingEntryStart = active.position();
+        active.putInt(0);
+        active.put(type.getCode());
+        return active;
+    }
+
+    /**
+     * Completes the entry started by {@link #begin(JournalEntryType, int)}: patches its length,
+     * appends the checksum and releases the lock.
+     */
+    private void end() {
+        try {
+            int entryEnd = active.position();
+            int entryStart = pendingEntryStart;
+            int length = entryEnd - entryStart - Integer.BYTES;
+            active.putInt(entryStart, length);
+
+            checksum.reset();
+            checksum.update(active.duplicate().position(entryStart + Integer.BYTES).limit(entryEnd));
+            active.putInt((int) checksum.getValue());
+
+            appendedPosition += active.position() - entryStart;
+            if (active.position() > BUFFER_SIZE / 2) {
+                flushRequested.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a length-prefixed byte array.
+     *
+     * @param buffer the buffer to write to
+     * @param bytes  the bytes to write
+     */
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Rethrows a failure of the flusher thread to the caller.
+     *
+     * @throws UncheckedIOException if the flusher failed
+     */
+    private void checkFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException("Journal could not be written", failure);
+        }
+    }
+
+    /**
+     * Main loop of the flusher thread: waits for the group commit window, swaps the buffers
+     * and writes and forces the filled buffer.
+     */
+    private void flushLoop() {
+        while (true) {
+            long target;
+            lock.lock();
+            try {
+                if (active.position() == 0) {
+                    if (closed) {
+                        return;
+                    }
+                    flushRequested.awaitNanos(GROUP_COMMIT_NANOS);
+                    if (active.position() == 0) {
+                        continue;
+                    }
+                }
+                ByteBuffer filled = active;
+                active = flushing;
+                flushing = filled;
+                target = appendedPosition;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                closePredecessor();
+                write(flushing);
+            } catch (IOException e) {
+                failure = e;
+            }
+
+            lock.lock();
+            try {
+                if (failure == null) {
+                    durablePosition = target;
+                }
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (failure != null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Closes the journal this one continues, if that has not happened yet.
+     *
+     * @throws IOException if the predecessor cannot be closed
+     */
+    private void closePredecessor() throws IOException {
+        Journal previous = predecessor;
+        if (previous != null) {
+            previous.close();
+            predecessor = null;
+        }
+    }
+
+    /**
+     * Writes a filled buffer to the journal file and forces it to disk, extending the
+     * preallocated part of the file first if needed.
+     *
+     * @param buffer the buffer to write; cleared afterwards
+     * @throws IOException if the file cannot be written
+     */
+    private void write(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        boolean extended = false;
+        while (filePosition + buffer.remaining() + Integer.BYTES > preallocatedSize) {
+            preallocate();
+            extended = true;
+        }
+        while (buffer.hasRemaining()) {
+            filePosition += channel.write(buffer, filePosition);
+        }
+        channel.force(extended);
+        buffer.clear();
+    }
+
+    /**
+     * Extends the journal file by {@link #PREALLOCATION_STEP} zero bytes.
+     *
+     * @throws IOException if the file cannot be extended
+     */
+    private void preallocate() throws IOException {
+        ByteBuffer zeros = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long end = preallocatedSize + PREALLOCATION_STEP;
+        for (long position = preallocatedSize; position < end; position += BUFFER_SIZE) {
+            zeros.clear();
+            while (zeros.hasRemaining()) {
+                channel.write(zeros, position + zeros.position());
+            }
+        }
+        preallocatedSize = end;
+    }
+
+    /**
+     * Replays every valid entry of the journal file into the visitor.
+     *
+     * @param channel the channel of the journal file
+     * @param visitor the {@link JournalVisitor} receiving the entries
+     * @return the position directly after the last valid entry
+     * @throws IOException if the file cannot be read
+     */
+    private static long replay(FileChannel channel, JournalVisitor visitor) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return 0;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        CRC32C crc = new CRC32C();
+        while (buffer.remaining() >= ENTRY_OVERHEAD) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length <= 0 || length + Integer.BYTES > buffer.remaining()) {
+                return start;
+            }
+            crc.reset();
+            crc.update(buffer.duplicate().limit(start + Integer.BYTES + length));
+            ByteBuffer entry = buffer.slice().limit(length);
+            buffer.position(start + Integer.BYTES + length);
+            if ((int) crc.getValue() != buffer.getInt()) {
+                return start;
+            }
+            dispatch(entry, visitor);
+        }
+        return buffer.position();
+    }
+
+    /**
+     * Decodes a single entry and passes it to the visitor.
+     *
+     * @param entry   the type byte and payload of the entry
+     * @param visitor the {@link JournalVisitor} receiving the entry
+     */
+    private static void dispatch(ByteBuffer entry, JournalVisitor visitor) {
+        JournalEntryType type = JournalEntryType.fromCode(entry.get());
+        switch (type) {
+            case TASK_ADDED -> {
+                long taskId = entry.getLong();
+                FilamentType filamentType = FilamentType.values()[entry.get()];
+                String printName = getString(entry);
+                int colorCount = entry.get();
+                List<String> colors = new ArrayList<>(colorCount);
+                for (int i = 0; i < colorCount; i++) {
+                    colors.add(getString(entry));
+                }
+                int priority = entry.remaining() >= Integer.BYTES ? entry.getInt() : PrintTask.DEFAULT_PRIORITY;
+                long deadlineMillis = entry.remaining() >= Long.BYTES ? entry.getLong() : PrintTask.NO_DEADLINE;
+                visitor.taskAdded(taskId, printName, filamentType, colors, priority, deadlineMillis);
+            }
+            case TASK_STARTED -> visitor.taskStarted(entry.getInt(), entry.getLong());
+            case SPOOL_CHANGE -> {
+                int printerId = entry.getInt();
+                int changes = entry.getShort();
+                int[] spoolIds = new int[entry.get()];
+                for (int i = 0; i < spoolIds.length; i++) {
+                    spoolIds[i] = entry.getInt();
+                }
+                visitor.spoolsChanged(printerId, changes, spoolIds);
+            }
+            case TASK_COMPLETED -> visitor.taskFinished(entry.getInt(), entry.getLong(), true);
+            case TASK_FAILED -> visitor.taskFinished(entry.getInt(), entry.getLong(), false);
+            case TASK_PRIORITY -> visitor.taskPriorityChanged(entry.getLong(), entry.getInt());
+            case TASK_PACKED -> visitor.taskPacked(entry.getInt(), entry.getLong());
+        }
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 string.
+     *
+     * @param buffer the buffer to read from
+     * @return the decoded string
+     */
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
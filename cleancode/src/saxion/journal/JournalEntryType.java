@@ -0,0 +1,52 @@
+package saxion.journal;
+
+/**
+ * The `JournalEntryType` enum lists the scheduling events that are recorded in the {@link Journal}.
+ * Each type is stored in the journal as a single byte code.
+ */
+public enum JournalEntryType {
+    TASK_ADDED(1),
+    TASK_STARTED(2),
+    SPOOL_CHANGE(3),
+    TASK_COMPLETED(4),
+    TASK_FAILED(5),
+    TASK_PRIORITY(6),
+    TASK_PACKED(7);
+
+    /** The byte code written to the journal for this entry type. */
+    private final byte code;
+
+    /**
+     * Constructs a new {@code JournalEntryType} with the given byte code.
+     *
+     * @param code the byte code used in the journal file
+     */
+    JournalEntryType(int code) {
+        this.code = (byte) code;
+    }
+
+    /**
+     * Gets the byte code written to the journal for this entry type.
+     *
+     * @return the byte code
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Retrieves a {@code JournalEntryType} based on its byte code.
+     *
+     * @param code the byte code read from the journal
+     * @return the corresponding {@link JournalEntryType}
+     * @throws IllegalArgumentException if the code does not map to a known entry type
+     */
+    public static JournalEntryType fromCode(byte code) {
+        for (JournalEntryType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Invalid journal entry type: " + code);
+    }
+}
@@ -0,0 +1,124 @@
+package saxion.journal;
+
+import saxion.models.PlateTask;
+import saxion.models.PrintTask;
+import saxion.models.Spool;
+import saxion.observer.TaskObserver;
+import saxion.printers.Printer;
+
+import java.util.List;
+
+/**
+ * A {@link TaskObserver} that writes every scheduling step of the {@link saxion.PrintManager}
+ * to a {@link Journal}.
+ */
+public class JournalRecorder implements TaskObserver {
+
+    /** The journal the events are written to. */
+    private Journal journal;
+
+    /** The number of entries written since the journal was last replaced. */
+    private long entryCount;
+
+    /**
+     * Constructs a new {@code JournalRecorder} writing to the specified journal.
+     *
+     * @param journal the {@link Journal} to write to
+     */
+    public JournalRecorder(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Continues recording into another journal and resets the entry count.
+     *
+     * @param journal the {@link Journal} to write to from now on
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+        this.entryCount = 0;
+    }
+
+    /**
+     * Gets the number of entries written since the journal was last replaced.
+     *
+     * @return the number of entries
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Records that a task was added to the pending queue.
+     *
+     * @param task the {@link PrintTask} that was queued
+     */
+    @Override
+    public void taskAdded(PrintTask task) {
+        entryCount++;
+        journal.taskAdded(task.getId(), task.getPrint().getName(), task.getFilamentType(), task.getColors(),
+                task.getPriority(), task.getDeadlineMillis());
+    }
+
+    /**
+     * Records that the order priority of a pending task changed.
+     *
+     * @param task             the {@link PrintTask} with its new priority
+     * @param previousPriority the priority it had before
+     */
+    @Override
+    public void taskPriorityChanged(PrintTask task, int previousPriority) {
+        entryCount++;
+        journal.taskPriorityChanged(task.getId(), task.getPriority());
+    }
+
+    /**
+     * Records that a task was started on a printer. A plate is recorded as the start of its lead task
+     * followed by every task packed next to it.
+     *
+     * @param printer the {@link Printer} that started the task
+     * @param task    the {@link PrintTask} that was started
+     */
+    @Override
+    public void taskStarted(Printer printer, PrintTask task) {
+        entryCount++;
+        journal.taskStarted(printer.getId(), task.getId());
+        if (task instanceof PlateTask) {
+            List<PrintTask> parts = ((PlateTask) task).getParts();
+            for (int i = 1; i < parts.size(); i++) {
+                entryCount++;
+                journal.taskPacked(printer.getId(), parts.get(i).getId());
+            }
+        }
+    }
+
+    /**
+     * Records the spools that are loaded in a printer after a spool change.
+     *
+     * @param printer the {@link Printer} whose spools were changed
+     * @param spools  the spools loaded after the change, in slot order
+     * @param changes the number of spool changes that were counted
+     */
+    @Override
+    public void spoolsChanged(Printer printer, List<Spool> spools, int changes) {
+        int[] spoolIds = new int[spools.size()];
+        for (int i = 0; i < spoolIds.length; i++) {
+            spoolIds[i] = spools.get(i).getId();
+        }
+        entryCount++;
+        journal.spoolsChanged(printer.getId(), changes, spoolIds);
+    }
+
+    /**
+     * Records that the running task of a printer was completed or failed.
+     *
+     * @param printer    the {@link Printer} the task was running on
+     * @param task       the finished {@link PrintTask}
+     * @param successful whether the print was fulfilled
+     */
+    @Override
+    public void taskFinished(Printer printer, PrintTask task, boolean successful) {
+        entryCount++;
+        journal.taskFinished(printer.getId(), task.getId(), successful);
+    }
+}
@@ -0,0 +1,171 @@
+package saxion.journal;
+
+import saxion.PrintManager;
+import saxion.models.PlateTask;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.Spool;
+import saxion.observer.PrintEvent;
+import saxion.printers.Printer;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link JournalVisitor} that re-applies journaled scheduling events to a {@link PrintManager}
+ * whose prints, spools and printers have already been loaded.
+ */
+public class JournalReplayer implements JournalVisitor {
+
+    /** The manager the events are applied to. */
+    private final PrintManager printManager;
+
+    /** Pending tasks by their identifier, so started tasks can be found without scanning the queue. */
+    private final Map<Long, PrintTask> pendingTasks = new HashMap<>();
+
+    /** Prints by their name. */
+    private final Map<String, Print> prints = new HashMap<>();
+
+    /**
+     * Constructs a new {@code JournalReplayer} for the specified manager.
+     *
+     * @param printManager the {@link PrintManager} to restore
+     */
+    public JournalReplayer(PrintManager printManager) {
+        this.printManager = printManager;
+        for (Print print : printManager.getPrints()) {
+            prints.put(print.getName(), print);
+        }
+        for (PrintTask task : printManager.getPendingPrintTasks()) {
+            pendingTasks.put(task.getId(), task);
+        }
+    }
+
+    /**
+     * Restores a queued task.
+     *
+     * @param taskId         the identifier of the added task
+     * @param printName      the name of the print
+     * @param filamentType   the filament type of the task
+     * @param colors         the colors of the task
+     * @param priority       the order priority of the task
+     * @param deadlineMillis the deadline of the task, or {@link PrintTask#NO_DEADLINE}
+     * @throws IllegalStateException if the print is no longer known
+     */
+    @Override
+    public void taskAdded(long taskId, String printName, FilamentType filamentType, List<String> colors, int priority,
+                          long deadlineMillis) {
+        Print print = prints.get(printName);
+        if (print == null) {
+            throw new IllegalStateException("Journal refers to unknown print " + printName);
+        }
+        PrintTask task = new PrintTask(taskId, print, colors, filamentType, priority, deadlineMillis);
+        printManager.getPendingPrintTasks().add(task);
+        pendingTasks.put(taskId, task);
+    }
+
+    /**
+     * Moves a pending task onto its printer.
+     *
+     * @param printerId the ID of the printer the task was started on
+     * @param taskId    the identifier of the started task
+     * @throws IllegalStateException if the task is not pending
+     */
+    @Override
+    public void taskStarted(int printerId, long taskId) {
+        PrintTask task = pendingTasks.remove(taskId);
+        if (task == null) {
+            throw new IllegalStateException("Journal starts task " + taskId + " which is not pending");
+        }
+        printManager.getPendingPrintTasks().remove(task);
+        printManager.getPrinterHandler().getPrinterById(printerId).setTask(task);
+    }
+
+    /**
+     * Moves a pending task onto the build plate of the task the printer is running.
+     *
+     * @param printerId the ID of the printer whose build plate the task joined
+     * @param taskId    the identifier of the packed task
+     * @throws IllegalStateException if the task is not pending
+     */
+    @Override
+    public void taskPacked(int printerId, long taskId) {
+        PrintTask task = pendingTasks.remove(taskId);
+        if (task == null) {
+            throw new IllegalStateException("Journal packs task " + taskId + " which is not pending");
+        }
+        printManager.getPendingPrintTasks().remove(task);
+        Printer printer = printManager.getPrinterHandler().getRunningPrinterById(printerId);
+        List<PrintTask> parts = new ArrayList<>();
+        if (printer.getTask() instanceof PlateTask) {
+            parts.addAll(((PlateTask) printer.getTask()).getParts());
+        } else {
+            parts.add(printer.getTask());
+        }
+        parts.add(task);
+        printer.setTask(new PlateTask(parts));
+    }
+
+    /**
+     * Loads the journaled spools into the printer and counts the spool changes.
+     *
+     * @param printerId the ID of the printer whose spools were changed
+     * @param changes   the number of spool changes that were counted
+     * @param spoolIds  the IDs of the spools loaded after the change, in slot order
+     */
+    @Override
+    public void spoolsChanged(int printerId, int changes, int[] spoolIds) {
+        List<Spool> spools = new ArrayList<>(spoolIds.length);
+        for (int spoolId : spoolIds) {
+            spools.add(printManager.getSpoolHandler().getSpoolById(spoolId));
+        }
+        Printer printer = printManager.getPrinterHandler().getPrinterById(printerId);
+        printManager.getSpoolHandler().loadSpools(printer, spools);
+        printManager.update(new PrintEvent(changes, 0));
+    }
+
+    /**
+     * Finalizes the running task of the printer without telling the task observers, which did not see it
+     * start.
+     *
+     * @param printerId  the ID of the printer the task was running on
+     * @param taskId     the identifier of the finished task
+     * @param successful whether the print was fulfilled
+     * @throws IllegalStateException if the printer is not running the journaled task
+     */
+    @Override
+    public void taskFinished(int printerId, long taskId, boolean successful) {
+        PrintTask task = printManager.getPrinterHandler().getRunningPrinterById(printerId).getTask();
+        if (task.getId() != taskId) {
+            throw new IllegalStateException(
+                    "Journal finishes task " + taskId + " but printer " + printerId + " runs task " + task.getId()
+            );
+        }
+        printManager.restoreFinishedTask(printerId, successful);
+        if (!successful) {
+            List<PrintTask> parts = PlateTask.partsOf(task);
+            for (PrintTask part : parts) {
+                pendingTasks.put(part.getId(), part);
+            }
+        }
+    }
+
+    /**
+     * Moves a pending task to the place of its new priority.
+     *
+     * @param taskId   the identifier of the pending task
+     * @param priority the new order priority of the task
+     * @throws IllegalStateException if the task is not pending
+     */
+    @Override
+    public void taskPriorityChanged(long taskId, int priority) {
+        PrintTask task = pendingTasks.get(taskId);
+        if (task == null) {
+            throw new IllegalStateException("Journal re-prioritises task " + taskId + " which is not pending");
+        }
+        printManager.getPendingPrintTasks().changePriority(task, priority);
+    }
+}
@@ -0,0 +1,68 @@
+package saxion.journal;
+
+import saxion.types.FilamentType;
+
+import java.util.List;
+
+/**
+ * Callback interface used by {@link Journal} to hand decoded entries back to the caller
+ * while a journal file is being replayed.
+ */
+public interface JournalVisitor {
+
+    /**
+     * Called for a {@link JournalEntryType#TASK_ADDED} entry.
+     *
+     * @param taskId         the identifier of the added task
+     * @param printName      the name of the print
+     * @param filamentType   the filament type of the task
+     * @param colors         the colors of the task
+     * @param priority       the order priority of the task; entries written before tasks had one have the default
+     * @param deadlineMillis the deadline of the task; entries written before tasks had one have none
+     */
+    void taskAdded(long taskId, String printName, FilamentType filamentType, List<String> colors, int priority,
+                   long deadlineMillis);
+
+    /**
+     * Called for a {@link JournalEntryType#TASK_STARTED} entry.
+     *
+     * @param printerId the ID of the printer the task was started on
+     * @param taskId    the identifier of the started task
+     */
+    void taskStarted(int printerId, long taskId);
+
+    /**
+     * Called for a {@link JournalEntryType#TASK_PACKED} entry, which follows the start of the task whose
+     * build plate the packed task joined.
+     *
+     * @param printerId the ID of the printer whose build plate the task joined
+     * @param taskId    the identifier of the packed task
+     */
+    void taskPacked(int printerId, long taskId);
+
+    /**
+     * Called for a {@link JournalEntryType#SPOOL_CHANGE} entry.
+     *
+     * @param printerId the ID of the printer whose spools were changed
+     * @param changes   the number of spool changes that were counted
+     * @param spoolIds  the IDs of the spools loaded after the change, in slot order
+     */
+    void spoolsChanged(int printerId, int changes, int[] spoolIds);
+
+    /**
+     * Called for a {@link JournalEntryType#TASK_COMPLETED} or {@link JournalEntryType#TASK_FAILED} entry.
+     *
+     * @param printerId  the ID of the printer the task was running on
+     * @param taskId     the identifier of the finished task
+     * @param successful {@code true} for a completion; {@code false} for a failure
+     */
+    void taskFinished(int printerId, long taskId, boolean successful);
+
+    /**
+     * Called for a {@link JournalEntryType#TASK_PRIORITY} entry.
+     *
+     * @param taskId   the identifier of the pending task
+     * @param priority the new order priority of the task
+     */
+    void taskPriorityChanged(long taskId, int priority);
+}
@@ -0,0 +1,478 @@
+package saxion.journal;
+
+import saxion.PrintManager;
+import saxion.handlers.SpoolHandler;
+import saxion.models.PlateTask;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.Spool;
+import saxion.observer.PrintEvent;
+import saxion.printers.Printer;
+import saxion.types.FilamentType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A point-in-time copy of the scheduling state of a {@link PrintManager}, its {@link SpoolHandler}
+ * and its {@link saxion.handlers.PrinterHandler}: counters, spool lengths, pending tasks, printer
+ * assignments, loaded spools and the order of the free spools.
+ * <p>
+ * A snapshot is captured on the scheduler thread as plain values and can then be written to disk from
+ * any other thread. Capturing pauses scheduling for one pass over the spools, the pending tasks and the
+ * printers: no I/O, no sorting, and the pending tasks are read in ID order from the queue index rather
+ * than in priority order, sharing their unmodifiable color lists. The pause grows linearly with the
+ * farm, to a few milliseconds for 100,000 pending tasks (see {@code benchmarks.RecoveryBenchmark}),
+ * and is taken once per snapshot interval. It belongs to a journal generation: restoring it and
+ * replaying the journal segments from that generation on recreates the state.
+ */
+public class Snapshot {
+
+    /** Marker at the start of every snapshot file. */
+    private static final int MAGIC = 0x534E4150;
+
+    /**
+     * Version of the snapshot file format; version 2 added the task priorities, version 3 the deadlines,
+     * version 4 the parts of plates.
+     */
+    private static final int VERSION = 4;
+
+    /**
+     * The captured state of a print task.
+     *
+     * @param id             the task identifier
+     * @param printName      the name of the print
+     * @param filamentType   the filament type of the task
+     * @param colors         the colors of the task
+     * @param priority       the order priority of the task
+     * @param deadlineMillis the deadline of the task, or {@link PrintTask#NO_DEADLINE}
+     */
+    private record TaskState(long id, String printName, FilamentType filamentType, List<String> colors, int priority,
+                             long deadlineMillis) {
+    }
+
+    /**
+     * The captured state of a printer.
+     *
+     * @param id       the printer ID
+     * @param tasks    the running task, or every part of the running plate starting with its lead task;
+     *                 empty if the printer is idle
+     * @param spoolIds the IDs of the loaded spools in slot order
+     */
+    private record PrinterState(int id, List<TaskState> tasks, int[] spoolIds) {
+    }
+
+    /** The first journal generation that is not covered by this snapshot. */
+    private final long generation;
+
+    /** The highest task identifier issued when the snapshot was taken. */
+    private final long lastTaskId;
+
+    /** The number of spool changes counted by the manager. */
+    private final int spoolChangeCount;
+
+    /** The number of prints fulfilled by the manager. */
+    private final int printsFulfilled;
+
+    /** The IDs of all spools. */
+    private final int[] spoolIds;
+
+    /** The remaining lengths of all spools, parallel to {@link #spoolIds}. */
+    private final double[] spoolLengths;
+
+    /** The IDs of the free spools in their list order. */
+    private final int[] freeSpoolIds;
+
+    /** The pending tasks in ID order; the queue puts them back in its own order. */
+    private final List<TaskState> pendingTasks;
+
+    /** The state of every printer. */
+    private final List<PrinterState> printers;
+
+    /**
+     * Constructs a new {@code Snapshot} from captured values.
+     *
+     * @param generation       the first journal generation not covered by this snapshot
+     * @param lastTaskId       the highest task identifier issued
+     * @param spoolChangeCount the number of spool changes
+     * @param printsFulfilled  the number of prints fulfilled
+     * @param spoolIds         the IDs of all spools
+     * @param spoolLengths     the remaining lengths of all spools
+     * @param freeSpoolIds     the IDs of the free spools in list order
+     * @param pendingTasks     the pending tasks in ID order
+     * @param printers         the state of every printer
+     */
+    private Snapshot(
+            long generation,
+            long lastTaskId,
+            int spoolChangeCount,
+            int printsFulfilled,
+            int[] spoolIds,
+            double[] spoolLengths,
+            int[] freeSpoolIds,
+            List<TaskState> pendingTasks,
+            List<PrinterState> printers
+    ) {
+        this.generation = generation;
+        this.lastTaskId = lastTaskId;
+        this.spoolChangeCount = spoolChangeCount;
+        this.printsFulfilled = printsFulfilled;
+        this.spoolIds = spoolIds;
+        this.spoolLengths = spoolLengths;
+        this.freeSpoolIds = freeSpoolIds;
+        this.pendingTasks = pendingTasks;
+        this.printers = printers;
+    }
+
+    /**
+     * Gets the first journal generation that is not covered by this snapshot.
+     *
+     * @return the journal generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Captures the current state of the specified manager.
+     *
+     * @param printManager the {@link PrintManager} to capture
+     * @param generation   the first journal generation that is not covered by the snapshot
+     * @return the captured {@code Snapshot}
+     */
+    public static Snapshot capture(PrintManager printManager, long generation) {
+        List<Spool> spools = printManager.getSpoolHandler().getSpools();
+        int[] spoolIds = new int[spools.size()];
+        double[] spoolLengths = new double[spools.size()];
+        for (int i = 0; i < spoolIds.length; i++) {
+            spoolIds[i] = spools.get(i).getId();
+            spoolLengths[i] = spools.get(i).getLength();
+        }
+
+        Collection<PrintTask> pending = printManager.getPendingPrintTasks().getTasksById().values();
+        List<TaskState> pendingTasks = new ArrayList<>(pending.size());
+        for (PrintTask task : pending) {
+            pendingTasks.add(captureTask(task));
+        }
+
+        List<PrinterState> printers = new ArrayList<>();
+        for (Printer printer : printManager.getPrinterHandler().getPrinters()) {
+            PrintTask task = printer.getTask();
+            List<TaskState> tasks = new ArrayList<>();
+            if (task instanceof PlateTask) {
+                for (PrintTask part : ((PlateTask) task).getParts()) {
+                    tasks.add(captureTask(part));
+                }
+            } else if (task != null) {
+                tasks.add(captureTask(task));
+            }
+            printers.add(new PrinterState(printer.getId(), tasks, toIds(printer.getCurrentSpools())));
+        }
+
+        return new Snapshot(
+                generation,
+                PrintTask.getLastIssuedId(),
+                printManager.getSpoolChangeCount(),
+                printManager.getPrintsFulfilled(),
+                spoolIds,
+                spoolLengths,
+                toIds(printManager.getSpoolHandler().getFreeSpools()),
+                pendingTasks,
+                printers
+        );
+    }
+
+    /**
+     * Restores the captured state into a manager whose prints, spools and printers have been
+     * loaded but which has not scheduled anything yet.
+     *
+     * @param printManager the {@link PrintManager} to restore
+     * @throws IllegalStateException if the snapshot refers to an unknown print, spool or printer
+     */
+    public void restore(PrintManager printManager) {
+        SpoolHandler spoolHandler = printManager.getSpoolHandler();
+        Map<String, Print> prints = new HashMap<>();
+        for (Print print : printManager.getPrints()) {
+            prints.put(print.getName(), print);
+        }
+
+        PrintTask.advanceIdsTo(lastTaskId);
+        printManager.update(new PrintEvent(spoolChangeCount, printsFulfilled));
+
+        for (int i = 0; i < spoolIds.length; i++) {
+            spoolHandler.getSpoolById(spoolIds[i]).setLength(spoolLengths[i]);
+        }
+        for (TaskState task : pendingTasks) {
+            printManager.getPendingPrintTasks().add(restoreTask(task, prints));
+        }
+        for (PrinterState state : printers) {
+            Printer printer = printManager.getPrinterHandler().getPrinterById(state.id());
+            List<PrintTask> tasks = new ArrayList<>();
+            for (TaskState task : state.tasks()) {
+                tasks.add(restoreTask(task, prints));
+            }
+            if (tasks.size() > 1) {
+                printer.setTask(new PlateTask(tasks));
+            } else {
+                printer.setTask(tasks.isEmpty() ? null : tasks.get(0));
+            }
+            if (state.spoolIds().length > 0) {
+                printer.setCurrentSpools(toSpools(spoolHandler, state.spoolIds()));
+            }
+        }
+        spoolHandler.setFreeSpools(toSpools(spoolHandler, freeSpoolIds));
+    }
+
+    /**
+     * Writes the snapshot to the specified file. The data is written to a temporary file,
+     * forced to disk and then atomically moved into place, so a crash never leaves a partial snapshot.
+     *
+     * @param file the file to write
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void write(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (OutputStream fileOut = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(new CheckedOutputStream(fileOut, crc), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.writeLong(lastTaskId);
+            out.writeInt(spoolChangeCount);
+            out.writeInt(printsFulfilled);
+
+            out.writeInt(spoolIds.length);
+            for (int i = 0; i < spoolIds.length; i++) {
+                out.writeInt(spoolIds[i]);
+                out.writeDouble(spoolLengths[i]);
+            }
+            writeIds(out, freeSpoolIds);
+
+            out.writeInt(pendingTasks.size());
+            for (TaskState task : pendingTasks) {
+                writeTask(out, task);
+            }
+
+            out.writeInt(printers.size());
+            for (PrinterState printer : printers) {
+                out.writeInt(printer.id());
+                out.writeInt(printer.tasks().size());
+                for (TaskState task : printer.tasks()) {
+                    writeTask(out, task);
+                }
+                writeIds(out, printer.spoolIds());
+            }
+            out.flush();
+            new DataOutputStream(fileOut).writeInt((int) crc.getValue());
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads a snapshot from the specified file.
+     *
+     * @param file the file to read
+     * @return the read {@code Snapshot}
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static Snapshot read(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (InputStream fileIn = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+             DataInputStream in = new DataInputStream(new CheckedInputStream(fileIn, crc))) {
+            int version = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            long generation = in.readLong();
+            long lastTaskId = in.readLong();
+            int spoolChangeCount = in.readInt();
+            int printsFulfilled = in.readInt();
+
+            int spoolCount = in.readInt();
+            int[] spoolIds = new int[spoolCount];
+            double[] spoolLengths = new double[spoolCount];
+            for (int i = 0; i < spoolCount; i++) {
+                spoolIds[i] = in.readInt();
+                spoolLengths[i] = in.readDouble();
+            }
+            int[] freeSpoolIds = readIds(in);
+
+            int pendingCount = in.readInt();
+            List<TaskState> pendingTasks = new ArrayList<>(pendingCount);
+            for (int i = 0; i < pendingCount; i++) {
+                pendingTasks.add(readTask(in, version));
+            }
+
+            int printerCount = in.readInt();
+            List<PrinterState> printers = new ArrayList<>(printerCount);
+            for (int i = 0; i < printerCount; i++) {
+                int id = in.readInt();
+                int taskCount = version >= 4 ? in.readInt() : in.readBoolean() ? 1 : 0;
+                List<TaskState> tasks = new ArrayList<>(taskCount);
+                for (int j = 0; j < taskCount; j++) {
+                    tasks.add(readTask(in, version));
+                }
+                printers.add(new PrinterState(id, tasks, readIds(in)));
+            }
+
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(fileIn).readInt() != expected) {
+                throw new IOException("Corrupt snapshot file: " + file);
+            }
+            return new Snapshot(
+                    generation, lastTaskId, spoolChangeCount, printsFulfilled,
+                    spoolIds, spoolLengths, freeSpoolIds, pendingTasks, printers
+            );
+        }
+    }
+
+    /**
+     * Captures the state of a print task.
+     *
+     * @param task the {@link PrintTask} to capture
+     * @return the captured task state
+     */
+    private static TaskState captureTask(PrintTask task) {
+        return new TaskState(task.getId(), task.getPrint().getName(), task.getFilamentType(),
+                task.getColors(), task.getPriority(), task.getDeadlineMillis());
+    }
+
+    /**
+     * Recreates a print task from its captured state.
+     *
+     * @param task   the captured task state
+     * @param prints the known prints by name
+     * @return the recreated {@link PrintTask}
+     * @throws IllegalStateException if the print is no longer known
+     */
+    private static PrintTask restoreTask(TaskState task, Map<String, Print> prints) {
+        Print print = prints.get(task.printName());
+        if (print == null) {
+            throw new IllegalStateException("Snapshot refers to unknown print " + task.printName());
+        }
+        return new PrintTask(task.id(), print, task.colors(), task.filamentType(), task.priority(),
+                task.deadlineMillis());
+    }
+
+    /**
+     * Collects the IDs of the specified spools.
+     *
+     * @param spools the spools
+     * @return the spool IDs in list order
+     */
+    private static int[] toIds(List<Spool> spools) {
+        int[] ids = new int[spools.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = spools.get(i).getId();
+        }
+        return ids;
+    }
+
+    /**
+     * Looks up the spools with the specified IDs.
+     *
+     * @param spoolHandler the {@link SpoolHandler} owning the spools
+     * @param ids          the spool IDs
+     * @return the spools in ID order
+     */
+    private static List<Spool> toSpools(SpoolHandler spoolHandler, int[] ids) {
+        List<Spool> spools = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            spools.add(spoolHandler.getSpoolById(id));
+        }
+        return spools;
+    }
+
+    /**
+     * Writes a captured task.
+     *
+     * @param out  the stream to write to
+     * @param task the captured task state
+     * @throws IOException if the stream cannot be written
+     */
+    private static void writeTask(DataOutputStream out, TaskState task) throws IOException {
+        out.writeLong(task.id());
+        out.writeUTF(task.printName());
+        out.writeByte(task.filamentType().ordinal());
+        out.writeByte(task.colors().size());
+        for (String color : task.colors()) {
+            out.writeUTF(color);
+        }
+        out.writeInt(task.priority());
+        out.writeLong(task.deadlineMillis());
+    }
+
+    /**
+     * Reads a captured task.
+     *
+     * @param in      the stream to read from
+     * @param version the version of the snapshot file
+     * @return the captured task state
+     * @throws IOException if the stream cannot be read
+     */
+    private static TaskState readTask(DataInputStream in, int version) throws IOException {
+        long id = in.readLong();
+        String printName = in.readUTF();
+        FilamentType filamentType = FilamentType.values()[in.readByte()];
+        int colorCount = in.readByte();
+        List<String> colors = new ArrayList<>(colorCount);
+        for (int i = 0; i < colorCount; i++) {
+            colors.add(in.readUTF());
+        }
+        int priority = version >= 2 ? in.readInt() : PrintTask.DEFAULT_PRIORITY;
+        long deadlineMillis = version >= 3 ? in.readLong() : PrintTask.NO_DEADLINE;
+        return new TaskState(id, printName, filamentType, colors, priority, deadlineMillis);
+    }
+
+    /**
+     * Writes a length-prefixed array of IDs.
+     *
+     * @param out the stream to write to
+     * @param ids the IDs to write
+     * @throws IOException if the stream cannot be written
+     */
+    private static void writeIds(DataOutputStream out, int[] ids) throws IOException {
+        out.writeInt(ids.length);
+        for (int id : ids) {
+            out.writeInt(id);
+        }
+    }
+
+    /**
+     * Reads a length-prefixed array of IDs.
+     *
+     * @param in the stream to read from
+     * @return the read IDs
+     * @throws IOException if the stream cannot be read
+     */
+    private static int[] readIds(DataInputStream in) throws IOException {
+        int[] ids = new int[in.readInt()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = in.readInt();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,245 @@
+package saxion.journal;
+
+import saxion.PrintManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the scheduling state of a {@link PrintManager} durable in a directory of journal
+ * segments and snapshots.
+ * <p>
+ * Journal segments are numbered by generation. Once enough entries have been journaled, a
+ * {@link Snapshot} of the state is captured, the journal continues in the next generation and
+ * the snapshot is written in the background. When it is on disk, every older segment and snapshot
+ * is deleted. Recovery loads the latest snapshot and only replays the segments written after it.
+ */
+public class StateStore implements Closeable {
+
+    /** Default number of journal entries after which a snapshot is taken. */
+    public static final long DEFAULT_SNAPSHOT_INTERVAL = 50_000;
+
+    /** File name pattern of the journal segments. */
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d+)\\.log");
+
+    /** File name pattern of the snapshots. */
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d+)\\.bin");
+
+    /** The directory containing the segments and snapshots. */
+    private final Path directory;
+
+    /** The manager whose state is kept durable. */
+    private final PrintManager printManager;
+
+    /** The number of journal entries after which a snapshot is taken. */
+    private final long snapshotInterval;
+
+    /** Background thread that writes the snapshots and deletes the files they replace. */
+    private final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The journal segment that is currently written. */
+    private Journal journal;
+
+    /** The recorder writing the scheduling events to {@link #journal}. */
+    private JournalRecorder recorder;
+
+    /** The generation of the current journal segment. */
+    private long generation;
+
+    /** The snapshot that is being written, or {@code null}. */
+    private Future<?> pendingSnapshot;
+
+    /**
+     * Constructs a new {@code StateStore} for the specified manager.
+     *
+     * @param directory        the directory containing the segments and snapshots
+     * @param printManager     the {@link PrintManager} whose state is kept durable
+     * @param snapshotInterval the number of journal entries after which a snapshot is taken
+     */
+    public StateStore(Path directory, PrintManager printManager, long snapshotInterval) {
+        this.directory = directory;
+        this.printManager = printManager;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Restores the state from the latest snapshot and the journal segments written after it,
+     * then starts journaling every scheduling step of the manager.
+     *
+     * @throws IOException if the directory, a snapshot or a segment cannot be read
+     */
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        deleteTemporaryFiles();
+
+        long snapshotGeneration = latestGeneration(SNAPSHOT_NAME);
+        if (snapshotGeneration >= 0) {
+            Snapshot.read(snapshotFile(snapshotGeneration)).restore(printManager);
+        }
+
+        List<Long> segments = generations(SEGMENT_NAME).stream()
+                .filter(segment -> segment >= snapshotGeneration)
+                .sorted()
+                .toList();
+        JournalReplayer replayer = new JournalReplayer(printManager);
+        if (segments.isEmpty()) {
+            generation = Math.max(snapshotGeneration, 0);
+            journal = Journal.create(segmentFile(generation), null);
+        } else {
+            for (int i = 0; i < segments.size() - 1; i++) {
+                Journal.replay(segmentFile(segments.get(i)), replayer);
+            }
+            generation = segments.get(segments.size() - 1);
+            journal = Journal.open(segmentFile(generation), replayer);
+        }
+
+        recorder = new JournalRecorder(journal);
+        printManager.addTaskObserver(recorder);
+    }
+
+    /**
+     * Takes a snapshot if enough entries have been journaled since the last one and no snapshot
+     * is still being written. Must only be called between two scheduling operations.
+     *
+     * @throws IOException if the next journal segment cannot be created
+     */
+    public void checkpointIfDue() throws IOException {
+        if (recorder.getEntryCount() >= snapshotInterval
+                && (pendingSnapshot == null || pendingSnapshot.isDone())) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Captures a snapshot, continues the journal in the next generation and writes the snapshot
+     * in the background. Scheduling pauses for the capture, one pass over the state that grows
+     * linearly with the pending tasks (see {@link Snapshot}), and for creating the new segment; the
+     * writing and the deletion of older files happen on the background thread.
+     * Must only be called between two scheduling operations.
+     *
+     * @throws IOException if the next journal segment cannot be created
+     */
+    public void checkpoint() throws IOException {
+        long next = generation + 1;
+        Snapshot snapshot = Snapshot.capture(printManager, next);
+        journal = Journal.create(segmentFile(next), journal);
+        recorder.setJournal(journal);
+        generation = next;
+
+        pendingSnapshot = snapshotWriter.submit(() -> {
+            snapshot.write(snapshotFile(next));
+            deleteOlderThan(next);
+            return null;
+        });
+    }
+
+    /**
+     * Waits for a snapshot that is being written, then forces the journal to disk and closes it.
+     *
+     * @throws IOException if the journal cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        snapshotWriter.shutdown();
+        try {
+            snapshotWriter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+
+    /**
+     * Deletes the journal segments and snapshots that are covered by the snapshot of the specified generation.
+     *
+     * @param generation the generation of the snapshot that has been written
+     * @throws IOException if the directory cannot be listed or a file cannot be deleted
+     */
+    private void deleteOlderThan(long generation) throws IOException {
+        for (long segment : generations(SEGMENT_NAME)) {
+            if (segment < generation) {
+                Files.deleteIfExists(segmentFile(segment));
+            }
+        }
+        for (long snapshot : generations(SNAPSHOT_NAME)) {
+            if (snapshot < generation) {
+                Files.deleteIfExists(snapshotFile(snapshot));
+            }
+        }
+    }
+
+    /**
+     * Deletes snapshots that were not completely written before the application stopped.
+     *
+     * @throws IOException if the directory cannot be listed or a file cannot be deleted
+     */
+    private void deleteTemporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".tmp")).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Finds the highest generation among the files matching the specified pattern.
+     *
+     * @param pattern the file name pattern
+     * @return the highest generation, or {@code -1} if there is no matching file
+     * @throws IOException if the directory cannot be listed
+     */
+    private long latestGeneration(Pattern pattern) throws IOException {
+        return generations(pattern).stream().mapToLong(Long::longValue).max().orElse(-1);
+    }
+
+    /**
+     * Lists the generations of the files matching the specified pattern.
+     *
+     * @param pattern the file name pattern
+     * @return the generations of the matching files
+     * @throws IOException if the directory cannot be listed
+     */
+    private List<Long> generations(Pattern pattern) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .map(path -> pattern.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .toList();
+        }
+    }
+
+    /**
+     * Resolves the file of the journal segment of the specified generation.
+     *
+     * @param generation the generation
+     * @return the segment file
+     */
+    private Path segmentFile(long generation) {
+        return directory.resolve(String.format("journal-%016d.log", generation));
+    }
+
+    /**
+     * Resolves the file of the snapshot of the specified generation.
+     *
+     * @param generation the generation
+     * @return the snapshot file
+     */
+    private Path snapshotFile(long generation) {
+        return directory.resolve(String.format("snapshot-%016d.bin", generation));
+    }
+}
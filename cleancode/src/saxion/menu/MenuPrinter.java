@@ -20,6 +20,7 @@ public class MenuPrinter {
             "8) Show spools",
             "9) Show pending print tasks",
             "10) Show Dashboard Stats",
+            "11) Show spool forecast",
             "0) Exit"
     );
 
@@ -0,0 +1,139 @@
+package saxion.metrics;
+
+import saxion.PrintManager;
+import saxion.models.PlateTask;
+import saxion.models.PrintTask;
+import saxion.models.Spool;
+import saxion.observer.TaskObserver;
+import saxion.printers.Printer;
+import saxion.types.FilamentType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A {@link TaskObserver} that takes a {@link FarmSample} of the print farm after every scheduling
+ * step. The sample is computed on the scheduling thread and published through a volatile field,
+ * so readers on other threads, like the metrics endpoint, never touch the scheduler's state.
+ */
+public class FarmMetrics implements TaskObserver {
+
+    /** The manager whose state is sampled. */
+    private final PrintManager printManager;
+
+    /** The number of prints that failed so far. */
+    private long printsFailed;
+
+    /** The latest sample. */
+    private volatile FarmSample sample;
+
+    /**
+     * Constructs a new {@code FarmMetrics} and takes the first sample. Must be called on the scheduling thread.
+     *
+     * @param printManager the {@link PrintManager} to sample
+     */
+    public FarmMetrics(PrintManager printManager) {
+        this.printManager = printManager;
+        publish();
+    }
+
+    /**
+     * Gets the latest sample. May be called from any thread.
+     *
+     * @return the latest {@link FarmSample}
+     */
+    public FarmSample getSample() {
+        return sample;
+    }
+
+    /**
+     * Samples the farm after a task was queued.
+     *
+     * @param task the {@link PrintTask} that was queued
+     */
+    @Override
+    public void taskAdded(PrintTask task) {
+        publish();
+    }
+
+    /**
+     * Samples the farm after a task was started.
+     *
+     * @param printer the {@link Printer} that started the task
+     * @param task    the {@link PrintTask} that was started
+     */
+    @Override
+    public void taskStarted(Printer printer, PrintTask task) {
+        publish();
+    }
+
+    /**
+     * Samples the farm after a printer stayed free.
+     *
+     * @param printer      the {@link Printer} that stays free
+     * @param tasksPending whether tasks were pending
+     */
+    @Override
+    public void noTaskSelected(Printer printer, boolean tasksPending) {
+        publish();
+    }
+
+    /**
+     * Samples the farm after spools were changed.
+     *
+     * @param printer the {@link Printer} whose spools were changed
+     * @param spools  the spools loaded after the change
+     * @param changes the number of spool changes
+     */
+    @Override
+    public void spoolsChanged(Printer printer, List<Spool> spools, int changes) {
+        publish();
+    }
+
+    /**
+     * Counts the failed prints, every part of a failed plate included, and samples the farm after a task
+     * finished.
+     *
+     * @param printer    the {@link Printer} the task was running on
+     * @param task       the finished {@link PrintTask}
+     * @param successful whether the print was fulfilled
+     */
+    @Override
+    public void taskFinished(Printer printer, PrintTask task, boolean successful) {
+        if (!successful) {
+            printsFailed += PlateTask.partsOf(task).size();
+        }
+        publish();
+    }
+
+    /**
+     * Takes a new sample of the print farm and publishes it.
+     */
+    private void publish() {
+        int runningPrinters = 0;
+        for (Printer printer : printManager.getPrinterHandler().getPrinters()) {
+            if (printer.getTask() != null) {
+                runningPrinters++;
+            }
+        }
+
+        Map<String, FarmSample.FreeFilament> freeFilament = new TreeMap<>();
+        for (Spool spool : printManager.getSpoolHandler().getFreeSpools()) {
+            FilamentType type = spool.getFilamentType();
+            freeFilament.merge(spool.getColor() + "/" + type,
+                    new FarmSample.FreeFilament(spool.getColor(), type, spool.getLength()),
+                    (a, b) -> new FarmSample.FreeFilament(a.color(), type, a.length() + b.length()));
+        }
+
+        sample = new FarmSample(
+                printManager.getPendingPrintTasks().size(),
+                runningPrinters,
+                printManager.getSpoolChangeCount(),
+                printManager.getPrintsFulfilled(),
+                printsFailed,
+                printManager.getPreventedStartCount(),
+                List.copyOf(freeFilament.values())
+        );
+    }
+}
@@ -0,0 +1,37 @@
+package saxion.metrics;
+
+import saxion.types.FilamentType;
+
+import java.util.List;
+
+/**
+ * An immutable sample of the state of the print farm, taken after a scheduling step.
+ *
+ * @param pendingTasks    the number of tasks waiting in the queue
+ * @param runningPrinters the number of printers running a task
+ * @param spoolChanges    the number of spool changes so far
+ * @param printsFulfilled the number of prints fulfilled so far
+ * @param printsFailed    the number of prints that failed and were re-queued so far
+ * @param preventedStarts the number of starts on spools with too little filament prevented so far
+ * @param freeFilament    the filament length on the free spools, per color and filament type
+ */
+public record FarmSample(
+        int pendingTasks,
+        int runningPrinters,
+        long spoolChanges,
+        long printsFulfilled,
+        long printsFailed,
+        long preventedStarts,
+        List<FreeFilament> freeFilament
+) {
+
+    /**
+     * The filament length on the free spools of one color and filament type.
+     *
+     * @param color        the color
+     * @param filamentType the filament type
+     * @param length       the total remaining length
+     */
+    public record FreeFilament(String color, FilamentType filamentType, double length) {
+    }
+}
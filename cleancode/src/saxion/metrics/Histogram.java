@@ -0,0 +1,167 @@
+package saxion.metrics;
+
+/**
+ * A histogram of durations in nanoseconds with logarithmic buckets. Every power of two is split
+ * into {@value #SUB_BUCKETS} linear buckets, so a percentile is accurate to about 3% of its value
+ * while the whole range up to {@link #MAX_VALUE} fits in a fixed number of buckets.
+ * Histograms with the same bucket layout can be merged by adding their counts.
+ * <p>
+ * This class is not thread-safe; concurrent recording is done by {@link LatencyRecorder}.
+ */
+public class Histogram {
+
+    /** The number of bits that select the linear bucket within a power of two. */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /** The number of linear buckets within a power of two. */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** The highest recorded value; larger values are counted in the last bucket (about 18 minutes). */
+    static final long MAX_VALUE = (1L << 40) - 1;
+
+    /** The number of buckets needed to cover every value up to {@link #MAX_VALUE}. */
+    static final int BUCKET_COUNT = bucketIndex(MAX_VALUE) + 1;
+
+    /** The number of values in every bucket. */
+    private final long[] counts = new long[BUCKET_COUNT];
+
+    /** The total number of values. */
+    private long totalCount;
+
+    /** The sum of all values. */
+    private long sum;
+
+    /** The highest value. */
+    private long max;
+
+    /**
+     * Records a value.
+     *
+     * @param value the value in nanoseconds
+     */
+    public void record(long value) {
+        counts[bucketIndex(value)]++;
+        totalCount++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds the values of another histogram to this one.
+     *
+     * @param other the {@link Histogram} to add
+     */
+    public void add(Histogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Adds a number of values to a bucket.
+     *
+     * @param index the index of the bucket
+     * @param count the number of values
+     */
+    void addToBucket(int index, long count) {
+        counts[index] += count;
+        totalCount += count;
+    }
+
+    /**
+     * Adds to the sum of all values.
+     *
+     * @param value the value in nanoseconds
+     */
+    void addToSum(long value) {
+        sum += value;
+    }
+
+    /**
+     * Raises the highest value if the specified value is higher.
+     *
+     * @param value the value in nanoseconds
+     */
+    void updateMax(long value) {
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * Gets the sum of all recorded values.
+     *
+     * @return the sum in nanoseconds
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Gets the highest recorded value.
+     *
+     * @return the highest value in nanoseconds, or {@code 0} if nothing was recorded
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the value below which the specified percentage of the recorded values fall.
+     * The result is the upper bound of the bucket containing that value, but never above the highest value.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the value in nanoseconds, or {@code 0} if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Computes the bucket a value is counted in.
+     *
+     * @param value the value in nanoseconds
+     * @return the index of the bucket
+     */
+    static int bucketIndex(long value) {
+        long clamped = Math.min(Math.max(value, 0), MAX_VALUE);
+        int exponent = Math.max(0, 63 - Long.numberOfLeadingZeros(clamped) - SUB_BUCKET_BITS);
+        return exponent * SUB_BUCKETS + (int) (clamped >>> exponent);
+    }
+
+    /**
+     * Computes the highest value that is counted in a bucket.
+     *
+     * @param index the index of the bucket
+     * @return the highest value in nanoseconds
+     */
+    static long bucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << exponent) - 1;
+    }
+}
@@ -0,0 +1,71 @@
+package saxion.metrics;
+
+/**
+ * Latency of every scheduling {@link Operation}. Recording costs two clock reads and a few
+ * array writes, so it is always enabled.
+ */
+public class LatencyMetrics {
+
+    /** The recorder of every operation, by ordinal. */
+    private final LatencyRecorder[] recorders = new LatencyRecorder[Operation.values().length];
+
+    /**
+     * Constructs a new {@code LatencyMetrics} with a recorder for every operation.
+     */
+    public LatencyMetrics() {
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new LatencyRecorder();
+        }
+    }
+
+    /**
+     * Reads the clock at the start of an operation.
+     *
+     * @return the start time to pass to {@link #stop(Operation, long)}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the duration of an operation that was started at the specified time.
+     *
+     * @param operation the {@link Operation} that finished
+     * @param startNanos the value returned by {@link #start()}
+     */
+    public void stop(Operation operation, long startNanos) {
+        recorders[operation.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Merges the recorded durations of an operation.
+     *
+     * @param operation the {@link Operation}
+     * @return a {@link Histogram} of the durations
+     */
+    public Histogram getHistogram(Operation operation) {
+        return recorders[operation.ordinal()].snapshot();
+    }
+
+    /**
+     * Formats the count and the p50, p99, p99.9 and maximum latency of every operation in microseconds.
+     *
+     * @return the latency report
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder("===================== LATENCY (us) =====================\n");
+        report.append(String.format("%-14s %8s %9s %9s %9s %9s%n", "Operation", "Count", "p50", "p99", "p99.9", "Max"));
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = getHistogram(operation);
+            report.append(String.format("%-14s %8d %9.1f %9.1f %9.1f %9.1f%n",
+                    operation.getLabel(),
+                    histogram.getCount(),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMax() / 1000.0));
+        }
+        report.append("========================================================");
+        return report.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package saxion.metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records durations from any number of threads without locking or allocating. Every thread
+ * counts into its own buckets, which are only merged into a {@link Histogram} when a snapshot is taken.
+ */
+public class LatencyRecorder {
+
+    /** The buckets of every thread that has recorded a value. */
+    private final List<ThreadBuckets> allBuckets = new CopyOnWriteArrayList<>();
+
+    /** The buckets of the current thread. */
+    private final ThreadLocal<ThreadBuckets> buckets = ThreadLocal.withInitial(() -> {
+        ThreadBuckets threadBuckets = new ThreadBuckets();
+        allBuckets.add(threadBuckets);
+        return threadBuckets;
+    });
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        buckets.get().record(nanos);
+    }
+
+    /**
+     * Merges the values recorded by every thread so far.
+     *
+     * @return a {@link Histogram} containing every recorded value
+     */
+    public Histogram snapshot() {
+        Histogram histogram = new Histogram();
+        for (ThreadBuckets threadBuckets : allBuckets) {
+            threadBuckets.addTo(histogram);
+        }
+        return histogram;
+    }
+
+    /**
+     * The buckets of a single thread. Only the owning thread writes them, so an increment does not
+     * need an atomic read-modify-write; the ordered writes only make the counts visible to snapshots.
+     */
+    private static final class ThreadBuckets {
+
+        /** The index in {@link #counts} holding the sum of the values instead of a bucket count. */
+        private static final int SUM = Histogram.BUCKET_COUNT;
+
+        /** The number of values in every bucket, followed by the sum of the values. */
+        private final AtomicLongArray counts = new AtomicLongArray(Histogram.BUCKET_COUNT + 1);
+
+        /** The highest value recorded by the thread. */
+        private volatile long max;
+
+        /**
+         * Records a value.
+         *
+         * @param nanos the value in nanoseconds
+         */
+        private void record(long nanos) {
+            int index = Histogram.bucketIndex(nanos);
+            counts.lazySet(index, counts.get(index) + 1);
+            counts.lazySet(SUM, counts.get(SUM) + nanos);
+            if (nanos > max) {
+                max = nanos;
+            }
+        }
+
+        /**
+         * Adds the recorded values to a histogram.
+         *
+         * @param histogram the {@link Histogram} to add to
+         */
+        private void addTo(Histogram histogram) {
+            for (int i = 0; i < Histogram.BUCKET_COUNT; i++) {
+                long count = counts.get(i);
+                if (count > 0) {
+                    histogram.addToBucket(i, count);
+                }
+            }
+            histogram.addToSum(counts.get(SUM));
+            histogram.updateMax(max);
+        }
+    }
+}
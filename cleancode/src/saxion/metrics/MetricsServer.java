@@ -0,0 +1,100 @@
+package saxion.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the metrics of a {@link PrometheusExporter} at {@code /metrics} on the JDK's built-in HTTP server.
+ * Requests are handled on a single background thread, separate from the scheduling thread.
+ */
+public class MetricsServer implements Closeable {
+
+    /** The content type of the Prometheus text format. */
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Disables Nagle's algorithm on the connections of the built-in server, unless configured otherwise.
+     * Otherwise every response on a kept-alive connection waits for the client's delayed acknowledgement,
+     * about 40 milliseconds. The server reads the setting once, when the first server is created.
+     */
+    static {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /** The HTTP server. */
+    private final HttpServer server;
+
+    /** The thread handling the requests. */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "metrics-server");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The exporter rendering the metrics. */
+    private final PrometheusExporter exporter;
+
+    /**
+     * Starts a new {@code MetricsServer} on the specified port.
+     *
+     * @param port     the port to listen on
+     * @param exporter the {@link PrometheusExporter} rendering the metrics
+     * @throws IOException if the server cannot be started
+     */
+    public MetricsServer(int port, PrometheusExporter exporter) throws IOException {
+        this.exporter = exporter;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/metrics", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Answers a scrape with the current metrics.
+     *
+     * @param exchange the HTTP exchange
+     * @throws IOException if the response cannot be written
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = exporter.render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,32 @@
+package saxion.metrics;
+
+/**
+ * The scheduling operations whose latency is recorded.
+ */
+public enum Operation {
+    SELECT_TASK("Select task"),
+    START_QUEUE("Start queue"),
+    FINALIZE_TASK("Finalize task"),
+    READ_DATA("Read data");
+
+    /** The name shown in reports. */
+    private final String label;
+
+    /**
+     * Constructs an {@code Operation} with the specified label.
+     *
+     * @param label the name shown in reports
+     */
+    Operation(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Gets the name shown in reports.
+     *
+     * @return the label
+     */
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,15 @@
+package saxion.metrics;
+
+/**
+ * The states a printer's time is divided into for utilization tracking.
+ */
+public enum PrinterState {
+    /** The printer is free and no task is waiting. */
+    IDLE,
+    /** The printer is printing a task. */
+    BUSY,
+    /** The printer is free, but none of the pending tasks could be assigned to it. */
+    BLOCKED,
+    /** The operator is changing the spools for the next task. */
+    SPOOL_CHANGE
+}
@@ -0,0 +1,90 @@
+package saxion.metrics;
+
+/**
+ * The most recent state transitions of one printer, kept in a fixed-size ring buffer of
+ * timestamps and state ordinals. When the buffer is full the oldest transition is overwritten.
+ */
+class PrinterTimeline {
+
+    /** The states by ordinal, to avoid copying {@link PrinterState#values()}. */
+    private static final PrinterState[] STATES = PrinterState.values();
+
+    /** The time of every transition in milliseconds since the epoch. */
+    private final long[] times;
+
+    /** The ordinal of the state entered by every transition. */
+    private final byte[] states;
+
+    /** The number of transitions ever recorded. */
+    private long count;
+
+    /**
+     * Constructs a new {@code PrinterTimeline} that starts in the specified state.
+     *
+     * @param capacity    the number of transitions kept
+     * @param startMillis the time the timeline starts
+     * @param state       the initial state
+     */
+    PrinterTimeline(int capacity, long startMillis, PrinterState state) {
+        this.times = new long[capacity];
+        this.states = new byte[capacity];
+        record(startMillis, state);
+    }
+
+    /**
+     * Records a transition. A transition with the current state is ignored, and a transition
+     * earlier than the previous one is moved to the time of the previous one.
+     *
+     * @param millis the time of the transition
+     * @param state  the state entered
+     */
+    void record(long millis, PrinterState state) {
+        if (count > 0) {
+            int last = (int) ((count - 1) % times.length);
+            if (states[last] == state.ordinal()) {
+                return;
+            }
+            millis = Math.max(millis, times[last]);
+        }
+        int index = (int) (count % times.length);
+        times[index] = millis;
+        states[index] = (byte) state.ordinal();
+        count++;
+    }
+
+    /**
+     * Gets the state entered by the latest transition.
+     *
+     * @return the current state
+     */
+    PrinterState getState() {
+        return STATES[states[(int) ((count - 1) % times.length)]];
+    }
+
+    /**
+     * Sums the time spent in every state between the specified times. Time before the oldest
+     * transition still kept is not counted.
+     *
+     * @param fromMillis the start of the window
+     * @param toMillis   the end of the window
+     * @return the time spent in every state
+     */
+    Utilization utilization(long fromMillis, long toMillis) {
+        long[] millis = new long[STATES.length];
+        long end = toMillis;
+        long kept = Math.min(count, times.length);
+        for (long i = count - 1; i >= count - kept && end > fromMillis; i--) {
+            int index = (int) (i % times.length);
+            long start = Math.max(times[index], fromMillis);
+            if (start < end) {
+                millis[states[index]] += end - start;
+            }
+            end = Math.min(end, Math.max(times[index], fromMillis));
+        }
+        return new Utilization(
+                millis[PrinterState.BUSY.ordinal()],
+                millis[PrinterState.IDLE.ordinal()],
+                millis[PrinterState.BLOCKED.ordinal()],
+                millis[PrinterState.SPOOL_CHANGE.ordinal()]);
+    }
+}
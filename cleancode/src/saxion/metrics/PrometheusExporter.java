@@ -0,0 +1,111 @@
+package saxion.metrics;
+
+import java.util.Locale;
+
+/**
+ * Renders the farm sample and the operation latencies in the Prometheus text exposition format.
+ * Rendering only reads the published {@link FarmSample} and the per-thread latency buckets,
+ * so it never waits for the scheduler.
+ */
+public class PrometheusExporter {
+
+    /** The quantiles reported for every operation. */
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    /** The source of the farm samples. */
+    private final FarmMetrics farmMetrics;
+
+    /** The source of the operation latencies. */
+    private final LatencyMetrics latencyMetrics;
+
+    /**
+     * Constructs a new {@code PrometheusExporter}.
+     *
+     * @param farmMetrics    the {@link FarmMetrics} to export
+     * @param latencyMetrics the {@link LatencyMetrics} to export
+     */
+    public PrometheusExporter(FarmMetrics farmMetrics, LatencyMetrics latencyMetrics) {
+        this.farmMetrics = farmMetrics;
+        this.latencyMetrics = latencyMetrics;
+    }
+
+    /**
+     * Renders every metric.
+     *
+     * @return the metrics in the Prometheus text format
+     */
+    public String render() {
+        FarmSample sample = farmMetrics.getSample();
+        StringBuilder out = new StringBuilder(2048);
+
+        header(out, "printfarm_pending_tasks", "gauge", "Number of tasks waiting in the queue.");
+        out.append("printfarm_pending_tasks ").append(sample.pendingTasks()).append('\n');
+        header(out, "printfarm_running_printers", "gauge", "Number of printers running a task.");
+        out.append("printfarm_running_printers ").append(sample.runningPrinters()).append('\n');
+        header(out, "printfarm_spool_changes_total", "counter", "Number of spool changes.");
+        out.append("printfarm_spool_changes_total ").append(sample.spoolChanges()).append('\n');
+        header(out, "printfarm_prints_fulfilled_total", "counter", "Number of prints fulfilled.");
+        out.append("printfarm_prints_fulfilled_total ").append(sample.printsFulfilled()).append('\n');
+        header(out, "printfarm_prints_failed_total", "counter", "Number of prints that failed and were re-queued.");
+        out.append("printfarm_prints_failed_total ").append(sample.printsFailed()).append('\n');
+        header(out, "printfarm_prevented_starts_total", "counter",
+                "Number of starts on spools with too little filament that were prevented.");
+        out.append("printfarm_prevented_starts_total ").append(sample.preventedStarts()).append('\n');
+
+        header(out, "printfarm_free_filament_length", "gauge", "Filament length left on the free spools.");
+        for (FarmSample.FreeFilament filament : sample.freeFilament()) {
+            out.append("printfarm_free_filament_length{color=\"").append(escape(filament.color()))
+                    .append("\",filament_type=\"").append(filament.filamentType())
+                    .append("\"} ").append(format(filament.length())).append('\n');
+        }
+
+        header(out, "printfarm_operation_latency_seconds", "summary", "Latency of the scheduling operations.");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencyMetrics.getHistogram(operation);
+            String label = "operation=\"" + operation.name().toLowerCase(Locale.ROOT) + "\"";
+            for (double quantile : QUANTILES) {
+                out.append("printfarm_operation_latency_seconds{").append(label)
+                        .append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(format(histogram.getValueAtPercentile(quantile * 100) / 1e9)).append('\n');
+            }
+            out.append("printfarm_operation_latency_seconds_sum{").append(label).append("} ")
+                    .append(format(histogram.getSum() / 1e9)).append('\n');
+            out.append("printfarm_operation_latency_seconds_count{").append(label).append("} ")
+                    .append(histogram.getCount()).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Appends the help and type lines of a metric.
+     *
+     * @param out  the output
+     * @param name the name of the metric
+     * @param type the Prometheus type of the metric
+     * @param help the description of the metric
+     */
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * Formats a sample value.
+     *
+     * @param value the value
+     * @return the value as text, without locale-specific separators
+     */
+    private static String format(double value) {
+        return Double.toString(value);
+    }
+
+    /**
+     * Escapes a label value.
+     *
+     * @param value the label value
+     * @return the value with backslashes, quotes and line breaks escaped
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
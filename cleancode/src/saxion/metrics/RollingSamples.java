@@ -0,0 +1,63 @@
+package saxion.metrics;
+
+import java.util.Arrays;
+
+/**
+ * The most recent values of a measurement, kept in a fixed-size ring buffer so that percentiles
+ * follow recent behaviour and memory use does not grow.
+ */
+class RollingSamples {
+
+    /** The values, overwritten oldest first once the buffer is full. */
+    private final long[] values;
+
+    /** The number of values ever recorded. */
+    private long count;
+
+    /**
+     * Constructs a new {@code RollingSamples} keeping the specified number of values.
+     *
+     * @param capacity the number of values kept
+     */
+    RollingSamples(int capacity) {
+        this.values = new long[capacity];
+    }
+
+    /**
+     * Records a value, replacing the oldest value if the buffer is full.
+     *
+     * @param value the value
+     */
+    void record(long value) {
+        values[(int) (count % values.length)] = value;
+        count++;
+    }
+
+    /**
+     * Computes the statistics of the values kept.
+     *
+     * @return the {@link WaitTimeStats} of the values
+     */
+    WaitTimeStats stats() {
+        int size = (int) Math.min(count, values.length);
+        long[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        return new WaitTimeStats(size, percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                size == 0 ? 0 : sorted[size - 1]);
+    }
+
+    /**
+     * Picks a percentile from sorted values using the nearest-rank method.
+     *
+     * @param sorted     the sorted values
+     * @param percentile the percentile, between 0 and 100
+     * @return the value at the percentile, or {@code 0} if there are no values
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+}
@@ -0,0 +1,58 @@
+package saxion.metrics;
+
+/**
+ * The share of time a printer, or a group of printers, spent in every {@link PrinterState}.
+ *
+ * @param busyMillis        the time spent printing
+ * @param idleMillis        the time spent free without pending tasks
+ * @param blockedMillis     the time spent free while no pending task could be assigned
+ * @param spoolChangeMillis the time spent changing spools
+ */
+public record Utilization(long busyMillis, long idleMillis, long blockedMillis, long spoolChangeMillis) {
+
+    /** A utilization without any recorded time. */
+    public static final Utilization EMPTY = new Utilization(0, 0, 0, 0);
+
+    /**
+     * Adds the times of another utilization to these.
+     *
+     * @param other the {@link Utilization} to add
+     * @return the combined utilization
+     */
+    public Utilization plus(Utilization other) {
+        return new Utilization(
+                busyMillis + other.busyMillis,
+                idleMillis + other.idleMillis,
+                blockedMillis + other.blockedMillis,
+                spoolChangeMillis + other.spoolChangeMillis);
+    }
+
+    /**
+     * Gets the total time covered.
+     *
+     * @return the time in milliseconds
+     */
+    public long totalMillis() {
+        return busyMillis + idleMillis + blockedMillis + spoolChangeMillis;
+    }
+
+    /**
+     * Gets the percentage of the covered time spent in a state.
+     *
+     * @param state the {@link PrinterState}
+     * @return the percentage, or {@code 0} if no time was covered
+     */
+    public double percentage(PrinterState state) {
+        long total = totalMillis();
+        if (total == 0) {
+            return 0;
+        }
+        long millis = switch (state) {
+            case BUSY -> busyMillis;
+            case IDLE -> idleMillis;
+            case BLOCKED -> blockedMillis;
+            case SPOOL_CHANGE -> spoolChangeMillis;
+        };
+        return millis * 100.0 / total;
+    }
+}
@@ -0,0 +1,221 @@
+package saxion.metrics;
+
+import saxion.models.PrintTask;
+import saxion.models.Spool;
+import saxion.observer.TaskObserver;
+import saxion.printers.Printer;
+import saxion.time.TimeSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A {@link TaskObserver} that records the state transitions of every printer and computes how much
+ * of a rolling window each printer spent busy, idle, blocked and changing spools.
+ * <p>
+ * Spool changes are not reported when they are done, so a started task is assumed to be in
+ * {@link PrinterState#SPOOL_CHANGE} for an estimated time per changed spool before it is busy.
+ */
+public class UtilizationTracker implements TaskObserver {
+
+    /** Default number of transitions kept per printer. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** Default estimate of the time needed to change one spool: two minutes. */
+    public static final long DEFAULT_SPOOL_CHANGE_MILLIS = 120_000;
+
+    /** The source of the transition times. */
+    private final TimeSource timeSource;
+
+    /** The number of transitions kept per printer. */
+    private final int capacity;
+
+    /** The estimated time needed to change one spool. */
+    private final long spoolChangeMillis;
+
+    /** The time tracking started; printers are idle from then until their first transition. */
+    private final long startMillis;
+
+    /** The timeline of every printer, by printer ID. */
+    private final Map<Integer, PrinterTimeline> timelines = new HashMap<>();
+
+    /** The spool changes announced for every printer before its next task starts, by printer ID. */
+    private final Map<Integer, Integer> pendingSpoolChanges = new HashMap<>();
+
+    /**
+     * Constructs a new {@code UtilizationTracker} with the default capacity and spool change estimate.
+     *
+     * @param timeSource the {@link TimeSource} providing the transition times
+     */
+    public UtilizationTracker(TimeSource timeSource) {
+        this(timeSource, DEFAULT_CAPACITY, DEFAULT_SPOOL_CHANGE_MILLIS);
+    }
+
+    /**
+     * Constructs a new {@code UtilizationTracker}.
+     *
+     * @param timeSource        the {@link TimeSource} providing the transition times
+     * @param capacity          the number of transitions kept per printer
+     * @param spoolChangeMillis the estimated time needed to change one spool
+     */
+    public UtilizationTracker(TimeSource timeSource, int capacity, long spoolChangeMillis) {
+        this.timeSource = timeSource;
+        this.capacity = capacity;
+        this.spoolChangeMillis = spoolChangeMillis;
+        this.startMillis = timeSource.currentTimeMillis();
+    }
+
+    /**
+     * Remembers the number of spool changes needed for the next task of the printer.
+     *
+     * @param printer the {@link Printer} whose spools were changed
+     * @param spools  the spools loaded after the change
+     * @param changes the number of spool changes
+     */
+    @Override
+    public void spoolsChanged(Printer printer, List<Spool> spools, int changes) {
+        if (changes > 0) {
+            pendingSpoolChanges.merge(printer.getId(), changes, Integer::sum);
+        }
+    }
+
+    /**
+     * Records that the printer changes spools, if needed, and is busy afterwards.
+     *
+     * @param printer the {@link Printer} that started the task
+     * @param task    the {@link PrintTask} that was started
+     */
+    @Override
+    public void taskStarted(Printer printer, PrintTask task) {
+        long now = timeSource.currentTimeMillis();
+        PrinterTimeline timeline = timeline(printer.getId());
+        Integer changes = pendingSpoolChanges.remove(printer.getId());
+        if (changes != null) {
+            timeline.record(now, PrinterState.SPOOL_CHANGE);
+            now += changes * spoolChangeMillis;
+        }
+        timeline.record(now, PrinterState.BUSY);
+    }
+
+    /**
+     * Records that the printer is free again.
+     *
+     * @param printer    the {@link Printer} the task was running on
+     * @param task       the finished {@link PrintTask}
+     * @param successful whether the print was fulfilled
+     */
+    @Override
+    public void taskFinished(Printer printer, PrintTask task, boolean successful) {
+        timeline(printer.getId()).record(timeSource.currentTimeMillis(), PrinterState.IDLE);
+    }
+
+    /**
+     * Records that the printer is blocked if tasks were pending, or idle otherwise.
+     *
+     * @param printer      the {@link Printer} that stays free
+     * @param tasksPending whether tasks were pending
+     */
+    @Override
+    public void noTaskSelected(Printer printer, boolean tasksPending) {
+        pendingSpoolChanges.remove(printer.getId());
+        timeline(printer.getId()).record(timeSource.currentTimeMillis(),
+                tasksPending ? PrinterState.BLOCKED : PrinterState.IDLE);
+    }
+
+    /**
+     * Gets the current state of a printer.
+     *
+     * @param printerId the ID of the printer
+     * @return the {@link PrinterState} of the printer
+     */
+    public PrinterState getState(int printerId) {
+        PrinterTimeline timeline = timelines.get(printerId);
+        return timeline == null ? PrinterState.IDLE : timeline.getState();
+    }
+
+    /**
+     * Computes how the specified printer spent the most recent part of its time.
+     *
+     * @param printerId    the ID of the printer
+     * @param windowMillis the length of the window, ending now
+     * @return the {@link Utilization} of the printer within the window
+     */
+    public Utilization getUtilization(int printerId, long windowMillis) {
+        long now = timeSource.currentTimeMillis();
+        PrinterTimeline timeline = timelines.get(printerId);
+        if (timeline == null) {
+            return new Utilization(0, now - Math.max(startMillis, now - windowMillis), 0, 0);
+        }
+        return timeline.utilization(now - windowMillis, now);
+    }
+
+    /**
+     * Computes how the printers of every type spent the most recent part of their time.
+     * The type of a printer is the name of its class.
+     *
+     * @param printers     the printers to include
+     * @param windowMillis the length of the window, ending now
+     * @return the combined {@link Utilization} of the printers, by type
+     */
+    public Map<String, Utilization> getUtilizationByType(List<Printer> printers, long windowMillis) {
+        Map<String, Utilization> utilizations = new TreeMap<>();
+        for (Printer printer : printers) {
+            utilizations.merge(printer.getClass().getSimpleName(),
+                    getUtilization(printer.getId(), windowMillis), Utilization::plus);
+        }
+        return utilizations;
+    }
+
+    /**
+     * Formats the utilization percentages of every printer and every printer type.
+     *
+     * @param printers     the printers to include
+     * @param windowMillis the length of the window, ending now
+     * @return the utilization report
+     */
+    public String getReport(List<Printer> printers, long windowMillis) {
+        StringBuilder report = new StringBuilder("==================== UTILIZATION (%) ====================\n");
+        report.append(String.format("%-24s %7s %7s %8s %8s%n", "Printer", "Busy", "Idle", "Blocked", "Spools"));
+        for (Printer printer : printers) {
+            appendRow(report, printer.getName(), getUtilization(printer.getId(), windowMillis));
+        }
+        for (Map.Entry<String, Utilization> type : getUtilizationByType(printers, windowMillis).entrySet()) {
+            appendRow(report, "All " + type.getKey(), type.getValue());
+        }
+        report.append("=========================================================");
+        return report.toString();
+    }
+
+    /**
+     * Appends a row of utilization percentages to a report.
+     *
+     * @param report      the report
+     * @param name        the name of the row
+     * @param utilization the {@link Utilization} to show
+     */
+    private static void appendRow(StringBuilder report, String name, Utilization utilization) {
+        report.append(String.format("%-24s %7.1f %7.1f %8.1f %8.1f%n",
+                name,
+                utilization.percentage(PrinterState.BUSY),
+                utilization.percentage(PrinterState.IDLE),
+                utilization.percentage(PrinterState.BLOCKED),
+                utilization.percentage(PrinterState.SPOOL_CHANGE)));
+    }
+
+    /**
+     * Creates the timeline of a printer when it makes its first transition.
+     *
+     * @param printerId the ID of the printer
+     * @return the timeline of the printer
+     */
+    private PrinterTimeline timeline(int printerId) {
+        PrinterTimeline timeline = timelines.get(printerId);
+        if (timeline == null) {
+            timeline = new PrinterTimeline(capacity, startMillis, PrinterState.IDLE);
+            timelines.put(printerId, timeline);
+        }
+        return timeline;
+    }
+}
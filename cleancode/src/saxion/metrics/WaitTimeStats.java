@@ -0,0 +1,13 @@
+package saxion.metrics;
+
+/**
+ * Statistics of the most recent queue wait times of a group of tasks.
+ *
+ * @param count    the number of wait times the statistics are based on
+ * @param p50Nanos the median wait time in nanoseconds
+ * @param p90Nanos the 90th percentile wait time in nanoseconds
+ * @param p99Nanos the 99th percentile wait time in nanoseconds
+ * @param maxNanos the longest wait time in nanoseconds
+ */
+public record WaitTimeStats(int count, long p50Nanos, long p90Nanos, long p99Nanos, long maxNanos) {
+}
@@ -0,0 +1,149 @@
+package saxion.metrics;
+
+import saxion.models.PlateTask;
+import saxion.models.PrintTask;
+import saxion.observer.TaskObserver;
+import saxion.printers.Printer;
+import saxion.types.FilamentType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A {@link TaskObserver} that keeps the most recent queue wait times of started tasks, per filament
+ * type and per print. Tasks that are started again after a failure are also tracked separately, by the
+ * time they waited since they were re-queued. Tasks whose queue time is unknown, e.g. because they were
+ * restored from a journal, are not counted.
+ */
+public class WaitTimeTracker implements TaskObserver {
+
+    /** Default number of wait times kept per group. */
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    /** The number of wait times kept per group. */
+    private final int capacity;
+
+    /** The wait times per filament type. */
+    private final Map<FilamentType, RollingSamples> byFilamentType = new EnumMap<>(FilamentType.class);
+
+    /** The wait times per print name. */
+    private final Map<String, RollingSamples> byPrint = new TreeMap<>();
+
+    /** The wait times of tasks that were re-queued after a failure. */
+    private final RollingSamples requeued;
+
+    /**
+     * Constructs a new {@code WaitTimeTracker} keeping the default number of wait times per group.
+     */
+    public WaitTimeTracker() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new {@code WaitTimeTracker}.
+     *
+     * @param capacity the number of wait times kept per group
+     */
+    public WaitTimeTracker(int capacity) {
+        this.capacity = capacity;
+        this.requeued = new RollingSamples(capacity);
+    }
+
+    /**
+     * Records how long the started task, or every part of a started plate, waited in the queue.
+     *
+     * @param printer the {@link Printer} that started the task
+     * @param task    the {@link PrintTask} that was started
+     */
+    @Override
+    public synchronized void taskStarted(Printer printer, PrintTask task) {
+        for (PrintTask part : PlateTask.partsOf(task)) {
+            long waitNanos = part.getWaitNanos();
+            if (waitNanos < 0) {
+                continue;
+            }
+            samples(byFilamentType, part.getFilamentType()).record(waitNanos);
+            samples(byPrint, part.getPrint().getName()).record(waitNanos);
+            if (part.isRequeued()) {
+                requeued.record(waitNanos);
+            }
+        }
+    }
+
+    /**
+     * Computes the wait time statistics per filament type.
+     *
+     * @return the {@link WaitTimeStats} by filament type
+     */
+    public synchronized Map<FilamentType, WaitTimeStats> getByFilamentType() {
+        Map<FilamentType, WaitTimeStats> stats = new EnumMap<>(FilamentType.class);
+        byFilamentType.forEach((type, samples) -> stats.put(type, samples.stats()));
+        return stats;
+    }
+
+    /**
+     * Computes the wait time statistics per print.
+     *
+     * @return the {@link WaitTimeStats} by print name, sorted by name
+     */
+    public synchronized Map<String, WaitTimeStats> getByPrint() {
+        Map<String, WaitTimeStats> stats = new TreeMap<>();
+        byPrint.forEach((print, samples) -> stats.put(print, samples.stats()));
+        return stats;
+    }
+
+    /**
+     * Computes the wait time statistics of tasks that were re-queued after a failure.
+     *
+     * @return the {@link WaitTimeStats} of re-queued tasks
+     */
+    public synchronized WaitTimeStats getRequeued() {
+        return requeued.stats();
+    }
+
+    /**
+     * Formats the wait time statistics per filament type, for re-queued tasks and per print, in seconds.
+     *
+     * @return the wait time report
+     */
+    public synchronized String getReport() {
+        StringBuilder report = new StringBuilder("=================== QUEUE WAIT TIME (s) ===================\n");
+        report.append(String.format("%-28s %6s %8s %8s %8s %8s%n", "Group", "Count", "p50", "p90", "p99", "Max"));
+        getByFilamentType().forEach((type, stats) -> appendRow(report, type.toString(), stats));
+        appendRow(report, "Re-queued after failure", getRequeued());
+        getByPrint().forEach((print, stats) -> appendRow(report, print, stats));
+        report.append("===========================================================");
+        return report.toString();
+    }
+
+    /**
+     * Appends a row of wait time statistics to a report.
+     *
+     * @param report the report
+     * @param name   the name of the row
+     * @param stats  the {@link WaitTimeStats} to show
+     */
+    private static void appendRow(StringBuilder report, String name, WaitTimeStats stats) {
+        report.append(String.format("%-28s %6d %8.1f %8.1f %8.1f %8.1f%n",
+                name, stats.count(),
+                stats.p50Nanos() / 1e9, stats.p90Nanos() / 1e9, stats.p99Nanos() / 1e9, stats.maxNanos() / 1e9));
+    }
+
+    /**
+     * Gets the wait times of a group, creating them when the group is first seen.
+     *
+     * @param groups the wait times by group
+     * @param key    the group
+     * @param <K>    the type of the group key
+     * @return the wait times of the group
+     */
+    private <K> RollingSamples samples(Map<K, RollingSamples> groups, K key) {
+        RollingSamples samples = groups.get(key);
+        if (samples == null) {
+            samples = new RollingSamples(capacity);
+            groups.put(key, samples);
+        }
+        return samples;
+    }
+}
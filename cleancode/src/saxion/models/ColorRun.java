@@ -0,0 +1,114 @@
+package saxion.models;
+
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The spools a print task needs: its filament type and its colors in slot order. Tasks with the same
+ * run can be printed one after another without a spool change.
+ *
+ * @param filamentType the filament type
+ * @param colors       the colors, one per slot
+ */
+public record ColorRun(FilamentType filamentType, List<String> colors) {
+
+    /**
+     * Constructs a new {@code ColorRun} holding a copy of the colors.
+     *
+     * @param filamentType the filament type
+     * @param colors       the colors, one per slot
+     */
+    public ColorRun {
+        colors = List.copyOf(colors);
+    }
+
+    /**
+     * Gets the run of a task.
+     *
+     * @param task the {@link PrintTask}
+     * @return the {@link ColorRun} of the task
+     */
+    public static ColorRun of(PrintTask task) {
+        return new ColorRun(task.getFilamentType(), task.getColors());
+    }
+
+    /**
+     * Gets the runs a printer can print on its loaded spools without a spool change: every run whose
+     * colors each have a loaded spool of their own of the same filament type, in any position.
+     *
+     * @param spools the spools loaded in the printer, in position order
+     * @return the runs, fewest colors first and, for the same number of colors, the run of the spools in
+     *         their loaded positions first
+     */
+    public static List<ColorRun> servedBy(List<Spool> spools) {
+        Set<ColorRun> runs = new LinkedHashSet<>();
+        for (int count = 1; count <= spools.size(); count++) {
+            addRuns(spools, count, new ArrayList<>(count), new boolean[spools.size()], runs);
+        }
+        return new ArrayList<>(runs);
+    }
+
+    /**
+     * Adds the runs of a number of colors that start with the chosen spools.
+     *
+     * @param spools the spools loaded in the printer, in position order
+     * @param count  the number of colors of the runs
+     * @param chosen the spools chosen for the first colors
+     * @param used   whether the spool in every position has been chosen
+     * @param runs   the set to add the runs to
+     */
+    private static void addRuns(List<Spool> spools, int count, List<Spool> chosen, boolean[] used,
+                                Set<ColorRun> runs) {
+        if (chosen.size() == count) {
+            List<String> colors = new ArrayList<>(count);
+            for (Spool spool : chosen) {
+                colors.add(spool.getColor());
+            }
+            runs.add(new ColorRun(chosen.get(0).getFilamentType(), colors));
+            return;
+        }
+        int next = chosen.size();
+        if (next < used.length && !used[next] && fits(spools.get(next), chosen)) {
+            choose(spools, count, chosen, used, runs, next);
+        }
+        for (int i = 0; i < spools.size(); i++) {
+            if (i != next && !used[i] && fits(spools.get(i), chosen)) {
+                choose(spools, count, chosen, used, runs, i);
+            }
+        }
+    }
+
+    /**
+     * Chooses the spool in a position for the next color and adds the runs that follow from it.
+     *
+     * @param spools   the spools loaded in the printer, in position order
+     * @param count    the number of colors of the runs
+     * @param chosen   the spools chosen for the first colors
+     * @param used     whether the spool in every position has been chosen
+     * @param runs     the set to add the runs to
+     * @param position the position of the spool to choose
+     */
+    private static void choose(List<Spool> spools, int count, List<Spool> chosen, boolean[] used,
+                               Set<ColorRun> runs, int position) {
+        used[position] = true;
+        chosen.add(spools.get(position));
+        addRuns(spools, count, chosen, used, runs);
+        chosen.remove(chosen.size() - 1);
+        used[position] = false;
+    }
+
+    /**
+     * Checks whether a spool can follow the chosen spools in a run: it has their filament type.
+     *
+     * @param spool  the {@link Spool}
+     * @param chosen the spools chosen so far
+     * @return {@code true} if the spool can be chosen
+     */
+    private static boolean fits(Spool spool, List<Spool> chosen) {
+        return chosen.isEmpty() || spool.getFilamentType() == chosen.get(0).getFilamentType();
+    }
+}
@@ -0,0 +1,121 @@
+package saxion.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A print job that prints several queued tasks of the same filament type and colors side by side on one
+ * build plate. The plate takes the identifier, colors and filament type of its first part, the lead task
+ * the strategy selected; the other parts were packed around it.
+ * <p>
+ * The print of a plate adds up the filament and print time of its parts, so spool use and run time are
+ * accounted as for one large print. Its dimensions are the largest part's in every direction, as the
+ * printer has already been checked for every part.
+ */
+public class PlateTask extends PrintTask {
+
+    /** The tasks printed on the plate, starting with the lead task. */
+    private final List<PrintTask> parts;
+
+    /**
+     * Constructs a new {@code PlateTask} printing the specified tasks.
+     *
+     * @param parts the tasks on the plate, starting with the lead task
+     * @throws IllegalArgumentException if fewer than two tasks are given
+     */
+    public PlateTask(List<PrintTask> parts) {
+        super(lead(parts).getId(), platePrint(parts), parts.get(0).getColors(), parts.get(0).getFilamentType(),
+                parts.get(0).getPriority(), parts.get(0).getDeadlineMillis());
+        this.parts = List.copyOf(parts);
+        markEnqueued(parts.get(0).getEnqueuedNanos());
+    }
+
+    /**
+     * Gets the tasks printed on the plate.
+     *
+     * @return an unmodifiable list of the parts, starting with the lead task
+     */
+    public List<PrintTask> getParts() {
+        return parts;
+    }
+
+    /**
+     * Gets the tasks a print job prints: the parts of a plate, or else the task itself.
+     *
+     * @param task the {@link PrintTask} started on a printer
+     * @return an unmodifiable list of the tasks printed by the job
+     */
+    public static List<PrintTask> partsOf(PrintTask task) {
+        return task instanceof PlateTask ? ((PlateTask) task).getParts() : List.of(task);
+    }
+
+    /**
+     * Records that the plate and every part on it were started on a printer.
+     *
+     * @param nanos the monotonic time in nanoseconds
+     */
+    @Override
+    public void markStarted(long nanos) {
+        super.markStarted(nanos);
+        for (PrintTask part : parts) {
+            part.markStarted(nanos);
+        }
+    }
+
+    /**
+     * Records that the plate and every part on it were completed or failed.
+     *
+     * @param nanos the monotonic time in nanoseconds
+     */
+    @Override
+    public void markFinished(long nanos) {
+        super.markFinished(nanos);
+        for (PrintTask part : parts) {
+            part.markFinished(nanos);
+        }
+    }
+
+    /**
+     * Gets the lead task of a plate.
+     *
+     * @param parts the tasks on the plate
+     * @return the first task
+     * @throws IllegalArgumentException if fewer than two tasks are given
+     */
+    private static PrintTask lead(List<PrintTask> parts) {
+        if (parts.size() < 2) {
+            throw new IllegalArgumentException("A plate needs at least two parts");
+        }
+        return parts.get(0);
+    }
+
+    /**
+     * Combines the prints of the parts into the print of the plate.
+     *
+     * @param parts the tasks on the plate, starting with the lead task
+     * @return the combined {@link Print}
+     */
+    private static Print platePrint(List<PrintTask> parts) {
+        int height = 0;
+        int width = 0;
+        int length = 0;
+        int printTime = 0;
+        ArrayList<Double> filamentLength = new ArrayList<>();
+        for (PrintTask part : parts) {
+            Print print = part.getPrint();
+            height = Math.max(height, print.getHeight());
+            width = Math.max(width, print.getWidth());
+            length = Math.max(length, print.getLength());
+            printTime += print.getPrintTime();
+            List<Double> lengths = print.getFilamentLength();
+            for (int i = 0; i < lengths.size(); i++) {
+                if (i == filamentLength.size()) {
+                    filamentLength.add(0.0);
+                }
+                filamentLength.set(i, filamentLength.get(i) + lengths.get(i));
+            }
+        }
+        String name = parts.get(0).getPrint().getName() + " and " + (parts.size() - 1) + " more";
+        return new Print(name, height, width, length, filamentLength, printTime);
+    }
+}
@@ -94,6 +94,15 @@ public class Print {
         return filamentLength;
     }
 
+    /**
+     * Gets the estimated time to complete the print job.
+     *
+     * @return the print time in minutes
+     */
+    public int getPrintTime() {
+        return printTime;
+    }
+
     /**
      * Creates a {@code Print} instance from a map of properties.
      *
@@ -117,18 +126,10 @@ public class Print {
                 (map.getOrDefault("printTime", map.getOrDefault("5", "0"))).toString()
         );
 
-        ArrayList<Double> filamentLength = map.getOrDefault("filamentLength", map.getOrDefault(
-                "6",
-                ""
-        ))
-                instanceof List
-                ? new ArrayList<>((List<Double>) map.getOrDefault(
-                        "filamentLength",
-                map.getOrDefault("6", new ArrayList<Double>())
-        ))
-                : new ArrayList<>(Arrays.stream(String.valueOf(
-                        map.getOrDefault("filamentLength", map.getOrDefault("6", "0"))
-                ).split(","))
+        Object lengths = map.getOrDefault("filamentLength", map.getOrDefault("6", "0"));
+        ArrayList<Double> filamentLength = new ArrayList<>((lengths instanceof List
+                ? ((List<?>) lengths).stream().map(String::valueOf)
+                : Arrays.stream(String.valueOf(lengths).split(",")))
                 .map(String::trim)
                 .filter(s -> !s.isEmpty())
                 .map(Double::parseDouble)
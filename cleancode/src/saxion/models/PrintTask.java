@@ -5,21 +5,61 @@ import saxion.types.FilamentType;
 import saxion.models.Print;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a print task that includes a 3D print, its associated colors, and filament type.
  */
 public class PrintTask {
 
+    /** The order priority of a task that was not given one. */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    /** The deadline of a task that does not have one; it sorts after every real deadline. */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    /** Source of task identifiers; always ahead of every identifier handed out so far. */
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    /** The unique identifier of this task. */
+    private final long id;
+
     /** The print associated with this task. */
     private final Print print;
 
-    /** The list of colors required for the print task. */
+    /** The list of colors required for the print task, copied when the task is created. */
     private final List<String> colors;
 
     /** The type of filament used for the print task. */
     private final FilamentType filamentType;
 
+    /** The order priority of the task; tasks with a higher priority are started first. */
+    private int priority;
+
+    /** The time the print is due, in milliseconds since the epoch, or {@link #NO_DEADLINE}. */
+    private final long deadlineMillis;
+
+    /**
+     * The position of the task in the heap of the {@link PrintTaskQueue} holding it, or {@code -1} if it is
+     * not queued or waits behind an identical task.
+     */
+    int queueIndex = -1;
+
+    /** Monotonic time the task was first queued, or {@code -1} if unknown. */
+    private long enqueuedNanos = -1;
+
+    /** Monotonic time the task was last started, or {@code -1} if it has not been started. */
+    private long startedNanos = -1;
+
+    /** Monotonic time the task last finished, or {@code -1} if it has not finished. */
+    private long finishedNanos = -1;
+
+    /** Monotonic time the task was last re-queued after a failure, or {@code -1} if it never failed. */
+    private long requeuedNanos = -1;
+
+    /** Whether a start of the task on too short spools was prevented since it last started. */
+    private boolean startPrevented;
+
     /**
      * Constructs a new {@code PrintTask} with the specified print, colors, and filament type.
      *
@@ -28,15 +68,115 @@ public class PrintTask {
      * @param filamentType the type of filament used for the task
      */
     public PrintTask(Print print, List<String> colors, FilamentType filamentType) {
+        this(print, colors, filamentType, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Constructs a new {@code PrintTask} with the specified print, colors, filament type and order priority.
+     *
+     * @param print        the {@link Print} associated with this task
+     * @param colors       the list of colors required for the task
+     * @param filamentType the type of filament used for the task
+     * @param priority     the order priority; tasks with a higher priority are started first
+     */
+    public PrintTask(Print print, List<String> colors, FilamentType filamentType, int priority) {
+        this(SEQUENCE.incrementAndGet(), print, colors, filamentType, priority);
+    }
+
+    /**
+     * Constructs a {@code PrintTask} with a known identifier, for example when it is restored from a journal.
+     *
+     * @param id           the unique identifier of the task
+     * @param print        the {@link Print} associated with this task
+     * @param colors       the list of colors required for the task
+     * @param filamentType the type of filament used for the task
+     */
+    public PrintTask(long id, Print print, List<String> colors, FilamentType filamentType) {
+        this(id, print, colors, filamentType, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Constructs a {@code PrintTask} with a known identifier and order priority, for example when it is
+     * restored from a journal.
+     *
+     * @param id           the unique identifier of the task
+     * @param print        the {@link Print} associated with this task
+     * @param colors       the list of colors required for the task
+     * @param filamentType the type of filament used for the task
+     * @param priority     the order priority; tasks with a higher priority are started first
+     */
+    public PrintTask(long id, Print print, List<String> colors, FilamentType filamentType, int priority) {
+        this(id, print, colors, filamentType, priority, NO_DEADLINE);
+    }
+
+    /**
+     * Constructs a new {@code PrintTask} with the specified print, colors, filament type, order priority
+     * and deadline.
+     *
+     * @param print          the {@link Print} associated with this task
+     * @param colors         the list of colors required for the task
+     * @param filamentType   the type of filament used for the task
+     * @param priority       the order priority; tasks with a higher priority are started first
+     * @param deadlineMillis the time the print is due in milliseconds since the epoch, or {@link #NO_DEADLINE}
+     */
+    public PrintTask(Print print, List<String> colors, FilamentType filamentType, int priority, long deadlineMillis) {
+        this(SEQUENCE.incrementAndGet(), print, colors, filamentType, priority, deadlineMillis);
+    }
+
+    /**
+     * Constructs a {@code PrintTask} with a known identifier, order priority and deadline, for example when
+     * it is restored from a journal.
+     *
+     * @param id             the unique identifier of the task
+     * @param print          the {@link Print} associated with this task
+     * @param colors         the list of colors required for the task
+     * @param filamentType   the type of filament used for the task
+     * @param priority       the order priority; tasks with a higher priority are started first
+     * @param deadlineMillis the time the print is due in milliseconds since the epoch, or {@link #NO_DEADLINE}
+     */
+    public PrintTask(long id, Print print, List<String> colors, FilamentType filamentType, int priority,
+                     long deadlineMillis) {
+        advanceIdsTo(id);
+        this.id = id;
         this.print = print;
-        this.colors = colors;
+        this.colors = List.copyOf(colors);
         this.filamentType = filamentType;
+        this.priority = priority;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * Gets the highest task identifier that has been handed out so far.
+     *
+     * @return the last issued task ID
+     */
+    public static long getLastIssuedId() {
+        return SEQUENCE.get();
+    }
+
+    /**
+     * Makes sure that new tasks never receive an identifier up to the specified one,
+     * for example after restoring tasks that have since been finished.
+     *
+     * @param id the highest task identifier that must not be handed out again
+     */
+    public static void advanceIdsTo(long id) {
+        SEQUENCE.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * Gets the unique identifier of this task.
+     *
+     * @return the task ID
+     */
+    public long getId() {
+        return id;
     }
 
     /**
-     * Gets the list of colors required for the print task.
+     * Gets the list of colors required for the print task. The list cannot change, so it can be shared.
      *
-     * @return the list of colors
+     * @return an unmodifiable list of colors
      */
     public List<String> getColors() {
         return colors;
@@ -60,12 +200,170 @@ public class PrintTask {
         return print;
     }
 
+    /**
+     * Gets the order priority of the task.
+     *
+     * @return the priority; tasks with a higher priority are started first
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Changes the order priority of the task. Only the {@link PrintTaskQueue} may do so while the task is
+     * queued, as the priority decides its position.
+     *
+     * @param priority the new priority
+     */
+    void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Gets the time the print is due.
+     *
+     * @return the deadline in milliseconds since the epoch, or {@link #NO_DEADLINE}
+     */
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    /**
+     * Checks whether the task has a deadline.
+     *
+     * @return {@code true} if the print is due at a certain time
+     */
+    public boolean hasDeadline() {
+        return deadlineMillis != NO_DEADLINE;
+    }
+
+    /**
+     * Gets the latest time the task can start and still be done by its deadline, going by the print time
+     * of the catalogue. The slack of the task is this time minus the current time.
+     *
+     * @return the latest start in milliseconds since the epoch, or {@link #NO_DEADLINE} if the task has none
+     */
+    public long getLatestStartMillis() {
+        return hasDeadline() ? deadlineMillis - print.getPrintTime() * 60_000L : NO_DEADLINE;
+    }
+
+    /**
+     * Records that the task was added to the queue.
+     *
+     * @param nanos the monotonic time in nanoseconds
+     */
+    public void markEnqueued(long nanos) {
+        enqueuedNanos = nanos;
+    }
+
+    /**
+     * Records that the task was started on a printer.
+     *
+     * @param nanos the monotonic time in nanoseconds
+     */
+    public void markStarted(long nanos) {
+        startedNanos = nanos;
+        startPrevented = false;
+    }
+
+    /**
+     * Records that a start of the task was prevented because its spools have too little filament left.
+     * A task counts as prevented once until it starts.
+     *
+     * @return {@code true} if no prevented start was recorded since the task last started
+     */
+    public boolean markStartPrevented() {
+        if (startPrevented) {
+            return false;
+        }
+        startPrevented = true;
+        return true;
+    }
+
+    /**
+     * Records that the task was completed or failed.
+     *
+     * @param nanos the monotonic time in nanoseconds
+     */
+    public void markFinished(long nanos) {
+        finishedNanos = nanos;
+    }
+
+    /**
+     * Records that the task was put back in the queue after a failure.
+     *
+     * @param nanos the monotonic time in nanoseconds
+     */
+    public void markRequeued(long nanos) {
+        requeuedNanos = nanos;
+    }
+
+    /**
+     * Gets the time the task was first queued.
+     *
+     * @return the monotonic time in nanoseconds, or {@code -1} if unknown
+     */
+    public long getEnqueuedNanos() {
+        return enqueuedNanos;
+    }
+
+    /**
+     * Gets the time the task was last started.
+     *
+     * @return the monotonic time in nanoseconds, or {@code -1} if it has not been started
+     */
+    public long getStartedNanos() {
+        return startedNanos;
+    }
+
+    /**
+     * Gets the time the task last finished.
+     *
+     * @return the monotonic time in nanoseconds, or {@code -1} if it has not finished
+     */
+    public long getFinishedNanos() {
+        return finishedNanos;
+    }
+
+    /**
+     * Gets the time the task was last re-queued after a failure.
+     *
+     * @return the monotonic time in nanoseconds, or {@code -1} if it never failed
+     */
+    public long getRequeuedNanos() {
+        return requeuedNanos;
+    }
+
+    /**
+     * Checks whether the task was re-queued after a failure.
+     *
+     * @return {@code true} if the task failed at least once
+     */
+    public boolean isRequeued() {
+        return requeuedNanos >= 0;
+    }
+
+    /**
+     * Gets how long the task waited in the queue before it was last started, counting from the
+     * last re-queue if the task failed before.
+     *
+     * @return the wait time in nanoseconds, or {@code -1} if the queue or start time is unknown
+     */
+    public long getWaitNanos() {
+        long queuedNanos = isRequeued() ? requeuedNanos : enqueuedNanos;
+        if (queuedNanos < 0 || startedNanos < queuedNanos) {
+            return -1;
+        }
+        return startedNanos - queuedNanos;
+    }
+
     /**
      * Converts this {@code PrintTask} to a {@link PrintTaskDTO}.
      *
      * @return a {@code PrintTaskDTO} representation of this task
      */
     public PrintTaskDTO toDTO() {
-        return new PrintTaskDTO(print.getName(), colors, filamentType);
+        return new PrintTaskDTO(id, print.getName(), colors, filamentType, priority,
+                hasDeadline() ? deadlineMillis : null);
     }
 }
@@ -0,0 +1,774 @@
+package saxion.models;
+
+import saxion.types.FilamentType;
+
+import java.util.AbstractCollection;
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The queue of pending print tasks, ordered by priority: a task with a higher order priority comes
+ * first, among tasks of the same priority the one with the earliest deadline, and then the oldest, that
+ * is the one with the lowest identifier. Tasks without a deadline come after those with one. Because
+ * none of this changes while a task waits, a task that failed and is put back returns to its original place.
+ * <p>
+ * Identical tasks, which have the same print, colors, filament type, priority and deadline, share one
+ * entry, as when a customer orders many copies of a part. Only the oldest task of every entry, its head,
+ * takes part in the ordering; the others wait behind it and the next one becomes the head when the head
+ * leaves. Strategies go through the {@link #entries()} or the {@link #getRunEntries(ColorRun) entries of a
+ * run}, so their scans grow with the number of distinct jobs rather than with the number of copies, and
+ * dispatch a copy by taking the head. Iterating the queue
+ * itself visits every task.
+ * <p>
+ * The heads form an indexed binary heap. Every head holds its position in the heap as a handle, so
+ * adding, removing and re-prioritising a task take O(log n) whatever the depth of the queue. The heads,
+ * and all tasks, are also kept in sorted sets, so iterating visits them in priority order at O(1) per
+ * step and a strategy that takes one of the first tasks does not pay for the whole queue. A task can be
+ * in one queue at a time.
+ * <p>
+ * The heads with a deadline are also kept sorted by the latest time they can start and still be done in
+ * time, so a strategy finds the tasks that are running out of slack with a range lookup.
+ * <p>
+ * The tasks are also grouped by their {@link ColorRun}, the spools they need, each group in queue order,
+ * and so are the heads. Adding or removing a task updates its groups in O(log n), so a strategy finds the
+ * next task for the loaded spools without scanning the queue, and scans a run one distinct job at a time.
+ * <p>
+ * Finally the tasks are kept ordered by identifier, all of them and per filament type and color, so a
+ * listing pages through the queue from a cursor without scanning it.
+ */
+public class PrintTaskQueue extends AbstractQueue<PrintTask> {
+
+    /**
+     * The order of the queue: highest priority first, then earliest deadline, then oldest. Every index of the
+     * queue compares with it, so it is written out rather than chained, which would cost a call per key even
+     * when no task has a deadline.
+     */
+    private static final Comparator<PrintTask> ORDER = PrintTaskQueue::compareOrder;
+
+    /** The heads as a binary heap; the children of position {@code i} are at {@code 2i + 1} and {@code 2i + 2}. */
+    private PrintTask[] heap = new PrintTask[16];
+
+    /** The number of heads in the heap. */
+    private int size;
+
+    /** The number of queued tasks, copies included. */
+    private int taskCount;
+
+    /** The heads in queue order, for iterating the entries. */
+    private final NavigableSet<PrintTask> orderedHeads = new TreeSet<>(ORDER);
+
+    /** All queued tasks in queue order, for iterating the queue. */
+    private final NavigableSet<PrintTask> orderedTasks = new TreeSet<>(ORDER);
+
+    /** The tasks of every entry, in queue order; the first one is the head. */
+    private final Map<EntryKey, NavigableSet<PrintTask>> entryTasks = new HashMap<>();
+
+    /** The queued tasks by their identifier. */
+    private final NavigableMap<Long, PrintTask> tasksById = new TreeMap<>();
+
+    /** The queued tasks per filament type, by identifier. */
+    private final Map<FilamentType, NavigableMap<Long, PrintTask>> byFilamentType = new EnumMap<>(FilamentType.class);
+
+    /** The queued tasks per lower-case color, by identifier. */
+    private final Map<String, NavigableMap<Long, PrintTask>> byColor = new HashMap<>();
+
+    /** The heads that have a deadline, by the latest time they can start. */
+    private final NavigableMap<StartKey, PrintTask> byLatestStart = new TreeMap<>();
+
+    /** The queued tasks by the spools they need, each in queue order. */
+    private final Map<ColorRun, NavigableSet<PrintTask>> byRun = new HashMap<>();
+
+    /** The heads by the spools they need, each in queue order. */
+    private final Map<ColorRun, NavigableSet<PrintTask>> headsByRun = new HashMap<>();
+
+    /** The number of changes to the queue, so iterators notice them. */
+    private int modCount;
+
+    /** The number of times a run was added to or dropped from the queue. */
+    private int runChanges;
+
+    /**
+     * What makes tasks identical, so they share an entry.
+     *
+     * @param print          the print, which the catalogue holds once
+     * @param filamentType   the filament type
+     * @param colors         the colors, one per slot
+     * @param priority       the order priority
+     * @param deadlineMillis the deadline, or {@link PrintTask#NO_DEADLINE}
+     */
+    private record EntryKey(Print print, FilamentType filamentType, List<String> colors, int priority,
+                            long deadlineMillis) {
+
+        /**
+         * Gets the key of a task.
+         *
+         * @param task the {@link PrintTask}
+         * @return the key
+         */
+        private static EntryKey of(PrintTask task) {
+            return new EntryKey(task.getPrint(), task.getFilamentType(), task.getColors(), task.getPriority(),
+                    task.getDeadlineMillis());
+        }
+    }
+
+    /**
+     * The place of a task in the deadline index: earliest latest start first, then oldest.
+     *
+     * @param latestStartMillis the latest start of the task
+     * @param id                the identifier of the task
+     */
+    private record StartKey(long latestStartMillis, long id) implements Comparable<StartKey> {
+
+        /**
+         * Gets the key of a task.
+         *
+         * @param task the {@link PrintTask}
+         * @return the key
+         */
+        private static StartKey of(PrintTask task) {
+            return new StartKey(task.getLatestStartMillis(), task.getId());
+        }
+
+        /**
+         * Compares by latest start, then by identifier.
+         *
+         * @param other the other key
+         * @return the order of the keys
+         */
+        @Override
+        public int compareTo(StartKey other) {
+            int order = Long.compare(latestStartMillis, other.latestStartMillis);
+            return order != 0 ? order : Long.compare(id, other.id);
+        }
+    }
+
+    /**
+     * Constructs an empty {@code PrintTaskQueue}.
+     */
+    public PrintTaskQueue() {
+    }
+
+    /**
+     * Constructs a {@code PrintTaskQueue} holding the specified tasks, arranged in linear time.
+     *
+     * @param tasks the tasks
+     * @throws IllegalArgumentException if two tasks have the same identifier or a task is queued already
+     */
+    public PrintTaskQueue(Collection<PrintTask> tasks) {
+        for (PrintTask task : tasks) {
+            register(task);
+            entryTasks.computeIfAbsent(EntryKey.of(task), key -> new TreeSet<>(ORDER)).add(task);
+        }
+        taskCount = tasks.size();
+        heap = new PrintTask[Math.max(16, entryTasks.size())];
+        for (NavigableSet<PrintTask> entry : entryTasks.values()) {
+            PrintTask head = entry.first();
+            indexHead(head);
+            heap[size] = head;
+            head.queueIndex = size++;
+        }
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Adds a task to the queue.
+     *
+     * @param task the {@link PrintTask}
+     * @return {@code true}
+     * @throws IllegalArgumentException if a task with the same identifier is queued already
+     */
+    @Override
+    public boolean offer(PrintTask task) {
+        register(task);
+        NavigableSet<PrintTask> entry = entryTasks.computeIfAbsent(EntryKey.of(task), key -> new TreeSet<>(ORDER));
+        PrintTask head = entry.isEmpty() ? null : entry.first();
+        entry.add(task);
+        taskCount++;
+        if (head == null) {
+            indexHead(task);
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            heap[size] = task;
+            task.queueIndex = size++;
+            siftUp(task.queueIndex);
+        } else if (entry.first() == task) {
+            replaceHead(head, task);
+        }
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes and returns the first task.
+     *
+     * @return the first {@link PrintTask}, or {@code null} if the queue is empty
+     */
+    @Override
+    public PrintTask poll() {
+        if (size == 0) {
+            return null;
+        }
+        PrintTask first = heap[0];
+        removeTask(first);
+        return first;
+    }
+
+    /**
+     * Returns the first task without removing it.
+     *
+     * @return the first {@link PrintTask}, or {@code null} if the queue is empty
+     */
+    @Override
+    public PrintTask peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    /**
+     * Removes a task from the queue. Removing the head of an entry makes the next copy the head.
+     *
+     * @param o the task to remove
+     * @return {@code true} if the task was queued
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!contains(o)) {
+            return false;
+        }
+        removeTask((PrintTask) o);
+        return true;
+    }
+
+    /**
+     * Checks whether a task is queued.
+     *
+     * @param o the task
+     * @return {@code true} if this queue holds the task
+     */
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof PrintTask)) {
+            return false;
+        }
+        return tasksById.get(((PrintTask) o).getId()) == o;
+    }
+
+    /**
+     * Finds a queued task by its identifier.
+     *
+     * @param id the identifier of the task
+     * @return the {@link PrintTask}, or {@code null} if no such task is queued
+     */
+    public PrintTask get(long id) {
+        return tasksById.get(id);
+    }
+
+    /**
+     * Gets the heads of the queue: the first task of every entry of identical tasks, in priority order.
+     * A strategy that scans the heads sees every distinct job once, and dispatches a copy of a job by
+     * removing its head. The view reflects later changes, as its iterator does.
+     *
+     * @return an unmodifiable view of the heads, apart from removal through its iterator
+     */
+    public Collection<PrintTask> entries() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<PrintTask> iterator() {
+                return new OrderedIterator(orderedHeads);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Gets the queued tasks ordered by identifier. The view reflects later changes.
+     *
+     * @return an unmodifiable view of the tasks by identifier
+     */
+    public NavigableMap<Long, PrintTask> getTasksById() {
+        return Collections.unmodifiableNavigableMap(tasksById);
+    }
+
+    /**
+     * Gets the queued tasks of a filament type ordered by identifier. The view reflects later changes.
+     *
+     * @param filamentType the {@link FilamentType}
+     * @return an unmodifiable view of the tasks by identifier, empty if none is queued
+     */
+    public NavigableMap<Long, PrintTask> getTasksByFilamentType(FilamentType filamentType) {
+        NavigableMap<Long, PrintTask> tasks = byFilamentType.get(filamentType);
+        return tasks == null ? Collections.emptyNavigableMap() : Collections.unmodifiableNavigableMap(tasks);
+    }
+
+    /**
+     * Gets the queued tasks that use a color in any slot, ordered by identifier. The view reflects later
+     * changes.
+     *
+     * @param color the color, in any case
+     * @return an unmodifiable view of the tasks by identifier, empty if none is queued
+     */
+    public NavigableMap<Long, PrintTask> getTasksByColor(String color) {
+        NavigableMap<Long, PrintTask> tasks = byColor.get(color.toLowerCase());
+        return tasks == null ? Collections.emptyNavigableMap() : Collections.unmodifiableNavigableMap(tasks);
+    }
+
+    /**
+     * Gets the number of queued tasks identical to a task, the task included.
+     *
+     * @param task the {@link PrintTask}
+     * @return the number of tasks in the entry of the task, or 0 if the task is not queued
+     */
+    public int getQuantity(PrintTask task) {
+        return contains(task) ? entryTasks.get(EntryKey.of(task)).size() : 0;
+    }
+
+    /**
+     * Gets the heads with a deadline whose latest start lies in a range, that is, whose slack at a
+     * time lies in a range. The heads come earliest latest start first; the view reflects later changes.
+     *
+     * @param fromMillis the earliest latest start, inclusive
+     * @param toMillis   the last latest start, inclusive
+     * @return an unmodifiable view of the tasks
+     */
+    public Collection<PrintTask> startingBy(long fromMillis, long toMillis) {
+        if (fromMillis > toMillis) {
+            return List.of();
+        }
+        return Collections.unmodifiableCollection(byLatestStart.subMap(
+                new StartKey(fromMillis, Long.MIN_VALUE), true, new StartKey(toMillis, Long.MAX_VALUE), true).values());
+    }
+
+    /**
+     * Gets the queued tasks that need the spools of a run. The tasks come in queue order; the view
+     * reflects later changes.
+     *
+     * @param run the {@link ColorRun}
+     * @return an unmodifiable view of the tasks, empty if none is queued
+     */
+    public Collection<PrintTask> getRun(ColorRun run) {
+        NavigableSet<PrintTask> tasks = byRun.get(run);
+        return tasks == null ? List.of() : Collections.unmodifiableSet(tasks);
+    }
+
+    /**
+     * Gets the heads of a run: the first task of every entry of identical tasks that need the spools of
+     * the run. The heads come in queue order; the view reflects later changes.
+     *
+     * @param run the {@link ColorRun}
+     * @return an unmodifiable view of the heads, empty if no task of the run is queued
+     */
+    public Collection<PrintTask> getRunEntries(ColorRun run) {
+        NavigableSet<PrintTask> heads = headsByRun.get(run);
+        return heads == null ? List.of() : Collections.unmodifiableSet(heads);
+    }
+
+    /**
+     * Gets the runs that have queued tasks.
+     *
+     * @return an unmodifiable view of the runs
+     */
+    public Set<ColorRun> getRuns() {
+        return Collections.unmodifiableSet(byRun.keySet());
+    }
+
+    /**
+     * Gets the number of times a run was added to the queue or dropped from it, so a plan over the runs
+     * can tell whether it still covers the same runs.
+     *
+     * @return the number of changes to the runs
+     */
+    public int getRunChanges() {
+        return runChanges;
+    }
+
+    /**
+     * Compares two tasks by the order of the queue.
+     *
+     * @param first  the first {@link PrintTask}
+     * @param second the second {@link PrintTask}
+     * @return a negative number if the first task comes first, a positive one if it comes last, 0 if they are equal
+     */
+    private static int compareOrder(PrintTask first, PrintTask second) {
+        if (first.getPriority() != second.getPriority()) {
+            return first.getPriority() > second.getPriority() ? -1 : 1;
+        }
+        if (first.getDeadlineMillis() != second.getDeadlineMillis()) {
+            return first.getDeadlineMillis() < second.getDeadlineMillis() ? -1 : 1;
+        }
+        return Long.compare(first.getId(), second.getId());
+    }
+
+    /**
+     * Gets the order of the queue, e.g. to compare the first tasks of runs.
+     *
+     * @return the comparator ordering the tasks
+     */
+    public Comparator<PrintTask> comparator() {
+        return ORDER;
+    }
+
+    /**
+     * Changes the order priority of a queued task and moves it to its new place.
+     *
+     * @param task     the queued {@link PrintTask}
+     * @param priority the new priority
+     * @throws IllegalArgumentException if the task is not in this queue
+     */
+    public void changePriority(PrintTask task, int priority) {
+        if (!contains(task)) {
+            throw new IllegalArgumentException("Task " + task.getId() + " is not queued");
+        }
+        removeTask(task);
+        task.setPriority(priority);
+        offer(task);
+    }
+
+    /**
+     * Gets the number of queued tasks, copies included.
+     *
+     * @return the size of the queue
+     */
+    @Override
+    public int size() {
+        return taskCount;
+    }
+
+    /**
+     * Removes all tasks.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            heap[i].queueIndex = -1;
+            heap[i] = null;
+        }
+        size = 0;
+        taskCount = 0;
+        orderedHeads.clear();
+        orderedTasks.clear();
+        entryTasks.clear();
+        tasksById.clear();
+        byFilamentType.clear();
+        byColor.clear();
+        byLatestStart.clear();
+        byRun.clear();
+        headsByRun.clear();
+        modCount++;
+        runChanges++;
+    }
+
+    /**
+     * Returns an iterator over the tasks in priority order. The iterator picks up changes made while
+     * iterating, including its own {@link Iterator#remove()}, and continues after the last task it returned.
+     *
+     * @return the {@link Iterator}
+     */
+    @Override
+    public Iterator<PrintTask> iterator() {
+        return new OrderedIterator(orderedTasks);
+    }
+
+    /**
+     * Visits a sorted set of the queue in priority order. Every step is a step through the set, O(1)
+     * amortized; after the queue changed the walk picks up again after the last returned task in O(log n).
+     */
+    private final class OrderedIterator implements Iterator<PrintTask> {
+
+        /** The tasks visited: the heads or all tasks. */
+        private final NavigableSet<PrintTask> tasks;
+
+        /** The walk through the tasks after the last returned one, valid while the queue is unchanged. */
+        private Iterator<PrintTask> walk;
+
+        /** The task returned last, or {@code null} before the first one. */
+        private PrintTask last;
+
+        /** Whether the last task may be removed through this iterator. */
+        private boolean removable;
+
+        /** The change count of the queue the walk was started for. */
+        private int expectedModCount = -1;
+
+        /**
+         * Constructs an iterator.
+         *
+         * @param tasks the sorted tasks to visit
+         */
+        OrderedIterator(NavigableSet<PrintTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        /**
+         * Checks whether there is a next task.
+         *
+         * @return {@code true} if a task follows the last one
+         */
+        @Override
+        public boolean hasNext() {
+            refresh();
+            return walk.hasNext();
+        }
+
+        /**
+         * Returns the next task.
+         *
+         * @return the next {@link PrintTask}
+         * @throws NoSuchElementException if no task follows
+         */
+        @Override
+        public PrintTask next() {
+            refresh();
+            PrintTask task = walk.next();
+            last = task;
+            removable = true;
+            return task;
+        }
+
+        /**
+         * Removes the task returned last.
+         *
+         * @throws IllegalStateException if no task was returned since the last removal
+         */
+        @Override
+        public void remove() {
+            if (!removable) {
+                throw new IllegalStateException("No task to remove");
+            }
+            removable = false;
+            PrintTaskQueue.this.remove(last);
+        }
+
+        /**
+         * Starts the walk again after the queue changed, from the first task that comes after the last
+         * returned one.
+         */
+        private void refresh() {
+            if (expectedModCount == modCount) {
+                return;
+            }
+            expectedModCount = modCount;
+            walk = (last == null ? tasks : tasks.tailSet(last, false)).iterator();
+        }
+    }
+
+    /**
+     * Registers the identifier, filament type, colors, run and place of a task that is being added.
+     *
+     * @param task the {@link PrintTask}
+     * @throws IllegalArgumentException if a task with the same identifier is queued already
+     */
+    private void register(PrintTask task) {
+        if (tasksById.putIfAbsent(task.getId(), task) != null) {
+            throw new IllegalArgumentException("Task " + task.getId() + " is queued already");
+        }
+        byFilamentType.computeIfAbsent(task.getFilamentType(), type -> new TreeMap<>()).put(task.getId(), task);
+        for (String color : task.getColors()) {
+            byColor.computeIfAbsent(color.toLowerCase(), key -> new TreeMap<>()).put(task.getId(), task);
+        }
+        byRun.computeIfAbsent(ColorRun.of(task), run -> {
+            runChanges++;
+            return new TreeSet<>(ORDER);
+        }).add(task);
+        orderedTasks.add(task);
+    }
+
+    /**
+     * Removes the identifier, filament type, colors and place of a task that is leaving.
+     *
+     * @param task the {@link PrintTask}
+     */
+    private void unregister(PrintTask task) {
+        tasksById.remove(task.getId());
+        orderedTasks.remove(task);
+        removeById(byFilamentType, task.getFilamentType(), task);
+        for (String color : task.getColors()) {
+            removeById(byColor, color.toLowerCase(), task);
+        }
+    }
+
+    /**
+     * Removes a task from one of the groups of an index by identifier, and the group once it is empty.
+     *
+     * @param index the index
+     * @param value the value the task is grouped under
+     * @param task  the {@link PrintTask}
+     * @param <K>   the type of the values
+     */
+    private static <K> void removeById(Map<K, NavigableMap<Long, PrintTask>> index, K value, PrintTask task) {
+        NavigableMap<Long, PrintTask> tasks = index.get(value);
+        if (tasks != null && tasks.remove(task.getId()) != null && tasks.isEmpty()) {
+            index.remove(value);
+        }
+    }
+
+    /**
+     * Adds a new head to the sorted heads, the heads of its run and, if it has a deadline, to the deadline
+     * index.
+     *
+     * @param head the head {@link PrintTask}
+     */
+    private void indexHead(PrintTask head) {
+        orderedHeads.add(head);
+        headsByRun.computeIfAbsent(ColorRun.of(head), run -> new TreeSet<>(ORDER)).add(head);
+        if (head.hasDeadline()) {
+            byLatestStart.put(StartKey.of(head), head);
+        }
+    }
+
+    /**
+     * Removes a leaving head from the sorted heads, the heads of its run and the deadline index.
+     *
+     * @param head the head {@link PrintTask}
+     */
+    private void unindexHead(PrintTask head) {
+        orderedHeads.remove(head);
+        ColorRun run = ColorRun.of(head);
+        NavigableSet<PrintTask> heads = headsByRun.get(run);
+        heads.remove(head);
+        if (heads.isEmpty()) {
+            headsByRun.remove(run);
+        }
+        if (head.hasDeadline()) {
+            byLatestStart.remove(StartKey.of(head));
+        }
+    }
+
+    /**
+     * Removes a queued task. The next copy of its entry takes the place of a removed head.
+     *
+     * @param task the queued {@link PrintTask}
+     */
+    private void removeTask(PrintTask task) {
+        unregister(task);
+        ColorRun run = ColorRun.of(task);
+        NavigableSet<PrintTask> runTasks = byRun.get(run);
+        runTasks.remove(task);
+        if (runTasks.isEmpty()) {
+            byRun.remove(run);
+            runChanges++;
+        }
+        EntryKey key = EntryKey.of(task);
+        NavigableSet<PrintTask> entry = entryTasks.get(key);
+        boolean head = entry.first() == task;
+        entry.remove(task);
+        taskCount--;
+        if (!head) {
+            modCount++;
+        } else if (entry.isEmpty()) {
+            entryTasks.remove(key);
+            removeAt(task.queueIndex);
+        } else {
+            replaceHead(task, entry.first());
+            modCount++;
+        }
+    }
+
+    /**
+     * Puts the new head of an entry in the place of the old one and moves it to its own place.
+     *
+     * @param head    the old head
+     * @param newHead the new head
+     */
+    private void replaceHead(PrintTask head, PrintTask newHead) {
+        unindexHead(head);
+        indexHead(newHead);
+        int index = head.queueIndex;
+        head.queueIndex = -1;
+        place(newHead, index);
+        siftDown(siftUp(index));
+    }
+
+    /**
+     * Removes the head at a position by moving the last head into its place.
+     *
+     * @param index the position
+     */
+    private void removeAt(int index) {
+        PrintTask removed = heap[index];
+        unindexHead(removed);
+        removed.queueIndex = -1;
+        size--;
+        if (index != size) {
+            heap[index] = heap[size];
+            heap[index].queueIndex = index;
+            heap[size] = null;
+            siftDown(siftUp(index));
+        } else {
+            heap[size] = null;
+        }
+        modCount++;
+    }
+
+    /**
+     * Moves the task at a position up while it comes before its parent.
+     *
+     * @param index the position
+     * @return the new position of the task
+     */
+    private int siftUp(int index) {
+        PrintTask task = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (ORDER.compare(task, heap[parent]) >= 0) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(task, index);
+        return index;
+    }
+
+    /**
+     * Moves the task at a position down while one of its children comes before it.
+     *
+     * @param index the position
+     */
+    private void siftDown(int index) {
+        PrintTask task = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && ORDER.compare(heap[child + 1], heap[child]) < 0) {
+                child++;
+            }
+            if (ORDER.compare(task, heap[child]) <= 0) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(task, index);
+    }
+
+    /**
+     * Puts a task at a position and updates its handle.
+     *
+     * @param task  the {@link PrintTask}
+     * @param index the position
+     */
+    private void place(PrintTask task, int index) {
+        heap[index] = task;
+        task.queueIndex = index;
+    }
+}
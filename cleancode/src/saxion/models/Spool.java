@@ -54,6 +54,15 @@ public class Spool {
         return length;
     }
 
+    /**
+     * Sets the remaining length of the filament on the spool, for example when restoring a snapshot.
+     *
+     * @param length the remaining filament length
+     */
+    public void setLength(double length) {
+        this.length = length;
+    }
+
     /**
      * Checks if the spool matches the specified color and filament type.
      *
@@ -0,0 +1,175 @@
+package saxion.models;
+
+import saxion.types.FilamentType;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * The free spools, as a list that also keeps the spools grouped by filament type and color. A strategy
+ * looking for a spool of a color only visits the spools of that color, however many other spools are free.
+ * <p>
+ * Every change goes through {@link #add(int, Spool)}, {@link #set(int, Spool)} and {@link #remove(int)},
+ * so the groups stay in step with the list whichever list operation the strategies use. Within a group the
+ * spools come in the order they were added. The groups do not depend on the length of a spool, which may
+ * change while it is free.
+ */
+public class SpoolPool extends AbstractList<Spool> implements RandomAccess {
+
+    /** The free spools. */
+    private final List<Spool> spools = new ArrayList<>();
+
+    /** The free spools by filament type and color. */
+    private final Map<FilamentType, Map<String, Set<Spool>>> byColor = new EnumMap<>(FilamentType.class);
+
+    /**
+     * Constructs a new, empty {@code SpoolPool}.
+     */
+    public SpoolPool() {
+    }
+
+    /**
+     * Constructs a new {@code SpoolPool} holding the specified spools.
+     *
+     * @param spools the free spools
+     */
+    public SpoolPool(Collection<Spool> spools) {
+        addAll(spools);
+    }
+
+    /**
+     * Gets the free spools of a filament type and color.
+     *
+     * @param color the color
+     * @param type  the {@link FilamentType}
+     * @return an unmodifiable view of the matching spools, in the order they were added
+     */
+    public Collection<Spool> matching(String color, FilamentType type) {
+        Map<String, Set<Spool>> groups = byColor.get(type);
+        Set<Spool> group = groups == null ? null : groups.get(color);
+        return group == null ? Collections.emptySet() : Collections.unmodifiableSet(group);
+    }
+
+    /**
+     * Gets the spools of a list that may match a filament type and color: only those of that color if the
+     * list is a {@code SpoolPool}, otherwise the whole list. Callers still check every spool they get.
+     *
+     * @param spools the spools to look in
+     * @param color  the color
+     * @param type   the {@link FilamentType}
+     * @return the candidate spools
+     */
+    public static Collection<Spool> candidates(List<Spool> spools, String color, FilamentType type) {
+        return spools instanceof SpoolPool ? ((SpoolPool) spools).matching(color, type) : spools;
+    }
+
+    /**
+     * Gets the spool at a position of the list.
+     *
+     * @param index the position
+     * @return the {@link Spool}
+     */
+    @Override
+    public Spool get(int index) {
+        return spools.get(index);
+    }
+
+    /**
+     * Gets the number of free spools.
+     *
+     * @return the number of spools
+     */
+    @Override
+    public int size() {
+        return spools.size();
+    }
+
+    /**
+     * Inserts a spool at a position of the list.
+     *
+     * @param index the position
+     * @param spool the {@link Spool}
+     */
+    @Override
+    public void add(int index, Spool spool) {
+        spools.add(index, spool);
+        index(spool);
+        modCount++;
+    }
+
+    /**
+     * Replaces the spool at a position of the list.
+     *
+     * @param index the position
+     * @param spool the new {@link Spool}
+     * @return the replaced spool
+     */
+    @Override
+    public Spool set(int index, Spool spool) {
+        Spool previous = spools.set(index, spool);
+        unindex(previous);
+        index(spool);
+        return previous;
+    }
+
+    /**
+     * Removes the spool at a position of the list.
+     *
+     * @param index the position
+     * @return the removed spool
+     */
+    @Override
+    public Spool remove(int index) {
+        Spool spool = spools.remove(index);
+        unindex(spool);
+        modCount++;
+        return spool;
+    }
+
+    /**
+     * Removes all spools.
+     */
+    @Override
+    public void clear() {
+        spools.clear();
+        byColor.clear();
+        modCount++;
+    }
+
+    /**
+     * Adds a spool to its group.
+     *
+     * @param spool the {@link Spool}
+     */
+    private void index(Spool spool) {
+        byColor.computeIfAbsent(spool.getFilamentType(), type -> new HashMap<>())
+                .computeIfAbsent(spool.getColor(), color -> new LinkedHashSet<>())
+                .add(spool);
+    }
+
+    /**
+     * Removes a spool from its group, unless the list still holds it at another position.
+     *
+     * @param spool the {@link Spool}
+     */
+    private void unindex(Spool spool) {
+        if (spools.contains(spool)) {
+            return;
+        }
+        Map<String, Set<Spool>> groups = byColor.get(spool.getFilamentType());
+        Set<Spool> group = groups.get(spool.getColor());
+        group.remove(spool);
+        if (group.isEmpty()) {
+            groups.remove(spool.getColor());
+        }
+    }
+}
@@ -12,6 +12,9 @@ public class PrintEvent {
     /** The number of prints that have been successfully fulfilled. */
     private final int printsFulfilled;
 
+    /** The number of starts on spools with too little filament that were prevented. */
+    private final int preventedStarts;
+
     /**
      * Constructs a new {@code PrintEvent} with the specified spool change count and prints fulfilled count.
      *
@@ -19,8 +22,20 @@ public class PrintEvent {
      * @param printsFulfilled  the number of prints that have been successfully fulfilled
      */
     public PrintEvent(int spoolChangeCount, int printsFulfilled) {
+        this(spoolChangeCount, printsFulfilled, 0);
+    }
+
+    /**
+     * Constructs a new {@code PrintEvent} that also reports prevented starts.
+     *
+     * @param spoolChangeCount the number of spool changes that occurred
+     * @param printsFulfilled  the number of prints that have been successfully fulfilled
+     * @param preventedStarts  the number of starts on spools with too little filament that were prevented
+     */
+    public PrintEvent(int spoolChangeCount, int printsFulfilled, int preventedStarts) {
         this.spoolChangeCount = spoolChangeCount;
         this.printsFulfilled = printsFulfilled;
+        this.preventedStarts = preventedStarts;
     }
 
     /**
@@ -40,4 +55,13 @@ public class PrintEvent {
     public int getPrintsFulfilled() {
         return printsFulfilled;
     }
+
+    /**
+     * Gets the number of starts on spools with too little filament that were prevented.
+     *
+     * @return the prevented start count
+     */
+    public int getPreventedStarts() {
+        return preventedStarts;
+    }
 }
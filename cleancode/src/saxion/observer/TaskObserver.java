@@ -0,0 +1,74 @@
+package saxion.observer;
+
+import saxion.models.PrintTask;
+import saxion.models.Spool;
+import saxion.printers.Printer;
+
+import java.util.List;
+
+/**
+ * Observer for the individual scheduling steps of the {@link saxion.PrintManager}.
+ * Unlike {@link Observer}, which only receives aggregated counters, a {@code TaskObserver}
+ * is told exactly which task, printer and spools were involved in every state change.
+ * All methods have empty default implementations so that observers only override what they need.
+ * <p>
+ * A started or finished task may be a {@link saxion.models.PlateTask} printing several queued tasks as one
+ * job; observers that follow individual tasks go through {@link saxion.models.PlateTask#partsOf(PrintTask)}.
+ */
+public interface TaskObserver {
+
+    /**
+     * Called after a new print task has been added to the pending queue.
+     *
+     * @param task the {@link PrintTask} that was queued
+     */
+    default void taskAdded(PrintTask task) {
+    }
+
+    /**
+     * Called after the order priority of a pending task has changed, which moved it in the queue.
+     *
+     * @param task             the {@link PrintTask} with its new priority
+     * @param previousPriority the priority it had before
+     */
+    default void taskPriorityChanged(PrintTask task, int previousPriority) {
+    }
+
+    /**
+     * Called after a print task has been assigned to a printer.
+     *
+     * @param printer the {@link Printer} that started the task
+     * @param task    the {@link PrintTask} that was started
+     */
+    default void taskStarted(Printer printer, PrintTask task) {
+    }
+
+    /**
+     * Called after a free printer was offered the pending queue but did not start a task.
+     *
+     * @param printer      the {@link Printer} that stays free
+     * @param tasksPending {@code true} if tasks were pending but none could be assigned to the printer
+     */
+    default void noTaskSelected(Printer printer, boolean tasksPending) {
+    }
+
+    /**
+     * Called after the spools loaded in a printer have been changed.
+     *
+     * @param printer the {@link Printer} whose spools were changed
+     * @param spools  the spools loaded in the printer after the change, in slot order
+     * @param changes the number of spool changes the operator has to perform
+     */
+    default void spoolsChanged(Printer printer, List<Spool> spools, int changes) {
+    }
+
+    /**
+     * Called after the running task of a printer has been completed or has failed.
+     *
+     * @param printer    the {@link Printer} the task was running on
+     * @param task       the finished {@link PrintTask}
+     * @param successful {@code true} if the print was fulfilled; {@code false} if it failed and was re-queued
+     */
+    default void taskFinished(Printer printer, PrintTask task, boolean successful) {
+    }
+}
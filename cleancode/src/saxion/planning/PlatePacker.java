@@ -0,0 +1,250 @@
+package saxion.planning;
+
+import saxion.models.ColorRun;
+import saxion.models.PlateTask;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.models.Spool;
+import saxion.printers.Printer;
+import saxion.printers.StandardFDM;
+import saxion.time.TimeSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills the build plate of a printer that starts a task with more queued tasks of the same filament
+ * type and colors, so they are printed side by side as one job.
+ * <p>
+ * Parts are placed with a shelf heuristic: they are laid out in rows across the X axis of the plate, and
+ * a part goes on the first row it fits in, turned if that helps, or starts a new row above the last one
+ * along the Y axis. Every part keeps a margin to its neighbours. The candidates are the tasks of the lead
+ * task's {@link ColorRun} in queue order; a candidate only joins if it fits the printer, including its Z
+ * height, if the loaded spools hold the filament of the whole plate, and if the longer job still
+ * finishes every part with a deadline in time.
+ */
+public class PlatePacker {
+
+    /** The default margin between two parts on the plate, in millimeters. */
+    public static final int DEFAULT_SPACING = 5;
+
+    /** The default maximum number of parts on one plate. */
+    public static final int DEFAULT_MAX_PARTS = 16;
+
+    /** The number of queued tasks of the run that are considered for one plate. */
+    private static final int CANDIDATE_LIMIT = 64;
+
+    /** The margin between two parts on the plate, in millimeters. */
+    private final int spacing;
+
+    /** The maximum number of parts on one plate. */
+    private final int maxParts;
+
+    /** The source of the current time the deadlines are checked against. */
+    private TimeSource timeSource;
+
+    /**
+     * Constructs a new {@code PlatePacker} with the default margin and plate size.
+     *
+     * @param timeSource the source of the current time
+     */
+    public PlatePacker(TimeSource timeSource) {
+        this(timeSource, DEFAULT_SPACING, DEFAULT_MAX_PARTS);
+    }
+
+    /**
+     * Constructs a new {@code PlatePacker}.
+     *
+     * @param timeSource the source of the current time
+     * @param spacing    the margin between two parts, in millimeters
+     * @param maxParts   the maximum number of parts on one plate
+     * @throws IllegalArgumentException if the margin is negative or a plate would hold fewer than two parts
+     */
+    public PlatePacker(TimeSource timeSource, int spacing, int maxParts) {
+        if (spacing < 0) {
+            throw new IllegalArgumentException("Spacing must not be negative");
+        }
+        if (maxParts < 2) {
+            throw new IllegalArgumentException("A plate must hold at least two parts");
+        }
+        this.timeSource = timeSource;
+        this.spacing = spacing;
+        this.maxParts = maxParts;
+    }
+
+    /**
+     * Sets the source of the current time, e.g. a simulated clock.
+     *
+     * @param timeSource the {@link TimeSource} to use
+     */
+    public void setTimeSource(TimeSource timeSource) {
+        this.timeSource = timeSource;
+    }
+
+    /**
+     * Packs queued tasks next to a task that a printer is about to start. The packed tasks are removed
+     * from the queue.
+     *
+     * @param printer the {@link Printer} starting the task, with the spools for it loaded
+     * @param lead    the {@link PrintTask} the strategy selected, no longer queued
+     * @param queue   the pending tasks
+     * @return a {@link PlateTask} of the lead task and the packed tasks, or the lead task if nothing fits
+     *         next to it or the printer has no known build plate
+     */
+    public PrintTask pack(Printer printer, PrintTask lead, PrintTaskQueue queue) {
+        if (!(printer instanceof StandardFDM)) {
+            return lead;
+        }
+        StandardFDM fdm = (StandardFDM) printer;
+        Shelves shelves = new Shelves(fdm.getMaxX(), fdm.getMaxY());
+        Print leadPrint = lead.getPrint();
+        if (!shelves.place(leadPrint.getWidth(), leadPrint.getLength())) {
+            return lead;
+        }
+
+        List<Spool> spools = printer.getCurrentSpools();
+        double[] filamentLeft = new double[Math.min(spools.size(), lead.getColors().size())];
+        for (int i = 0; i < filamentLeft.length; i++) {
+            filamentLeft[i] = spools.get(i).getLength();
+        }
+        if (!takeFilament(filamentLeft, leadPrint)) {
+            return lead;
+        }
+        long now = timeSource.currentTimeMillis();
+        long dueMillis = lead.getDeadlineMillis();
+        long printMinutes = leadPrint.getPrintTime();
+
+        List<PrintTask> parts = new ArrayList<>();
+        parts.add(lead);
+        int considered = 0;
+        for (PrintTask candidate : queue.getRun(ColorRun.of(lead))) {
+            if (parts.size() == maxParts || considered++ == CANDIDATE_LIMIT) {
+                break;
+            }
+            Print print = candidate.getPrint();
+            long due = Math.min(dueMillis, candidate.getDeadlineMillis());
+            if (!printer.printFits(print)
+                    || (due != PrintTask.NO_DEADLINE && now + (printMinutes + print.getPrintTime()) * 60_000L > due)
+                    || !hasFilament(filamentLeft, print)
+                    || !shelves.place(print.getWidth(), print.getLength())) {
+                continue;
+            }
+            takeFilament(filamentLeft, print);
+            dueMillis = due;
+            printMinutes += print.getPrintTime();
+            parts.add(candidate);
+        }
+        if (parts.size() == 1) {
+            return lead;
+        }
+        for (int i = 1; i < parts.size(); i++) {
+            queue.remove(parts.get(i));
+        }
+        return new PlateTask(parts);
+    }
+
+    /**
+     * Checks whether the filament left on the loaded spools suffices for a print.
+     *
+     * @param filamentLeft the filament left per slot, in meters
+     * @param print        the {@link Print}
+     * @return {@code true} if every slot has enough filament
+     */
+    private static boolean hasFilament(double[] filamentLeft, Print print) {
+        List<Double> lengths = print.getFilamentLength();
+        for (int i = 0; i < filamentLeft.length && i < lengths.size(); i++) {
+            if (filamentLeft[i] < lengths.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes the filament of a print from the filament left on the loaded spools.
+     *
+     * @param filamentLeft the filament left per slot, in meters, which is reduced
+     * @param print        the {@link Print}
+     * @return {@code true} if every slot had enough filament
+     */
+    private static boolean takeFilament(double[] filamentLeft, Print print) {
+        boolean enough = hasFilament(filamentLeft, print);
+        List<Double> lengths = print.getFilamentLength();
+        for (int i = 0; i < filamentLeft.length && i < lengths.size(); i++) {
+            filamentLeft[i] -= lengths.get(i);
+        }
+        return enough;
+    }
+
+    /**
+     * The rows of parts on a build plate. A row is as deep as the first part placed in it.
+     */
+    private final class Shelves {
+
+        /** The width of the plate along X. */
+        private final int plateWidth;
+
+        /** The depth of the plate along Y. */
+        private final int plateDepth;
+
+        /** The depth of every row along Y; only the first {@link #count} are used. */
+        private final int[] depths = new int[maxParts];
+
+        /** The width used in every row along X, margins included. */
+        private final int[] widths = new int[maxParts];
+
+        /** The number of rows. */
+        private int count;
+
+        /** The depth used by all rows along Y, margins included. */
+        private int used;
+
+        /**
+         * Constructs an empty plate.
+         *
+         * @param plateWidth the width of the plate along X
+         * @param plateDepth the depth of the plate along Y
+         */
+        Shelves(int plateWidth, int plateDepth) {
+            this.plateWidth = plateWidth;
+            this.plateDepth = plateDepth;
+        }
+
+        /**
+         * Places a part on the first row it fits in, turned if needed, or in a new row.
+         *
+         * @param width  the width of the part along X
+         * @param length the length of the part along Y
+         * @return {@code true} if the part was placed; {@code false} if the plate is full for it
+         */
+        boolean place(int width, int length) {
+            for (int row = 0; row < count; row++) {
+                int start = widths[row] == 0 ? 0 : widths[row] + spacing;
+                if (length <= depths[row] && start + width <= plateWidth) {
+                    widths[row] = start + width;
+                    return true;
+                }
+                if (width <= depths[row] && start + length <= plateWidth) {
+                    widths[row] = start + length;
+                    return true;
+                }
+            }
+            int top = count == 0 ? 0 : used + spacing;
+            int across = Math.max(width, length);
+            int deep = Math.min(width, length);
+            if (across > plateWidth) {
+                across = deep;
+                deep = Math.max(width, length);
+            }
+            if (across > plateWidth || top + deep > plateDepth) {
+                return false;
+            }
+            depths[count] = deep;
+            widths[count] = across;
+            count++;
+            used = top + deep;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package saxion.planning;
+
+import saxion.models.ColorRun;
+import saxion.models.PrintTask;
+
+import java.util.List;
+
+/**
+ * The order in which a printer is planned to serve its upcoming tasks, so as few spools as possible
+ * have to be changed between them.
+ *
+ * @param printerId    the ID of the printer
+ * @param printerName  the name of the printer
+ * @param runs         the runs in the order they are served
+ * @param tasks        the planned tasks, one per entry of identical tasks, run after run and each run in
+ *                     queue order
+ * @param spoolChanges the number of spool changes the order takes, counted from the loaded spools
+ */
+public record SetupPlan(
+        int printerId,
+        String printerName,
+        List<ColorRun> runs,
+        List<PrintTask> tasks,
+        int spoolChanges
+) {
+}
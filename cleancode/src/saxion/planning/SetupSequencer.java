@@ -0,0 +1,379 @@
+package saxion.planning;
+
+import saxion.models.ColorRun;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.models.Spool;
+import saxion.printers.MultiColor;
+import saxion.printers.Printer;
+import saxion.types.FilamentType;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plans the order in which a printer serves its upcoming tasks so that as few spools as possible are
+ * changed: Red, Red, Blue takes one change less than Red, Blue, Red.
+ * <p>
+ * The tasks of a {@link ColorRun} need no change between them, so the plan orders the runs rather than
+ * the tasks. The cost of going from one run to the next is the number of colors of the next run that
+ * the previous one does not have in any position, since the strategies move a loaded spool to the
+ * position that needs it rather than change it; from the loaded spools it is the number of colors they
+ * do not have. Finding the cheapest
+ * order is a traveling salesman path with a fixed start, which is solved approximately: nearest
+ * neighbour builds a first order, 2-opt then reverses parts of it as long as that saves changes.
+ * <p>
+ * The order of every printer is kept between plans. Runs that have left the queue are dropped from it,
+ * new runs are put in at their cheapest place and 2-opt starts from the result, so a plan mostly repeats
+ * the work for what changed since the last one. A plan covers the runs of the first tasks of the queue
+ * the printer can print, up to the horizon. The horizon counts distinct jobs: identical tasks share an
+ * entry of the queue and count once.
+ */
+public class SetupSequencer {
+
+    /** The default number of upcoming distinct jobs a plan covers. */
+    public static final int DEFAULT_HORIZON = 200;
+
+    /** The maximum number of 2-opt passes per plan. */
+    private static final int MAX_PASSES = 8;
+
+    /** The number of upcoming distinct jobs a plan covers. */
+    private final int horizon;
+
+    /** The order of the runs of every printer, by printer ID. */
+    private final Map<Integer, List<ColorRun>> orders = new HashMap<>();
+
+    /**
+     * Constructs a new {@code SetupSequencer}.
+     *
+     * @param horizon the number of upcoming distinct jobs a plan covers
+     * @throws IllegalArgumentException if the horizon is not positive
+     */
+    public SetupSequencer(int horizon) {
+        if (horizon <= 0) {
+            throw new IllegalArgumentException("Horizon must be positive");
+        }
+        this.horizon = horizon;
+    }
+
+    /**
+     * Plans the order of the upcoming tasks of a printer, starting from its loaded spools.
+     *
+     * @param printer      the {@link Printer}
+     * @param pendingTasks the queue of pending tasks
+     * @return the {@link SetupPlan}
+     */
+    public SetupPlan plan(Printer printer, PrintTaskQueue pendingTasks) {
+        List<ColorRun> window = window(printer, pendingTasks);
+        Costs costs = new Costs(printer.getCurrentSpools(), window);
+        List<ColorRun> previous = orders.get(printer.getId());
+        int[] path = previous == null ? nearestNeighbour(costs) : update(costs, window, previous);
+        twoOpt(costs, path);
+
+        List<ColorRun> order = new ArrayList<>(window.size());
+        int changes = 0;
+        for (int i = 1; i < path.length; i++) {
+            order.add(window.get(path[i] - 1));
+            changes += costs.get(path[i - 1], path[i]);
+        }
+        orders.put(printer.getId(), order);
+
+        List<PrintTask> tasks = new ArrayList<>(horizon);
+        for (ColorRun run : order) {
+            for (PrintTask task : pendingTasks.getRunEntries(run)) {
+                if (tasks.size() == horizon) {
+                    break;
+                }
+                tasks.add(task);
+            }
+        }
+        return new SetupPlan(printer.getId(), printer.getName(), List.copyOf(order), tasks, changes);
+    }
+
+    /**
+     * Forgets the order of a printer, e.g. when it is removed from the farm.
+     *
+     * @param printer the {@link Printer}
+     */
+    public void forget(Printer printer) {
+        orders.remove(printer.getId());
+    }
+
+    /**
+     * Brings an earlier order up to date: runs that are no longer covered are dropped and new runs are put
+     * in at their cheapest place.
+     *
+     * @param costs  the changes between the runs, node 0 being the loaded spools
+     * @param window the runs the plan covers, by their first task, as nodes from 1
+     * @param order  the earlier order
+     * @return the nodes of the loaded spools and the runs in the new order
+     */
+    private static int[] update(Costs costs, List<ColorRun> window, List<ColorRun> order) {
+        Map<ColorRun, Integer> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < window.size(); i++) {
+            nodes.put(window.get(i), i + 1);
+        }
+        int[] path = new int[window.size() + 1];
+        int length = 1;
+        for (ColorRun run : order) {
+            Integer node = nodes.remove(run);
+            if (node != null) {
+                path[length++] = node;
+            }
+        }
+        for (int node : nodes.values()) {
+            int place = cheapestPlace(costs, path, length, node);
+            System.arraycopy(path, place, path, place + 1, length - place);
+            path[place] = node;
+            length++;
+        }
+        return path;
+    }
+
+    /**
+     * Gets the runs a plan covers: the runs the printer can print, by their first task in queue order,
+     * until they hold the horizon's number of entries.
+     *
+     * @param printer      the {@link Printer}
+     * @param pendingTasks the queue of pending tasks
+     * @return the runs, by their first task
+     */
+    private List<ColorRun> window(Printer printer, PrintTaskQueue pendingTasks) {
+        List<Map.Entry<PrintTask, ColorRun>> heads = new ArrayList<>();
+        for (ColorRun run : pendingTasks.getRuns()) {
+            if (canPrint(printer, run)) {
+                PrintTask first = pendingTasks.getRunEntries(run).iterator().next();
+                heads.add(new AbstractMap.SimpleImmutableEntry<>(first, run));
+            }
+        }
+        heads.sort(Map.Entry.comparingByKey(pendingTasks.comparator()));
+        List<ColorRun> runs = new ArrayList<>(heads.size());
+        int tasks = 0;
+        for (Map.Entry<PrintTask, ColorRun> head : heads) {
+            runs.add(head.getValue());
+            tasks += pendingTasks.getRunEntries(head.getValue()).size();
+            if (tasks >= horizon) {
+                break;
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Checks whether a printer can print the tasks of a run, following the printer rules of the strategies.
+     *
+     * @param printer the {@link Printer}
+     * @param run     the {@link ColorRun}
+     * @return {@code true} if the printer can print the run
+     */
+    private static boolean canPrint(Printer printer, ColorRun run) {
+        int colors = run.colors().size();
+        if (printer.isHoused()) {
+            return colors == 1;
+        }
+        return run.filamentType() != FilamentType.ABS
+                && colors <= (printer instanceof MultiColor ? ((MultiColor) printer).getMaxColors() : 1);
+    }
+
+    /**
+     * Builds a first order by always going to the run that is cheapest to change to next. Ties go to
+     * the run that comes first in the queue.
+     *
+     * @param costs the changes between the runs, node 0 being the loaded spools
+     * @return the nodes of the loaded spools and the runs in the order
+     */
+    private static int[] nearestNeighbour(Costs costs) {
+        int[] path = new int[costs.size];
+        boolean[] visited = new boolean[costs.size];
+        for (int step = 1; step < costs.size; step++) {
+            int best = -1;
+            int bestCost = Integer.MAX_VALUE;
+            for (int node = 1; node < costs.size && bestCost > 0; node++) {
+                if (!visited[node] && costs.get(path[step - 1], node) < bestCost) {
+                    best = node;
+                    bestCost = costs.get(path[step - 1], node);
+                }
+            }
+            visited[best] = true;
+            path[step] = best;
+        }
+        return path;
+    }
+
+    /**
+     * Puts a run in an order where it adds the fewest changes.
+     *
+     * @param costs  the changes between the runs, node 0 being the loaded spools
+     * @param path   the nodes of the loaded spools and the runs in the order, without the new run
+     * @param length the number of nodes in the path
+     * @param node   the node of the new run
+     * @return the place of the new run in the path, from 1
+     */
+    private static int cheapestPlace(Costs costs, int[] path, int length, int node) {
+        int best = length;
+        int bestCost = Integer.MAX_VALUE;
+        for (int i = 1; i <= length && bestCost > 0; i++) {
+            int previous = path[i - 1];
+            int added = costs.get(previous, node);
+            if (i < length) {
+                added += costs.get(node, path[i]) - costs.get(previous, path[i]);
+            }
+            if (added < bestCost) {
+                best = i;
+                bestCost = added;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Improves an order by reversing the part between two runs whenever that saves changes, until no
+     * reversal does or the passes run out. The changes inside a part are summed while the part grows,
+     * so every reversal is weighed in constant time.
+     *
+     * @param costs the changes between the runs, node 0 being the loaded spools
+     * @param path  the nodes of the loaded spools and the runs in the order
+     */
+    private static void twoOpt(Costs costs, int[] path) {
+        int n = path.length - 1;
+        boolean improved = true;
+        for (int pass = 0; pass < MAX_PASSES && improved; pass++) {
+            improved = false;
+            for (int i = 1; i < n; i++) {
+                int entry = costs.get(path[i - 1], path[i]);
+                int forward = 0;
+                int backward = 0;
+                for (int j = i + 1; j <= n; j++) {
+                    forward += costs.get(path[j - 1], path[j]);
+                    backward += costs.get(path[j], path[j - 1]);
+                    int before = entry + forward + (j < n ? costs.get(path[j], path[j + 1]) : 0);
+                    int after = costs.get(path[i - 1], path[j]) + backward
+                            + (j < n ? costs.get(path[i], path[j + 1]) : 0);
+                    if (after < before) {
+                        reverse(path, i, j);
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reverses a part of a path.
+     *
+     * @param path the path
+     * @param from the first position of the part
+     * @param to   the last position of the part
+     */
+    private static void reverse(int[] path, int from, int to) {
+        for (; from < to; from++, to--) {
+            int node = path[from];
+            path[from] = path[to];
+            path[to] = node;
+        }
+    }
+
+    /**
+     * The number of spool changes between every two runs of a plan, and from the loaded spools to every
+     * run. Every slot of a run is coded as a number for its filament type and color, so comparing two runs
+     * compares numbers.
+     */
+    private static final class Costs {
+
+        /** The number of nodes: the loaded spools and the runs. */
+        private final int size;
+
+        /** The changes from node {@code i} to node {@code j} at {@code i * size + j}. */
+        private final int[] changes;
+
+        /**
+         * Computes the changes between the loaded spools, as node 0, and the runs, as nodes from 1.
+         *
+         * @param spools the spools loaded in the printer
+         * @param runs   the runs
+         */
+        private Costs(List<Spool> spools, List<ColorRun> runs) {
+            size = runs.size() + 1;
+            Map<String, Integer> codes = new HashMap<>();
+            int types = FilamentType.values().length;
+            int[][] slots = new int[size][];
+            slots[0] = new int[spools.size()];
+            for (int i = 0; i < spools.size(); i++) {
+                slots[0][i] = code(codes, types, spools.get(i).getFilamentType(), spools.get(i).getColor());
+            }
+            for (int node = 1; node < size; node++) {
+                ColorRun run = runs.get(node - 1);
+                slots[node] = new int[run.colors().size()];
+                for (int i = 0; i < slots[node].length; i++) {
+                    slots[node][i] = code(codes, types, run.filamentType(), run.colors().get(i));
+                }
+            }
+            changes = new int[size * size];
+            for (int from = 0; from < size; from++) {
+                for (int to = 1; to < size; to++) {
+                    changes[from * size + to] = count(slots[from], slots[to]);
+                }
+            }
+        }
+
+        /**
+         * Counts the spools that have to be placed to go from one set of positions to another. A spool
+         * that is already loaded is moved to the position that needs it, which takes no spool change.
+         *
+         * @param from the codes of the loaded positions
+         * @param to   the codes of the positions needed
+         * @return the number of spool changes
+         */
+        private static int count(int[] from, int[] to) {
+            int count = 0;
+            long used = 0;
+            for (int i = 0; i < to.length; i++) {
+                if (i < from.length && from[i] == to[i] && (used & 1L << i) == 0) {
+                    used |= 1L << i;
+                    continue;
+                }
+                boolean loaded = false;
+                for (int j = 0; j < from.length && !loaded; j++) {
+                    if (from[j] == to[i] && (used & 1L << j) == 0 && (j >= to.length || from[j] != to[j])) {
+                        used |= 1L << j;
+                        loaded = true;
+                    }
+                }
+                if (!loaded) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Gets the number of changes from one node to another.
+         *
+         * @param from the node changed from
+         * @param to   the node changed to
+         * @return the number of spool changes
+         */
+        private int get(int from, int to) {
+            return changes[from * size + to];
+        }
+
+        /**
+         * Gets the code of a filament type and color: the number of the color, given in the order the
+         * colors are met, combined with the filament type.
+         *
+         * @param codes the numbers of the colors met so far
+         * @param types the number of filament types
+         * @param type  the {@link FilamentType}
+         * @param color the color
+         * @return the code
+         */
+        private static int code(Map<String, Integer> codes, int types, FilamentType type, String color) {
+            return codes.computeIfAbsent(color, key -> codes.size()) * types + type.ordinal();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package saxion.planning;
+
+import java.util.List;
+
+/**
+ * The projected use of every loaded spool and the spool changes to prepare ahead of time.
+ *
+ * @param generatedAtMillis the time the forecast was made in milliseconds since the epoch
+ * @param spools            the projection per loaded spool, by printer and position
+ * @param stagedChanges     the spool changes to prepare, the one needed first first
+ */
+public record SpoolForecast(long generatedAtMillis, List<SpoolProjection> spools,
+                            List<StagedSpoolChange> stagedChanges) {
+
+    /**
+     * Formats the forecast as a report for the console.
+     *
+     * @return the report
+     */
+    public String format() {
+        StringBuilder report = new StringBuilder("===================== SPOOL FORECAST =====================\n");
+        report.append(String.format("%-16s %4s %6s %-10s %10s %10s %6s %12s%n",
+                "Printer", "Pos", "Spool", "Color", "Left (m)", "After (m)", "Tasks", "Runs short"));
+        for (SpoolProjection spool : spools) {
+            report.append(String.format("%-16s %4d %6d %-10s %10.1f %10.1f %6d %12s%n",
+                    spool.printerName(), spool.position(), spool.spoolId(), spool.color(),
+                    spool.remainingLength(), spool.projectedLength(), spool.tasksCovered(),
+                    spool.isExhausted() ? "in " + minutesFromNow(spool.exhaustedAtMillis()) + " min" : "-"));
+        }
+        report.append("Spool changes to prepare: ").append(stagedChanges.size()).append('\n');
+        for (StagedSpoolChange change : stagedChanges) {
+            report.append(change.instruction())
+                    .append(", needed in ").append(minutesFromNow(change.neededAtMillis())).append(" min\n");
+        }
+        report.append("==========================================================");
+        return report.toString();
+    }
+
+    /**
+     * Converts a time to the number of whole minutes after the forecast was made.
+     *
+     * @param millis the time in milliseconds since the epoch
+     * @return the minutes from the time of the forecast
+     */
+    private long minutesFromNow(long millis) {
+        return Math.max(0, millis - generatedAtMillis) / 60_000;
+    }
+}
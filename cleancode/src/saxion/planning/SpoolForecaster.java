@@ -0,0 +1,392 @@
+package saxion.planning;
+
+import saxion.models.ColorRun;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.models.Spool;
+import saxion.models.SpoolPool;
+import saxion.printers.MultiColor;
+import saxion.printers.Printer;
+import saxion.time.TimeSource;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Projects when the spools loaded in the printers will run out, so a spool can be swapped while the
+ * preceding print is still running rather than after the printer has gone idle.
+ * <p>
+ * The projection plays the queue forward on the loaded spools: every printer first finishes its running
+ * task, then the queued tasks, in queue order, go to the printer that can print them on its loaded spools
+ * and is free first. A spool runs short when a task needs more filament than it has left; the printer then
+ * needs a spool change before that task, and the projection of that printer stops there. Tasks no printer
+ * can print on its loaded spools need a spool change anyway and are left out. Like the strategies, a task
+ * runs on loaded spools of its colors in any position. Printers are indexed by the filament type and color
+ * of every loaded spool, so a task only looks at the printers that could take it.
+ */
+public class SpoolForecaster {
+
+    /** The source of the current time the projection starts from. */
+    private TimeSource timeSource;
+
+    /**
+     * Constructs a new {@code SpoolForecaster}.
+     *
+     * @param timeSource the source of the current time
+     */
+    public SpoolForecaster(TimeSource timeSource) {
+        this.timeSource = timeSource;
+    }
+
+    /**
+     * Sets the source of the current time, e.g. a simulated clock.
+     *
+     * @param timeSource the {@link TimeSource} to use
+     */
+    public void setTimeSource(TimeSource timeSource) {
+        this.timeSource = timeSource;
+    }
+
+    /**
+     * Projects the use of every loaded spool.
+     *
+     * @param printers     the printers of the farm
+     * @param pendingTasks the pending tasks, in the order they will be started
+     * @param freeSpools   the spools that are not loaded, to suggest replacements from
+     * @return the {@link SpoolForecast}
+     */
+    public SpoolForecast forecast(List<Printer> printers, Collection<PrintTask> pendingTasks, List<Spool> freeSpools) {
+        long now = timeSource.currentTimeMillis();
+        long nowNanos = timeSource.nanoTime();
+        List<Projection> projections = new ArrayList<>(printers.size());
+        Map<String, List<Projection>> bySpool = new HashMap<>();
+        List<StagedSpoolChange> changes = new ArrayList<>();
+        Set<Spool> reserved = new HashSet<>();
+        int running = 0;
+
+        for (Printer printer : printers) {
+            List<Spool> spools = printer.getCurrentSpools();
+            if (spools.isEmpty()) {
+                continue;
+            }
+            Projection projection = new Projection(printer, spools, now);
+            projections.add(projection);
+            PrintTask task = printer.getTask();
+            if (task != null) {
+                projection.run(task, now, remainingMillis(task, nowNanos), freeSpools, reserved, changes);
+            }
+            if (!projection.stopped) {
+                running++;
+                for (Spool spool : spools) {
+                    List<Projection> loadedIn = bySpool.computeIfAbsent(
+                            key(spool.getFilamentType(), spool.getColor()), k -> new ArrayList<>());
+                    if (loadedIn.isEmpty() || loadedIn.get(loadedIn.size() - 1) != projection) {
+                        loadedIn.add(projection);
+                    }
+                }
+            }
+        }
+
+        for (PrintTask task : pendingTasks) {
+            if (running == 0) {
+                break;
+            }
+            List<Projection> candidates = bySpool.get(key(task.getFilamentType(), task.getColors().get(0)));
+            if (candidates == null) {
+                continue;
+            }
+            Projection first = null;
+            for (Projection candidate : candidates) {
+                if (!candidate.stopped && (first == null || candidate.freeAtMillis < first.freeAtMillis)
+                        && runsOnLoadedSpools(candidate.printer, task, candidate.spools)) {
+                    first = candidate;
+                }
+            }
+            if (first != null) {
+                first.run(task, first.freeAtMillis, task.getPrint().getPrintTime() * 60_000L,
+                        freeSpools, reserved, changes);
+                if (first.stopped) {
+                    running--;
+                }
+            }
+        }
+
+        List<SpoolProjection> spools = new ArrayList<>();
+        for (Projection projection : projections) {
+            projection.addTo(spools);
+        }
+        changes.sort(Comparator.comparingLong(StagedSpoolChange::neededAtMillis));
+        return new SpoolForecast(now, spools, changes);
+    }
+
+    /**
+     * Checks whether the loaded spools of a busy printer will last for the next task it can print on them,
+     * the first such task of the queue. Meant to be called right after the printer started a task.
+     * <p>
+     * Only the runs the loaded spools serve are looked up, one entry of identical tasks at a time, so the
+     * check does not grow with the queue; within a run the scan stops at the first task the printer can
+     * take or that comes after the best task found so far.
+     *
+     * @param printer      the {@link Printer}
+     * @param pendingTasks the queue of pending tasks
+     * @param freeSpools   the spools that are not loaded, to suggest a replacement from
+     * @return the {@link StagedSpoolChange} to prepare, or {@code null} if the spools last or no task follows
+     */
+    public StagedSpoolChange checkNextTask(Printer printer, PrintTaskQueue pendingTasks, List<Spool> freeSpools) {
+        List<Spool> spools = printer.getCurrentSpools();
+        if (spools.isEmpty()) {
+            return null;
+        }
+        Comparator<PrintTask> order = pendingTasks.comparator();
+        PrintTask next = null;
+        for (ColorRun run : ColorRun.servedBy(spools)) {
+            for (PrintTask task : pendingTasks.getRunEntries(run)) {
+                if (next != null && order.compare(task, next) >= 0) {
+                    break;
+                }
+                if (runsOnLoadedSpools(printer, task, spools)) {
+                    next = task;
+                    break;
+                }
+            }
+        }
+        if (next == null) {
+            return null;
+        }
+        long now = timeSource.currentTimeMillis();
+        Projection projection = new Projection(printer, spools, now);
+        PrintTask running = printer.getTask();
+        if (running != null) {
+            projection.run(running, now, remainingMillis(running, timeSource.nanoTime()),
+                    freeSpools, new HashSet<>(), new ArrayList<>());
+        }
+        List<StagedSpoolChange> changes = new ArrayList<>(1);
+        if (!projection.stopped) {
+            projection.run(next, projection.freeAtMillis, 0, freeSpools, new HashSet<>(), changes);
+        }
+        return changes.isEmpty() ? null : changes.get(0);
+    }
+
+    /**
+     * Estimates how long the running task of a printer still takes.
+     *
+     * @param task     the running {@link PrintTask}
+     * @param nowNanos the current value of the monotonic clock
+     * @return the remaining print time in milliseconds, at least zero
+     */
+    private static long remainingMillis(PrintTask task, long nowNanos) {
+        long millis = task.getPrint().getPrintTime() * 60_000L;
+        if (task.getStartedNanos() >= 0) {
+            millis -= (nowNanos - task.getStartedNanos()) / 1_000_000;
+        }
+        return Math.max(0, millis);
+    }
+
+    /**
+     * Checks whether a printer can print a task on its loaded spools, following the printer rules of the
+     * strategies.
+     *
+     * @param printer the {@link Printer}
+     * @param task    the {@link PrintTask}
+     * @param spools  the spools loaded in the printer
+     * @return {@code true} if the printer can start the task without a spool change
+     */
+    private static boolean runsOnLoadedSpools(Printer printer, PrintTask task, List<Spool> spools) {
+        int colors = task.getColors().size();
+        if (colors > spools.size() || !printer.printFits(task.getPrint())) {
+            return false;
+        }
+        if (printer.isHoused()) {
+            if (colors != 1) {
+                return false;
+            }
+        } else if (task.getFilamentType() == FilamentType.ABS
+                || colors > (printer instanceof MultiColor ? ((MultiColor) printer).getMaxColors() : 1)) {
+            return false;
+        }
+        return positions(task, spools) != null;
+    }
+
+    /**
+     * Matches the colors of a task to loaded spools the way the strategies do: a spool in the position of
+     * a color is kept for it, and otherwise the first unused loaded spool of the color is taken.
+     *
+     * @param task   the {@link PrintTask}
+     * @param spools the spools loaded in the printer, in position order
+     * @return the position of the spool of every color, or {@code null} if a color has no loaded spool
+     */
+    private static int[] positions(PrintTask task, List<Spool> spools) {
+        int colors = task.getColors().size();
+        int[] positions = new int[colors];
+        boolean[] used = new boolean[spools.size()];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < colors && i < spools.size(); i++) {
+            if (spools.get(i).spoolMatch(task.getColors().get(i), task.getFilamentType())) {
+                positions[i] = i;
+                used[i] = true;
+            }
+        }
+        for (int i = 0; i < colors; i++) {
+            for (int j = 0; j < spools.size() && positions[i] < 0; j++) {
+                if (!used[j] && spools.get(j).spoolMatch(task.getColors().get(i), task.getFilamentType())) {
+                    positions[i] = j;
+                    used[j] = true;
+                }
+            }
+            if (positions[i] < 0) {
+                return null;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Builds the index key of a filament type and color.
+     *
+     * @param type  the {@link FilamentType}
+     * @param color the color
+     * @return the key
+     */
+    private static String key(FilamentType type, String color) {
+        return type + "/" + color;
+    }
+
+    /**
+     * Finds the smallest free spool of a color that has enough filament, like the efficient spool usage
+     * strategy would choose.
+     *
+     * @param spool      the spool to replace
+     * @param length     the length needed
+     * @param freeSpools the free spools
+     * @param reserved   the free spools already suggested for another change
+     * @return the replacement, or {@code null} if no free spool is long enough
+     */
+    private static Spool findReplacement(Spool spool, double length, List<Spool> freeSpools, Set<Spool> reserved) {
+        Spool best = null;
+        for (Spool candidate : SpoolPool.candidates(freeSpools, spool.getColor(), spool.getFilamentType())) {
+            if (candidate.spoolMatch(spool.getColor(), spool.getFilamentType()) && candidate.getLength() >= length
+                    && !reserved.contains(candidate) && (best == null || candidate.getLength() < best.getLength())) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The projected state of a printer and its loaded spools.
+     */
+    private static final class Projection {
+
+        /** The printer. */
+        private final Printer printer;
+
+        /** The spools loaded in the printer. */
+        private final List<Spool> spools;
+
+        /** The length projected to be left per spool. */
+        private final double[] left;
+
+        /** The number of tasks projected per spool. */
+        private final int[] tasks;
+
+        /** The time the spool runs short per spool, or {@code null}. */
+        private final Long[] exhaustedAt;
+
+        /** The task the spool runs short for per spool, or {@code null}. */
+        private final Long[] blockingTask;
+
+        /** The time the printer is projected to be free, in milliseconds since the epoch. */
+        private long freeAtMillis;
+
+        /** Whether a spool runs short, which ends the projection of the printer. */
+        private boolean stopped;
+
+        /**
+         * Constructs a new {@code Projection} of a free printer.
+         *
+         * @param printer   the printer
+         * @param spools    the spools loaded in the printer
+         * @param nowMillis the current time
+         */
+        private Projection(Printer printer, List<Spool> spools, long nowMillis) {
+            this.printer = printer;
+            this.spools = spools;
+            this.left = new double[spools.size()];
+            this.tasks = new int[spools.size()];
+            this.exhaustedAt = new Long[spools.size()];
+            this.blockingTask = new Long[spools.size()];
+            for (int i = 0; i < spools.size(); i++) {
+                left[i] = spools.get(i).getLength();
+            }
+            this.freeAtMillis = nowMillis;
+        }
+
+        /**
+         * Projects a task on the printer. If a spool runs short, a staged change is added for it and the
+         * projection of the printer stops.
+         *
+         * @param task           the {@link PrintTask}
+         * @param startMillis    the time the task starts
+         * @param durationMillis the time the task takes from then
+         * @param freeSpools     the free spools to suggest a replacement from
+         * @param reserved       the free spools already suggested, to which the replacement is added
+         * @param changes        the list to add staged changes to
+         */
+        private void run(PrintTask task, long startMillis, long durationMillis, List<Spool> freeSpools,
+                         Set<Spool> reserved, List<StagedSpoolChange> changes) {
+            int[] positions = positions(task, spools);
+            if (positions == null) {
+                return;
+            }
+            List<Double> lengths = task.getPrint().getFilamentLength();
+            int used = Math.min(positions.length, lengths.size());
+            for (int i = 0; i < used; i++) {
+                double length = lengths.get(i);
+                int position = positions[i];
+                if (left[position] < length) {
+                    Spool spool = spools.get(position);
+                    Spool replacement = findReplacement(spool, length, freeSpools, reserved);
+                    if (replacement != null) {
+                        reserved.add(replacement);
+                    }
+                    exhaustedAt[position] = startMillis;
+                    blockingTask[position] = task.getId();
+                    changes.add(new StagedSpoolChange(printer.getId(), printer.getName(), position + 1,
+                            spool.getId(), replacement == null ? null : replacement.getId(), startMillis,
+                            task.getId(), task.getPrint().getName(), length));
+                    stopped = true;
+                }
+            }
+            if (stopped) {
+                return;
+            }
+            for (int i = 0; i < used; i++) {
+                left[positions[i]] -= lengths.get(i);
+                tasks[positions[i]]++;
+            }
+            freeAtMillis = startMillis + durationMillis;
+        }
+
+        /**
+         * Adds the projection of every spool of the printer to a list.
+         *
+         * @param projections the list to add to
+         */
+        private void addTo(List<SpoolProjection> projections) {
+            for (int i = 0; i < spools.size(); i++) {
+                Spool spool = spools.get(i);
+                projections.add(new SpoolProjection(spool.getId(), spool.getColor(), spool.getFilamentType(),
+                        printer.getId(), printer.getName(), i + 1, spool.getLength(), left[i], tasks[i],
+                        exhaustedAt[i], blockingTask[i]));
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package saxion.planning;
+
+import saxion.types.FilamentType;
+
+/**
+ * The projected use of a spool loaded in a printer, as the queue is expected to run.
+ *
+ * @param spoolId           the ID of the spool
+ * @param color             the color of the filament
+ * @param filamentType      the type of filament
+ * @param printerId         the ID of the printer the spool is loaded in
+ * @param printerName       the name of the printer
+ * @param position          the position of the spool in the printer, from 1
+ * @param remainingLength   the length left on the spool now
+ * @param projectedLength   the length expected to be left when the projection ends
+ * @param tasksCovered      the number of tasks, including the running one, the spool is expected to print
+ * @param exhaustedAtMillis the time the spool is expected to run short in milliseconds since the epoch,
+ *                          or {@code null} if it lasts for the queued tasks
+ * @param blockingTaskId    the ID of the task the spool runs short for, or {@code null}
+ */
+public record SpoolProjection(
+        int spoolId,
+        String color,
+        FilamentType filamentType,
+        int printerId,
+        String printerName,
+        int position,
+        double remainingLength,
+        double projectedLength,
+        int tasksCovered,
+        Long exhaustedAtMillis,
+        Long blockingTaskId
+) {
+
+    /**
+     * Checks whether the spool is expected to run short for a queued task.
+     *
+     * @return {@code true} if the spool runs short
+     */
+    public boolean isExhausted() {
+        return exhaustedAtMillis != null;
+    }
+}
@@ -0,0 +1,40 @@
+package saxion.planning;
+
+/**
+ * A spool change to prepare while the printer is still busy, so the spool can be swapped as soon as the
+ * running print ends instead of after the printer has gone idle.
+ *
+ * @param printerId          the ID of the printer
+ * @param printerName        the name of the printer
+ * @param position           the position of the spool in the printer, from 1
+ * @param spoolId            the ID of the spool that runs short
+ * @param replacementSpoolId the ID of the free spool to put in its place, or {@code null} if no free spool
+ *                           of the color has enough filament
+ * @param neededAtMillis     the time the replacement is needed in milliseconds since the epoch
+ * @param taskId             the ID of the task the spool runs short for
+ * @param print              the name of the print of that task
+ * @param neededLength       the length of filament the task needs from this position
+ */
+public record StagedSpoolChange(
+        int printerId,
+        String printerName,
+        int position,
+        int spoolId,
+        Integer replacementSpoolId,
+        long neededAtMillis,
+        long taskId,
+        String print,
+        double neededLength
+) {
+
+    /**
+     * Gets the instruction for the operator, in the style of the spool change messages of the strategies.
+     *
+     * @return the instruction
+     */
+    public String instruction() {
+        String spool = replacementSpoolId == null ? "a new spool" : "spool " + replacementSpoolId;
+        return "- Prepare " + spool + " for printer " + printerName + " position " + position
+                + ": spool " + spoolId + " runs short for " + print;
+    }
+}
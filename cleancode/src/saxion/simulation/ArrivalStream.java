@@ -0,0 +1,14 @@
+package saxion.simulation;
+
+/**
+ * A stream of task arrivals in time order, feeding a {@link FarmSimulator}.
+ */
+public interface ArrivalStream {
+
+    /**
+     * Gets the next arrival.
+     *
+     * @return the next {@link TaskArrival}, or {@code null} if no more tasks arrive
+     */
+    TaskArrival next();
+}
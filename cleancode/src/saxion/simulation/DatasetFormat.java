@@ -0,0 +1,20 @@
+package saxion.simulation;
+
+/**
+ * The file formats the data provider reads.
+ */
+public enum DatasetFormat {
+    /** A CSV file with a header row. */
+    CSV,
+    /** A JSON array of objects. */
+    JSON;
+
+    /**
+     * Gets the file extension of the format.
+     *
+     * @return the extension, including the dot
+     */
+    public String extension() {
+        return "." + name().toLowerCase();
+    }
+}
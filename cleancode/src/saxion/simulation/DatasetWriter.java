@@ -0,0 +1,148 @@
+package saxion.simulation;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams records to a CSV or JSON file in the layout the data provider reads. Strings are written as
+ * JSON strings, numbers as JSON numbers and lists as JSON arrays; in CSV a list of several values is
+ * quoted and comma-separated. Values must not contain quotes.
+ */
+class DatasetWriter implements Closeable {
+
+    /** The underlying writer. */
+    private final BufferedWriter writer;
+
+    /** The format of the file. */
+    private final DatasetFormat format;
+
+    /** The names of the columns. */
+    private final String[] columns;
+
+    /** Whether a record has been written. */
+    private boolean written;
+
+    /**
+     * Creates the file and writes the CSV header or the opening bracket of the JSON array.
+     *
+     * @param file    the file to write
+     * @param format  the {@link DatasetFormat}
+     * @param columns the names of the columns
+     * @throws IOException if the file cannot be created
+     */
+    DatasetWriter(Path file, DatasetFormat format, String... columns) throws IOException {
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        this.format = format;
+        this.columns = columns;
+        writer.write(format == DatasetFormat.CSV ? String.join(",", columns) : "[");
+    }
+
+    /**
+     * Writes a record.
+     *
+     * @param values the values, one per column
+     * @throws IOException if the record cannot be written
+     */
+    void write(Object... values) throws IOException {
+        if (format == DatasetFormat.JSON && written) {
+            writer.write(',');
+        }
+        writer.newLine();
+        written = true;
+        if (format == DatasetFormat.CSV) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csv(values[i]));
+            }
+        } else {
+            writer.write("  {");
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(", ");
+                }
+                writer.write('"');
+                writer.write(columns[i]);
+                writer.write("\": ");
+                writer.write(json(values[i]));
+            }
+            writer.write('}');
+        }
+    }
+
+    /**
+     * Closes the JSON array and the file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (format == DatasetFormat.JSON) {
+            writer.newLine();
+            writer.write(']');
+        }
+        writer.newLine();
+        writer.close();
+    }
+
+    /**
+     * Formats a value as a CSV field.
+     *
+     * @param value the value
+     * @return the field
+     */
+    private static String csv(Object value) {
+        if (value instanceof List<?>) {
+            List<?> list = (List<?>) value;
+            StringBuilder field = new StringBuilder();
+            for (Object element : list) {
+                if (field.length() > 0) {
+                    field.append(", ");
+                }
+                field.append(scalar(element));
+            }
+            return list.size() > 1 ? "\"" + field + "\"" : field.toString();
+        }
+        return scalar(value);
+    }
+
+    /**
+     * Formats a value as a JSON value.
+     *
+     * @param value the value
+     * @return the JSON value
+     */
+    private static String json(Object value) {
+        if (value instanceof List<?>) {
+            StringBuilder array = new StringBuilder("[");
+            for (Object element : (List<?>) value) {
+                if (array.length() > 1) {
+                    array.append(", ");
+                }
+                array.append(json(element));
+            }
+            return array.append(']').toString();
+        }
+        return value instanceof Number ? scalar(value) : "\"" + value + "\"";
+    }
+
+    /**
+     * Formats a single value; fractions get two decimals.
+     *
+     * @param value the value
+     * @return the text of the value
+     */
+    private static String scalar(Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            return String.format(Locale.ROOT, "%.2f", ((Number) value).doubleValue());
+        }
+        return String.valueOf(value);
+    }
+}
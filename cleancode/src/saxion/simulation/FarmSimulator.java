@@ -0,0 +1,436 @@
+package saxion.simulation;
+
+import saxion.PrintManager;
+import saxion.metrics.UtilizationTracker;
+import saxion.models.PlateTask;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.Spool;
+import saxion.printers.MultiColor;
+import saxion.printers.Printer;
+import saxion.types.FilamentType;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Discrete-event simulation of a print farm around a real {@link PrintManager}. Tasks arrive from an
+ * {@link ArrivalStream} and are scheduled by the manager's strategy as in production, while a
+ * {@link SimulatedClock} jumps from one event to the next. A started task finishes after the spool
+ * changes it needed, its print time and the clearing of the build plate, unless it fails part-way at the configured failure rate or a loaded
+ * spool runs out of filament. A spool that runs out is empty afterwards.
+ * <p>
+ * A free printer is offered the queue when its task finishes. When a task arrives, the free printers
+ * that could print it are offered the queue one by one until one of them starts a task. Printers that
+ * cannot print the arriving task are skipped, since nothing else changed for them since their last offer.
+ * <p>
+ * The CPU time the strategy spends selecting tasks is measured on the running thread, so several
+ * simulators can run in parallel on their own managers without disturbing each other's numbers.
+ */
+public class FarmSimulator {
+
+    /** The number of state transitions kept per printer for the utilization report. */
+    private static final int UTILIZATION_CAPACITY = 4096;
+
+    /** The manager being simulated. */
+    private final PrintManager printManager;
+
+    /** The source of the tasks. */
+    private final ArrivalStream arrivals;
+
+    /** The settings of the run. */
+    private final SimulationConfig config;
+
+    /** The virtual time. */
+    private final SimulatedClock clock;
+
+    /** The seeded source of failures. */
+    private final Random random;
+
+    /** The pending events in time order. */
+    private final PriorityQueue<SimulationEvent> events = new PriorityQueue<>();
+
+    /** The printers by ID. */
+    private final Map<Integer, Printer> printers = new HashMap<>();
+
+    /** The printers without a task, in the order they became free. */
+    private final Set<Printer> freePrinters = new LinkedHashSet<>();
+
+    /** The number of events scheduled so far, used to order events at the same time. */
+    private long sequence;
+
+    /** The number of events processed. */
+    private long eventCount;
+
+    /** The number of tasks added to the queue. */
+    private long tasksArrived;
+
+    /** The number of arrivals that could not be queued. */
+    private long tasksRejected;
+
+    /** The number of times a task was started. */
+    private long tasksStarted;
+
+    /** The number of prints fulfilled. */
+    private long tasksCompleted;
+
+    /** The number of prints that failed. */
+    private long tasksFailed;
+
+    /** The number of prints that failed because a spool ran out of filament. */
+    private long tasksRunOut;
+
+    /** The IDs of the printers whose running task will run out of filament. */
+    private final Set<Integer> runningOut = new HashSet<>();
+
+    /** The number of prints fulfilled after their deadline. */
+    private long tasksLate;
+
+    /** The time the last print was fulfilled, in milliseconds since the epoch. */
+    private long lastCompletionMillis;
+
+    /** The queue wait times of the started tasks in nanoseconds; only the first {@link #waitCount} are used. */
+    private long[] waitNanos = new long[1024];
+
+    /** The number of recorded wait times. */
+    private int waitCount;
+
+    /** The CPU time spent in the strategy selecting tasks, in nanoseconds. */
+    private long decisionCpuNanos;
+
+    /** The source of the CPU time of the running thread. */
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Constructs a new {@code FarmSimulator} and switches the manager to simulated time.
+     * The manager must already contain the prints, spools and printers.
+     *
+     * @param printManager the {@link PrintManager} to simulate
+     * @param arrivals     the {@link ArrivalStream} providing the tasks
+     * @param config       the {@link SimulationConfig} of the run
+     */
+    public FarmSimulator(PrintManager printManager, ArrivalStream arrivals, SimulationConfig config) {
+        this.printManager = printManager;
+        this.arrivals = arrivals;
+        this.config = config;
+        this.clock = new SimulatedClock(config.startMillis());
+        this.random = new Random(config.seed());
+        this.lastCompletionMillis = config.startMillis();
+        printManager.setTimeSource(clock);
+        printManager.setUtilizationTracker(
+                new UtilizationTracker(clock, UTILIZATION_CAPACITY, config.spoolChangeMillis()));
+    }
+
+    /**
+     * Runs the simulation until the end of the simulated period.
+     *
+     * @return the {@link SimulationResult}
+     */
+    public SimulationResult run() {
+        long wallStart = System.nanoTime();
+        long endMillis = config.startMillis() + config.durationMillis();
+        int spoolChangesBefore = printManager.getSpoolChangeCount();
+        int preventedStartsBefore = printManager.getPreventedStartCount();
+
+        List<Printer> allPrinters = printManager.getPrinterHandler().getPrinters();
+        for (Printer printer : allPrinters) {
+            printers.put(printer.getId(), printer);
+            if (printer.getTask() == null) {
+                freePrinters.add(printer);
+            } else {
+                scheduleFinish(printer, printer.getTask(), 0);
+            }
+        }
+        scheduleNextArrival();
+
+        while (!events.isEmpty() && events.peek().timeMillis() <= endMillis) {
+            SimulationEvent event = events.poll();
+            clock.advanceTo(event.timeMillis());
+            eventCount++;
+            switch (event.type()) {
+                case ARRIVAL -> arrive(event.arrival());
+                case FINISH -> finish(printers.get(event.printerId()), event.successful());
+            }
+        }
+        clock.advanceTo(endMillis);
+
+        long[] waits = Arrays.copyOf(waitNanos, waitCount);
+        Arrays.sort(waits);
+        return new SimulationResult(
+                config.durationMillis(),
+                System.nanoTime() - wallStart,
+                eventCount,
+                tasksArrived,
+                tasksRejected,
+                tasksStarted,
+                tasksCompleted,
+                tasksFailed,
+                tasksRunOut,
+                tasksLate,
+                printManager.getSpoolChangeCount() - spoolChangesBefore,
+                printManager.getPreventedStartCount() - preventedStartsBefore,
+                printManager.getPendingPrintTasks().size(),
+                lastCompletionMillis - config.startMillis(),
+                waitCount == 0 ? 0 : Arrays.stream(waits).sum() / waitCount,
+                waitCount == 0 ? 0 : waits[(int) Math.ceil(waitCount * 0.99) - 1],
+                leftoverMeters(),
+                decisionCpuNanos,
+                printManager.getWaitTimeTracker().getByFilamentType(),
+                printManager.getUtilizationTracker().getUtilizationByType(allPrinters, config.durationMillis())
+        );
+    }
+
+    /**
+     * Queues an arriving task and offers the queue to the free printers until one starts a task.
+     *
+     * @param arrival the arriving task
+     */
+    private void arrive(TaskArrival arrival) {
+        PrintTask task;
+        try {
+            task = printManager.addNewPrintTask(arrival.printName(), arrival.filamentType(), arrival.colors(),
+                    PrintTask.DEFAULT_PRIORITY, arrival.deadlineMillis());
+            tasksArrived++;
+        } catch (IllegalArgumentException e) {
+            tasksRejected++;
+            task = null;
+        }
+        scheduleNextArrival();
+        if (task == null) {
+            return;
+        }
+
+        for (Iterator<Printer> iterator = freePrinters.iterator(); iterator.hasNext(); ) {
+            Printer printer = iterator.next();
+            if (canPrint(printer, task) && tryStart(printer)) {
+                iterator.remove();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Completes or fails the running task of a printer and offers the queue to the printer.
+     *
+     * @param printer    the {@link Printer} whose task finishes
+     * @param successful whether the print succeeds
+     */
+    private void finish(Printer printer, boolean successful) {
+        PrintTask task = printer.getTask();
+        if (runningOut.remove(printer.getId())) {
+            emptyShortSpools(printer, task);
+        }
+        printManager.finalizeRunningTask(printer.getId(), successful);
+        if (successful) {
+            lastCompletionMillis = clock.currentTimeMillis();
+            for (PrintTask part : PlateTask.partsOf(task)) {
+                tasksCompleted++;
+                if (lastCompletionMillis > part.getDeadlineMillis()) {
+                    tasksLate++;
+                }
+            }
+        } else {
+            tasksFailed += PlateTask.partsOf(task).size();
+        }
+        if (!tryStart(printer)) {
+            freePrinters.add(printer);
+        }
+    }
+
+    /**
+     * Checks whether a printer could print a task at all, following the rules of the strategies:
+     * housed printers print a single color of any type, other printers no ABS and at most as many
+     * colors as they hold.
+     *
+     * @param printer the {@link Printer}
+     * @param task    the {@link PrintTask}
+     * @return {@code true} if the task fits the printer and its rules
+     */
+    private static boolean canPrint(Printer printer, PrintTask task) {
+        if (!printer.printFits(task.getPrint())) {
+            return false;
+        }
+        int colors = task.getColors().size();
+        if (printer.isHoused()) {
+            return colors == 1;
+        }
+        if (task.getFilamentType() == FilamentType.ABS) {
+            return false;
+        }
+        return printer instanceof MultiColor ? colors <= ((MultiColor) printer).getMaxColors() : colors == 1;
+    }
+
+    /**
+     * Lets the strategy select a task for a free printer and schedules the end of the task.
+     *
+     * @param printer the free {@link Printer}
+     * @return {@code true} if the printer started a task
+     */
+    private boolean tryStart(Printer printer) {
+        int spoolChangesBefore = printManager.getSpoolChangeCount();
+        long cpuStart = cpuNanos();
+        printManager.selectPrintTask(printer.getId());
+        decisionCpuNanos += cpuNanos() - cpuStart;
+        PrintTask task = printer.getTask();
+        if (task == null) {
+            return false;
+        }
+        tasksStarted++;
+        for (PrintTask part : PlateTask.partsOf(task)) {
+            recordWait(part.getWaitNanos());
+        }
+        scheduleFinish(printer, task, printManager.getSpoolChangeCount() - spoolChangesBefore);
+        return true;
+    }
+
+    /**
+     * Schedules the end of a started task. A failing task stops at a random point of its run, and a task
+     * a loaded spool has too little filament for stops when the spool runs out.
+     *
+     * @param printer      the {@link Printer} running the task
+     * @param task         the started {@link PrintTask}
+     * @param spoolChanges the number of spools changed before the task could start
+     */
+    private void scheduleFinish(Printer printer, PrintTask task, int spoolChanges) {
+        long printMillis = printMillis(printer, task);
+        long runMillis = spoolChanges * config.spoolChangeMillis() + printMillis + config.plateClearMillis();
+        boolean fails = random.nextDouble() < config.failureRate();
+        double lasting = filamentShare(printer, task);
+        if (fails) {
+            runMillis = (long) (runMillis * random.nextDouble());
+        } else if (lasting < 1) {
+            fails = true;
+            tasksRunOut++;
+            runningOut.add(printer.getId());
+            runMillis = spoolChanges * config.spoolChangeMillis() + (long) (printMillis * lasting)
+                    + config.plateClearMillis();
+        }
+        schedule(new SimulationEvent(clock.currentTimeMillis() + Math.max(1, runMillis), sequence++,
+                SimulationEvent.Type.FINISH, null, printer.getId(), !fails));
+    }
+
+    /**
+     * Determines how much of a task the loaded spools have filament for.
+     *
+     * @param printer the {@link Printer} running the task
+     * @param task    the {@link PrintTask}
+     * @return the share of the print the shortest-lasting spool lasts for, 1 if every spool lasts
+     */
+    private static double filamentShare(Printer printer, PrintTask task) {
+        List<Spool> spools = printer.getCurrentSpools();
+        List<Double> lengths = task.getPrint().getFilamentLength();
+        double share = 1;
+        for (int i = 0; i < spools.size() && i < task.getColors().size() && i < lengths.size(); i++) {
+            if (spools.get(i).getLength() < lengths.get(i)) {
+                share = Math.min(share, spools.get(i).getLength() / lengths.get(i));
+            }
+        }
+        return share;
+    }
+
+    /**
+     * Empties the loaded spools that ran out of filament during a task.
+     *
+     * @param printer the {@link Printer} that ran the task
+     * @param task    the {@link PrintTask} that ran out
+     */
+    private static void emptyShortSpools(Printer printer, PrintTask task) {
+        List<Spool> spools = printer.getCurrentSpools();
+        List<Double> lengths = task.getPrint().getFilamentLength();
+        for (int i = 0; i < spools.size() && i < task.getColors().size() && i < lengths.size(); i++) {
+            if (spools.get(i).getLength() < lengths.get(i)) {
+                spools.get(i).setLength(0);
+            }
+        }
+    }
+
+    /**
+     * Determines how long a printer needs to print a task, preferring the printer's own estimate.
+     *
+     * @param printer the {@link Printer}
+     * @param task    the {@link PrintTask}
+     * @return the print time in milliseconds
+     */
+    private static long printMillis(Printer printer, PrintTask task) {
+        int minutes = printer.calculatePrintTime(task.getPrint().getName());
+        if (minutes <= 0) {
+            minutes = task.getPrint().getPrintTime();
+        }
+        return Math.max(1, minutes) * 60_000L;
+    }
+
+    /**
+     * Records the queue wait time of a started task.
+     *
+     * @param nanos the wait time in nanoseconds, or a negative value if it is unknown
+     */
+    private void recordWait(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        if (waitCount == waitNanos.length) {
+            waitNanos = Arrays.copyOf(waitNanos, waitCount * 2);
+        }
+        waitNanos[waitCount++] = nanos;
+    }
+
+    /**
+     * Adds up the filament left on spools that are too short for any color of any print in the catalogue.
+     *
+     * @return the stranded filament in meters
+     */
+    private double leftoverMeters() {
+        double shortestNeed = Double.MAX_VALUE;
+        for (Print print : printManager.getPrints()) {
+            for (double length : print.getFilamentLength()) {
+                shortestNeed = Math.min(shortestNeed, length);
+            }
+        }
+        double leftover = 0;
+        for (Spool spool : printManager.getSpoolHandler().getSpools()) {
+            if (spool.getLength() < shortestNeed) {
+                leftover += spool.getLength();
+            }
+        }
+        return leftover;
+    }
+
+    /**
+     * Reads the CPU time of the running thread, or the wall time if the JVM does not measure CPU time.
+     *
+     * @return the time in nanoseconds
+     */
+    private long cpuNanos() {
+        return threadBean.isCurrentThreadCpuTimeSupported() ? threadBean.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /**
+     * Schedules the next arrival of the stream, if there is one.
+     */
+    private void scheduleNextArrival() {
+        TaskArrival arrival = arrivals.next();
+        if (arrival != null) {
+            schedule(new SimulationEvent(Math.max(arrival.timeMillis(), clock.currentTimeMillis()), sequence++,
+                    SimulationEvent.Type.ARRIVAL, arrival, 0, false));
+        }
+    }
+
+    /**
+     * Adds an event to the queue.
+     *
+     * @param event the {@link SimulationEvent}
+     */
+    private void schedule(SimulationEvent event) {
+        events.add(event);
+    }
+}
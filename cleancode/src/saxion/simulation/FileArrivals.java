@@ -0,0 +1,46 @@
+package saxion.simulation;
+
+import saxion.dataprovider.DataProvider;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Arrivals read from a task file, such as the one written by the {@link WorkloadGenerator}. The times
+ * in the file count from the start of the stream and are shifted to the start of the simulation.
+ */
+public class FileArrivals implements ArrivalStream {
+
+    /** The remaining arrivals in time order. */
+    private final Iterator<TaskArrival> arrivals;
+
+    /**
+     * Constructs a new {@code FileArrivals} from a CSV or JSON task file.
+     *
+     * @param filename    the task file, as a resource name or a path
+     * @param startMillis the start of the simulation in milliseconds since the epoch
+     * @throws FileNotFoundException if the file cannot be found
+     */
+    public FileArrivals(String filename, long startMillis) throws FileNotFoundException {
+        List<TaskArrival> tasks = new DataProvider().readFromFile(filename, TaskArrival.class, true);
+        List<TaskArrival> arrivals = new ArrayList<>(tasks.size());
+        for (TaskArrival task : tasks) {
+            arrivals.add(task.shiftedBy(startMillis));
+        }
+        arrivals.sort(Comparator.comparingLong(TaskArrival::timeMillis));
+        this.arrivals = arrivals.iterator();
+    }
+
+    /**
+     * Gets the next arrival of the file.
+     *
+     * @return the next {@link TaskArrival}, or {@code null} if all tasks have arrived
+     */
+    @Override
+    public TaskArrival next() {
+        return arrivals.hasNext() ? arrivals.next() : null;
+    }
+}
@@ -0,0 +1,120 @@
+package saxion.simulation;
+
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic arrivals with exponentially distributed gaps, as produced by customers ordering
+ * independently. Every task is a random print from the catalogue in a random filament type
+ * and random colors that are available in that type. A share of the tasks is due at a random time
+ * between its print time and its print time plus a maximum slack after it arrives.
+ */
+public class PoissonArrivals implements ArrivalStream {
+
+    /** The seeded source of randomness, so runs can be repeated. */
+    private final Random random;
+
+    /** The catalogue of prints. */
+    private final List<Print> prints;
+
+    /** The colors available per filament type; types without colors are never chosen. */
+    private final Map<FilamentType, List<String>> colorsByType;
+
+    /** The filament types that have colors. */
+    private final List<FilamentType> types;
+
+    /** The mean time between two arrivals in milliseconds. */
+    private final double meanGapMillis;
+
+    /** The share of the tasks that have a deadline, between 0 and 1. */
+    private final double deadlineShare;
+
+    /** The longest slack of a deadline in milliseconds. */
+    private final long maxSlackMillis;
+
+    /** The time of the previous arrival. */
+    private long timeMillis;
+
+    /**
+     * Constructs a new {@code PoissonArrivals}.
+     *
+     * @param seed           the seed of the random generator
+     * @param prints         the catalogue of prints
+     * @param colorsByType   the colors available per filament type
+     * @param arrivalsPerHour the mean number of arrivals per hour
+     * @param startMillis    the start of the simulation in milliseconds since the epoch
+     */
+    public PoissonArrivals(long seed, List<Print> prints, Map<FilamentType, List<String>> colorsByType,
+                           double arrivalsPerHour, long startMillis) {
+        this(seed, prints, colorsByType, arrivalsPerHour, startMillis, 0, 0);
+    }
+
+    /**
+     * Constructs a new {@code PoissonArrivals} of which a share of the tasks has a deadline.
+     *
+     * @param seed            the seed of the random generator
+     * @param prints          the catalogue of prints
+     * @param colorsByType    the colors available per filament type
+     * @param arrivalsPerHour the mean number of arrivals per hour
+     * @param startMillis     the start of the simulation in milliseconds since the epoch
+     * @param deadlineShare   the share of the tasks that have a deadline, between 0 and 1
+     * @param maxSlackMillis  the longest time a task with a deadline may wait and still be done in time
+     * @throws IllegalArgumentException if the share is out of range or the slack is negative
+     */
+    public PoissonArrivals(long seed, List<Print> prints, Map<FilamentType, List<String>> colorsByType,
+                           double arrivalsPerHour, long startMillis, double deadlineShare, long maxSlackMillis) {
+        if (deadlineShare < 0 || deadlineShare > 1) {
+            throw new IllegalArgumentException("Deadline share must be between 0 and 1");
+        }
+        if (maxSlackMillis < 0) {
+            throw new IllegalArgumentException("Deadline slack must not be negative");
+        }
+        this.deadlineShare = deadlineShare;
+        this.maxSlackMillis = maxSlackMillis;
+        this.random = new Random(seed);
+        this.prints = prints;
+        this.colorsByType = colorsByType;
+        this.types = colorsByType.entrySet().stream()
+                .filter(entry -> !entry.getValue().isEmpty())
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+        this.meanGapMillis = 3_600_000 / arrivalsPerHour;
+        this.timeMillis = startMillis;
+    }
+
+    /**
+     * Draws the next arrival.
+     *
+     * @return the next {@link TaskArrival}, or {@code null} if there are no prints or colors
+     */
+    @Override
+    public TaskArrival next() {
+        if (prints.isEmpty() || types.isEmpty()) {
+            return null;
+        }
+        timeMillis += (long) (-Math.log(1 - random.nextDouble()) * meanGapMillis);
+        Print print = prints.get(random.nextInt(prints.size()));
+        FilamentType type = types.get(random.nextInt(types.size()));
+
+        List<String> available = new ArrayList<>(colorsByType.get(type));
+        Collections.shuffle(available, random);
+        int colorCount = print.getFilamentLength().size();
+        List<String> colors = new ArrayList<>(colorCount);
+        for (int i = 0; i < colorCount; i++) {
+            colors.add(available.get(i % available.size()));
+        }
+        long deadlineMillis = PrintTask.NO_DEADLINE;
+        if (deadlineShare > 0 && random.nextDouble() < deadlineShare) {
+            deadlineMillis = timeMillis + print.getPrintTime() * 60_000L + (long) (random.nextDouble() * maxSlackMillis);
+        }
+        return new TaskArrival(timeMillis, print.getName(), type, colors, deadlineMillis);
+    }
+}
@@ -0,0 +1,70 @@
+package saxion.simulation;
+
+import saxion.history.PrintRun;
+import saxion.history.RunHistory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Arrivals recorded in a {@link RunHistory}, shifted to the start of the simulation. The first
+ * run of every task becomes one arrival at the time it started, or at its end if the start is
+ * unknown; later runs of a task that failed before are left to the simulated failures.
+ */
+public class RecordedArrivals implements ArrivalStream {
+
+    /** The remaining arrivals in time order. */
+    private final Iterator<TaskArrival> arrivals;
+
+    /**
+     * Constructs a new {@code RecordedArrivals} from the runs in a time range of a history.
+     *
+     * @param history     the {@link RunHistory} to replay
+     * @param fromMillis  the start of the range in milliseconds since the epoch
+     * @param toMillis    the end of the range in milliseconds since the epoch
+     * @param startMillis the start of the simulation; the first arrival is shifted to it
+     * @throws IOException if the history cannot be read
+     */
+    public RecordedArrivals(RunHistory history, long fromMillis, long toMillis, long startMillis) throws IOException {
+        List<PrintRun> runs = new ArrayList<>();
+        Set<Long> seenTasks = new HashSet<>();
+        history.scan(fromMillis, toMillis, run -> {
+            if (seenTasks.add(run.taskId())) {
+                runs.add(run);
+            }
+        });
+        runs.sort(Comparator.comparingLong(RecordedArrivals::arrivalMillis));
+
+        long offset = runs.isEmpty() ? 0 : startMillis - arrivalMillis(runs.get(0));
+        List<TaskArrival> arrivals = new ArrayList<>(runs.size());
+        for (PrintRun run : runs) {
+            arrivals.add(new TaskArrival(arrivalMillis(run) + offset, run.printName(), run.filamentType(), run.colors()));
+        }
+        this.arrivals = arrivals.iterator();
+    }
+
+    /**
+     * Gets the next recorded arrival.
+     *
+     * @return the next {@link TaskArrival}, or {@code null} if all runs have been replayed
+     */
+    @Override
+    public TaskArrival next() {
+        return arrivals.hasNext() ? arrivals.next() : null;
+    }
+
+    /**
+     * Determines when a recorded run arrived.
+     *
+     * @param run the recorded {@link PrintRun}
+     * @return the start of the run, or its end if the start is unknown
+     */
+    private static long arrivalMillis(PrintRun run) {
+        return run.startMillis() >= 0 ? run.startMillis() : run.endMillis();
+    }
+}
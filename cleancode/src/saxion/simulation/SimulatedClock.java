@@ -0,0 +1,54 @@
+package saxion.simulation;
+
+import saxion.time.TimeSource;
+
+/**
+ * A {@link TimeSource} showing the virtual time of a simulation. Time only moves when the simulator advances it.
+ */
+public class SimulatedClock implements TimeSource {
+
+    /** The current virtual time in milliseconds since the epoch. */
+    private long millis;
+
+    /**
+     * Constructs a new {@code SimulatedClock} starting at the specified time.
+     *
+     * @param startMillis the start time in milliseconds since the epoch
+     */
+    public SimulatedClock(long startMillis) {
+        this.millis = startMillis;
+    }
+
+    /**
+     * Moves the clock to the specified time.
+     *
+     * @param millis the new time in milliseconds since the epoch
+     * @throws IllegalArgumentException if the time is before the current time
+     */
+    public void advanceTo(long millis) {
+        if (millis < this.millis) {
+            throw new IllegalArgumentException("Simulated time cannot move backwards");
+        }
+        this.millis = millis;
+    }
+
+    /**
+     * Gets the current virtual time.
+     *
+     * @return the milliseconds since the epoch
+     */
+    @Override
+    public long currentTimeMillis() {
+        return millis;
+    }
+
+    /**
+     * Gets the current virtual time as a monotonic clock value.
+     *
+     * @return the virtual time in nanoseconds
+     */
+    @Override
+    public long nanoTime() {
+        return millis * 1_000_000;
+    }
+}
@@ -0,0 +1,41 @@
+package saxion.simulation;
+
+/**
+ * The settings of a simulation run.
+ *
+ * @param startMillis        the start of the simulated period in milliseconds since the epoch
+ * @param durationMillis     the length of the simulated period in milliseconds
+ * @param failureRate        the probability that a started print fails, between 0 and 1
+ * @param spoolChangeMillis  the time an operator needs to change one spool
+ * @param plateClearMillis   the time an operator needs to clear the build plate after every job
+ * @param seed               the seed of the random generator deciding failures
+ */
+public record SimulationConfig(
+        long startMillis,
+        long durationMillis,
+        double failureRate,
+        long spoolChangeMillis,
+        long plateClearMillis,
+        long seed
+) {
+
+    /**
+     * Validates the settings.
+     *
+     * @throws IllegalArgumentException if a setting is out of range
+     */
+    public SimulationConfig {
+        if (durationMillis <= 0) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        if (failureRate < 0 || failureRate > 1) {
+            throw new IllegalArgumentException("Failure rate must be between 0 and 1");
+        }
+        if (spoolChangeMillis < 0) {
+            throw new IllegalArgumentException("Spool change time must not be negative");
+        }
+        if (plateClearMillis < 0) {
+            throw new IllegalArgumentException("Plate clear time must not be negative");
+        }
+    }
+}
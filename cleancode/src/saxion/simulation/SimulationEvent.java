@@ -0,0 +1,42 @@
+package saxion.simulation;
+
+/**
+ * An event in the queue of a {@link FarmSimulator}. Events are ordered by time, and events at the
+ * same time in the order they were scheduled, so runs are repeatable.
+ *
+ * @param timeMillis the time of the event in milliseconds since the epoch
+ * @param sequence   the order in which the event was scheduled
+ * @param type       the kind of event
+ * @param arrival    the arriving task, for {@link Type#ARRIVAL} events
+ * @param printerId  the printer whose task finishes, for {@link Type#FINISH} events
+ * @param successful whether the finishing print succeeds, for {@link Type#FINISH} events
+ */
+record SimulationEvent(
+        long timeMillis,
+        long sequence,
+        Type type,
+        TaskArrival arrival,
+        int printerId,
+        boolean successful
+) implements Comparable<SimulationEvent> {
+
+    /** The kinds of events. */
+    enum Type {
+        /** A new task arrives in the queue. */
+        ARRIVAL,
+        /** The running task of a printer completes or fails. */
+        FINISH
+    }
+
+    /**
+     * Orders events by time, then by the order in which they were scheduled.
+     *
+     * @param other the event to compare with
+     * @return a negative number, zero or a positive number if this event comes first, at the same time or later
+     */
+    @Override
+    public int compareTo(SimulationEvent other) {
+        int byTime = Long.compare(timeMillis, other.timeMillis);
+        return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+    }
+}
@@ -0,0 +1,167 @@
+package saxion.simulation;
+
+import saxion.LaunchOptions;
+import saxion.PrintManager;
+import saxion.history.RunHistory;
+import saxion.models.Print;
+import saxion.models.Spool;
+import saxion.types.FilamentType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line entry point of the farm simulator. Loads the same data files as the application,
+ * scales the printers and spools up to the requested farm size and simulates a period of operation.
+ * <p>
+ * Options: {@code --printers=<n>} (default 500), {@code --spools-per-printer=<n>} (default 4),
+ * {@code --days=<n>} (default 30), {@code --arrivals-per-hour=<rate>} (default 90% of the farm's
+ * capacity), {@code --failure-rate=<0..1>} (default 0.05), {@code --spool-change-minutes=<n>}
+ * (default 2), {@code --plate-clear-minutes=<n>} (default 0), {@code --strategy=<1|2|3|4>},
+ * {@code --seed=<n>}, {@code --history=<directory>} to replay the arrivals recorded in a run history
+ * instead of synthetic ones and {@code --tasks=<file>} to read them from a task file of the
+ * {@link WorkloadGenerator}. To simulate a generated farm as it
+ * is, pass its printer count as {@code --printers}. {@code --deadline-share=<0..1>} (default 0) gives that
+ * share of the synthetic tasks a deadline, at most {@code --deadline-slack-hours=<n>} (default 24) later than
+ * the task could be done if it started right away. {@code --pack-plates=1} packs queued tasks of the same
+ * filament type and colors onto the build plate of every started task.
+ */
+public class SimulationMain {
+
+    /** The number of milliseconds in a day. */
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /**
+     * Runs a simulation and prints its result.
+     *
+     * @param args the data files followed by the options
+     * @throws Exception if the data files or the history cannot be read
+     */
+    public static void main(String[] args) throws Exception {
+        LaunchOptions options = new LaunchOptions(args);
+        PrintManager templates = new PrintManager();
+        templates.readData(options.getDataFiles());
+
+        long startMillis = startOfToday();
+        long seed = options.getIntOption("seed", 1);
+        PrintManager printManager = newFarm(templates, options);
+        printManager.setPrintingStrategy(options.getIntOption("strategy", 1));
+        SimulationConfig config = newConfig(options, startMillis, seed);
+        ArrivalStream arrivals = newArrivals(options, printManager, startMillis, config.durationMillis(), seed);
+
+        System.out.println(new FarmSimulator(printManager, arrivals, config).run().format());
+    }
+
+    /**
+     * Gets the start of the current day, where simulations start.
+     *
+     * @return the start of the day in milliseconds since the epoch
+     */
+    static long startOfToday() {
+        return System.currentTimeMillis() / MILLIS_PER_DAY * MILLIS_PER_DAY;
+    }
+
+    /**
+     * Creates a new manager with the prints of the templates and printers and spools copied up to the
+     * size given by the options. Every call returns a farm that shares no mutable state with the others.
+     *
+     * @param templates the manager holding the loaded data files
+     * @param options   the options
+     * @return the new {@link PrintManager}
+     */
+    static PrintManager newFarm(PrintManager templates, LaunchOptions options) {
+        int printerCount = options.getIntOption("printers", 500);
+        PrintManager printManager = new PrintManager();
+        printManager.setPrints(templates.getPrints());
+        printManager.setPrinters(SyntheticFarm.printers(templates.getPrinterHandler().getPrinters(), printerCount));
+        printManager.getSpoolHandler().setSpools(SyntheticFarm.spools(templates.getSpoolHandler().getSpools(),
+                printerCount * options.getIntOption("spools-per-printer", 4)));
+        printManager.setPlatePacking(options.getIntOption("pack-plates", 0) == 1);
+        return printManager;
+    }
+
+    /**
+     * Creates the settings of a run from the options.
+     *
+     * @param options     the options
+     * @param startMillis the start of the simulated period
+     * @param seed        the seed deciding failures
+     * @return the {@link SimulationConfig}
+     */
+    static SimulationConfig newConfig(LaunchOptions options, long startMillis, long seed) {
+        return new SimulationConfig(
+                startMillis,
+                options.getIntOption("days", 30) * MILLIS_PER_DAY,
+                options.getDoubleOption("failure-rate", 0.05),
+                options.getIntOption("spool-change-minutes", 2) * 60_000L,
+                options.getIntOption("plate-clear-minutes", 0) * 60_000L,
+                seed
+        );
+    }
+
+    /**
+     * Creates the arrivals chosen by the options: a task file, a recorded history or synthetic arrivals.
+     *
+     * @param options        the options
+     * @param printManager   the farm the tasks arrive at
+     * @param startMillis    the start of the simulated period
+     * @param durationMillis the length of the simulated period
+     * @param seed           the seed of synthetic arrivals
+     * @return the {@link ArrivalStream}
+     * @throws IOException if the task file or the history cannot be read
+     */
+    static ArrivalStream newArrivals(LaunchOptions options, PrintManager printManager, long startMillis,
+                                     long durationMillis, long seed) throws IOException {
+        String taskFile = options.getOption("tasks");
+        if (taskFile != null) {
+            return new FileArrivals(taskFile, startMillis);
+        }
+        String historyDirectory = options.getOption("history");
+        if (historyDirectory != null) {
+            RunHistory history = new RunHistory(Path.of(historyDirectory));
+            history.open();
+            ArrivalStream arrivals = new RecordedArrivals(history, startMillis - durationMillis, startMillis, startMillis);
+            history.close();
+            return arrivals;
+        }
+        List<Print> prints = printManager.getPrints();
+        int printerCount = printManager.getPrinterHandler().getPrinters().size();
+        double defaultRate = 0.9 * printerCount * 60 / averagePrintMinutes(prints);
+        return new PoissonArrivals(seed, prints, colorsByType(printManager.getSpoolHandler().getSpools()),
+                options.getDoubleOption("arrivals-per-hour", defaultRate),
+                startMillis,
+                options.getDoubleOption("deadline-share", 0),
+                options.getIntOption("deadline-slack-hours", 24) * 3_600_000L);
+    }
+
+    /**
+     * Computes the average print time of the catalogue.
+     *
+     * @param prints the catalogue
+     * @return the average print time in minutes, at least one
+     */
+    private static double averagePrintMinutes(List<Print> prints) {
+        return Math.max(1, prints.stream().mapToInt(Print::getPrintTime).average().orElse(1));
+    }
+
+    /**
+     * Collects the colors available per filament type.
+     *
+     * @param spools the spools of the farm
+     * @return the distinct colors per filament type
+     */
+    private static Map<FilamentType, List<String>> colorsByType(List<Spool> spools) {
+        Map<FilamentType, List<String>> colors = new EnumMap<>(FilamentType.class);
+        for (Spool spool : spools) {
+            List<String> typeColors = colors.computeIfAbsent(spool.getFilamentType(), type -> new ArrayList<>());
+            if (!typeColors.contains(spool.getColor())) {
+                typeColors.add(spool.getColor());
+            }
+        }
+        return colors;
+    }
+}
@@ -0,0 +1,101 @@
+package saxion.simulation;
+
+import saxion.metrics.PrinterState;
+import saxion.metrics.Utilization;
+import saxion.metrics.WaitTimeStats;
+import saxion.types.FilamentType;
+
+import java.util.Map;
+
+/**
+ * The outcome of a simulation run.
+ *
+ * @param simulatedMillis    the simulated time in milliseconds
+ * @param wallNanos          the real time the run took in nanoseconds
+ * @param events             the number of events processed
+ * @param tasksArrived       the number of tasks added to the queue
+ * @param tasksRejected      the number of arrivals that could not be queued, e.g. because of unknown colors
+ * @param tasksStarted       the number of times a task was started
+ * @param tasksCompleted     the number of prints fulfilled
+ * @param tasksFailed        the number of prints that failed and were re-queued
+ * @param tasksRunOut        the number of those failures caused by a spool running out of filament
+ * @param tasksLate          the number of prints fulfilled after their deadline
+ * @param spoolChanges       the number of spool changes
+ * @param preventedStarts    the number of starts on spools with too little filament the strategy prevented
+ * @param tasksPending       the number of tasks still waiting at the end
+ * @param makespanMillis     the time from the start until the last print was fulfilled
+ * @param averageWaitNanos   the average queue wait of the started tasks
+ * @param p99WaitNanos       the queue wait that 99% of the started tasks did not exceed
+ * @param leftoverMeters     the filament left on spools too short for any print of the catalogue
+ * @param decisionCpuNanos   the CPU time the strategy spent selecting tasks
+ * @param waitTimes          the recent queue wait times per filament type
+ * @param utilizationByType  how the printers of every type spent the simulated time
+ */
+public record SimulationResult(
+        long simulatedMillis,
+        long wallNanos,
+        long events,
+        long tasksArrived,
+        long tasksRejected,
+        long tasksStarted,
+        long tasksCompleted,
+        long tasksFailed,
+        long tasksRunOut,
+        long tasksLate,
+        long spoolChanges,
+        long preventedStarts,
+        int tasksPending,
+        long makespanMillis,
+        long averageWaitNanos,
+        long p99WaitNanos,
+        double leftoverMeters,
+        long decisionCpuNanos,
+        Map<FilamentType, WaitTimeStats> waitTimes,
+        Map<String, Utilization> utilizationByType
+) {
+
+    /**
+     * Computes the share of the simulated time all printers together spent printing.
+     *
+     * @return the busy percentage, between 0 and 100
+     */
+    public double busyPercentage() {
+        Utilization total = Utilization.EMPTY;
+        for (Utilization utilization : utilizationByType.values()) {
+            total = total.plus(utilization);
+        }
+        return total.percentage(PrinterState.BUSY);
+    }
+
+    /**
+     * Formats the result as a report.
+     *
+     * @return the report
+     */
+    public String format() {
+        StringBuilder report = new StringBuilder("==================== SIMULATION ====================\n");
+        report.append(String.format("Simulated: %.1f days in %.2f s (%d events)%n",
+                simulatedMillis / 86_400_000.0, wallNanos / 1e9, events));
+        report.append(String.format("Tasks arrived: %d (rejected %d), started: %d, completed: %d, failed: %d"
+                        + " (%d ran out of filament), pending: %d%n",
+                tasksArrived, tasksRejected, tasksStarted, tasksCompleted, tasksFailed, tasksRunOut, tasksPending));
+        report.append("Spool changes: ").append(spoolChanges).append(", late prints: ").append(tasksLate)
+                .append(", starts on too short spools prevented: ").append(preventedStarts).append('\n');
+        report.append(String.format("Makespan: %.1f h, wait: %.1f min average, %.1f min p99%n",
+                makespanMillis / 3_600_000.0, averageWaitNanos / 6e10, p99WaitNanos / 6e10));
+        report.append(String.format("Leftover filament: %.1f m, decision CPU time: %.1f ms%n",
+                leftoverMeters, decisionCpuNanos / 1e6));
+        report.append(String.format("%-16s %8s %10s %10s %10s%n", "Wait (min)", "Count", "p50", "p90", "p99"));
+        waitTimes.forEach((type, stats) -> report.append(String.format("%-16s %8d %10.1f %10.1f %10.1f%n",
+                type, stats.count(), stats.p50Nanos() / 6e10, stats.p90Nanos() / 6e10, stats.p99Nanos() / 6e10)));
+        report.append(String.format("%-16s %8s %8s %8s %8s%n", "Utilization (%)", "Busy", "Idle", "Blocked", "Spools"));
+        utilizationByType.forEach((type, utilization) -> report.append(String.format("%-16s %8.1f %8.1f %8.1f %8.1f%n",
+                type,
+                utilization.percentage(PrinterState.BUSY),
+                utilization.percentage(PrinterState.IDLE),
+                utilization.percentage(PrinterState.BLOCKED),
+                utilization.percentage(PrinterState.SPOOL_CHANGE))));
+        report.append("====================================================");
+        return report.toString();
+    }
+}
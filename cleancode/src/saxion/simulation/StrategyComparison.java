@@ -0,0 +1,203 @@
+package saxion.simulation;
+
+import saxion.LaunchOptions;
+import saxion.PrintManager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command-line harness that replays the same workload through every registered printing strategy and
+ * compares the outcomes. Every run simulates its own copy of the farm, built from the same data files
+ * and options as the {@link SimulationMain}, so the runs share no state and execute in parallel.
+ * <p>
+ * Besides the options of the simulator, {@code --replications=<n>} (default 1) repeats every strategy
+ * with the seeds {@code seed} to {@code seed + n - 1} and adds the mean per strategy,
+ * {@code --threads=<n>} (default: the number of processors) limits the parallel runs and
+ * {@code --csv=<file>} also writes the rows to a CSV file.
+ */
+public class StrategyComparison {
+
+    /** The names of the compared metrics, in the order of {@link #metrics(SimulationResult)}. */
+    private static final String[] METRICS = {"spool_changes", "makespan_h", "avg_wait_min", "p99_wait_min",
+            "busy_pct", "leftover_m", "decision_cpu_ms", "completed", "late", "run_outs", "pending"};
+
+    /**
+     * The outcome of one run.
+     *
+     * @param strategy the name of the strategy
+     * @param seed     the seed of the run, or {@code null} for the mean of several runs
+     * @param metrics  the values of the metrics, in the order of {@link #METRICS}
+     */
+    record Row(String strategy, Long seed, double[] metrics) {
+    }
+
+    /**
+     * Runs every strategy and prints the comparison.
+     *
+     * @param args the data files followed by the options
+     * @throws Exception if the data files, the task file or the history cannot be read, or a run fails
+     */
+    public static void main(String[] args) throws Exception {
+        LaunchOptions options = new LaunchOptions(args);
+        PrintManager templates = new PrintManager();
+        templates.readData(options.getDataFiles());
+
+        List<Row> rows = compare(templates, options);
+        System.out.print(formatTable(rows));
+        String csvFile = options.getOption("csv");
+        if (csvFile != null) {
+            writeCsv(Path.of(csvFile), rows);
+        }
+    }
+
+    /**
+     * Simulates every registered strategy for every seed in parallel.
+     *
+     * @param templates the manager holding the loaded data files
+     * @param options   the options
+     * @return the rows of every run, grouped by strategy, followed by the mean of a strategy if it ran more than once
+     * @throws InterruptedException if the harness is interrupted while waiting for the runs
+     * @throws ExecutionException   if a run fails
+     */
+    static List<Row> compare(PrintManager templates, LaunchOptions options)
+            throws InterruptedException, ExecutionException {
+        int replications = options.getIntOption("replications", 1);
+        if (replications < 1) {
+            throw new IllegalArgumentException("--replications must be at least 1");
+        }
+        long firstSeed = options.getIntOption("seed", 1);
+        long startMillis = SimulationMain.startOfToday();
+        List<String> strategies = templates.getAvailableStrategies();
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(strategies.size() * replications,
+                        options.getIntOption("threads", Runtime.getRuntime().availableProcessors())));
+        List<Future<SimulationResult>> results = new ArrayList<>();
+        try {
+            for (String strategy : strategies) {
+                for (int i = 0; i < replications; i++) {
+                    long seed = firstSeed + i;
+                    results.add(executor.submit(() -> run(templates, options, strategy, startMillis, seed)));
+                }
+            }
+
+            List<Row> rows = new ArrayList<>();
+            for (int s = 0; s < strategies.size(); s++) {
+                double[] sum = new double[METRICS.length];
+                for (int i = 0; i < replications; i++) {
+                    double[] metrics = metrics(results.get(s * replications + i).get());
+                    rows.add(new Row(strategies.get(s), firstSeed + i, metrics));
+                    for (int m = 0; m < sum.length; m++) {
+                        sum[m] += metrics[m];
+                    }
+                }
+                if (replications > 1) {
+                    for (int m = 0; m < sum.length; m++) {
+                        sum[m] /= replications;
+                    }
+                    rows.add(new Row(strategies.get(s), null, sum));
+                }
+            }
+            return rows;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Simulates one strategy on a fresh copy of the farm.
+     *
+     * @param templates   the manager holding the loaded data files
+     * @param options     the options
+     * @param strategy    the name of the strategy
+     * @param startMillis the start of the simulated period
+     * @param seed        the seed of the arrivals and failures
+     * @return the {@link SimulationResult}
+     * @throws IOException if the task file or the history cannot be read
+     */
+    private static SimulationResult run(PrintManager templates, LaunchOptions options, String strategy,
+                                        long startMillis, long seed) throws IOException {
+        PrintManager printManager = SimulationMain.newFarm(templates, options);
+        printManager.setPrintingStrategy(strategy);
+        SimulationConfig config = SimulationMain.newConfig(options, startMillis, seed);
+        ArrivalStream arrivals = SimulationMain.newArrivals(options, printManager, startMillis,
+                config.durationMillis(), seed);
+        return new FarmSimulator(printManager, arrivals, config).run();
+    }
+
+    /**
+     * Extracts the compared metrics of a run.
+     *
+     * @param result the {@link SimulationResult}
+     * @return the values, in the order of {@link #METRICS}
+     */
+    private static double[] metrics(SimulationResult result) {
+        return new double[]{
+                result.spoolChanges(),
+                result.makespanMillis() / 3_600_000.0,
+                result.averageWaitNanos() / 6e10,
+                result.p99WaitNanos() / 6e10,
+                result.busyPercentage(),
+                result.leftoverMeters(),
+                result.decisionCpuNanos() / 1e6,
+                result.tasksCompleted(),
+                result.tasksLate(),
+                result.tasksRunOut(),
+                result.tasksPending()
+        };
+    }
+
+    /**
+     * Formats the rows as an aligned table.
+     *
+     * @param rows the rows
+     * @return the table
+     */
+    static String formatTable(List<Row> rows) {
+        StringBuilder table = new StringBuilder(String.format("%-24s %6s", "strategy", "seed"));
+        for (String metric : METRICS) {
+            table.append(String.format(" %15s", metric));
+        }
+        table.append('\n');
+        for (Row row : rows) {
+            table.append(String.format("%-24s %6s", row.strategy(), row.seed() == null ? "mean" : row.seed()));
+            for (double value : row.metrics()) {
+                table.append(String.format(Locale.ROOT, " %15.1f", value));
+            }
+            table.append('\n');
+        }
+        return table.toString();
+    }
+
+    /**
+     * Writes the rows to a CSV file.
+     *
+     * @param file the file to write
+     * @param rows the rows
+     * @throws IOException if the file cannot be written
+     */
+    static void writeCsv(Path file, List<Row> rows) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("strategy,seed," + String.join(",", METRICS));
+            writer.newLine();
+            for (Row row : rows) {
+                writer.write(row.strategy() + "," + (row.seed() == null ? "mean" : row.seed()));
+                for (double value : row.metrics()) {
+                    writer.write(String.format(Locale.ROOT, ",%.3f", value));
+                }
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package saxion.simulation;
+
+import saxion.models.Spool;
+import saxion.printers.MultiColor;
+import saxion.printers.Printer;
+import saxion.printers.StandardFDM;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scales a small set of printers and spools up to a farm of any size by copying them round-robin.
+ */
+public final class SyntheticFarm {
+
+    private SyntheticFarm() {
+    }
+
+    /**
+     * Creates printers by copying the templates round-robin, with new IDs and names.
+     *
+     * @param templates the printers to copy
+     * @param count     the number of printers to create
+     * @return the new printers, numbered from 1
+     * @throws IllegalArgumentException if there are no templates
+     */
+    public static List<Printer> printers(List<Printer> templates, int count) {
+        if (templates.isEmpty()) {
+            throw new IllegalArgumentException("No printers to copy");
+        }
+        List<Printer> printers = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            printers.add(copy(templates.get((id - 1) % templates.size()), id));
+        }
+        return printers;
+    }
+
+    /**
+     * Creates printers by copying the templates round-robin, with new IDs and names, so that the
+     * specified share of them are multi-color printers. The multi-color printers are spread evenly.
+     *
+     * @param templates       the printers to copy
+     * @param count           the number of printers to create
+     * @param multiColorShare the share of multi-color printers, between 0 and 1
+     * @return the new printers, numbered from 1
+     * @throws IllegalArgumentException if the share is out of range or there are no templates of a needed kind
+     */
+    public static List<Printer> printers(List<Printer> templates, int count, double multiColorShare) {
+        if (multiColorShare < 0 || multiColorShare > 1) {
+            throw new IllegalArgumentException("Multi-color share must be between 0 and 1");
+        }
+        List<Printer> multiColor = new ArrayList<>();
+        List<Printer> others = new ArrayList<>();
+        for (Printer template : templates) {
+            if (template instanceof MultiColor) {
+                multiColor.add(template);
+            } else {
+                others.add(template);
+            }
+        }
+
+        List<Printer> printers = new ArrayList<>(count);
+        int multiColorCount = 0;
+        for (int id = 1; id <= count; id++) {
+            boolean copyMultiColor = Math.floor(id * multiColorShare) > Math.floor((id - 1) * multiColorShare);
+            List<Printer> kind = copyMultiColor ? multiColor : others;
+            if (kind.isEmpty()) {
+                throw new IllegalArgumentException(
+                        "No " + (copyMultiColor ? "multi-color" : "single-color") + " printers to copy");
+            }
+            int index = copyMultiColor ? multiColorCount++ : id - 1 - multiColorCount;
+            printers.add(copy(kind.get(index % kind.size()), id));
+        }
+        return printers;
+    }
+
+    /**
+     * Copies a printer with a new ID. The ID is appended to the name.
+     *
+     * @param template the printer to copy
+     * @param id       the ID of the copy
+     * @return the copy
+     * @throws IllegalArgumentException if the printer type is unknown
+     */
+    private static Printer copy(Printer template, int id) {
+        String name = template.getName() + " " + id;
+        if (template instanceof MultiColor) {
+            MultiColor multiColor = (MultiColor) template;
+            return new MultiColor(id, name, template.getManufacturer(), template.isHoused(),
+                    multiColor.getMaxX(), multiColor.getMaxY(), multiColor.getMaxZ(), multiColor.getMaxColors());
+        } else if (template instanceof StandardFDM) {
+            StandardFDM standard = (StandardFDM) template;
+            return new StandardFDM(id, name, template.getManufacturer(), template.isHoused(),
+                    standard.getMaxX(), standard.getMaxY(), standard.getMaxZ());
+        }
+        throw new IllegalArgumentException("Unknown printer type: " + template.getClass().getSimpleName());
+    }
+
+    /**
+     * Creates full spools by copying the templates round-robin, with new IDs.
+     *
+     * @param templates the spools to copy
+     * @param count     the number of spools to create
+     * @return the new spools, numbered from 1
+     * @throws IllegalArgumentException if there are no templates
+     */
+    public static List<Spool> spools(List<Spool> templates, int count) {
+        if (templates.isEmpty()) {
+            throw new IllegalArgumentException("No spools to copy");
+        }
+        List<Spool> spools = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            Spool template = templates.get((id - 1) % templates.size());
+            spools.add(new Spool(id, template.getColor(), template.getFilamentType(), template.getLength()));
+        }
+        return spools;
+    }
+}
@@ -0,0 +1,70 @@
+package saxion.simulation;
+
+import saxion.models.PrintTask;
+import saxion.types.FilamentType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A task that arrives at the print farm during a simulation.
+ *
+ * @param timeMillis     the arrival time in milliseconds since the epoch, or since the start of the stream in a
+ *                       task file
+ * @param printName      the name of the print
+ * @param filamentType   the filament type of the task
+ * @param colors         the colors of the task
+ * @param deadlineMillis the time the print is due, counted like the arrival time, or {@link PrintTask#NO_DEADLINE}
+ */
+public record TaskArrival(long timeMillis, String printName, FilamentType filamentType, List<String> colors,
+                          long deadlineMillis) {
+
+    /**
+     * Constructs a {@code TaskArrival} without a deadline.
+     *
+     * @param timeMillis   the arrival time
+     * @param printName    the name of the print
+     * @param filamentType the filament type of the task
+     * @param colors       the colors of the task
+     */
+    public TaskArrival(long timeMillis, String printName, FilamentType filamentType, List<String> colors) {
+        this(timeMillis, printName, filamentType, colors, PrintTask.NO_DEADLINE);
+    }
+
+    /**
+     * Moves the arrival and its deadline in time, e.g. from the start of a task file to the start of a simulation.
+     *
+     * @param offsetMillis the milliseconds to add
+     * @return the moved {@code TaskArrival}
+     */
+    public TaskArrival shiftedBy(long offsetMillis) {
+        return new TaskArrival(timeMillis + offsetMillis, printName, filamentType, colors,
+                deadlineMillis == PrintTask.NO_DEADLINE ? deadlineMillis : deadlineMillis + offsetMillis);
+    }
+
+    /**
+     * Creates a {@code TaskArrival} from a record of a task file.
+     *
+     * @param map the map containing the task properties
+     * @return a new {@code TaskArrival}
+     */
+    public static TaskArrival fromMap(Map<String, Object> map) {
+        long timeMillis = Long.parseLong(map.getOrDefault("time", map.getOrDefault("1", "0")).toString());
+        String printName = map.getOrDefault("printName", map.getOrDefault("2", "unknown")).toString();
+        FilamentType filamentType = FilamentType.valueOf(
+                map.getOrDefault("filamentType", map.getOrDefault("3", "DEFAULT_TYPE")).toString());
+        Object colors = map.getOrDefault("colors", map.getOrDefault("4", ""));
+        List<String> colorList = (colors instanceof List
+                ? ((List<?>) colors).stream().map(String::valueOf)
+                : Arrays.stream(String.valueOf(colors).split(",")))
+                .map(String::trim)
+                .filter(color -> !color.isEmpty())
+                .toList();
+        Object deadline = map.getOrDefault("deadline", map.get("5"));
+        long deadlineMillis = deadline == null || deadline.toString().isEmpty()
+                ? PrintTask.NO_DEADLINE
+                : Long.parseLong(deadline.toString());
+        return new TaskArrival(timeMillis, printName, filamentType, colorList, deadlineMillis);
+    }
+}
@@ -0,0 +1,206 @@
+package saxion.simulation;
+
+import saxion.LaunchOptions;
+import saxion.types.FilamentType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The size and distributions of a dataset written by the {@link WorkloadGenerator}.
+ *
+ * @param seed                 the seed; the same configuration always produces the same dataset
+ * @param printerCount         the number of printers
+ * @param multiColorShare      the share of multi-color printers, between 0 and 1
+ * @param housedShare          the share of housed printers among the single-color printers, between 0 and 1
+ * @param minPrinterSize       the smallest build volume edge of a printer in millimeters
+ * @param maxPrinterSize       the largest build volume edge of a printer in millimeters
+ * @param maxPrinterColors     the most colors a multi-color printer holds, at least 2
+ * @param printCount           the number of prints in the catalogue
+ * @param minPrintSize         the smallest edge of a print in millimeters
+ * @param maxPrintSize         the largest edge of a print in millimeters
+ * @param minPrintMinutes      the shortest print time in minutes
+ * @param maxPrintMinutes      the longest print time in minutes; print times are log-uniform in between
+ * @param multiColorPrintShare the share of prints using more than one color, between 0 and 1
+ * @param maxPrintColors       the most colors a print uses, at least 1
+ * @param colorCount           the number of distinct colors
+ * @param colorSkew            the Zipf exponent of the color popularity; 0 makes all colors equally popular
+ * @param filamentTypeWeights  the relative popularity of every filament type
+ * @param spoolsPerPrinter     the number of spools per printer
+ * @param minSpoolLength       the shortest filament length left on a spool in meters
+ * @param maxSpoolLength       the longest filament length on a spool in meters
+ * @param taskCount            the number of tasks in the task stream
+ * @param arrivalsPerHour      the average number of tasks arriving per hour
+ */
+public record WorkloadConfig(
+        long seed,
+        int printerCount,
+        double multiColorShare,
+        double housedShare,
+        int minPrinterSize,
+        int maxPrinterSize,
+        int maxPrinterColors,
+        int printCount,
+        int minPrintSize,
+        int maxPrintSize,
+        int minPrintMinutes,
+        int maxPrintMinutes,
+        double multiColorPrintShare,
+        int maxPrintColors,
+        int colorCount,
+        double colorSkew,
+        Map<FilamentType, Double> filamentTypeWeights,
+        int spoolsPerPrinter,
+        double minSpoolLength,
+        double maxSpoolLength,
+        int taskCount,
+        double arrivalsPerHour
+) {
+
+    /**
+     * Validates the configuration.
+     *
+     * @throws IllegalArgumentException if a count is negative, a range is empty, a share is not between
+     *                                  0 and 1, there are fewer colors than a print uses or no filament
+     *                                  type has a positive weight
+     */
+    public WorkloadConfig {
+        if (printerCount < 1 || printCount < 1 || colorCount < 1 || spoolsPerPrinter < 1 || taskCount < 0) {
+            throw new IllegalArgumentException("Counts must be positive");
+        }
+        requireShare(multiColorShare, "Multi-color share");
+        requireShare(housedShare, "Housed share");
+        requireShare(multiColorPrintShare, "Multi-color print share");
+        requireRange(minPrinterSize, maxPrinterSize, "Printer size");
+        requireRange(minPrintSize, maxPrintSize, "Print size");
+        requireRange(minPrintMinutes, maxPrintMinutes, "Print time");
+        requireRange(minSpoolLength, maxSpoolLength, "Spool length");
+        if (maxPrinterColors < 2 || maxPrintColors < 1) {
+            throw new IllegalArgumentException("Multi-color printers hold at least 2 colors and prints use at least 1");
+        }
+        if (colorCount < maxPrintColors) {
+            throw new IllegalArgumentException("There must be at least as many colors as a print uses");
+        }
+        if (colorSkew < 0) {
+            throw new IllegalArgumentException("Color skew cannot be negative");
+        }
+        if (arrivalsPerHour <= 0) {
+            throw new IllegalArgumentException("Arrival rate must be positive");
+        }
+        filamentTypeWeights = Map.copyOf(filamentTypeWeights);
+        if (filamentTypeWeights.values().stream().anyMatch(weight -> weight < 0)
+                || filamentTypeWeights.values().stream().noneMatch(weight -> weight > 0)) {
+            throw new IllegalArgumentException("Filament type weights must not be negative and one must be positive");
+        }
+    }
+
+    /**
+     * Creates the default configuration: a 500-printer farm with a catalogue of 200 prints and 100,000 tasks.
+     *
+     * @param seed the seed
+     * @return the configuration
+     */
+    public static WorkloadConfig defaults(long seed) {
+        Map<FilamentType, Double> weights = new EnumMap<>(FilamentType.class);
+        weights.put(FilamentType.PLA, 0.5);
+        weights.put(FilamentType.PETG, 0.3);
+        weights.put(FilamentType.ABS, 0.2);
+        return new WorkloadConfig(seed, 500, 0.2, 0.3, 150, 400, 4,
+                200, 10, 250, 10, 3_000, 0.2, 4,
+                8, 1.0, weights,
+                4, 50, 1_000,
+                100_000, 50);
+    }
+
+    /**
+     * Creates a copy of this configuration with other counts and the same distributions.
+     *
+     * @param printerCount     the number of printers
+     * @param printCount       the number of prints in the catalogue
+     * @param spoolsPerPrinter the number of spools per printer
+     * @param taskCount        the number of tasks in the task stream
+     * @return the new configuration
+     */
+    public WorkloadConfig withCounts(int printerCount, int printCount, int spoolsPerPrinter, int taskCount) {
+        return new WorkloadConfig(seed, printerCount, multiColorShare, housedShare, minPrinterSize, maxPrinterSize,
+                maxPrinterColors, printCount, minPrintSize, maxPrintSize, minPrintMinutes, maxPrintMinutes,
+                multiColorPrintShare, maxPrintColors, colorCount, colorSkew, filamentTypeWeights,
+                spoolsPerPrinter, minSpoolLength, maxSpoolLength, taskCount, arrivalsPerHour);
+    }
+
+    /**
+     * Reads a configuration from command-line options, using the defaults for every option that is
+     * not given. The options are named after the components, e.g. {@code --printer-count=10000},
+     * with the filament type weights as {@code --filament-types=PLA:5,PETG:3,ABS:2}.
+     *
+     * @param options the parsed options
+     * @return the configuration
+     * @throws IllegalArgumentException if an option is not a valid number or filament type
+     */
+    public static WorkloadConfig fromOptions(LaunchOptions options) {
+        WorkloadConfig defaults = defaults(options.getIntOption("seed", 1));
+        Map<FilamentType, Double> weights = defaults.filamentTypeWeights();
+        String types = options.getOption("filament-types");
+        if (types != null) {
+            weights = new EnumMap<>(FilamentType.class);
+            for (String entry : types.split(",")) {
+                String[] parts = entry.split(":");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("--filament-types must look like PLA:5,PETG:3: " + types);
+                }
+                weights.put(FilamentType.valueOf(parts[0].trim().toUpperCase()), Double.parseDouble(parts[1].trim()));
+            }
+        }
+        return new WorkloadConfig(
+                defaults.seed(),
+                options.getIntOption("printer-count", defaults.printerCount()),
+                options.getDoubleOption("multi-color-share", defaults.multiColorShare()),
+                options.getDoubleOption("housed-share", defaults.housedShare()),
+                options.getIntOption("min-printer-size", defaults.minPrinterSize()),
+                options.getIntOption("max-printer-size", defaults.maxPrinterSize()),
+                options.getIntOption("max-printer-colors", defaults.maxPrinterColors()),
+                options.getIntOption("print-count", defaults.printCount()),
+                options.getIntOption("min-print-size", defaults.minPrintSize()),
+                options.getIntOption("max-print-size", defaults.maxPrintSize()),
+                options.getIntOption("min-print-minutes", defaults.minPrintMinutes()),
+                options.getIntOption("max-print-minutes", defaults.maxPrintMinutes()),
+                options.getDoubleOption("multi-color-print-share", defaults.multiColorPrintShare()),
+                options.getIntOption("max-print-colors", defaults.maxPrintColors()),
+                options.getIntOption("color-count", defaults.colorCount()),
+                options.getDoubleOption("color-skew", defaults.colorSkew()),
+                weights,
+                options.getIntOption("spools-per-printer", defaults.spoolsPerPrinter()),
+                options.getDoubleOption("min-spool-length", defaults.minSpoolLength()),
+                options.getDoubleOption("max-spool-length", defaults.maxSpoolLength()),
+                options.getIntOption("task-count", defaults.taskCount()),
+                options.getDoubleOption("arrivals-per-hour", defaults.arrivalsPerHour())
+        );
+    }
+
+    /**
+     * Checks that a share is between 0 and 1.
+     *
+     * @param share the share
+     * @param name  the name used in the error message
+     * @throws IllegalArgumentException if the share is out of range
+     */
+    private static void requireShare(double share, String name) {
+        if (share < 0 || share > 1) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1");
+        }
+    }
+
+    /**
+     * Checks that a range is not empty and starts above zero.
+     *
+     * @param min  the lower bound
+     * @param max  the upper bound
+     * @param name the name used in the error message
+     * @throws IllegalArgumentException if the range is empty or not positive
+     */
+    private static void requireRange(double min, double max, String name) {
+        if (min <= 0 || max < min) {
+            throw new IllegalArgumentException(name + " must be a positive range");
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package saxion.simulation;
+
+import saxion.LaunchOptions;
+import saxion.types.FilamentType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Writes reproducible datasets of any size: printers, prints and spools in the layout the data provider
+ * reads, and a stream of task arrivals for the {@link FarmSimulator}. The same {@link WorkloadConfig}
+ * always produces the same files, in CSV as well as in JSON.
+ * <p>
+ * Every file is streamed to disk, so a million tasks or ten thousand printers need no more memory
+ * than a single record. A print is derived from its own seed, which lets the task stream look up the
+ * colors a print needs without keeping the catalogue in memory.
+ */
+public class WorkloadGenerator {
+
+    /** The files of a dataset. */
+    public enum Dataset {
+        /** The printers of the farm. */
+        PRINTERS("printers"),
+        /** The catalogue of prints. */
+        PRINTS("prints"),
+        /** The spools of the farm. */
+        SPOOLS("spools"),
+        /** The stream of task arrivals. */
+        TASKS("tasks");
+
+        /** The file name without extension. */
+        private final String name;
+
+        /**
+         * Constructs a dataset file.
+         *
+         * @param name the file name without extension
+         */
+        Dataset(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Gets the file name in a format.
+         *
+         * @param format the {@link DatasetFormat}
+         * @return the file name
+         */
+        public String fileName(DatasetFormat format) {
+            return name + format.extension();
+        }
+    }
+
+    /** Names of the first colors; further colors are numbered. */
+    private static final String[] COLOR_NAMES =
+            {"Blue", "Red", "Green", "Pink", "Black", "White", "Orange", "Yellow", "Purple", "Grey"};
+
+    /** Manufacturers of the generated printers. */
+    private static final String[] MANUFACTURERS = {"Creality", "Prusa", "Bambu Lab", "Anycubic", "Elegoo"};
+
+    /** Meters of filament used per minute of printing, roughly as in the shipped prints. */
+    private static final double METERS_PER_MINUTE = 0.04;
+
+    /** The number of milliseconds in an hour. */
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+    /** The configuration of the dataset. */
+    private final WorkloadConfig config;
+
+    /** The names of the colors, most popular first. */
+    private final List<String> colors = new ArrayList<>();
+
+    /** The cumulative popularity of the colors. */
+    private final double[] colorCumulative;
+
+    /** The filament types with a positive weight. */
+    private final List<FilamentType> types = new ArrayList<>();
+
+    /** The cumulative weights of {@link #types}. */
+    private final double[] typeCumulative;
+
+    /**
+     * Constructs a new {@code WorkloadGenerator}.
+     *
+     * @param config the {@link WorkloadConfig} of the dataset
+     */
+    public WorkloadGenerator(WorkloadConfig config) {
+        this.config = config;
+
+        colorCumulative = new double[config.colorCount()];
+        double total = 0;
+        for (int rank = 0; rank < config.colorCount(); rank++) {
+            colors.add(rank < COLOR_NAMES.length ? COLOR_NAMES[rank] : "Color " + (rank + 1));
+            total += 1 / Math.pow(rank + 1, config.colorSkew());
+            colorCumulative[rank] = total;
+        }
+
+        for (FilamentType type : FilamentType.values()) {
+            if (config.filamentTypeWeights().getOrDefault(type, 0.0) > 0) {
+                types.add(type);
+            }
+        }
+        typeCumulative = new double[types.size()];
+        total = 0;
+        for (int i = 0; i < types.size(); i++) {
+            total += config.filamentTypeWeights().get(types.get(i));
+            typeCumulative[i] = total;
+        }
+    }
+
+    /**
+     * Writes one file of the dataset.
+     *
+     * @param dataset the {@link Dataset} to write
+     * @param file    the file
+     * @param format  the {@link DatasetFormat}
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Dataset dataset, Path file, DatasetFormat format) throws IOException {
+        switch (dataset) {
+            case PRINTERS -> writePrinters(file, format);
+            case PRINTS -> writePrints(file, format);
+            case SPOOLS -> writeSpools(file, format);
+            case TASKS -> writeTasks(file, format);
+        }
+    }
+
+    /**
+     * Writes the printers. Multi-color printers hold two or more colors; the other printers are
+     * housed at the configured share.
+     *
+     * @param file   the file
+     * @param format the {@link DatasetFormat}
+     * @throws IOException if the file cannot be written
+     */
+    private void writePrinters(Path file, DatasetFormat format) throws IOException {
+        Random random = new Random(mix(config.seed(), Dataset.PRINTERS.ordinal()));
+        try (DatasetWriter writer = new DatasetWriter(file, format,
+                "id", "type", "name", "model", "manufacturer", "maxX", "maxY", "maxZ", "maxColors")) {
+            for (int id = 1; id <= config.printerCount(); id++) {
+                boolean multiColor = random.nextDouble() < config.multiColorShare();
+                int type = multiColor ? 3 : random.nextDouble() < config.housedShare() ? 2 : 1;
+                int bed = uniform(random, config.minPrinterSize(), config.maxPrinterSize());
+                int maxColors = multiColor ? uniform(random, 2, config.maxPrinterColors()) : 1;
+                writer.write(id, type, "Printer " + id, "Model " + (1 + random.nextInt(20)),
+                        MANUFACTURERS[random.nextInt(MANUFACTURERS.length)],
+                        bed, bed, uniform(random, config.minPrinterSize(), config.maxPrinterSize()), maxColors);
+            }
+        }
+    }
+
+    /**
+     * Writes the catalogue of prints.
+     *
+     * @param file   the file
+     * @param format the {@link DatasetFormat}
+     * @throws IOException if the file cannot be written
+     */
+    private void writePrints(Path file, DatasetFormat format) throws IOException {
+        try (DatasetWriter writer = new DatasetWriter(file, format,
+                "name", "width", "length", "height", "printTime", "filamentLength")) {
+            for (int index = 0; index < config.printCount(); index++) {
+                Random random = printRandom(index);
+                int colorCount = printColorCount(random);
+                int width = uniform(random, config.minPrintSize(), config.maxPrintSize());
+                int length = uniform(random, config.minPrintSize(), config.maxPrintSize());
+                int height = uniform(random, config.minPrintSize(), config.maxPrintSize());
+                double logMin = Math.log(config.minPrintMinutes());
+                double logMax = Math.log(config.maxPrintMinutes());
+                int minutes = (int) Math.round(Math.exp(logMin + random.nextDouble() * (logMax - logMin)));
+
+                List<Double> filamentLength = new ArrayList<>();
+                double remaining = Math.max(0.01, minutes * METERS_PER_MINUTE);
+                for (int color = 1; color < colorCount; color++) {
+                    double part = remaining * (0.2 + 0.5 * random.nextDouble());
+                    filamentLength.add(part);
+                    remaining -= part;
+                }
+                filamentLength.add(0, remaining);
+                writer.write(printName(index), width, length, height, minutes, filamentLength);
+            }
+        }
+    }
+
+    /**
+     * Writes the spools. The first spools cover every color in every filament type, so every task
+     * of the stream can be queued; the rest follow the color and filament type distributions.
+     *
+     * @param file   the file
+     * @param format the {@link DatasetFormat}
+     * @throws IOException if the file cannot be written
+     */
+    private void writeSpools(Path file, DatasetFormat format) throws IOException {
+        Random random = new Random(mix(config.seed(), Dataset.SPOOLS.ordinal()));
+        int covering = colors.size() * types.size();
+        try (DatasetWriter writer = new DatasetWriter(file, format, "id", "color", "filamentType", "length")) {
+            int spoolCount = config.printerCount() * config.spoolsPerPrinter();
+            for (int id = 1; id <= spoolCount; id++) {
+                String color;
+                FilamentType type;
+                if (id <= covering) {
+                    color = colors.get((id - 1) % colors.size());
+                    type = types.get((id - 1) / colors.size());
+                } else {
+                    color = colors.get(sample(random, colorCumulative));
+                    type = types.get(sample(random, typeCumulative));
+                }
+                double length = config.minSpoolLength()
+                        + random.nextDouble() * (config.maxSpoolLength() - config.minSpoolLength());
+                writer.write(id, color, type.name(), length);
+            }
+        }
+    }
+
+    /**
+     * Writes the task stream. Tasks arrive as a Poisson process; the time of a task is the number of
+     * milliseconds since the start of the stream. Multi-color tasks get no ABS, which no printer can
+     * print in several colors.
+     *
+     * @param file   the file
+     * @param format the {@link DatasetFormat}
+     * @throws IOException if the file cannot be written
+     */
+    private void writeTasks(Path file, DatasetFormat format) throws IOException {
+        Random random = new Random(mix(config.seed(), Dataset.TASKS.ordinal()));
+        double meanGapMillis = MILLIS_PER_HOUR / config.arrivalsPerHour();
+        boolean onlyAbs = types.size() == 1 && types.get(0) == FilamentType.ABS;
+        try (DatasetWriter writer = new DatasetWriter(file, format, "time", "printName", "filamentType", "colors")) {
+            double timeMillis = 0;
+            for (int task = 0; task < config.taskCount(); task++) {
+                timeMillis += -Math.log(1 - random.nextDouble()) * meanGapMillis;
+                int index = random.nextInt(config.printCount());
+                int colorCount = printColorCount(printRandom(index));
+
+                FilamentType type;
+                do {
+                    type = types.get(sample(random, typeCumulative));
+                } while (colorCount > 1 && type == FilamentType.ABS && !onlyAbs);
+
+                List<String> taskColors = new ArrayList<>(colorCount);
+                while (taskColors.size() < colorCount) {
+                    String color = colors.get(sample(random, colorCumulative));
+                    if (!taskColors.contains(color)) {
+                        taskColors.add(color);
+                    }
+                }
+                writer.write((long) timeMillis, printName(index), type.name(), taskColors);
+            }
+        }
+    }
+
+    /**
+     * Creates the source of a print, so the same print can be derived again for the task stream.
+     *
+     * @param index the position of the print in the catalogue
+     * @return the seeded source
+     */
+    private Random printRandom(int index) {
+        return new Random(mix(config.seed() + Dataset.PRINTS.ordinal(), index));
+    }
+
+    /**
+     * Draws the number of colors of a print. Must be the first draw from the print's source.
+     *
+     * @param random the source of the print
+     * @return the number of colors
+     */
+    private int printColorCount(Random random) {
+        boolean multiColor = random.nextDouble() < config.multiColorPrintShare() && config.maxPrintColors() > 1;
+        return multiColor ? uniform(random, 2, config.maxPrintColors()) : 1;
+    }
+
+    /**
+     * Gets the name of a print.
+     *
+     * @param index the position of the print in the catalogue
+     * @return the name
+     */
+    private static String printName(int index) {
+        return "Print " + (index + 1);
+    }
+
+    /**
+     * Draws a whole number between two bounds.
+     *
+     * @param random the source
+     * @param min    the lower bound, inclusive
+     * @param max    the upper bound, inclusive
+     * @return the number
+     */
+    private static int uniform(Random random, int min, int max) {
+        return min + random.nextInt(max - min + 1);
+    }
+
+    /**
+     * Draws a position from cumulative weights.
+     *
+     * @param random     the source
+     * @param cumulative the cumulative weights
+     * @return the position
+     */
+    private static int sample(Random random, double[] cumulative) {
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Mixes a seed and a number into a well-spread seed, so that neighbouring numbers get
+     * unrelated sources.
+     *
+     * @param seed   the seed
+     * @param number the number
+     * @return the mixed seed
+     */
+    private static long mix(long seed, long number) {
+        long z = seed * 0x9E3779B97F4A7C15L + number;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Writes a dataset to a directory. The first argument is the directory; {@code --format=csv|json}
+     * (default json) selects the format and the options of {@link WorkloadConfig#fromOptions(LaunchOptions)}
+     * set the size and distributions.
+     *
+     * @param args the directory followed by the options
+     * @throws IOException if a file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        LaunchOptions options = new LaunchOptions(args);
+        if (options.getDataFiles().length != 1) {
+            throw new IllegalArgumentException("Usage: WorkloadGenerator <directory> [--format=csv|json] [--seed=<n>] ...");
+        }
+        Path directory = Path.of(options.getDataFiles()[0]);
+        DatasetFormat format = DatasetFormat.valueOf(options.getOption("format", "json").toUpperCase());
+        WorkloadGenerator generator = new WorkloadGenerator(WorkloadConfig.fromOptions(options));
+
+        Files.createDirectories(directory);
+        for (Dataset dataset : Dataset.values()) {
+            Path file = directory.resolve(dataset.fileName(format));
+            long start = System.nanoTime();
+            generator.write(dataset, file, format);
+            System.out.printf("%-14s %10d KB %8.1f s%n", file.getFileName(), Files.size(file) / 1024,
+                    (System.nanoTime() - start) / 1e9);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package saxion.strategy;
 
 import saxion.models.PrintTask;
 import saxion.models.Spool;
+import saxion.models.SpoolPool;
 import saxion.observer.Observable;
 import saxion.observer.Observer;
 import saxion.observer.PrintEvent;
@@ -10,12 +11,18 @@ import saxion.printers.Printer;
 import saxion.types.FilamentType;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Base implementation of a printing strategy for managing print tasks and spool changes.
  * Supports notifying observers about spool change events and provides reusable methods
  * for matching printers and spools to print tasks.
+ * <p>
+ * A spool only matches a color of a task if it also has enough filament left for it, so a print is
+ * not started on a spool that will run out. A strategy notes the task it would have started on color
+ * alone when that task's spools are too short; if the selection then starts another task or none, the
+ * start of the noted task was prevented and is reported to the observers, once per task until it starts.
  */
 public class BasePrintingStrategy implements Observable {
 
@@ -25,15 +32,81 @@ public class BasePrintingStrategy implements Observable {
     /** Counter for tracking spool change events. */
     private int spoolChangeCount = 0;
 
+    /** Counter for tracking prevented start events. */
+    private int preventedStartCount = 0;
+
+    /** The first task of the current selection that matched by color but not by length, or {@code null}. */
+    private PrintTask shortTask;
+
+    /** The number of spools changed in the current selection. */
+    private int selectionSpoolChanges;
+
     /**
      * Updates the spool change count and notifies all observers.
      */
     protected void updateSpoolChangeCount() {
+        selectionSpoolChanges++;
         spoolChangeCount = 1;
         notifyObservers();
         spoolChangeCount = 0;
     }
 
+    /**
+     * Starts a new selection, in which at most one prevented start is reported.
+     */
+    protected void beginSelection() {
+        shortTask = null;
+        selectionSpoolChanges = 0;
+    }
+
+    /**
+     * Gets the number of spools changed in the current selection. Spools moved to another position of
+     * the same printer are not counted.
+     *
+     * @return the number of spool changes
+     */
+    protected int getSelectionSpoolChanges() {
+        return selectionSpoolChanges;
+    }
+
+    /**
+     * Notes a task the spools match by color but not by length. The first task noted in a selection is
+     * the one the strategy would have started on color alone, so the strategy notes the tasks in the
+     * order it prefers them.
+     *
+     * @param printTask the {@link PrintTask} whose spools are too short
+     */
+    protected void noteShortSpools(PrintTask printTask) {
+        if (shortTask == null) {
+            shortTask = printTask;
+        }
+    }
+
+    /**
+     * Checks whether the current selection noted a task for too short spools, so a strategy can skip the
+     * checks for later ones.
+     *
+     * @return {@code true} if a task was noted
+     */
+    protected boolean isShortTaskNoted() {
+        return shortTask != null;
+    }
+
+    /**
+     * Ends a selection. If the task noted for too short spools is not the task started, its start was
+     * prevented; this is reported to the observers unless it was reported since the task last started.
+     *
+     * @param chosenTask the {@link PrintTask} started, or {@code null} if none
+     */
+    protected void endSelection(PrintTask chosenTask) {
+        if (shortTask != null && shortTask != chosenTask && shortTask.markStartPrevented()) {
+            preventedStartCount = 1;
+            notifyObservers();
+            preventedStartCount = 0;
+        }
+        shortTask = null;
+    }
+
     /**
      * Adds an observer to monitor spool change events.
      *
@@ -59,7 +132,7 @@ public class BasePrintingStrategy implements Observable {
      */
     @Override
     public void notifyObservers() {
-        PrintEvent event = new PrintEvent(spoolChangeCount, 0);
+        PrintEvent event = new PrintEvent(spoolChangeCount, 0, preventedStartCount);
         for (Observer observer : observers) {
             observer.update(event);
         }
@@ -120,19 +193,16 @@ public class BasePrintingStrategy implements Observable {
     }
 
     /**
-     * Checks if the spools match the requirements for a multi-color printer.
+     * Checks if the spools match the requirements for a multi-color printer: every color of the task has
+     * a loaded spool of its own, in any position.
      *
      * @param printTask the {@link PrintTask} to check
      * @param spools    the list of {@link Spool} objects to validate
      * @return {@code true} if the spools match; {@code false} otherwise
      */
     protected boolean matchesSpoolsForMultiColorPrinter(PrintTask printTask, List<Spool> spools) {
-        for (int i = 0; i < spools.size() && i < printTask.getColors().size(); i++) {
-            if (!spools.get(i).spoolMatch(printTask.getColors().get(i), printTask.getFilamentType())) {
-                return false;
-            }
-        }
-        return true;
+        return spools.size() >= printTask.getColors().size()
+                && matchesAll(matchLoadedSpools(printTask, spools, false));
     }
 
     /**
@@ -156,6 +226,26 @@ public class BasePrintingStrategy implements Observable {
         return false;
     }
 
+    /**
+     * Checks whether {@link #handleSpoolChange(Printer, PrintTask, List, List)} would succeed, without
+     * changing anything.
+     *
+     * @param printer    the {@link Printer}
+     * @param printTask  the {@link PrintTask} to execute
+     * @param freeSpools the list of available {@link Spool} objects
+     * @return {@code true} if spools with enough filament can be loaded for the task
+     */
+    protected boolean canChangeSpools(Printer printer, PrintTask printTask, List<Spool> freeSpools) {
+        if (printer.isHoused() && matchesHousedPrinter(printTask)) {
+            return findSpoolWithFilament(freeSpools, printTask, 0) != null;
+        } else if (printer instanceof MultiColor && matchesMultiColorPrinter((MultiColor) printer, printTask)) {
+            return chooseSpools((MultiColor) printer, printTask, freeSpools) != null;
+        } else if (!printer.isHoused() && matchesStandardFDM(printTask)) {
+            return findSpoolWithFilament(freeSpools, printTask, 0) != null;
+        }
+        return false;
+    }
+
     /**
      * Changes the spool for a standard FDM printer.
      *
@@ -171,13 +261,12 @@ public class BasePrintingStrategy implements Observable {
             List<Spool> freeSpools,
             List<String> messages
     ) {
-        for (Spool spool : freeSpools) {
-            if (spool.spoolMatch(printTask.getColors().get(0), printTask.getFilamentType())) {
-                replaceSpool(printer, spool, freeSpools, messages);
-                return true;
-            }
+        Spool spool = findSpoolWithFilament(freeSpools, printTask, 0);
+        if (spool == null) {
+            return false;
         }
-        return false;
+        replaceSpool(printer, spool, freeSpools, messages);
+        return true;
     }
 
     /**
@@ -195,17 +284,18 @@ public class BasePrintingStrategy implements Observable {
             List<Spool> freeSpools,
             List<String> messages
     ) {
-        for (Spool spool : freeSpools) {
-            if (spool.spoolMatch(printTask.getColors().get(0), printTask.getFilamentType())) {
-                replaceSpool(printer, spool, freeSpools, messages);
-                return true;
-            }
+        Spool spool = findSpoolWithFilament(freeSpools, printTask, 0);
+        if (spool == null) {
+            return false;
         }
-        return false;
+        replaceSpool(printer, spool, freeSpools, messages);
+        return true;
     }
 
     /**
-     * Changes the spools for a multi-color printer.
+     * Changes the spools for a multi-color printer. Loaded spools of the task's colors with enough
+     * filament are kept, in their position if they are already in the right one and otherwise moved
+     * there; only the positions left get a free spool.
      *
      * @param printer    the {@link MultiColor} printer to update
      * @param printTask  the {@link PrintTask} to execute
@@ -219,22 +309,123 @@ public class BasePrintingStrategy implements Observable {
             List<Spool> freeSpools,
             List<String> messages
     ) {
-        List<Spool> chosenSpools = new ArrayList<>();
-        for (int i = 0; i < printTask.getColors().size(); i++) {
-            for (Spool spool : freeSpools) {
-                if (spool.spoolMatch(printTask.getColors().get(i), printTask.getFilamentType())
-                        && !containsSpool(chosenSpools, printTask.getColors().get(i))) {
-                    chosenSpools.add(spool);
-                    break;
+        Spool[] chosenSpools = chooseSpools(printer, printTask, freeSpools);
+        if (chosenSpools == null) {
+            return false;
+        }
+        replaceSpools(printer, Arrays.asList(chosenSpools), freeSpools, messages);
+        return true;
+    }
+
+    /**
+     * Chooses the spools a multi-color printer prints a task with: the loaded spools of its colors with
+     * enough filament, and free spools for the positions left.
+     *
+     * @param printer    the {@link MultiColor} printer
+     * @param printTask  the {@link PrintTask} to execute
+     * @param freeSpools the list of available {@link Spool} objects
+     * @return the spool for every color of the task, or {@code null} if a color has no spool with enough filament
+     */
+    private Spool[] chooseSpools(MultiColor printer, PrintTask printTask, List<Spool> freeSpools) {
+        int colors = printTask.getColors().size();
+        Spool[] chosenSpools = matchLoadedSpools(printTask, printer.getCurrentSpools(), true);
+        List<Spool> taken = new ArrayList<>();
+        for (int i = 0; i < colors; i++) {
+            if (chosenSpools[i] == null) {
+                Spool spool = findSpoolWithFilament(freeSpools, printTask, i);
+                if (spool == null || taken.contains(spool)) {
+                    return null;
                 }
+                chosenSpools[i] = spool;
+                taken.add(spool);
             }
         }
+        return chosenSpools;
+    }
 
-        if (chosenSpools.size() == printTask.getColors().size()) {
-            replaceSpools(printer, chosenSpools, freeSpools, messages);
-            return true;
+    /**
+     * Moves the loaded spools a task was accepted on into the positions of its colors. A spool that is
+     * in the wrong position swaps places with the spool in the right one, which is a move rather than a
+     * spool change; all spools stay loaded.
+     *
+     * @param printer   the {@link Printer} starting the task on its loaded spools
+     * @param printTask the {@link PrintTask} to execute
+     * @param messages  the list of messages to append spool move instructions
+     */
+    protected void arrangeLoadedSpools(Printer printer, PrintTask printTask, List<String> messages) {
+        List<Spool> loaded = printer.getCurrentSpools();
+        Spool[] matched = matchLoadedSpools(printTask, loaded, true);
+        List<Spool> arranged = new ArrayList<>(loaded);
+        for (int i = 0; i < matched.length; i++) {
+            int position = arranged.indexOf(matched[i]);
+            if (position != i) {
+                arranged.set(position, arranged.get(i));
+                arranged.set(i, matched[i]);
+            }
         }
-        return false;
+        if (!arranged.equals(loaded)) {
+            replaceSpools(printer, arranged, new ArrayList<>(), messages);
+        }
+    }
+
+    /**
+     * Matches loaded spools to the colors of a task: a spool in the position of a color is kept for it,
+     * and otherwise the first unused loaded spool of the color is taken, which then has to be moved.
+     *
+     * @param printTask   the {@link PrintTask}
+     * @param spools      the spools loaded in the printer, in position order
+     * @param checkLength whether a spool also needs enough filament left for its color
+     * @return the spool for every color of the task, {@code null} where no loaded spool serves it
+     */
+    private static Spool[] matchLoadedSpools(PrintTask printTask, List<Spool> spools, boolean checkLength) {
+        int colors = printTask.getColors().size();
+        Spool[] matched = new Spool[colors];
+        boolean[] used = new boolean[spools.size()];
+        for (int i = 0; i < colors && i < spools.size(); i++) {
+            if (fitsPosition(spools.get(i), printTask, i, checkLength)) {
+                matched[i] = spools.get(i);
+                used[i] = true;
+            }
+        }
+        for (int i = 0; i < colors; i++) {
+            for (int j = 0; j < spools.size() && matched[i] == null; j++) {
+                if (!used[j] && fitsPosition(spools.get(j), printTask, i, checkLength)) {
+                    matched[i] = spools.get(j);
+                    used[j] = true;
+                }
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Checks whether every color of a task was matched to a spool.
+     *
+     * @param matched the spool for every color, {@code null} where none was found
+     * @return {@code true} if no color is left without a spool
+     */
+    private static boolean matchesAll(Spool[] matched) {
+        for (Spool spool : matched) {
+            if (spool == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a spool can serve a color of a task: it has the color and filament type and, if
+     * asked, enough filament left.
+     *
+     * @param spool       the {@link Spool}
+     * @param printTask   the {@link PrintTask}
+     * @param slot        the index of the color in the task
+     * @param checkLength whether the filament left is checked as well
+     * @return {@code true} if the spool can serve the color
+     */
+    private static boolean fitsPosition(Spool spool, PrintTask printTask, int slot, boolean checkLength) {
+        return spool.spoolMatch(printTask.getColors().get(slot), printTask.getFilamentType())
+                && (!checkLength || spool.getLength() >= filamentNeeded(printTask, slot));
     }
 
     /**
@@ -260,10 +451,12 @@ public class BasePrintingStrategy implements Observable {
     }
 
     /**
-     * Replaces the spools for a multi-color printer.
+     * Replaces the spools for a multi-color printer. Only the positions whose spool differs get an
+     * instruction: a spool that was already loaded is moved from its old position, any other spool is
+     * placed and counted as a spool change. Loaded spools that are not used any more become free.
      *
      * @param printer      the {@link Printer} to update
-     * @param newSpools    the list of new {@link Spool} objects to use
+     * @param newSpools    the list of new {@link Spool} objects to use, in position order
      * @param freeSpools   the list of available spools
      * @param messages     the list of messages to append spool change instructions
      */
@@ -273,17 +466,152 @@ public class BasePrintingStrategy implements Observable {
             List<Spool> freeSpools,
             List<String> messages
     ) {
-        freeSpools.addAll(printer.getCurrentSpools());
-        freeSpools.removeAll(newSpools);
+        List<Spool> loaded = printer.getCurrentSpools();
+        for (Spool spool : loaded) {
+            if (!newSpools.contains(spool)) {
+                freeSpools.add(spool);
+            }
+        }
+        for (int i = 0; i < newSpools.size(); i++) {
+            Spool spool = newSpools.get(i);
+            int position = loaded.indexOf(spool);
+            if (position == i) {
+                continue;
+            }
+            if (position >= 0) {
+                messages.add("- Spool move: Please move spool " + spool.getId()
+                        + " in printer " + printer.getName()
+                        + " from position " + (position + 1) + " to position " + (i + 1));
+            } else {
+                freeSpools.remove(spool);
+                messages.add("- Spool change: Please place spool " + spool.getId()
+                        + " in printer " + printer.getName()
+                        + " position " + (i + 1));
+                updateSpoolChangeCount();
+            }
+        }
         printer.setCurrentSpools(newSpools);
-        int position = 1;
-        for (Spool spool : newSpools) {
-            messages.add("- Spool change: Please place spool " + spool.getId()
-                    + " in printer " + printer.getName()
-                    + " position " + position);
-            position++;
-            updateSpoolChangeCount();
+    }
+
+    /**
+     * Finds the first free spool that matches a color of a task and has enough filament left for it.
+     * The free spools are looked up by color if they are a {@link SpoolPool}.
+     *
+     * @param freeSpools the list of available {@link Spool} objects
+     * @param printTask  the {@link PrintTask} to execute
+     * @param slot       the index of the color in the task
+     * @return the matching {@link Spool}, or {@code null} if none has enough filament
+     */
+    protected Spool findSpoolWithFilament(List<Spool> freeSpools, PrintTask printTask, int slot) {
+        String color = printTask.getColors().get(slot);
+        double needed = filamentNeeded(printTask, slot);
+        for (Spool spool : SpoolPool.candidates(freeSpools, color, printTask.getFilamentType())) {
+            if (spool.spoolMatch(color, printTask.getFilamentType()) && spool.getLength() >= needed) {
+                return spool;
+            }
         }
+        return null;
+    }
+
+    /**
+     * Gets the length of filament a task needs of one of its colors.
+     *
+     * @param printTask the {@link PrintTask}
+     * @param slot      the index of the color in the task
+     * @return the filament length, or 0 if the print does not state it
+     */
+    protected static double filamentNeeded(PrintTask printTask, int slot) {
+        List<Double> lengths = printTask.getPrint().getFilamentLength();
+        return slot < lengths.size() ? lengths.get(slot) : 0;
+    }
+
+    /**
+     * Checks if the spools loaded in a printer have enough filament left for every color of a task, each
+     * color on the loaded spool it is matched to, in whatever position that spool is.
+     *
+     * @param printTask the {@link PrintTask} to check
+     * @param spools    the list of {@link Spool}s loaded in the printer, in slot order
+     * @return {@code true} if no spool runs out during the task; {@code false} otherwise
+     */
+    protected boolean loadedSpoolsLast(PrintTask printTask, List<Spool> spools) {
+        return spools.size() >= printTask.getColors().size()
+                && matchesAll(matchLoadedSpools(printTask, spools, true));
+    }
+
+    /**
+     * Determines whether a printer can start a task on its loaded spools. A strategy starting an accepted task calls
+     * {@link #arrangeLoadedSpools(Printer, PrintTask, List)}, as the spools may be in other positions.
+     *
+     * @param printer   the {@link Printer} to check
+     * @param printTask the {@link PrintTask} to validate
+     * @param spools    the list of {@link Spool}s loaded in the printer
+     * @return {@link EvaluationResult#ACCEPTED} if the task can start, or the reason it cannot
+     */
+    protected EvaluationResult checkLoadedSpools(Printer printer, PrintTask printTask, List<Spool> spools) {
+        if (!taskMatchesPrinterAndSpools(printer, printTask, spools)) {
+            EvaluationResult result = checkPrinterRules(printer, printTask);
+            return result == EvaluationResult.ACCEPTED ? EvaluationResult.LOADED_SPOOLS_MISMATCH : result;
+        }
+        if (!loadedSpoolsLast(printTask, spools)) {
+            return EvaluationResult.INSUFFICIENT_LENGTH;
+        }
+        return EvaluationResult.ACCEPTED;
+    }
+
+    /**
+     * Determines why no spools could be found for a task: a printer rule, no spool of one of its colors, or
+     * spools of every color of which the one needed is too short. Only called while evaluation events are
+     * recorded.
+     *
+     * @param freeSpools the list of available spools
+     * @param printTask  the print task that was skipped
+     * @param printer    the printer the task was evaluated for
+     * @return the {@link EvaluationResult} explaining why the task was skipped
+     */
+    protected EvaluationResult rejectionReason(List<Spool> freeSpools, PrintTask printTask, Printer printer) {
+        EvaluationResult result = checkPrinterRules(printer, printTask);
+        if (result != EvaluationResult.ACCEPTED) {
+            return result;
+        }
+        return spoolsOfEveryColor(freeSpools, printTask, printer)
+                ? EvaluationResult.INSUFFICIENT_LENGTH : EvaluationResult.NO_MATCHING_SPOOL;
+    }
+
+    /**
+     * Checks whether every color of a task has a free or loaded spool of its filament type, whatever its
+     * length. If spools cannot be changed for such a task, it is because they are too short.
+     *
+     * @param freeSpools the list of available spools
+     * @param printTask  the {@link PrintTask}
+     * @param printer    the printer the task is evaluated for
+     * @return {@code true} if no color lacks a spool
+     */
+    protected static boolean spoolsOfEveryColor(List<Spool> freeSpools, PrintTask printTask, Printer printer) {
+        FilamentType type = printTask.getFilamentType();
+        for (String color : printTask.getColors()) {
+            if (!hasSpool(SpoolPool.candidates(freeSpools, color, type), color, type)
+                    && !hasSpool(printer.getCurrentSpools(), color, type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether spools hold one of a color and filament type.
+     *
+     * @param spools the spools
+     * @param color  the color
+     * @param type   the {@link FilamentType}
+     * @return {@code true} if a spool matches
+     */
+    private static boolean hasSpool(Iterable<Spool> spools, String color, FilamentType type) {
+        for (Spool spool : spools) {
+            if (spool.spoolMatch(color, type)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -297,6 +625,47 @@ public class BasePrintingStrategy implements Observable {
         return list.stream().anyMatch(o -> o.getColor().equals(name));
     }
 
+    /**
+     * Determines which printer rule, if any, keeps the printer from printing the task. Follows the
+     * same rules as {@link #matchesCurrentPrinter(Printer, PrintTask)}.
+     *
+     * @param printer   the {@link Printer} to check
+     * @param printTask the {@link PrintTask} to validate
+     * @return {@link EvaluationResult#ACCEPTED} if the printer matches, or the rule that failed
+     */
+    protected EvaluationResult checkPrinterRules(Printer printer, PrintTask printTask) {
+        int colors = printTask.getColors().size();
+        if (printer.isHoused()) {
+            return colors == 1 ? EvaluationResult.ACCEPTED : EvaluationResult.COLOR_COUNT_RULE;
+        }
+        if (printTask.getFilamentType() == FilamentType.ABS) {
+            return EvaluationResult.FILAMENT_TYPE_RULE;
+        }
+        boolean colorsFit = printer instanceof MultiColor
+                ? colors <= ((MultiColor) printer).getMaxColors()
+                : colors == 1;
+        return colorsFit ? EvaluationResult.ACCEPTED : EvaluationResult.COLOR_COUNT_RULE;
+    }
+
+    /**
+     * Checks if a print task matches the printer and its loaded spools.
+     *
+     * @param printer   the {@link Printer} for which the task is being checked
+     * @param printTask the {@link PrintTask} being checked
+     * @param spools    the list of {@link Spool}s currently loaded in the printer
+     * @return {@code true} if the task matches the printer and spools; {@code false} otherwise
+     */
+    protected boolean taskMatchesPrinterAndSpools(Printer printer, PrintTask printTask, List<Spool> spools) {
+        if (printer.isHoused()) {
+            return matchesHousedPrinter(printTask) && matchesSpoolsForHousedPrinter(printTask, spools);
+        } else if (printer instanceof MultiColor) {
+            return matchesMultiColorPrinter((MultiColor) printer, printTask)
+                    && matchesSpoolsForMultiColorPrinter(printTask, spools);
+        } else {
+            return matchesStandardFDM(printTask) && matchesSpoolsForStandardFDM(printTask, spools);
+        }
+    }
+
     /**
      * Checks if the specified printer matches the requirements for the given print task.
      *
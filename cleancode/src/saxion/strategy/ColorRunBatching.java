@@ -0,0 +1,333 @@
+package saxion.strategy;
+
+import saxion.models.ColorRun;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.models.Spool;
+import saxion.models.SpoolPool;
+import saxion.planning.SetupPlan;
+import saxion.planning.SetupSequencer;
+import saxion.printers.Printer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implements a printing strategy that serves the queue in runs of tasks needing the same spools, so every
+ * spool change pays for as many prints as possible.
+ * <p>
+ * Every printer is assigned a {@link ColorRun} and drains it task after task on its loaded spools. When
+ * the run is empty the printer first takes any other run its loaded spools already match; otherwise it
+ * takes over a new run: the one whose first task has the highest order priority, among those preferably
+ * one no other printer is draining, and then the one that comes next in the order the
+ * {@link SetupSequencer} plans for the printer, so the runs it serves one after another share spools;
+ * runs beyond the plan go largest first.
+ * A run is only interrupted when a task of a higher priority is waiting elsewhere. When a spool has to
+ * be changed, the longest free spool of the color is loaded, so it lasts for as much of the run as
+ * possible.
+ * <p>
+ * The runs are the groups of the {@link PrintTaskQueue}, which it keeps up to date as tasks arrive and
+ * leave. Finding the next task of a run is a lookup, and choosing a new run only looks at the runs, never
+ * at the individual tasks of the queue. A printer's plan is kept until a run enters or leaves the queue or
+ * the printer's spools change, so an idle printer that finds no run to take over does not plan again for
+ * every task that arrives.
+ */
+public class ColorRunBatching extends BasePrintingStrategy implements PrintingStrategy {
+
+    /** The run every printer is draining, by printer ID. */
+    private final Map<Integer, ColorRun> assignedRuns = new HashMap<>();
+
+    /** The number of printers draining every run. */
+    private final Map<ColorRun, Integer> claims = new HashMap<>();
+
+    /** Plans the order in which every printer serves the runs. */
+    private final SetupSequencer sequencer = new SetupSequencer(SetupSequencer.DEFAULT_HORIZON);
+
+    /** The last plan of every printer, by printer ID. */
+    private final Map<Integer, PlannedRuns> plans = new HashMap<>();
+
+    /**
+     * The places of the runs in the plan of a printer, and what the plan was made for.
+     *
+     * @param queue      the queue the plan covers
+     * @param runChanges the number of changes to the runs of the queue when the plan was made
+     * @param spools     the spools loaded in the printer when the plan was made
+     * @param places     the place of every planned run, from 0
+     */
+    private record PlannedRuns(PrintTaskQueue queue, int runChanges, List<Spool> spools,
+                               Map<ColorRun, Integer> places) {
+    }
+
+    /**
+     * A run a printer can take over, with what ranks it.
+     *
+     * @param run      the {@link ColorRun}
+     * @param priority the priority of its first task
+     * @param claimed  whether a printer is draining it
+     * @param place    its place in the printer's plan, or {@link Integer#MAX_VALUE} if it is beyond the plan
+     * @param size     its number of tasks
+     */
+    private record RankedRun(ColorRun run, int priority, boolean claimed, int place, int size)
+            implements Comparable<RankedRun> {
+
+        /**
+         * Compares by priority, highest first, then unclaimed first, then by place, then largest first.
+         *
+         * @param other the other run
+         * @return the order of the runs
+         */
+        @Override
+        public int compareTo(RankedRun other) {
+            if (priority != other.priority) {
+                return priority > other.priority ? -1 : 1;
+            }
+            if (claimed != other.claimed) {
+                return claimed ? 1 : -1;
+            }
+            if (place != other.place) {
+                return place < other.place ? -1 : 1;
+            }
+            return Integer.compare(other.size, size);
+        }
+    }
+
+    /**
+     * Selects a print task for the specified printer: the next task of its run or of another run its loaded
+     * spools match, or else the next task of its run after a spool change, or else the first task of a new run.
+     *
+     * @param printer           the {@link Printer} for which a print task is being selected
+     * @param pendingPrintTasks the queue of pending {@link PrintTask}s, in priority order
+     * @param printers          the list of all available printers
+     * @param freeSpools        the list of free {@link Spool}s available for use
+     * @return a string containing the selected print task details or an empty string if no task could be selected
+     */
+    @Override
+    public String selectPrintTask(
+            Printer printer,
+            PrintTaskQueue pendingPrintTasks,
+            List<Printer> printers,
+            List<Spool> freeSpools
+    ) {
+        TaskAssignmentEvent event = SchedulerEvents.beginAssignment();
+        beginSelection();
+        List<String> messages = new ArrayList<>();
+        List<Spool> spools = printer.getCurrentSpools();
+        PrintTask head = pendingPrintTasks.peek();
+        int topPriority = head == null ? Integer.MIN_VALUE : head.getPriority();
+
+        PrintTask chosenTask = null;
+        ColorRun run = assignedRuns.get(printer.getId());
+        if (run != null) {
+            chosenTask = findTask(printer, spools, runAhead(pendingPrintTasks, run, topPriority), null, messages);
+        }
+        for (ColorRun loaded : ColorRun.servedBy(spools)) {
+            if (chosenTask != null) {
+                break;
+            }
+            chosenTask = findTask(printer, spools, runAhead(pendingPrintTasks, loaded, topPriority), null, messages);
+        }
+        if (chosenTask == null && run != null) {
+            chosenTask = findTask(printer, spools, runAhead(pendingPrintTasks, run, topPriority), freeSpools,
+                    messages);
+        }
+        if (chosenTask == null) {
+            for (RankedRun candidate : rankRuns(printer, pendingPrintTasks)) {
+                chosenTask = findTask(printer, spools, pendingPrintTasks.getRunEntries(candidate.run()), freeSpools,
+                        messages);
+                if (chosenTask != null) {
+                    break;
+                }
+            }
+        }
+
+        endSelection(chosenTask);
+        if (chosenTask != null) {
+            assign(printer, ColorRun.of(chosenTask));
+            pendingPrintTasks.remove(chosenTask);
+            printer.setTask(chosenTask);
+            SchedulerEvents.endAssignment(event, this, printer, chosenTask, getSelectionSpoolChanges());
+            messages.add("- Started task: " + chosenTask.getPrint().getName() + " "
+                    + chosenTask.getFilamentType() + " on printer " + printer.getName());
+        }
+
+        return String.join("\n", messages);
+    }
+
+    /**
+     * Gets the entries of a run if its first task has at least the priority of the first task of the queue.
+     *
+     * @param pendingPrintTasks the queue of pending {@link PrintTask}s
+     * @param run               the {@link ColorRun}
+     * @param topPriority       the priority of the first task of the queue
+     * @return the entries of the run, or an empty collection if a task of a higher priority waits elsewhere
+     */
+    private static Collection<PrintTask> runAhead(PrintTaskQueue pendingPrintTasks, ColorRun run, int topPriority) {
+        Collection<PrintTask> tasks = pendingPrintTasks.getRunEntries(run);
+        return tasks.isEmpty() || tasks.iterator().next().getPriority() < topPriority ? List.of() : tasks;
+    }
+
+    /**
+     * Ranks the runs a printer can take over: highest priority of the first task first, then the runs
+     * no printer is draining, then the runs in the order of the printer's {@link SetupPlan}, and the
+     * runs beyond the plan the largest first.
+     *
+     * @param printer           the {@link Printer} taking over a run
+     * @param pendingPrintTasks the queue of pending {@link PrintTask}s
+     * @return the runs, best first
+     */
+    private List<RankedRun> rankRuns(Printer printer, PrintTaskQueue pendingPrintTasks) {
+        Map<ColorRun, Integer> places = plan(printer, pendingPrintTasks);
+        List<RankedRun> runs = new ArrayList<>(pendingPrintTasks.getRuns().size());
+        for (ColorRun run : pendingPrintTasks.getRuns()) {
+            Collection<PrintTask> tasks = pendingPrintTasks.getRun(run);
+            runs.add(new RankedRun(run, tasks.iterator().next().getPriority(), claims.containsKey(run),
+                    places.getOrDefault(run, Integer.MAX_VALUE), tasks.size()));
+        }
+        runs.sort(null);
+        return runs;
+    }
+
+    /**
+     * Gets the places of the runs in the plan of a printer, planning again only if a run entered or left
+     * the queue or the printer's spools changed since the last plan.
+     *
+     * @param printer           the {@link Printer}
+     * @param pendingPrintTasks the queue of pending {@link PrintTask}s
+     * @return the place of every planned run, from 0
+     */
+    private Map<ColorRun, Integer> plan(Printer printer, PrintTaskQueue pendingPrintTasks) {
+        PlannedRuns plan = plans.get(printer.getId());
+        List<Spool> spools = printer.getCurrentSpools();
+        if (plan == null || plan.queue() != pendingPrintTasks
+                || plan.runChanges() != pendingPrintTasks.getRunChanges() || !plan.spools().equals(spools)) {
+            Map<ColorRun, Integer> places = new HashMap<>();
+            for (ColorRun run : sequencer.plan(printer, pendingPrintTasks).runs()) {
+                places.put(run, places.size());
+            }
+            plan = new PlannedRuns(pendingPrintTasks, pendingPrintTasks.getRunChanges(), List.copyOf(spools), places);
+            plans.put(printer.getId(), plan);
+        }
+        return plan.places();
+    }
+
+    /**
+     * Finds the first task of a run the printer can print, on the loaded spools or, if free spools are
+     * given, after loading some of them. All tasks of a run need the same spools, so the run is given up
+     * as soon as the printer rules or the loaded spools rule out one of its tasks. Tasks needing at least
+     * as much filament as a task no free spool was found for are skipped without looking at the spools.
+     *
+     * @param printer    the {@link Printer} for which a print task is being searched
+     * @param spools     the list of {@link Spool}s currently loaded in the printer
+     * @param candidates the entries of the run, in queue order
+     * @param freeSpools the free {@link Spool}s to load, or {@code null} to keep the loaded spools
+     * @param messages   the list of messages to append spool change instructions
+     * @return the matching {@link PrintTask}, or {@code null} if no task of the run is suitable
+     */
+    private PrintTask findTask(Printer printer, List<Spool> spools, Collection<PrintTask> candidates,
+                               List<Spool> freeSpools, List<String> messages) {
+        List<PrintTask> unmatched = new ArrayList<>();
+        for (PrintTask printTask : candidates) {
+            if (needsAtLeast(printTask, unmatched)) {
+                continue;
+            }
+            TaskEvaluationEvent event = SchedulerEvents.beginEvaluation();
+            EvaluationResult result;
+            if (!printer.printFits(printTask.getPrint())) {
+                result = EvaluationResult.PRINT_DOES_NOT_FIT;
+            } else if ((result = checkPrinterRules(printer, printTask)) != EvaluationResult.ACCEPTED) {
+                SchedulerEvents.endEvaluation(event, this, printer, printTask, result);
+                return null;
+            } else {
+                result = spools.isEmpty() ? EvaluationResult.LOADED_SPOOLS_MISMATCH
+                        : checkLoadedSpools(printer, printTask, spools);
+                if (result == EvaluationResult.ACCEPTED) {
+                    arrangeLoadedSpools(printer, printTask, messages);
+                } else if (freeSpools != null) {
+                    if (handleSpoolChange(printer, printTask, freeSpools, messages)) {
+                        result = EvaluationResult.ACCEPTED;
+                    } else {
+                        result = event == null && isShortTaskNoted() ? EvaluationResult.NO_MATCHING_SPOOL
+                                : rejectionReason(freeSpools, printTask, printer);
+                        unmatched.add(printTask);
+                    }
+                }
+            }
+            if (result == EvaluationResult.INSUFFICIENT_LENGTH) {
+                noteShortSpools(printTask);
+            }
+            SchedulerEvents.endEvaluation(event, this, printer, printTask, result);
+            if (result == EvaluationResult.ACCEPTED) {
+                return printTask;
+            }
+            if (result == EvaluationResult.LOADED_SPOOLS_MISMATCH) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a task of a run needs at least as much filament of every color as a task of the same
+     * run no free spool was found for, in which case no free spool will be found for it either.
+     *
+     * @param printTask the {@link PrintTask}
+     * @param unmatched the tasks of the run no free spool was found for
+     * @return {@code true} if the task can be skipped
+     */
+    private static boolean needsAtLeast(PrintTask printTask, List<PrintTask> unmatched) {
+        for (PrintTask other : unmatched) {
+            boolean more = true;
+            for (int slot = 0; slot < printTask.getColors().size() && more; slot++) {
+                more = filamentNeeded(printTask, slot) >= filamentNeeded(other, slot);
+            }
+            if (more) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the longest free spool that matches a color of a task and has enough filament left for it, so
+     * the printer can drain as much of the run as possible before the next spool change.
+     *
+     * @param freeSpools the list of available {@link Spool} objects
+     * @param printTask  the {@link PrintTask} to execute
+     * @param slot       the index of the color in the task
+     * @return the matching {@link Spool}, or {@code null} if none has enough filament
+     */
+    @Override
+    protected Spool findSpoolWithFilament(List<Spool> freeSpools, PrintTask printTask, int slot) {
+        Spool longest = super.findSpoolWithFilament(freeSpools, printTask, slot);
+        if (longest == null) {
+            return null;
+        }
+        String color = printTask.getColors().get(slot);
+        for (Spool spool : SpoolPool.candidates(freeSpools, color, printTask.getFilamentType())) {
+            if (spool.spoolMatch(color, printTask.getFilamentType()) && spool.getLength() > longest.getLength()) {
+                longest = spool;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Assigns a run to a printer, releasing the run it drained before.
+     *
+     * @param printer the {@link Printer}
+     * @param run     the {@link ColorRun} the printer drains from now on
+     */
+    private void assign(Printer printer, ColorRun run) {
+        ColorRun previous = assignedRuns.put(printer.getId(), run);
+        if (run.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            claims.computeIfPresent(previous, (key, count) -> count == 1 ? null : count - 1);
+        }
+        claims.merge(run, 1, Integer::sum);
+    }
+}
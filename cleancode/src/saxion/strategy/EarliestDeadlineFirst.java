@@ -0,0 +1,164 @@
+package saxion.strategy;
+
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.models.Spool;
+import saxion.printers.Printer;
+import saxion.time.TimeSource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Implements a printing strategy that tries to finish as many tasks as possible by their deadline while
+ * keeping spool changes down. The slack of a task is the time it can still wait: its deadline minus the
+ * current time minus its print time.
+ * <p>
+ * A task whose slack has dropped below the slack margin is urgent. Urgent tasks are started first, the one
+ * with the least slack first: on the loaded spools if one of them matches, otherwise with a spool change.
+ * A task whose slack is already negative will be late whatever happens, so it is not urgent and does not
+ * push back tasks that can still make it. When no task is urgent the slack allows the printer to keep its
+ * spools: it takes the first task of the queue that matches the loaded spools, and only otherwise the first
+ * task it can load spools for. The margin trades spool changes for deadlines; with no margin the strategy
+ * behaves like {@link LessSpoolChanges}.
+ * <p>
+ * The urgent tasks are a range of the deadline index of the queue, so finding them takes O(log n) however
+ * deep the queue is, plus the work for the urgent tasks themselves.
+ */
+public class EarliestDeadlineFirst extends BasePrintingStrategy implements PrintingStrategy {
+
+    /** The default slack margin: tasks with less than two hours to spare are urgent. */
+    public static final long DEFAULT_SLACK_MARGIN_MILLIS = 120 * 60_000L;
+
+    /** The source of the current time the slack is measured from. */
+    private TimeSource timeSource;
+
+    /** The slack below which a task is urgent, in milliseconds. */
+    private final long slackMarginMillis;
+
+    /**
+     * Constructs a new {@code EarliestDeadlineFirst} with the default slack margin.
+     *
+     * @param timeSource the source of the current time
+     */
+    public EarliestDeadlineFirst(TimeSource timeSource) {
+        this(timeSource, DEFAULT_SLACK_MARGIN_MILLIS);
+    }
+
+    /**
+     * Constructs a new {@code EarliestDeadlineFirst}.
+     *
+     * @param timeSource        the source of the current time
+     * @param slackMarginMillis the slack below which a task is started even if it costs a spool change
+     * @throws IllegalArgumentException if the margin is negative
+     */
+    public EarliestDeadlineFirst(TimeSource timeSource, long slackMarginMillis) {
+        if (slackMarginMillis < 0) {
+            throw new IllegalArgumentException("Slack margin must not be negative");
+        }
+        this.timeSource = timeSource;
+        this.slackMarginMillis = slackMarginMillis;
+    }
+
+    /**
+     * Sets the source of the current time, e.g. a simulated clock.
+     *
+     * @param timeSource the {@link TimeSource} to use
+     */
+    public void setTimeSource(TimeSource timeSource) {
+        this.timeSource = timeSource;
+    }
+
+    /**
+     * Selects a print task for the specified printer: the most urgent task, or else a task that keeps the
+     * loaded spools, or else the first task that spools can be loaded for.
+     *
+     * @param printer           the {@link Printer} for which a print task is being selected
+     * @param pendingPrintTasks the queue of pending {@link PrintTask}s, in priority order
+     * @param printers          the list of all available printers
+     * @param freeSpools        the list of free {@link Spool}s available for use
+     * @return a string containing the selected print task details or an empty string if no task could be selected
+     */
+    @Override
+    public String selectPrintTask(
+            Printer printer,
+            PrintTaskQueue pendingPrintTasks,
+            List<Printer> printers,
+            List<Spool> freeSpools
+    ) {
+        TaskAssignmentEvent event = SchedulerEvents.beginAssignment();
+        beginSelection();
+        List<String> messages = new ArrayList<>();
+        long now = timeSource.currentTimeMillis();
+
+        List<Spool> spools = printer.getCurrentSpools();
+        Collection<PrintTask> urgent = pendingPrintTasks.startingBy(now, now + slackMarginMillis);
+        PrintTask chosenTask = null;
+        if (!spools.isEmpty()) {
+            chosenTask = findTask(printer, spools, urgent, null, messages);
+        }
+        if (chosenTask == null) {
+            chosenTask = findTask(printer, spools, urgent, freeSpools, messages);
+        }
+        if (chosenTask == null && !spools.isEmpty()) {
+            chosenTask = findTask(printer, spools, pendingPrintTasks.entries(), null, messages);
+        }
+        if (chosenTask == null) {
+            chosenTask = findTask(printer, spools, pendingPrintTasks.entries(), freeSpools, messages);
+        }
+
+        endSelection(chosenTask);
+        if (chosenTask != null) {
+            pendingPrintTasks.remove(chosenTask);
+            printer.setTask(chosenTask);
+            SchedulerEvents.endAssignment(event, this, printer, chosenTask, getSelectionSpoolChanges());
+            messages.add("- Started task: " + chosenTask.getPrint().getName() + " "
+                    + chosenTask.getFilamentType() + " on printer " + printer.getName());
+        }
+
+        return String.join("\n", messages);
+    }
+
+    /**
+     * Finds the first of the candidates the printer can print, on the loaded spools if they have enough
+     * filament left or, if free spools are given, after loading some of them.
+     *
+     * @param printer    the {@link Printer} for which a print task is being searched
+     * @param spools     the list of {@link Spool}s currently loaded in the printer
+     * @param candidates the tasks to evaluate, in order
+     * @param freeSpools the free {@link Spool}s to load, or {@code null} to keep the loaded spools
+     * @param messages   the list of messages to append spool change instructions
+     * @return the matching {@link PrintTask}, or {@code null} if no candidate is suitable
+     */
+    private PrintTask findTask(Printer printer, List<Spool> spools, Collection<PrintTask> candidates,
+                               List<Spool> freeSpools, List<String> messages) {
+        for (PrintTask printTask : candidates) {
+            TaskEvaluationEvent event = SchedulerEvents.beginEvaluation();
+            EvaluationResult result;
+            if (!printer.printFits(printTask.getPrint())) {
+                result = EvaluationResult.PRINT_DOES_NOT_FIT;
+            } else {
+                result = spools.isEmpty() ? EvaluationResult.LOADED_SPOOLS_MISMATCH
+                        : checkLoadedSpools(printer, printTask, spools);
+                if (result == EvaluationResult.ACCEPTED) {
+                    arrangeLoadedSpools(printer, printTask, messages);
+                } else if (freeSpools != null && handleSpoolChange(printer, printTask, freeSpools, messages)) {
+                    result = EvaluationResult.ACCEPTED;
+                } else if (freeSpools != null && (event != null || !isShortTaskNoted())) {
+                    result = rejectionReason(freeSpools, printTask, printer);
+                } else if (freeSpools != null) {
+                    result = EvaluationResult.NO_MATCHING_SPOOL;
+                }
+            }
+            if (result == EvaluationResult.INSUFFICIENT_LENGTH) {
+                noteShortSpools(printTask);
+            }
+            SchedulerEvents.endEvaluation(event, this, printer, printTask, result);
+            if (result == EvaluationResult.ACCEPTED) {
+                return printTask;
+            }
+        }
+        return null;
+    }
+}
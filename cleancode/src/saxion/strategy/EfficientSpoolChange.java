@@ -1,17 +1,19 @@
 package saxion.strategy;
 
 import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
 import saxion.models.Spool;
+import saxion.models.SpoolPool;
 import saxion.printers.Printer;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 
 /**
- * Implements a printing strategy that minimizes filament waste by selecting the smallest possible spool
- * that can complete a print task.
+ * Implements a printing strategy that minimizes filament waste by selecting, for every color of a task,
+ * the smallest free spool that can complete it. A task no free spools serve is started on the loaded
+ * spools if they have enough filament left for each of its colors.
  */
 public class EfficientSpoolChange extends BasePrintingStrategy implements PrintingStrategy {
 
@@ -20,7 +22,7 @@ public class EfficientSpoolChange extends BasePrintingStrategy implements Printi
      * The selection process prioritizes efficiency by minimizing filament waste.
      *
      * @param printer          the {@link Printer} for which a print task is being selected
-     * @param pendingPrintTasks the list of pending {@link PrintTask}s
+     * @param pendingPrintTasks the queue of pending {@link PrintTask}s, in priority order
      * @param printers         the list of all available printers
      * @param freeSpools       the list of free {@link Spool}s available for use
      * @return a string containing the selected print task details or {@code null} if no task could be selected
@@ -28,33 +30,52 @@ public class EfficientSpoolChange extends BasePrintingStrategy implements Printi
     @Override
     public String selectPrintTask(
             Printer printer,
-            List<PrintTask> pendingPrintTasks,
+            PrintTaskQueue pendingPrintTasks,
             List<Printer> printers,
             List<Spool> freeSpools
     ) {
+        TaskAssignmentEvent assignment = SchedulerEvents.beginAssignment();
+        beginSelection();
         List<String> messages = new ArrayList<>();
 
         for (
-                Iterator<PrintTask> iterator = pendingPrintTasks.iterator(); iterator.hasNext(); ) {
+                Iterator<PrintTask> iterator = pendingPrintTasks.entries().iterator(); iterator.hasNext(); ) {
             PrintTask printTask = iterator.next();
+            TaskEvaluationEvent evaluation = SchedulerEvents.beginEvaluation();
 
             if(printer.getTask() != null){
+                SchedulerEvents.endEvaluation(evaluation, this, printer, printTask, EvaluationResult.PRINTER_BUSY);
                 continue;
             }
 
             if(!printer.printFits(printTask.getPrint())){
+                SchedulerEvents.endEvaluation(evaluation, this, printer, printTask, EvaluationResult.PRINT_DOES_NOT_FIT);
                 continue;
             }
 
-            Spool selectedSpool = selectSmallestPossibleSpool(freeSpools, printTask, printer);
-            if (selectedSpool == null && !printer.getCurrentSpools().isEmpty()) {
-                selectedSpool = selectSmallestPossibleSpool(printer.getCurrentSpools(), printTask, printer);
+            boolean started = matchesCurrentPrinter(printer, printTask)
+                    && handleSpoolChange(printer, printTask, freeSpools, messages);
+            if (!started && matchesCurrentPrinter(printer, printTask) && !printer.getCurrentSpools().isEmpty()
+                    && checkLoadedSpools(printer, printTask, printer.getCurrentSpools()) == EvaluationResult.ACCEPTED) {
+                arrangeLoadedSpools(printer, printTask, messages);
+                started = true;
             }
 
-            if (selectedSpool != null) {
-                handleSpoolChange(printer, printTask, new ArrayList<>(List.of(selectedSpool)), messages);
+            if (!started) {
+                if (!isShortTaskNoted() && matchesCurrentPrinter(printer, printTask)
+                        && spoolsOfEveryColor(freeSpools, printTask, printer)) {
+                    noteShortSpools(printTask);
+                }
+                if (evaluation != null) {
+                    SchedulerEvents.endEvaluation(evaluation, this, printer, printTask,
+                            rejectionReason(freeSpools, printTask, printer));
+                }
+            } else {
+                SchedulerEvents.endEvaluation(evaluation, this, printer, printTask, EvaluationResult.ACCEPTED);
+                endSelection(printTask);
                 printer.setTask(printTask);
                 iterator.remove();
+                SchedulerEvents.endAssignment(assignment, this, printer, printTask, getSelectionSpoolChanges());
 
                 return String.join("\n", messages)
                         + "\n- Started task: " + printTask.getPrint().getName()
@@ -64,32 +85,32 @@ public class EfficientSpoolChange extends BasePrintingStrategy implements Printi
             }
         }
 
+        endSelection(null);
         return null;
     }
 
     /**
-     * Select the smallest possible spool that has enough filament to print the task.
+     * Finds the smallest free spool that matches a color of a task and has enough filament left for it.
      *
-     * @param freeSpools the list of available spools
-     * @param printTask  the print task to be completed
-     * @return the selected spool or null if no suitable spool is found
+     * @param freeSpools the list of available {@link Spool} objects
+     * @param printTask  the {@link PrintTask} to execute
+     * @param slot       the index of the color in the task
+     * @return the smallest matching {@link Spool}, or {@code null} if none has enough filament
      */
-    private Spool selectSmallestPossibleSpool(List<Spool> freeSpools, PrintTask printTask, Printer printer) {
-        if(!matchesCurrentPrinter(printer, printTask)){
-            return null;
+    @Override
+    protected Spool findSpoolWithFilament(List<Spool> freeSpools, PrintTask printTask, int slot) {
+        String color = printTask.getColors().get(slot);
+        double needed = filamentNeeded(printTask, slot);
+        Spool smallestFitting = null;
+        for (Spool spool : SpoolPool.candidates(freeSpools, color, printTask.getFilamentType())) {
+            if (!spool.spoolMatch(color, printTask.getFilamentType())) {
+                continue;
+            }
+            if (spool.getLength() >= needed
+                    && (smallestFitting == null || spool.getLength() < smallestFitting.getLength())) {
+                smallestFitting = spool;
+            }
         }
-        double filamentLength = printTask
-                .getPrint()
-                .getFilamentLength()
-                .stream()
-                .mapToDouble(Double::doubleValue).sum();
-        return freeSpools.stream()
-                .filter(spool -> {
-                    boolean matches = spool.getLength() >= filamentLength &&
-                            spool.spoolMatch(printTask.getColors().get(0), printTask.getFilamentType());
-                    return matches;
-                })
-                .min(Comparator.comparingDouble(Spool::getLength))
-                .orElse(null);
+        return smallestFitting;
     }
 }
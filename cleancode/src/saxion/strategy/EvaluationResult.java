@@ -0,0 +1,23 @@
+package saxion.strategy;
+
+/**
+ * The outcome of evaluating a pending task for a printer, reported in {@link TaskEvaluationEvent}s.
+ */
+public enum EvaluationResult {
+    /** The task was assigned to the printer. */
+    ACCEPTED,
+    /** The printer already received a task. */
+    PRINTER_BUSY,
+    /** The print does not fit in the build volume of the printer. */
+    PRINT_DOES_NOT_FIT,
+    /** The printer cannot print the filament type of the task, e.g. ABS in an open printer. */
+    FILAMENT_TYPE_RULE,
+    /** The printer cannot print the number of colors of the task. */
+    COLOR_COUNT_RULE,
+    /** The spools loaded in the printer do not match the task. */
+    LOADED_SPOOLS_MISMATCH,
+    /** No free spool matches the colors and filament type of the task. */
+    NO_MATCHING_SPOOL,
+    /** Matching spools exist, but none has enough filament left for the task. */
+    INSUFFICIENT_LENGTH
+}
@@ -1,14 +1,19 @@
 package saxion.strategy;
 
+import saxion.models.ColorRun;
 import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
 import saxion.models.Spool;
-import saxion.printers.MultiColor;
 import saxion.printers.Printer;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 
 /**
- * Implements a printing strategy that minimizes spool changes during print task execution.
+ * Implements a printing strategy that minimizes spool changes during print task execution. A task that
+ * the loaded spools match by color but do not have enough filament left for is printed after a spool change.
+ * Tasks are looked up per {@link ColorRun}, so a selection only visits the tasks of runs that can start.
  */
 public class LessSpoolChanges extends BasePrintingStrategy implements PrintingStrategy {
 
@@ -16,7 +21,7 @@ public class LessSpoolChanges extends BasePrintingStrategy implements PrintingSt
      * Selects a print task for the specified printer with a focus on minimizing spool changes.
      *
      * @param printer          the {@link Printer} for which a print task is being selected
-     * @param pendingPrintTasks the list of pending {@link PrintTask}s
+     * @param pendingPrintTasks the queue of pending {@link PrintTask}s, in priority order
      * @param printers         the list of all available printers
      * @param freeSpools       the list of free {@link Spool}s available for use
      * @return a string containing the selected print task details or an empty string if no task could be selected
@@ -24,26 +29,30 @@ public class LessSpoolChanges extends BasePrintingStrategy implements PrintingSt
     @Override
     public String selectPrintTask(
             Printer printer,
-            List<PrintTask> pendingPrintTasks,
+            PrintTaskQueue pendingPrintTasks,
             List<Printer> printers,
             List<Spool> freeSpools
     ) {
+        TaskAssignmentEvent event = SchedulerEvents.beginAssignment();
+        beginSelection();
         List<String> messages = new ArrayList<>();
 
         List<Spool> spools = printer.getCurrentSpools();
         PrintTask chosenTask = null;
 
         if (!spools.isEmpty()) {
-            chosenTask = findTaskForCurrentSpools(printer, spools, pendingPrintTasks);
+            chosenTask = findTaskForCurrentSpools(printer, spools, pendingPrintTasks, messages);
         }
 
         if (chosenTask == null) {
             chosenTask = findTaskForFreeSpools(printer, pendingPrintTasks, freeSpools, messages);
         }
 
+        endSelection(chosenTask);
         if (chosenTask != null) {
             pendingPrintTasks.remove(chosenTask);
             printer.setTask(chosenTask);
+            SchedulerEvents.endAssignment(event, this, printer, chosenTask, getSelectionSpoolChanges());
             messages.add("- Started task: " + chosenTask.getPrint().getName() + " "
                     + chosenTask.getFilamentType() + " on printer " + printer.getName());
         }
@@ -52,63 +61,135 @@ public class LessSpoolChanges extends BasePrintingStrategy implements PrintingSt
     }
 
     /**
-     * Finds a print task that matches the current spools loaded in the printer.
+     * Finds the first print task in queue order that the spools loaded in the printer match and have
+     * enough filament left for. Only the tasks of the runs the loaded spools serve are looked at.
      *
      * @param printer          the {@link Printer} for which a print task is being searched
      * @param spools           the list of {@link Spool}s currently loaded in the printer
-     * @param pendingPrintTasks the list of pending {@link PrintTask}s
+     * @param pendingPrintTasks the queue of pending {@link PrintTask}s, in priority order
+     * @param messages         the list of messages to append spool move instructions
      * @return the matching {@link PrintTask}, or {@code null} if no suitable task is found
      */
-    private PrintTask findTaskForCurrentSpools(Printer printer, List<Spool> spools, List<PrintTask> pendingPrintTasks) {
-        for (PrintTask printTask : pendingPrintTasks) {
-            if (printer.printFits(printTask.getPrint())) {
-                if (taskMatchesPrinterAndSpools(printer, printTask, spools)) {
-                    printer.setTask(printTask);
-                    return printTask;
+    private PrintTask findTaskForCurrentSpools(Printer printer, List<Spool> spools, PrintTaskQueue pendingPrintTasks,
+                                               List<String> messages) {
+        Comparator<PrintTask> order = pendingPrintTasks.comparator();
+        PrintTask chosenTask = null;
+        PrintTask shortTask = null;
+        for (ColorRun run : ColorRun.servedBy(spools)) {
+            for (PrintTask printTask : pendingPrintTasks.getRunEntries(run)) {
+                if (chosenTask != null && order.compare(printTask, chosenTask) >= 0) {
+                    break;
+                }
+                TaskEvaluationEvent event = SchedulerEvents.beginEvaluation();
+                EvaluationResult result;
+                if (!printer.printFits(printTask.getPrint())) {
+                    result = EvaluationResult.PRINT_DOES_NOT_FIT;
+                } else {
+                    result = checkLoadedSpools(printer, printTask, spools);
+                }
+                SchedulerEvents.endEvaluation(event, this, printer, printTask, result);
+                if (result == EvaluationResult.ACCEPTED) {
+                    chosenTask = printTask;
+                    break;
+                }
+                if (result == EvaluationResult.INSUFFICIENT_LENGTH) {
+                    shortTask = first(order, shortTask, printTask);
+                } else if (result != EvaluationResult.PRINT_DOES_NOT_FIT) {
+                    break;
                 }
             }
         }
-        return null;
+        noteShortSpools(order, shortTask, chosenTask);
+        if (chosenTask != null) {
+            arrangeLoadedSpools(printer, chosenTask, messages);
+            printer.setTask(chosenTask);
+        }
+        return chosenTask;
     }
 
     /**
-     * Finds a print task that matches the free spools available for the printer.
+     * Finds the first print task in queue order that free spools, together with the loaded spools, have
+     * enough filament for, and loads them. Runs the printer cannot print, or that lack a spool of one of
+     * their colors, are skipped as a whole.
      *
      * @param printer          the {@link Printer} for which a print task is being searched
-     * @param pendingPrintTasks the list of pending {@link PrintTask}s
+     * @param pendingPrintTasks the queue of pending {@link PrintTask}s, in priority order
      * @param freeSpools       the list of free {@link Spool}s available for use
      * @param messages         the list of messages to append spool change instructions
      * @return the matching {@link PrintTask}, or {@code null} if no suitable task is found
      */
     private PrintTask findTaskForFreeSpools(
-            Printer printer, List<PrintTask> pendingPrintTasks, List<Spool> freeSpools, List<String> messages
+            Printer printer, PrintTaskQueue pendingPrintTasks, List<Spool> freeSpools, List<String> messages
     ) {
-        for (PrintTask printTask : pendingPrintTasks) {
-            if (printer.printFits(printTask.getPrint()) && printer.getTask() == null) {
-                if (handleSpoolChange(printer, printTask, freeSpools, messages)) {
-                    return printTask;
+        if (printer.getTask() != null) {
+            return null;
+        }
+        Comparator<PrintTask> order = pendingPrintTasks.comparator();
+        PrintTask chosenTask = null;
+        PrintTask shortTask = null;
+        for (ColorRun run : pendingPrintTasks.getRuns()) {
+            Collection<PrintTask> entries = pendingPrintTasks.getRunEntries(run);
+            PrintTask first = entries.iterator().next();
+            if (chosenTask != null && order.compare(first, chosenTask) >= 0) {
+                continue;
+            }
+            if (checkPrinterRules(printer, first) != EvaluationResult.ACCEPTED
+                    || !spoolsOfEveryColor(freeSpools, first, printer)) {
+                continue;
+            }
+            for (PrintTask printTask : entries) {
+                if (chosenTask != null && order.compare(printTask, chosenTask) >= 0) {
+                    break;
+                }
+                TaskEvaluationEvent event = SchedulerEvents.beginEvaluation();
+                EvaluationResult result;
+                if (!printer.printFits(printTask.getPrint())) {
+                    result = EvaluationResult.PRINT_DOES_NOT_FIT;
+                } else if (canChangeSpools(printer, printTask, freeSpools)) {
+                    result = EvaluationResult.ACCEPTED;
+                } else {
+                    result = EvaluationResult.INSUFFICIENT_LENGTH;
+                }
+                SchedulerEvents.endEvaluation(event, this, printer, printTask, result);
+                if (result == EvaluationResult.ACCEPTED) {
+                    chosenTask = printTask;
+                    break;
+                }
+                if (result == EvaluationResult.INSUFFICIENT_LENGTH) {
+                    shortTask = first(order, shortTask, printTask);
                 }
             }
         }
-        return null;
+        noteShortSpools(order, shortTask, chosenTask);
+        if (chosenTask != null) {
+            handleSpoolChange(printer, chosenTask, freeSpools, messages);
+        }
+        return chosenTask;
     }
 
     /**
-     * Checks if a print task matches the printer and its loaded spools.
+     * Notes a task whose spools are too short if it comes before the chosen task, which means it would
+     * have been started on color alone.
      *
-     * @param printer   the {@link Printer} for which the task is being checked
-     * @param printTask the {@link PrintTask} being checked
-     * @param spools    the list of {@link Spool}s currently loaded in the printer
-     * @return {@code true} if the task matches the printer and spools; {@code false} otherwise
+     * @param order      the order of the queue
+     * @param shortTask  the first task whose spools are too short, or {@code null}
+     * @param chosenTask the task chosen, or {@code null}
      */
-    private boolean taskMatchesPrinterAndSpools(Printer printer, PrintTask printTask, List<Spool> spools) {
-        if (printer.isHoused()) {
-            return matchesHousedPrinter(printTask) && matchesSpoolsForHousedPrinter(printTask, spools);
-        } else if (printer instanceof MultiColor) {
-            return matchesMultiColorPrinter((MultiColor) printer, printTask)
-                    && matchesSpoolsForMultiColorPrinter(printTask, spools);
-        } else {
-            return matchesStandardFDM(printTask) && matchesSpoolsForStandardFDM(printTask, spools);
+    private void noteShortSpools(Comparator<PrintTask> order, PrintTask shortTask, PrintTask chosenTask) {
+        if (shortTask != null && (chosenTask == null || order.compare(shortTask, chosenTask) < 0)) {
+            noteShortSpools(shortTask);
         }
     }
+
+    /**
+     * Gets the task of two that comes first in the queue.
+     *
+     * @param order the order of the queue
+     * @param first a task, or {@code null}
+     * @param other another task
+     * @return the task that comes first
+     */
+    private static PrintTask first(Comparator<PrintTask> order, PrintTask first, PrintTask other) {
+        return first == null || order.compare(other, first) < 0 ? other : first;
+    }
 }
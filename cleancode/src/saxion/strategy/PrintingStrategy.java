@@ -1,6 +1,7 @@
 package saxion.strategy;
 
 import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
 import saxion.models.Spool;
 import saxion.printers.Printer;
 
@@ -16,14 +17,14 @@ public interface PrintingStrategy {
      * Selects a print task for the specified printer based on the strategy's logic.
      *
      * @param printer          the {@link Printer} for which a print task is being selected
-     * @param pendingPrintTasks the list of pending {@link PrintTask}s
+     * @param pendingPrintTasks the queue of pending {@link PrintTask}s, in priority order
      * @param printers         the list of all available printers
      * @param freeSpools       the list of free {@link Spool}s available for use
      * @return a string describing the selected print task and its assignment, or {@code null} if no task was selected
      */
     String selectPrintTask(
             Printer printer,
-            List<PrintTask> pendingPrintTasks,
+            PrintTaskQueue pendingPrintTasks,
             List<Printer> printers,
             List<Spool> freeSpools
     );
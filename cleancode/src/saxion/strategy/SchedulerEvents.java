@@ -0,0 +1,99 @@
+package saxion.strategy;
+
+import jdk.jfr.EventType;
+import saxion.models.PrintTask;
+import saxion.printers.Printer;
+
+/**
+ * Emits the Flight Recorder events of the strategies. An event is only created when its type is
+ * enabled in a running recording, so the strategies neither allocate nor fill in fields otherwise.
+ */
+final class SchedulerEvents {
+
+    /** The type of {@link TaskEvaluationEvent}. */
+    private static final EventType EVALUATION = EventType.getEventType(TaskEvaluationEvent.class);
+
+    /** The type of {@link TaskAssignmentEvent}. */
+    private static final EventType ASSIGNMENT = EventType.getEventType(TaskAssignmentEvent.class);
+
+    private SchedulerEvents() {
+    }
+
+    /**
+     * Starts timing the evaluation of a task.
+     *
+     * @return the started event, or {@code null} if evaluation events are not recorded
+     */
+    static TaskEvaluationEvent beginEvaluation() {
+        if (!EVALUATION.isEnabled()) {
+            return null;
+        }
+        TaskEvaluationEvent event = new TaskEvaluationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits the evaluation of a task.
+     *
+     * @param event    the event returned by {@link #beginEvaluation()}, may be {@code null}
+     * @param strategy the strategy that evaluated the task
+     * @param printer  the {@link Printer} the task was evaluated for
+     * @param task     the evaluated {@link PrintTask}
+     * @param result   the {@link EvaluationResult}
+     */
+    static void endEvaluation(TaskEvaluationEvent event, PrintingStrategy strategy, Printer printer,
+                              PrintTask task, EvaluationResult result) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.strategy = strategy.getClass().getSimpleName();
+            event.printerId = printer.getId();
+            event.taskId = task.getId();
+            event.print = task.getPrint().getName();
+            event.result = result.name();
+            event.commit();
+        }
+    }
+
+    /**
+     * Starts timing the selection of a task for a printer.
+     *
+     * @return the started event, or {@code null} if assignment events are not recorded
+     */
+    static TaskAssignmentEvent beginAssignment() {
+        if (!ASSIGNMENT.isEnabled()) {
+            return null;
+        }
+        TaskAssignmentEvent event = new TaskAssignmentEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits the assignment of a task. Nothing is committed if no task was assigned.
+     *
+     * @param event        the event returned by {@link #beginAssignment()}, may be {@code null}
+     * @param strategy     the strategy that assigned the task
+     * @param printer      the {@link Printer} the task was assigned to
+     * @param task         the assigned {@link PrintTask}, or {@code null}
+     * @param spoolChanges the number of spool changes needed for the task
+     */
+    static void endAssignment(TaskAssignmentEvent event, PrintingStrategy strategy, Printer printer,
+                              PrintTask task, int spoolChanges) {
+        if (event == null || task == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.strategy = strategy.getClass().getSimpleName();
+            event.printerId = printer.getId();
+            event.taskId = task.getId();
+            event.print = task.getPrint().getName();
+            event.spoolChanges = spoolChanges;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package saxion.strategy;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for the assignment of a task to a printer by a strategy.
+ * Its duration covers the whole selection, including every evaluation.
+ */
+@Name("saxion.TaskAssignment")
+@Label("Task Assignment")
+@Category({"Print Farm", "Scheduler"})
+@Description("A strategy assigned a pending task to a free printer")
+@StackTrace(false)
+class TaskAssignmentEvent extends jdk.jfr.Event {
+
+    @Label("Strategy")
+    String strategy;
+
+    @Label("Printer ID")
+    int printerId;
+
+    @Label("Task ID")
+    long taskId;
+
+    @Label("Print")
+    String print;
+
+    @Label("Spool Changes")
+    int spoolChanges;
+}
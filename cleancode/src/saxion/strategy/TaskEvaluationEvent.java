@@ -0,0 +1,34 @@
+package saxion.strategy;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for the evaluation of one pending task for a printer by a strategy.
+ */
+@Name("saxion.TaskEvaluation")
+@Label("Task Evaluation")
+@Category({"Print Farm", "Scheduler"})
+@Description("A pending task was evaluated for a free printer")
+@StackTrace(false)
+class TaskEvaluationEvent extends jdk.jfr.Event {
+
+    @Label("Strategy")
+    String strategy;
+
+    @Label("Printer ID")
+    int printerId;
+
+    @Label("Task ID")
+    long taskId;
+
+    @Label("Print")
+    String print;
+
+    @Label("Result")
+    @Description("Why the task was accepted or skipped")
+    String result;
+}
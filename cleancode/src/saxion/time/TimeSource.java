@@ -0,0 +1,35 @@
+package saxion.time;
+
+/**
+ * Source of the current time used by the scheduler and its observers.
+ * The system implementation reads the real clocks; a simulation can provide virtual time instead.
+ */
+public interface TimeSource {
+
+    /** The time source backed by the system clocks. */
+    TimeSource SYSTEM = new TimeSource() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * Gets the current wall-clock time.
+     *
+     * @return the milliseconds since the epoch
+     */
+    long currentTimeMillis();
+
+    /**
+     * Gets the current value of a monotonic clock, only meaningful for measuring elapsed time.
+     *
+     * @return the current monotonic time in nanoseconds
+     */
+    long nanoTime();
+}
@@ -0,0 +1,164 @@
+package tests;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import saxion.api.ApiServer;
+import saxion.facade.Facade;
+import saxion.facade.ListingFilter;
+import saxion.facade.PrintDTO;
+import saxion.facade.SpoolDTO;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApiServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private ApiServer server;
+
+    private String print;
+
+    private String color;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Facade facade = new Facade();
+        facade.readData(new String[0]);
+        server = new ApiServer(0, facade);
+        print = facade.getPrints(ListingFilter.NONE, null, 1000).items().stream()
+                .filter(candidate -> candidate.filamentLength().size() == 1)
+                .map(PrintDTO::name).findFirst().orElseThrow();
+        SpoolDTO spool = facade.getSpools(ListingFilter.NONE, null, 1).items().get(0);
+        color = spool.color();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> send(String method, String path, String body)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static JSONObject json(HttpResponse<String> response) throws ParseException {
+        return (JSONObject) new JSONParser().parse(response.body());
+    }
+
+    private static String error(HttpResponse<String> response) throws ParseException {
+        return (String) json(response).get("error");
+    }
+
+    private String task(String print, String filamentType, String members) {
+        return "{\"print\":\"" + JSONObject.escape(print) + "\",\"filamentType\":\"" + filamentType
+                + "\",\"colors\":[\"" + JSONObject.escape(color) + "\"]" + members + "}";
+    }
+
+    private String task(String members) {
+        return task(print, "pla", members);
+    }
+
+    @Test
+    void badBodiesAreRejected() throws IOException, InterruptedException, ParseException {
+        HttpResponse<String> malformed = send("POST", "/api/tasks", "{\"print\":");
+        HttpResponse<String> array = send("POST", "/api/tasks", "[1]");
+        HttpResponse<String> noPrint = send("POST", "/api/tasks", "{\"filamentType\":\"PLA\",\"colors\":[]}");
+        HttpResponse<String> noColors = send("POST", "/api/tasks", "{\"print\":\"x\",\"filamentType\":\"PLA\"}");
+        HttpResponse<String> unknownType = send("POST", "/api/tasks", task(print, "wood", ""));
+        HttpResponse<String> unknownPrint = send("POST", "/api/tasks", task("Nothing", "PLA", ""));
+
+        assertEquals(400, malformed.statusCode());
+        assertTrue(error(malformed).startsWith("Malformed JSON"));
+        assertEquals("The body must be a JSON object", error(array));
+        assertEquals("Missing string: print", error(noPrint));
+        assertEquals("Missing array: colors", error(noColors));
+        assertEquals("Unknown filament type: wood", error(unknownType));
+        assertEquals(400, unknownPrint.statusCode());
+        assertEquals("Print not found", error(unknownPrint));
+    }
+
+    @Test
+    void badQueriesAreRejected() throws IOException, InterruptedException, ParseException {
+        HttpResponse<String> limit = send("GET", "/api/tasks?limit=ten", null);
+        HttpResponse<String> unknown = send("GET", "/api/spools?colour=Red", null);
+
+        assertEquals(400, limit.statusCode());
+        assertEquals("limit must be a whole number: ten", error(limit));
+        assertEquals("Unknown query parameter: colour", error(unknown));
+    }
+
+    @Test
+    void unknownIdsAndRoutesAreAnswered() throws IOException, InterruptedException, ParseException {
+        HttpResponse<String> task = send("PUT", "/api/tasks/999999999/priority", "{\"priority\":1}");
+        HttpResponse<String> taskId = send("PUT", "/api/tasks/first/priority", "{\"priority\":1}");
+        HttpResponse<String> printer = send("POST", "/api/printers/999/complete", null);
+        HttpResponse<String> printerId = send("POST", "/api/printers/first/fail", null);
+        HttpResponse<String> route = send("GET", "/api/nothing", null);
+        HttpResponse<String> method = send("GET", "/api/printers/1/complete", null);
+
+        assertEquals(400, task.statusCode());
+        assertEquals("Task 999999999 is not pending", error(task));
+        assertEquals("Invalid task ID: first", error(taskId));
+        assertEquals(409, printer.statusCode());
+        assertEquals("Cannot find a running task on printer with ID 999", error(printer));
+        assertEquals(400, printerId.statusCode());
+        assertEquals("Invalid printer ID: first", error(printerId));
+        assertEquals(404, route.statusCode());
+        assertEquals(405, method.statusCode());
+    }
+
+    @Test
+    void priorityAndDeadlineAreParsed() throws IOException, InterruptedException, ParseException {
+        HttpResponse<String> plain = send("POST", "/api/tasks", task(""));
+        HttpResponse<String> urgent = send("POST", "/api/tasks", task(",\"priority\":-3,\"deadline\":4102444800000"));
+        long id = (Long) json(plain).get("id");
+        HttpResponse<String> moved = send("PUT", "/api/tasks/" + id + "/priority", "{\"priority\":7}");
+
+        assertEquals(201, plain.statusCode());
+        assertEquals(0L, json(plain).get("priority"));
+        assertEquals(null, json(plain).get("deadline"));
+        assertEquals(-3L, json(urgent).get("priority"));
+        assertEquals(4102444800000L, json(urgent).get("deadline"));
+        assertEquals(200, moved.statusCode());
+        assertEquals(7L, json(moved).get("priority"));
+        for (String members : List.of(",\"priority\":2147483648", ",\"priority\":1.5", ",\"priority\":\"1\"")) {
+            assertEquals("Missing whole number: priority", error(send("POST", "/api/tasks", task(members))));
+        }
+        assertEquals("Missing whole number: deadline",
+                error(send("POST", "/api/tasks", task(",\"deadline\":\"tomorrow\""))));
+        assertEquals("Missing whole number: priority",
+                error(send("PUT", "/api/tasks/" + id + "/priority", "{}")));
+    }
+
+    @Test
+    void errorMessagesAreEscaped() throws IOException, InterruptedException, ParseException {
+        String color = "Re\"d\\ \n\r\t\u0001 \u00e9";
+        JSONObject body = new JSONObject();
+        body.put("print", print);
+        body.put("filamentType", "PLA");
+        body.put("colors", List.of(color));
+
+        HttpResponse<String> response = send("POST", "/api/tasks", body.toJSONString());
+
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().contains("\\u0001"));
+        assertEquals("Color " + color + " (PLA) not found", error(response));
+    }
+}
@@ -0,0 +1,136 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.models.Spool;
+import saxion.printers.MultiColor;
+import saxion.printers.Printer;
+import saxion.printers.StandardFDM;
+import saxion.strategy.ColorRunBatching;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColorRunBatchingTest {
+
+    private final List<PrintTask> lookedUp = new ArrayList<>();
+
+    private final ColorRunBatching strategy = new ColorRunBatching() {
+        @Override
+        protected Spool findSpoolWithFilament(List<Spool> freeSpools, PrintTask printTask, int slot) {
+            lookedUp.add(printTask);
+            return super.findSpoolWithFilament(freeSpools, printTask, slot);
+        }
+    };
+
+    private final PrintTaskQueue queue = new PrintTaskQueue();
+
+    private final List<Spool> freeSpools = new ArrayList<>();
+
+    private static StandardFDM printer(int id) {
+        return new StandardFDM(id, "Ender " + id, "Creality", 100, 100, 100);
+    }
+
+    private Spool free(String color, double length) {
+        Spool spool = new Spool(freeSpools.size() + 1, color, FilamentType.PLA, length);
+        freeSpools.add(spool);
+        return spool;
+    }
+
+    private PrintTask queued(int priority, List<String> colors, Double... lengths) {
+        Print print = new Print("Part", 10, 10, 10, new ArrayList<>(List.of(lengths)), 30);
+        PrintTask task = new PrintTask(print, colors, FilamentType.PLA, priority);
+        queue.add(task);
+        return task;
+    }
+
+    private PrintTask queued(String color) {
+        return queued(0, List.of(color), 10.0);
+    }
+
+    private PrintTask select(Printer printer) {
+        printer.setTask(null);
+        strategy.selectPrintTask(printer, queue, List.of(printer), freeSpools);
+        return printer.getTask();
+    }
+
+    @Test
+    void aSecondPrinterTakesARunNoOtherPrinterDrains() {
+        free("Red", 100);
+        free("Red", 100);
+        free("Blue", 100);
+        PrintTask red = queued("Red");
+        queued("Red");
+        PrintTask blue = queued("Blue");
+
+        assertSame(red, select(printer(1)));
+        assertSame(blue, select(printer(2)));
+    }
+
+    @Test
+    void aRunIsHandedOverOnceItsPrinterMovesOn() {
+        StandardFDM first = printer(1);
+        free("Red", 100);
+        free("Green", 100);
+        free("Blue", 100);
+        queued("Red");
+        assertEquals("Red", select(first).getColors().get(0));
+        PrintTask green = queued("Green");
+        assertSame(green, select(first));
+        PrintTask red = queued("Red");
+        queued("Blue");
+
+        assertSame(red, select(printer(2)));
+    }
+
+    @Test
+    void aHigherPriorityTaskInterruptsTheRun() {
+        StandardFDM printer = printer(1);
+        free("Red", 100);
+        free("Blue", 100);
+        queued("Red");
+        PrintTask red = queued("Red");
+        assertEquals("Red", select(printer).getColors().get(0));
+        PrintTask urgent = queued(5, List.of("Blue"), 10.0);
+
+        assertSame(urgent, select(printer));
+        assertEquals("Blue", printer.getCurrentSpools().get(0).getColor());
+        assertSame(red, select(printer));
+    }
+
+    @Test
+    void tasksNeedingMoreThanAnUnmatchedOneAreSkipped() {
+        MultiColor printer = new MultiColor(1, "Bambu", "Bambu", false, 250, 250, 250, 4);
+        free("Red", 20);
+        free("Blue", 100);
+        List<String> colors = List.of("Red", "Blue");
+        PrintTask tooLong = queued(0, colors, 50.0, 5.0);
+        PrintTask longer = queued(0, colors, 60.0, 6.0);
+        PrintTask fits = queued(0, colors, 5.0, 50.0);
+
+        assertSame(fits, select(printer));
+        assertTrue(lookedUp.contains(tooLong));
+        assertFalse(lookedUp.contains(longer));
+    }
+
+    @Test
+    void theLongestFreeSpoolIsLoaded() {
+        StandardFDM printer = printer(1);
+        free("Red", 30);
+        Spool longest = free("Red", 100);
+        free("Red", 60);
+        queued("Red");
+
+        select(printer);
+
+        assertEquals(List.of(longest), printer.getCurrentSpools());
+    }
+}
@@ -0,0 +1,93 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.models.Spool;
+import saxion.printers.MultiColor;
+import saxion.strategy.EarliestDeadlineFirst;
+import saxion.time.TimeSource;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EarliestDeadlineFirstTest {
+
+    private static final long NOW = 1_000 * 60_000L;
+
+    private static final TimeSource CLOCK = new TimeSource() {
+        @Override
+        public long currentTimeMillis() {
+            return NOW;
+        }
+
+        @Override
+        public long nanoTime() {
+            return 0;
+        }
+    };
+
+    private final EarliestDeadlineFirst strategy = new EarliestDeadlineFirst(CLOCK, 60 * 60_000L);
+
+    private final PrintTaskQueue queue = new PrintTaskQueue();
+
+    private final List<Spool> freeSpools = new ArrayList<>(List.of(new Spool(2, "Blue", FilamentType.PLA, 100)));
+
+    private MultiColor printer() {
+        MultiColor printer = new MultiColor(1, "Prusa", "Prusa", false, 250, 210, 200, 4);
+        printer.setCurrentSpools(List.of(new Spool(1, "Red", FilamentType.PLA, 100)));
+        return printer;
+    }
+
+    private PrintTask task(String color, int priority, long deadlineMillis) {
+        Print print = new Print("Vase", 50, 50, 50, new ArrayList<>(List.of(10.0)), 30);
+        PrintTask task = new PrintTask(print, List.of(color), FilamentType.PLA, priority, deadlineMillis);
+        queue.add(task);
+        return task;
+    }
+
+    @Test
+    void urgentTaskGoesBeforeTheLoadedSpools() {
+        task("Red", 5, PrintTask.NO_DEADLINE);
+        PrintTask urgent = task("Blue", 0, NOW + 60 * 60_000L);
+        MultiColor printer = printer();
+
+        strategy.selectPrintTask(printer, queue, List.of(printer), freeSpools);
+
+        assertSame(urgent, printer.getTask());
+    }
+
+    @Test
+    void slackKeepsTheLoadedSpools() {
+        task("Blue", 5, NOW + 10 * 60 * 60_000L);
+        PrintTask loaded = task("Red", 0, PrintTask.NO_DEADLINE);
+        MultiColor printer = printer();
+
+        strategy.selectPrintTask(printer, queue, List.of(printer), freeSpools);
+
+        assertSame(loaded, printer.getTask());
+    }
+
+    @Test
+    void lateTaskDoesNotPushBackOthers() {
+        task("Blue", 0, NOW);
+        PrintTask loaded = task("Red", 0, PrintTask.NO_DEADLINE);
+        MultiColor printer = printer();
+
+        strategy.selectPrintTask(printer, queue, List.of(printer), freeSpools);
+
+        assertSame(loaded, printer.getTask());
+        assertEquals(1, freeSpools.size());
+    }
+
+    @Test
+    void rejectsANegativeMargin() {
+        assertThrows(IllegalArgumentException.class, () -> new EarliestDeadlineFirst(CLOCK, -1));
+    }
+}
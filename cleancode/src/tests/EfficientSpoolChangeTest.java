@@ -0,0 +1,79 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.models.Spool;
+import saxion.printers.MultiColor;
+import saxion.strategy.EfficientSpoolChange;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EfficientSpoolChangeTest {
+
+    private MultiColor printer(Spool... spools) {
+        MultiColor printer = new MultiColor(1, "Prusa", "Prusa", false, 250, 210, 200, 4);
+        printer.setCurrentSpools(List.of(spools));
+        return printer;
+    }
+
+    private String select(MultiColor printer, List<Spool> freeSpools, double... lengths) {
+        ArrayList<Double> filament = new ArrayList<>();
+        for (double length : lengths) {
+            filament.add(length);
+        }
+        PrintTaskQueue queue = new PrintTaskQueue();
+        queue.add(new PrintTask(new Print("Vase", 50, 50, 50, filament, 60), List.of("Red", "Blue"),
+                FilamentType.PLA));
+        return new EfficientSpoolChange().selectPrintTask(printer, queue, List.of(printer), freeSpools);
+    }
+
+    @Test
+    void takesTheSmallestFreeSpoolOfEveryColor() {
+        Spool bigRed = new Spool(1, "Red", FilamentType.PLA, 100);
+        Spool smallRed = new Spool(2, "Red", FilamentType.PLA, 20);
+        Spool tooShortRed = new Spool(3, "Red", FilamentType.PLA, 5);
+        Spool blue = new Spool(4, "Blue", FilamentType.PLA, 100);
+        MultiColor printer = printer();
+        List<Spool> freeSpools = new ArrayList<>(List.of(bigRed, tooShortRed, smallRed, blue));
+
+        select(printer, freeSpools, 10, 10);
+
+        assertEquals(List.of(smallRed, blue), printer.getCurrentSpools());
+        assertEquals(List.of(bigRed, tooShortRed), freeSpools);
+    }
+
+    @Test
+    void checksEveryColorAgainstItsOwnSpool() {
+        Spool red = new Spool(1, "Red", FilamentType.PLA, 30);
+        Spool blue = new Spool(2, "Blue", FilamentType.PLA, 5);
+        MultiColor printer = printer();
+
+        select(printer, new ArrayList<>(List.of(red, blue)), 10, 10);
+
+        assertNull(printer.getTask());
+        assertTrue(printer.getCurrentSpools().isEmpty());
+    }
+
+    @Test
+    void startsOnLoadedSpoolsWhenNoFreeSpoolServes() {
+        Spool blue = new Spool(1, "Blue", FilamentType.PLA, 100);
+        Spool red = new Spool(2, "Red", FilamentType.PLA, 100);
+        MultiColor printer = printer(blue, red);
+        List<Spool> freeSpools = new ArrayList<>();
+
+        String messages = select(printer, freeSpools, 10, 10);
+
+        assertEquals("Vase", printer.getTask().getPrint().getName());
+        assertEquals(List.of(red, blue), printer.getCurrentSpools());
+        assertTrue(freeSpools.isEmpty());
+        assertTrue(messages.contains("- Spool move: Please move spool 2"), messages);
+    }
+}
@@ -0,0 +1,107 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import saxion.api.EventStream;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.Spool;
+import saxion.printers.StandardFDM;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventStreamTest {
+
+    private final EventStream events = new EventStream();
+
+    private final StandardFDM printer = new StandardFDM(7, "Ender", "Creality", 100, 100, 100);
+
+    private static PrintTask task() {
+        Print print = new Print("Part", 10, 10, 10, new ArrayList<>(List.of(10.0)), 30);
+        return new PrintTask(print, List.of("Red"), FilamentType.PLA);
+    }
+
+    private static int count(String frames, String text) {
+        int count = 0;
+        for (int i = frames.indexOf(text); i >= 0; i = frames.indexOf(text, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    void aSlowClientGetsTheLatestEventPerTask() throws InterruptedException {
+        EventStream.Subscriber subscriber = events.subscribe();
+        PrintTask task = task();
+        PrintTask other = task();
+
+        events.taskAdded(task);
+        events.taskAdded(other);
+        events.taskStarted(printer, task);
+
+        String frames = subscriber.take(0);
+        assertEquals(2, count(frames, "\n\n"));
+        assertEquals(1, count(frames, "event: queued"));
+        assertEquals(1, count(frames, "event: started"));
+        assertTrue(frames.indexOf("event: queued") < frames.indexOf("event: started"));
+        assertEquals("", subscriber.take(0));
+    }
+
+    @Test
+    void replacedSpoolEventsAddUpTheirChanges() throws InterruptedException {
+        EventStream.Subscriber subscriber = events.subscribe();
+        Spool red = new Spool(1, "Red", FilamentType.PLA, 100);
+        Spool blue = new Spool(2, "Blue", FilamentType.PLA, 100);
+
+        events.spoolsChanged(printer, List.of(red), 1);
+        events.spoolsChanged(printer, List.of(blue), 2);
+
+        String frames = subscriber.take(0);
+        assertEquals(1, count(frames, "event: spools"));
+        assertTrue(frames.contains("\"changes\":3"));
+        assertTrue(frames.contains("\"id\":2"));
+        assertFalse(frames.contains("\"id\":1,"));
+
+        events.spoolsChanged(printer, List.of(red), 1);
+        assertTrue(subscriber.take(0).contains("\"changes\":1"));
+    }
+
+    @Test
+    void anOverflowingClientIsToldToResync() throws InterruptedException {
+        EventStream.Subscriber subscriber = events.subscribe();
+        for (int i = 0; i <= EventStream.MAX_PENDING; i++) {
+            events.taskAdded(task());
+        }
+        events.taskAdded(task());
+
+        assertEquals("event: resync\ndata: {}\n\n", subscriber.take(0));
+
+        events.taskAdded(task());
+        String frames = subscriber.take(0);
+        assertEquals(1, count(frames, "event: queued"));
+        assertFalse(frames.contains("resync"));
+    }
+
+    @Test
+    void subscribersAreLimited() throws InterruptedException {
+        List<EventStream.Subscriber> subscribers = new ArrayList<>();
+        for (int i = 0; i < EventStream.MAX_SUBSCRIBERS; i++) {
+            subscribers.add(events.subscribe());
+        }
+
+        assertThrows(IllegalStateException.class, events::subscribe);
+
+        events.unsubscribe(subscribers.get(0));
+        assertNull(subscribers.get(0).take(0));
+        EventStream.Subscriber next = events.subscribe();
+        events.close();
+        assertNull(next.take(0));
+    }
+}
@@ -0,0 +1,86 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import saxion.metrics.Histogram;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramTest {
+
+    @Test
+    void emptyHistogramReportsZero() {
+        Histogram histogram = new Histogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 64; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(32, histogram.getValueAtPercentile(50));
+        assertEquals(63, histogram.getValueAtPercentile(98));
+        assertEquals(64, histogram.getValueAtPercentile(100));
+        assertEquals(64 * 65 / 2, histogram.getSum());
+    }
+
+    @Test
+    void largeValuesStayWithinTheBucketError() {
+        for (long value = 100; value < 1L << 39; value = value * 7 + 3) {
+            Histogram histogram = new Histogram();
+            histogram.record(value);
+            histogram.record(Long.MAX_VALUE);
+
+            long reported = histogram.getValueAtPercentile(50);
+
+            assertTrue(reported >= value, value + " reported as " + reported);
+            assertTrue(reported <= value + value / 32, value + " reported as " + reported);
+        }
+    }
+
+    @Test
+    void percentileNeverExceedsTheMaximum() {
+        Histogram histogram = new Histogram();
+        histogram.record(1_000_001);
+
+        assertEquals(1_000_001, histogram.getValueAtPercentile(100));
+        assertEquals(1_000_001, histogram.getValueAtPercentile(1));
+    }
+
+    @Test
+    void valuesOutsideTheRangeAreClamped() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        histogram.record(1L << 50);
+
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals((1L << 40) - 1, histogram.getValueAtPercentile(100));
+        assertEquals(1L << 50, histogram.getMax());
+    }
+
+    @Test
+    void mergedHistogramMatchesOneRecordingEverything() {
+        Histogram first = new Histogram();
+        Histogram second = new Histogram();
+        Histogram all = new Histogram();
+        for (long value = 1; value < 10_000_000; value = value * 3 + 1) {
+            (value % 2 == 0 ? first : second).record(value);
+            all.record(value);
+        }
+
+        first.add(second);
+
+        assertEquals(all.getCount(), first.getCount());
+        assertEquals(all.getSum(), first.getSum());
+        assertEquals(all.getMax(), first.getMax());
+        for (double percentile : new double[]{1, 25, 50, 90, 99, 100}) {
+            assertEquals(all.getValueAtPercentile(percentile), first.getValueAtPercentile(percentile));
+        }
+    }
+}
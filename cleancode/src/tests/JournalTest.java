@@ -0,0 +1,144 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import saxion.journal.Journal;
+import saxion.journal.JournalVisitor;
+import saxion.types.FilamentType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JournalTest {
+
+    private static final List<String> EVERY_ENTRY = List.of(
+            "added 7 Vase PETG [Red, Blue] 2 1000",
+            "priority 7 5",
+            "started 1 7",
+            "packed 1 8",
+            "spools 1 2 [4, 9]",
+            "finished 1 7 false");
+
+    @TempDir
+    Path directory;
+
+    private static class Recorder implements JournalVisitor {
+
+        private final List<String> entries = new ArrayList<>();
+
+        @Override
+        public void taskAdded(long taskId, String printName, FilamentType filamentType, List<String> colors,
+                              int priority, long deadlineMillis) {
+            entries.add("added " + taskId + " " + printName + " " + filamentType + " " + colors + " " + priority
+                    + " " + deadlineMillis);
+        }
+
+        @Override
+        public void taskStarted(int printerId, long taskId) {
+            entries.add("started " + printerId + " " + taskId);
+        }
+
+        @Override
+        public void taskPacked(int printerId, long taskId) {
+            entries.add("packed " + printerId + " " + taskId);
+        }
+
+        @Override
+        public void spoolsChanged(int printerId, int changes, int[] spoolIds) {
+            entries.add("spools " + printerId + " " + changes + " " + Arrays.toString(spoolIds));
+        }
+
+        @Override
+        public void taskFinished(int printerId, long taskId, boolean successful) {
+            entries.add("finished " + printerId + " " + taskId + " " + successful);
+        }
+
+        @Override
+        public void taskPriorityChanged(long taskId, int priority) {
+            entries.add("priority " + taskId + " " + priority);
+        }
+    }
+
+    private List<String> replay(Path file) throws IOException {
+        Recorder recorder = new Recorder();
+        Journal.replay(file, recorder);
+        return recorder.entries;
+    }
+
+    private void writeEveryEntry(Journal journal) {
+        journal.taskAdded(7, "Vase", FilamentType.PETG, List.of("Red", "Blue"), 2, 1_000L);
+        journal.taskPriorityChanged(7, 5);
+        journal.taskStarted(1, 7);
+        journal.taskPacked(1, 8);
+        journal.spoolsChanged(1, 2, new int[]{4, 9});
+        journal.taskFinished(1, 7, false);
+    }
+
+    @Test
+    void replaysEveryEntryInOrder() throws IOException {
+        Path file = directory.resolve("journal.log");
+        try (Journal journal = Journal.create(file, null)) {
+            writeEveryEntry(journal);
+        }
+
+        assertEquals(EVERY_ENTRY, replay(file));
+    }
+
+    @Test
+    void reopenedJournalAppendsAfterTheLastEntry() throws IOException {
+        Path file = directory.resolve("journal.log");
+        try (Journal journal = Journal.create(file, null)) {
+            journal.taskStarted(1, 1);
+        }
+        Recorder recorder = new Recorder();
+        try (Journal journal = Journal.open(file, recorder)) {
+            journal.taskStarted(2, 2);
+        }
+
+        assertEquals(List.of("started 1 1"), recorder.entries);
+        assertEquals(List.of("started 1 1", "started 2 2"), replay(file));
+    }
+
+    @Test
+    void replayStopsAtACorruptEntry() throws IOException {
+        Path file = directory.resolve("journal.log");
+        try (Journal journal = Journal.create(file, null)) {
+            journal.taskStarted(1, 1);
+            journal.taskStarted(2, 2);
+        }
+        int entrySize = Integer.BYTES + 1 + Integer.BYTES + Long.BYTES + Integer.BYTES;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), entrySize + Integer.BYTES + 2);
+        }
+
+        assertEquals(List.of("started 1 1"), replay(file));
+
+        Recorder recorder = new Recorder();
+        try (Journal journal = Journal.open(file, recorder)) {
+            journal.taskStarted(3, 3);
+        }
+        assertEquals(List.of("started 1 1", "started 3 3"), replay(file));
+    }
+
+    @Test
+    void continuedJournalStartsEmpty() throws IOException {
+        Path first = directory.resolve("journal-1.log");
+        Path second = directory.resolve("journal-2.log");
+        Journal journal = Journal.create(first, null);
+        journal.taskStarted(1, 1);
+        Journal next = Journal.create(second, journal);
+        next.taskStarted(2, 2);
+        next.close();
+
+        assertEquals(List.of("started 1 1"), replay(first));
+        assertEquals(List.of("started 2 2"), replay(second));
+    }
+}
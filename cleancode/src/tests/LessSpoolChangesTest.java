@@ -0,0 +1,126 @@
+package tests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.models.Spool;
+import saxion.printers.StandardFDM;
+import saxion.strategy.LessSpoolChanges;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class LessSpoolChangesTest {
+
+    private final LessSpoolChanges strategy = new LessSpoolChanges();
+
+    private final PrintTaskQueue queue = new PrintTaskQueue();
+
+    private int preventedStarts;
+
+    @BeforeEach
+    void setUp() {
+        strategy.addObserver(event -> preventedStarts += event.getPreventedStarts());
+    }
+
+    private static StandardFDM printer(Spool... spools) {
+        StandardFDM printer = new StandardFDM(1, "Ender", "Creality", 100, 100, 100);
+        if (spools.length > 0) {
+            printer.setCurrentSpools(List.of(spools));
+        }
+        return printer;
+    }
+
+    private PrintTask queued(String color, double length, int size) {
+        Print print = new Print("Part", size, size, size, new ArrayList<>(List.of(length)), 30);
+        PrintTask task = new PrintTask(print, List.of(color), FilamentType.PLA);
+        queue.add(task);
+        return task;
+    }
+
+    private PrintTask select(StandardFDM printer, List<Spool> freeSpools) {
+        strategy.selectPrintTask(printer, queue, List.of(printer), freeSpools);
+        return printer.getTask();
+    }
+
+    @Test
+    void shortSpoolsPreventAStartOnceUntilTheTaskStarts() {
+        Spool red = new Spool(1, "Red", FilamentType.PLA, 5);
+        StandardFDM printer = printer(red);
+        PrintTask task = queued("Red", 10, 10);
+
+        select(printer, new ArrayList<>());
+        select(printer, new ArrayList<>());
+        assertEquals(1, preventedStarts);
+
+        task.markStarted(0);
+        select(printer, new ArrayList<>());
+        assertEquals(2, preventedStarts);
+    }
+
+    @Test
+    void aShortTaskStartedAfterASpoolChangeIsNotPrevented() {
+        StandardFDM printer = printer(new Spool(1, "Red", FilamentType.PLA, 5));
+        Spool fresh = new Spool(2, "Red", FilamentType.PLA, 100);
+        PrintTask task = queued("Red", 10, 10);
+
+        assertSame(task, select(printer, new ArrayList<>(List.of(fresh))));
+        assertEquals(List.of(fresh), printer.getCurrentSpools());
+        assertEquals(0, preventedStarts);
+    }
+
+    @Test
+    void onlyTheTaskChosenOnColorCounts() {
+        StandardFDM printer = printer(new Spool(1, "Red", FilamentType.PLA, 5));
+        queued("Red", 10, 10);
+        queued("Red", 20, 10);
+        PrintTask small = queued("Red", 2, 10);
+
+        assertSame(small, select(printer, new ArrayList<>()));
+        assertEquals(1, preventedStarts);
+    }
+
+    @Test
+    void tasksAfterTheStartedOneAreNotPrevented() {
+        StandardFDM printer = printer(new Spool(1, "Red", FilamentType.PLA, 5));
+        PrintTask small = queued("Red", 2, 10);
+        queued("Red", 10, 10);
+
+        assertSame(small, select(printer, new ArrayList<>()));
+        assertEquals(0, preventedStarts);
+    }
+
+    @Test
+    void freeSpoolsServeTheFirstTaskInQueueOrder() {
+        StandardFDM printer = printer();
+        queued("Green", 10, 10);
+        queued("Red", 10, 200);
+        PrintTask blue = queued("Blue", 10, 10);
+        queued("Red", 10, 10);
+        Spool freeBlue = new Spool(1, "Blue", FilamentType.PLA, 100);
+        List<Spool> freeSpools = new ArrayList<>(List.of(new Spool(2, "Red", FilamentType.PLA, 100), freeBlue));
+
+        assertSame(blue, select(printer, freeSpools));
+        assertEquals(List.of(freeBlue), printer.getCurrentSpools());
+    }
+
+    @Test
+    void loadedSpoolsComeBeforeASpoolChange() {
+        Spool red = new Spool(1, "Red", FilamentType.PLA, 100);
+        StandardFDM printer = printer(red);
+        queued("Blue", 10, 10);
+        queued("Red", 10, 200);
+        PrintTask fits = queued("Red", 10, 10);
+
+        assertSame(fits, select(printer, new ArrayList<>(List.of(new Spool(2, "Blue", FilamentType.PLA, 100)))));
+        assertEquals(List.of(red), printer.getCurrentSpools());
+        assertNull(queue.get(fits.getId()));
+    }
+}
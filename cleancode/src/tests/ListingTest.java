@@ -0,0 +1,139 @@
+package tests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import saxion.facade.Facade;
+import saxion.facade.ListingFilter;
+import saxion.facade.Page;
+import saxion.facade.PrintDTO;
+import saxion.facade.PrintTaskDTO;
+import saxion.facade.SpoolDTO;
+import saxion.types.FilamentType;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ListingTest {
+
+    private Facade facade;
+
+    @BeforeEach
+    void setUp() throws FileNotFoundException {
+        facade = new Facade();
+        facade.readData(new String[0]);
+    }
+
+    private interface PageSource<T> {
+        Page<T> page(String cursor);
+    }
+
+    private static <T> List<T> allPages(PageSource<T> source) {
+        List<T> items = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<T> page = source.page(cursor);
+            items.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return items;
+    }
+
+    private static <T, K> List<K> keys(List<T> items, Function<T, K> key) {
+        List<K> keys = new ArrayList<>();
+        for (T item : items) {
+            keys.add(key.apply(item));
+        }
+        return keys;
+    }
+
+    @Test
+    void spoolPagesVisitEverySpoolOnceInIdOrder() {
+        List<SpoolDTO> everything = facade.getSpools(ListingFilter.NONE, null, 1000).items();
+
+        List<SpoolDTO> paged = allPages(cursor -> facade.getSpools(ListingFilter.NONE, cursor, 3));
+
+        assertEquals(keys(everything, SpoolDTO::id), keys(paged, SpoolDTO::id));
+        List<Integer> sorted = new ArrayList<>(keys(everything, SpoolDTO::id));
+        sorted.sort(null);
+        assertEquals(sorted, keys(paged, SpoolDTO::id));
+    }
+
+    @Test
+    void spoolFiltersCombineAndIgnoreCase() {
+        SpoolDTO first = facade.getSpools(ListingFilter.NONE, null, 1).items().get(0);
+        ListingFilter filter = new ListingFilter(first.filamentType(), first.color().toUpperCase(), null, null, null);
+
+        List<SpoolDTO> paged = allPages(cursor -> facade.getSpools(filter, cursor, 2));
+
+        assertFalse(paged.isEmpty());
+        for (SpoolDTO spool : paged) {
+            assertEquals(first.filamentType(), spool.filamentType());
+            assertTrue(spool.color().equalsIgnoreCase(first.color()));
+        }
+    }
+
+    @Test
+    void printSizeRangeMatchesTheLongestEdge() {
+        ListingFilter filter = new ListingFilter(null, null, null, 50, 150);
+        List<PrintDTO> expected = new ArrayList<>();
+        for (PrintDTO print : facade.getPrints(ListingFilter.NONE, null, 1000).items()) {
+            int size = Math.max(print.width(), Math.max(print.length(), print.height()));
+            if (size >= 50 && size <= 150) {
+                expected.add(print);
+            }
+        }
+
+        List<PrintDTO> paged = allPages(cursor -> facade.getPrints(filter, cursor, 2));
+
+        assertEquals(keys(expected, PrintDTO::name), keys(paged, PrintDTO::name));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        Page<SpoolDTO> page = facade.getSpools(ListingFilter.NONE, null, 1000);
+
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void pendingTaskPagesFollowTheQueueAsItChanges() {
+        String print = facade.getPrints(ListingFilter.NONE, null, 1).items().get(0).name();
+        String color = facade.getSpools(new ListingFilter(FilamentType.PLA, null, null, null, null), null, 1)
+                .items().get(0).color();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ids.add(facade.addPrintTask(print, FilamentType.PLA, List.of(color), i % 3, Long.MAX_VALUE).id());
+        }
+        ListingFilter filter = new ListingFilter(FilamentType.PLA, color.toLowerCase(), null, null, null);
+
+        Page<PrintTaskDTO> first = facade.getPendingPrintTasks(filter, null, 4);
+        facade.changeTaskPriority(ids.get(5), 9);
+        long added = facade.addPrintTask(print, FilamentType.PLA, List.of(color), 0, Long.MAX_VALUE).id();
+        Page<PrintTaskDTO> second = facade.getPendingPrintTasks(filter, first.nextCursor(), 4);
+
+        assertEquals(ids.subList(0, 4), keys(first.items(), PrintTaskDTO::id));
+        assertEquals(List.of(ids.get(4), ids.get(5), added), keys(second.items(), PrintTaskDTO::id));
+        assertNull(second.nextCursor());
+        assertTrue(facade.getPendingPrintTasks(new ListingFilter(FilamentType.PETG, null, null, null, null), null, 4)
+                .items().isEmpty());
+    }
+
+    @Test
+    void invalidRequestsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> facade.getSpools(ListingFilter.NONE, "next", 10));
+        assertThrows(IllegalArgumentException.class, () -> facade.getSpools(ListingFilter.NONE, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> facade.getPendingPrintTasks(
+                new ListingFilter(null, null, "StandardFDM", null, null), null, 10));
+        assertThrows(IllegalArgumentException.class, () -> facade.getPrints(
+                new ListingFilter(FilamentType.PLA, null, null, null, null), null, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ListingFilter(null, null, null, 10, 5));
+    }
+}
@@ -0,0 +1,157 @@
+package tests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import saxion.PrintManager;
+import saxion.metrics.FarmMetrics;
+import saxion.metrics.MetricsServer;
+import saxion.metrics.Operation;
+import saxion.metrics.PrometheusExporter;
+import saxion.models.Spool;
+import saxion.printers.Printer;
+import saxion.types.FilamentType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsServerTest {
+
+    private static final Pattern SAMPLE = Pattern.compile(
+            "([a-z_]+)(\\{[a-z_]+=\"(?:[^\"\\\\\\n]|\\\\[\"\\\\n])*\"(?:,[a-z_]+=\"(?:[^\"\\\\\\n]|\\\\[\"\\\\n])*\")*})?"
+                    + " (-?[0-9]+(?:\\.[0-9]+)?(?:E-?[0-9]+)?)");
+
+    private static final Pattern TYPE = Pattern.compile("# TYPE ([a-z_]+) (gauge|counter|summary)");
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private PrintManager printManager;
+
+    private FarmMetrics farmMetrics;
+
+    private MetricsServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        printManager = new PrintManager();
+        printManager.readData(new String[0]);
+        farmMetrics = new FarmMetrics(printManager);
+        printManager.addTaskObserver(farmMetrics);
+        server = new MetricsServer(0, new PrometheusExporter(farmMetrics, printManager.getLatencyMetrics()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> scrape(String method) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/metrics"))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String value(String metrics, String sample) {
+        for (String line : metrics.split("\n")) {
+            if (line.startsWith(sample + " ")) {
+                return line.substring(sample.length() + 1);
+            }
+        }
+        throw new AssertionError("No sample " + sample + " in\n" + metrics);
+    }
+
+    @Test
+    void everyLineFollowsTheTextFormat() throws IOException, InterruptedException {
+        HttpResponse<String> response = scrape("GET");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("text/plain; version=0.0.4; charset=utf-8",
+                response.headers().firstValue("Content-Type").orElseThrow());
+        assertTrue(response.body().endsWith("\n"));
+        Set<String> typed = new HashSet<>();
+        String help = null;
+        for (String line : response.body().split("\n")) {
+            Matcher type = TYPE.matcher(line);
+            if (line.startsWith("# HELP ")) {
+                help = line.split(" ")[2];
+            } else if (type.matches()) {
+                assertEquals(help, type.group(1), line);
+                assertTrue(typed.add(type.group(1)), line);
+            } else {
+                Matcher sample = SAMPLE.matcher(line);
+                assertTrue(sample.matches(), line);
+                String name = sample.group(1).replaceFirst("_(sum|count)$", "");
+                assertTrue(typed.contains(sample.group(1)) || typed.contains(name), line);
+            }
+        }
+    }
+
+    @Test
+    void samplesFollowTheFarm() throws IOException, InterruptedException {
+        String color = printManager.getSpoolHandler().getAvailableColors(1).get(0);
+        String print = printManager.getPrints().get(0).getName();
+        printManager.addNewPrintTask(print, FilamentType.PLA, List.of(color));
+        printManager.addNewPrintTask(print, FilamentType.PLA, List.of(color));
+        printManager.addNewPrintTask(print, FilamentType.PLA, List.of(color));
+        printManager.startPrintQueue();
+        int running = 0;
+        Printer failed = null;
+        for (Printer printer : printManager.getPrinterHandler().getPrinters()) {
+            if (printer.getTask() != null) {
+                running++;
+                failed = printer;
+            }
+        }
+        printManager.finalizeRunningTask(failed.getId(), false);
+
+        String metrics = scrape("GET").body();
+
+        assertEquals(String.valueOf(printManager.getPendingPrintTasks().size()),
+                value(metrics, "printfarm_pending_tasks"));
+        assertEquals(String.valueOf(running - 1), value(metrics, "printfarm_running_printers"));
+        assertEquals("1", value(metrics, "printfarm_prints_failed_total"));
+        assertEquals("0", value(metrics, "printfarm_prints_fulfilled_total"));
+        assertEquals("1", value(metrics,
+                "printfarm_operation_latency_seconds_count{operation=\"finalize_task\"}"));
+        for (Operation operation : Operation.values()) {
+            String label = "{operation=\"" + operation.name().toLowerCase(Locale.ROOT) + "\"";
+            value(metrics, "printfarm_operation_latency_seconds" + label + ",quantile=\"0.99\"}");
+            value(metrics, "printfarm_operation_latency_seconds_sum" + label + "}");
+        }
+    }
+
+    @Test
+    void labelValuesAreEscaped() throws IOException, InterruptedException {
+        printManager.getSpoolHandler().setFreeSpools(new ArrayList<>(List.of(
+                new Spool(1, "Re\"d\\\nx", FilamentType.PETG, 10),
+                new Spool(2, "Re\"d\\\nx", FilamentType.PETG, 5.5))));
+        FarmMetrics escaped = new FarmMetrics(printManager);
+
+        String metrics = new PrometheusExporter(escaped, printManager.getLatencyMetrics()).render();
+
+        assertEquals("15.5", value(metrics,
+                "printfarm_free_filament_length{color=\"Re\\\"d\\\\\\nx\",filament_type=\"PETG\"}"));
+    }
+
+    @Test
+    void onlyScrapesAreAnswered() throws IOException, InterruptedException {
+        HttpResponse<String> response = scrape("POST");
+
+        assertEquals(405, response.statusCode());
+        assertEquals("", response.body());
+    }
+}
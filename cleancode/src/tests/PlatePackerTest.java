@@ -0,0 +1,184 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import saxion.models.PlateTask;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.models.Spool;
+import saxion.planning.PlatePacker;
+import saxion.printers.StandardFDM;
+import saxion.time.TimeSource;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlatePackerTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private static final long NOW = 1_000 * MINUTE;
+
+    private static final TimeSource CLOCK = new TimeSource() {
+        @Override
+        public long currentTimeMillis() {
+            return NOW;
+        }
+
+        @Override
+        public long nanoTime() {
+            return 0;
+        }
+    };
+
+    private final PrintTaskQueue queue = new PrintTaskQueue();
+
+    private final PlatePacker packer = new PlatePacker(CLOCK, 5, PlatePacker.DEFAULT_MAX_PARTS);
+
+    private static StandardFDM printer(double spoolLength) {
+        StandardFDM printer = new StandardFDM(1, "Ender", "Creality", 100, 100, 100);
+        printer.setCurrentSpools(List.of(new Spool(1, "Red", FilamentType.PLA, spoolLength)));
+        return printer;
+    }
+
+    private static PrintTask task(int height, int width, int length, int printTime, String color, long deadline) {
+        Print print = new Print("Part", height, width, length, new ArrayList<>(List.of(10.0)), printTime);
+        return new PrintTask(print, List.of(color), FilamentType.PLA, 0, deadline);
+    }
+
+    private static PrintTask task(int width, int length) {
+        return task(10, width, length, 30, "Red", PrintTask.NO_DEADLINE);
+    }
+
+    private PrintTask queued(PrintTask task) {
+        queue.add(task);
+        return task;
+    }
+
+    private static List<PrintTask> parts(PrintTask packed) {
+        assertTrue(packed instanceof PlateTask);
+        return ((PlateTask) packed).getParts();
+    }
+
+    @Test
+    void packsTheRunNextToTheLead() {
+        PrintTask lead = task(30, 30);
+        PrintTask first = queued(task(30, 30));
+        PrintTask second = queued(task(30, 30));
+        queued(task(10, 30, 30, 30, "Blue", PrintTask.NO_DEADLINE));
+
+        PrintTask packed = packer.pack(printer(1_000), lead, queue);
+
+        assertEquals(List.of(lead, first, second), parts(packed));
+        assertEquals(lead.getId(), packed.getId());
+        assertEquals(90, packed.getPrint().getPrintTime());
+        assertFalse(queue.contains(first));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void shelvesStopWhenThePlateIsFull() {
+        PrintTask lead = task(40, 40);
+        for (int i = 0; i < 5; i++) {
+            queued(task(40, 40));
+        }
+
+        PrintTask packed = packer.pack(printer(1_000), lead, queue);
+
+        assertEquals(4, parts(packed).size());
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    void turnsAPartToFitARow() {
+        PrintTask lead = task(60, 20);
+        PrintTask turned = queued(task(20, 35));
+
+        PrintTask packed = packer.pack(printer(1_000), lead, queue);
+
+        assertEquals(List.of(lead, turned), parts(packed));
+    }
+
+    @Test
+    void smallerPartsFillTheGaps() {
+        PrintTask lead = task(90, 90);
+        PrintTask large = queued(task(50, 50));
+        PrintTask small = queued(task(5, 5));
+
+        PrintTask packed = packer.pack(printer(1_000), lead, queue);
+
+        assertEquals(List.of(lead, small), parts(packed));
+        assertTrue(queue.contains(large));
+    }
+
+    @Test
+    void tallPartsStayQueued() {
+        PrintTask lead = task(20, 20);
+        PrintTask tall = queued(task(150, 20, 20, 30, "Red", PrintTask.NO_DEADLINE));
+        PrintTask flat = queued(task(20, 20));
+
+        PrintTask packed = packer.pack(printer(1_000), lead, queue);
+
+        assertEquals(List.of(lead, flat), parts(packed));
+        assertTrue(queue.contains(tall));
+    }
+
+    @Test
+    void partsMustNotMakeADeadlineLate() {
+        PrintTask lead = task(10, 20, 20, 60, "Red", PrintTask.NO_DEADLINE);
+        PrintTask tight = queued(task(10, 20, 20, 60, "Red", NOW + 90 * MINUTE));
+        PrintTask loose = queued(task(10, 20, 20, 60, "Red", NOW + 200 * MINUTE));
+        PrintTask last = queued(task(10, 20, 20, 60, "Red", PrintTask.NO_DEADLINE));
+
+        PrintTask packed = packer.pack(printer(1_000), lead, queue);
+
+        assertEquals(List.of(lead, loose, last), parts(packed));
+        assertTrue(queue.contains(tight));
+    }
+
+    @Test
+    void leadDeadlineLimitsThePlate() {
+        PrintTask lead = task(10, 20, 20, 60, "Red", NOW + 70 * MINUTE);
+        queued(task(20, 20));
+
+        assertSame(lead, packer.pack(printer(1_000), lead, queue));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void loadedFilamentLimitsThePlate() {
+        PrintTask lead = task(20, 20);
+        for (int i = 0; i < 3; i++) {
+            queued(task(20, 20));
+        }
+
+        PrintTask packed = packer.pack(printer(25), lead, queue);
+
+        assertEquals(2, parts(packed).size());
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    void plateHoldsAtMostTheMaximumParts() {
+        PlatePacker pairs = new PlatePacker(CLOCK, 5, 2);
+        PrintTask lead = task(10, 10);
+        for (int i = 0; i < 3; i++) {
+            queued(task(10, 10));
+        }
+
+        assertEquals(2, parts(pairs.pack(printer(1_000), lead, queue)).size());
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new PlatePacker(CLOCK, -1, 4));
+        assertThrows(IllegalArgumentException.class, () -> new PlatePacker(CLOCK, 5, 1));
+    }
+}
@@ -0,0 +1,66 @@
+package tests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import saxion.PrintManager;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.Spool;
+import saxion.printers.Printer;
+import saxion.types.FilamentType;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrintManagerTest {
+
+    private PrintManager printManager;
+
+    @BeforeEach
+    void setUp() throws FileNotFoundException {
+        printManager = new PrintManager();
+        printManager.readData(new String[0]);
+    }
+
+    private Printer startOne() {
+        Print print = printManager.getPrints().get(0);
+        String color = printManager.getSpoolHandler().getAvailableColors(1).get(0);
+        printManager.addNewPrintTask(print.getName(), FilamentType.PLA, List.of(color));
+        printManager.startPrintQueue();
+        for (Printer printer : printManager.getPrinterHandler().getPrinters()) {
+            if (printer.getTask() != null) {
+                return printer;
+            }
+        }
+        throw new AssertionError("No task was started");
+    }
+
+    private static List<Double> lengths(List<Spool> spools) {
+        List<Double> lengths = new ArrayList<>();
+        for (Spool spool : spools) {
+            lengths.add(spool.getLength());
+        }
+        return lengths;
+    }
+
+    @Test
+    void finishedTaskTakesItsFilamentOnce() {
+        for (boolean successful : new boolean[]{true, false}) {
+            Printer printer = startOne();
+            PrintTask task = printer.getTask();
+            List<Spool> spools = printer.getCurrentSpools();
+            List<Double> expected = lengths(spools);
+            for (int i = 0; i < task.getColors().size(); i++) {
+                expected.set(i, expected.get(i) - task.getPrint().getFilamentLength().get(i));
+            }
+
+            printManager.finalizeRunningTask(printer.getId(), successful);
+
+            assertEquals(expected, lengths(spools));
+            printManager.getPendingPrintTasks().clear();
+        }
+    }
+}
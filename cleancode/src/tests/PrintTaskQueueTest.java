@@ -0,0 +1,422 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import saxion.models.ColorRun;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrintTaskQueueTest {
+
+    private static final List<String> COLORS = List.of("Red", "Blue", "Green");
+
+    private static final long MINUTE = 60_000L;
+
+    private int prints;
+
+    private PrintTask task(int priority, String color, FilamentType filamentType) {
+        Print print = new Print("Part " + prints++, 10, 10, 10, new ArrayList<>(List.of(1.0)), 10);
+        return new PrintTask(print, List.of(color), filamentType, priority);
+    }
+
+    private PrintTask task(int priority) {
+        return task(priority, "Red", FilamentType.PLA);
+    }
+
+    private PrintTask task(int priority, long deadlineMillis) {
+        Print print = new Print("Part " + prints++, 10, 10, 10, new ArrayList<>(List.of(1.0)), 10);
+        return new PrintTask(print, List.of("Red"), FilamentType.PLA, priority, deadlineMillis);
+    }
+
+    private static PrintTask copy(Print print, String color, int priority) {
+        return new PrintTask(print, List.of(color), FilamentType.PLA, priority);
+    }
+
+    private static List<Long> ids(Iterable<PrintTask> tasks) {
+        List<Long> ids = new ArrayList<>();
+        for (PrintTask task : tasks) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    void pollsHighestPriorityThenOldest() {
+        PrintTaskQueue queue = new PrintTaskQueue();
+        PrintTask low = task(0);
+        PrintTask high = task(5);
+        PrintTask lowLater = task(0);
+        PrintTask highLater = task(5);
+        queue.add(lowLater);
+        queue.add(low);
+        queue.add(highLater);
+        queue.add(high);
+
+        assertEquals(List.of(high.getId(), highLater.getId(), low.getId(), lowLater.getId()), ids(queue));
+        assertSame(high, queue.poll());
+        assertSame(highLater, queue.poll());
+        assertSame(low, queue.poll());
+        assertSame(lowLater, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void matchesASortedSetUnderRandomChanges() {
+        Random random = new Random(42);
+        PrintTaskQueue queue = new PrintTaskQueue();
+        TreeSet<PrintTask> expected = new TreeSet<>(queue.comparator());
+        List<PrintTask> created = new ArrayList<>();
+        for (int step = 0; step < 5_000; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 4 || created.isEmpty()) {
+                PrintTask task = task(random.nextInt(4));
+                created.add(task);
+                queue.add(task);
+                expected.add(task);
+            } else if (operation < 6) {
+                PrintTask task = created.get(random.nextInt(created.size()));
+                assertEquals(expected.remove(task), queue.remove(task));
+                if (random.nextBoolean()) {
+                    queue.add(task);
+                    expected.add(task);
+                }
+            } else if (operation < 8) {
+                PrintTask task = created.get(random.nextInt(created.size()));
+                if (expected.remove(task)) {
+                    queue.changePriority(task, random.nextInt(4));
+                    expected.add(task);
+                }
+            } else {
+                assertSame(expected.pollFirst(), queue.poll());
+            }
+            assertEquals(expected.size(), queue.size());
+            assertSame(expected.isEmpty() ? null : expected.first(), queue.peek());
+        }
+
+        assertEquals(ids(expected), ids(queue));
+    }
+
+    @Test
+    void requeuedTaskReturnsToItsPlace() {
+        PrintTaskQueue queue = new PrintTaskQueue();
+        PrintTask first = task(1);
+        PrintTask second = task(1);
+        PrintTask third = task(1);
+        queue.addAll(List.of(first, second, third));
+
+        assertSame(first, queue.poll());
+        queue.add(task(1));
+        queue.add(first);
+
+        assertSame(first, queue.peek());
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()), ids(queue).subList(0, 3));
+    }
+
+    @Test
+    void changedPriorityMovesTheTask() {
+        PrintTaskQueue queue = new PrintTaskQueue();
+        PrintTask first = task(3);
+        PrintTask second = task(2);
+        PrintTask third = task(1);
+        queue.addAll(List.of(first, second, third));
+
+        queue.changePriority(third, 4);
+        queue.changePriority(first, 0);
+
+        assertEquals(List.of(third.getId(), second.getId(), first.getId()), ids(queue));
+        assertEquals(0, first.getPriority());
+    }
+
+    @Test
+    void iteratorRemovesAndPicksUpLaterTasks() {
+        PrintTaskQueue queue = new PrintTaskQueue();
+        PrintTask first = task(3);
+        PrintTask second = task(2);
+        PrintTask third = task(1);
+        queue.addAll(List.of(first, second, third));
+
+        List<PrintTask> visited = new ArrayList<>();
+        PrintTask ahead = null;
+        PrintTask behind = null;
+        Iterator<PrintTask> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            PrintTask task = iterator.next();
+            visited.add(task);
+            if (task == second) {
+                iterator.remove();
+                ahead = task(5);
+                behind = task(0);
+                queue.add(ahead);
+                queue.add(behind);
+            }
+        }
+
+        assertEquals(List.of(first, second, third, behind), visited);
+        assertFalse(queue.contains(second));
+        assertEquals(List.of(ahead.getId(), first.getId(), third.getId(), behind.getId()), ids(queue));
+    }
+
+    @Test
+    void bulkConstructionMatchesAddingOneByOne() {
+        Random random = new Random(7);
+        List<PrintTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            tasks.add(task(random.nextInt(5)));
+        }
+        List<PrintTask> copies = new ArrayList<>();
+        for (PrintTask task : tasks) {
+            copies.add(new PrintTask(task.getId(), task.getPrint(), task.getColors(), task.getFilamentType(),
+                    task.getPriority()));
+        }
+        PrintTaskQueue added = new PrintTaskQueue();
+        added.addAll(tasks);
+
+        PrintTaskQueue built = new PrintTaskQueue(copies);
+
+        assertEquals(ids(added), ids(built));
+        while (!built.isEmpty()) {
+            assertEquals(added.poll().getId(), built.poll().getId());
+        }
+    }
+
+    @Test
+    void rejectsDuplicatesAndForeignTasks() {
+        PrintTaskQueue queue = new PrintTaskQueue();
+        PrintTask task = task(0);
+        queue.add(task);
+
+        assertThrows(IllegalArgumentException.class, () -> queue.add(task));
+        assertThrows(IllegalArgumentException.class, () -> queue.changePriority(task(0), 1));
+        assertFalse(queue.remove(task(0)));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void idIndexesFollowTheQueue() {
+        PrintTaskQueue queue = new PrintTaskQueue();
+        List<PrintTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            PrintTask task = task(i % 3, COLORS.get(i % COLORS.size()), FilamentType.values()[i % 2]);
+            tasks.add(task);
+            queue.add(task);
+        }
+        queue.remove(tasks.get(0));
+        queue.poll();
+        queue.changePriority(tasks.get(3), 9);
+
+        List<PrintTask> queued = new ArrayList<>(queue.getTasksById().values());
+        assertEquals(queue.size(), queued.size());
+        for (int i = 1; i < queued.size(); i++) {
+            assertTrue(queued.get(i - 1).getId() < queued.get(i).getId());
+        }
+        for (PrintTask task : tasks) {
+            boolean isQueued = queue.contains(task);
+            assertEquals(isQueued, queue.getTasksById().containsKey(task.getId()));
+            assertEquals(isQueued, queue.getTasksByFilamentType(task.getFilamentType()).containsKey(task.getId()));
+            assertEquals(isQueued, queue.getTasksByColor(task.getColors().get(0).toUpperCase())
+                    .containsKey(task.getId()));
+        }
+        assertTrue(queue.getTasksByColor("Purple").isEmpty());
+        queue.clear();
+        assertTrue(queue.getTasksById().isEmpty());
+        assertTrue(queue.getTasksByFilamentType(FilamentType.PLA).isEmpty());
+    }
+
+    @Test
+    void earlierDeadlinesComeFirstWithinAPriority() {
+        PrintTaskQueue queue = new PrintTaskQueue();
+        PrintTask none = task(1, PrintTask.NO_DEADLINE);
+        PrintTask late = task(1, 3 * MINUTE);
+        PrintTask early = task(1, MINUTE);
+        PrintTask urgentButLow = task(0, 0);
+        PrintTask highWithoutDeadline = task(2, PrintTask.NO_DEADLINE);
+        queue.addAll(List.of(none, late, early, urgentButLow, highWithoutDeadline));
+
+        assertEquals(List.of(highWithoutDeadline.getId(), early.getId(), late.getId(), none.getId(),
+                urgentButLow.getId()), ids(queue));
+    }
+
+    @Test
+    void startingByFindsTheTasksRunningOutOfSlack() {
+        PrintTaskQueue queue = new PrintTaskQueue();
+        PrintTask first = task(0, 20 * MINUTE);
+        PrintTask second = task(5, 30 * MINUTE);
+        PrintTask third = task(0, 40 * MINUTE);
+        PrintTask none = task(9, PrintTask.NO_DEADLINE);
+        queue.addAll(List.of(third, none, second, first));
+
+        assertEquals(10 * MINUTE, first.getLatestStartMillis());
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()),
+                ids(queue.startingBy(Long.MIN_VALUE, Long.MAX_VALUE - 1)));
+        assertEquals(List.of(second.getId()), ids(queue.startingBy(10 * MINUTE + 1, 20 * MINUTE)));
+        assertTrue(queue.startingBy(20 * MINUTE, 10 * MINUTE).isEmpty());
+
+        queue.remove(first);
+        queue.changePriority(third, 1);
+
+        assertEquals(List.of(second.getId(), third.getId()), ids(queue.startingBy(0, 30 * MINUTE)));
+    }
+
+    @Test
+    void identicalTasksShareAnEntry() {
+        Print vase = new Print("Vase", 10, 10, 10, new ArrayList<>(List.of(1.0)), 10);
+        PrintTaskQueue queue = new PrintTaskQueue();
+        PrintTask first = copy(vase, "Red", 1);
+        PrintTask second = copy(vase, "Red", 1);
+        PrintTask third = copy(vase, "Red", 1);
+        PrintTask blue = copy(vase, "Blue", 1);
+        PrintTask urgent = copy(vase, "Red", 2);
+        queue.addAll(List.of(first, second, blue, third, urgent));
+
+        assertEquals(List.of(urgent.getId(), first.getId(), blue.getId()), ids(queue.entries()));
+        assertEquals(3, queue.entries().size());
+        assertEquals(3, queue.getQuantity(second));
+        assertEquals(1, queue.getQuantity(urgent));
+        assertEquals(List.of(urgent.getId(), first.getId(), second.getId(), third.getId(), blue.getId()), ids(queue));
+        assertEquals(List.of(urgent.getId(), first.getId()), ids(queue.getRunEntries(ColorRun.of(first))));
+        assertEquals(4, queue.getRun(ColorRun.of(first)).size());
+    }
+
+    @Test
+    void runChangesCountRunsEnteringAndLeaving() {
+        PrintTaskQueue queue = new PrintTaskQueue();
+        PrintTask red = task(0);
+        PrintTask redAgain = task(0);
+        queue.addAll(List.of(red, redAgain));
+        int changes = queue.getRunChanges();
+
+        queue.remove(red);
+        assertEquals(changes, queue.getRunChanges());
+
+        queue.add(task(0, "Blue", FilamentType.PLA));
+        queue.remove(redAgain);
+        assertEquals(changes + 2, queue.getRunChanges());
+    }
+
+    @Test
+    void nextCopyBecomesTheHead() {
+        Print vase = new Print("Vase", 10, 10, 10, new ArrayList<>(List.of(1.0)), 10);
+        PrintTaskQueue queue = new PrintTaskQueue();
+        PrintTask first = copy(vase, "Red", 1);
+        PrintTask second = copy(vase, "Red", 1);
+        PrintTask other = copy(vase, "Red", 0);
+        queue.addAll(List.of(first, second, other));
+
+        assertSame(first, queue.poll());
+
+        assertEquals(List.of(second.getId(), other.getId()), ids(queue.entries()));
+        assertEquals(1, queue.getQuantity(second));
+        assertEquals(0, queue.getQuantity(first));
+
+        queue.add(first);
+
+        assertEquals(List.of(first.getId(), other.getId()), ids(queue.entries()));
+        assertEquals(2, queue.getQuantity(second));
+    }
+
+    @Test
+    void changedPriorityTakesACopyOutOfItsEntry() {
+        Print vase = new Print("Vase", 10, 10, 10, new ArrayList<>(List.of(1.0)), 10);
+        PrintTaskQueue queue = new PrintTaskQueue();
+        PrintTask first = copy(vase, "Red", 1);
+        PrintTask second = copy(vase, "Red", 1);
+        PrintTask third = copy(vase, "Red", 1);
+        queue.addAll(List.of(first, second, third));
+
+        queue.changePriority(third, 3);
+
+        assertEquals(List.of(third.getId(), first.getId()), ids(queue.entries()));
+        assertEquals(2, queue.getQuantity(first));
+        assertEquals(1, queue.getQuantity(third));
+        assertEquals(List.of(third.getId(), first.getId(), second.getId()), ids(queue));
+    }
+
+    @Test
+    void entriesIteratorMovesOnToTheNextCopy() {
+        Print vase = new Print("Vase", 10, 10, 10, new ArrayList<>(List.of(1.0)), 10);
+        Print bowl = new Print("Bowl", 10, 10, 10, new ArrayList<>(List.of(1.0)), 10);
+        PrintTaskQueue queue = new PrintTaskQueue();
+        PrintTask vase1 = copy(vase, "Red", 1);
+        PrintTask vase2 = copy(vase, "Red", 1);
+        PrintTask bowl1 = copy(bowl, "Red", 1);
+        queue.addAll(List.of(vase1, vase2, bowl1));
+
+        List<PrintTask> visited = new ArrayList<>();
+        Iterator<PrintTask> iterator = queue.entries().iterator();
+        while (iterator.hasNext()) {
+            PrintTask head = iterator.next();
+            visited.add(head);
+            if (head == vase1) {
+                iterator.remove();
+            }
+        }
+
+        assertEquals(List.of(vase1, vase2, bowl1), visited);
+        assertEquals(List.of(vase2.getId(), bowl1.getId()), ids(queue.entries()));
+    }
+
+    @Test
+    void entriesMatchTheFirstOfEveryGroupUnderRandomChanges() {
+        Random random = new Random(5);
+        List<Print> catalogue = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            catalogue.add(new Print("Part " + i, 10, 10, 10, new ArrayList<>(List.of(1.0)), 10));
+        }
+        PrintTaskQueue queue = new PrintTaskQueue();
+        TreeSet<PrintTask> expected = new TreeSet<>(queue.comparator());
+        List<PrintTask> created = new ArrayList<>();
+        for (int step = 0; step < 3_000; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 5 || created.isEmpty()) {
+                PrintTask task = copy(catalogue.get(random.nextInt(catalogue.size())), COLORS.get(random.nextInt(2)),
+                        random.nextInt(2));
+                created.add(task);
+                queue.add(task);
+                expected.add(task);
+            } else if (operation < 7) {
+                PrintTask task = created.get(random.nextInt(created.size()));
+                assertEquals(expected.remove(task), queue.remove(task));
+            } else if (operation < 8) {
+                PrintTask task = created.get(random.nextInt(created.size()));
+                if (expected.remove(task)) {
+                    queue.changePriority(task, random.nextInt(2));
+                    expected.add(task);
+                }
+            } else {
+                assertSame(expected.pollFirst(), queue.poll());
+            }
+        }
+
+        Map<List<Object>, List<PrintTask>> groups = new LinkedHashMap<>();
+        for (PrintTask task : expected) {
+            groups.computeIfAbsent(List.of(task.getPrint(), task.getColors(), task.getPriority()),
+                    key -> new ArrayList<>()).add(task);
+        }
+        List<PrintTask> heads = new ArrayList<>();
+        for (List<PrintTask> group : groups.values()) {
+            heads.add(group.get(0));
+            for (PrintTask task : group) {
+                assertEquals(group.size(), queue.getQuantity(task));
+            }
+        }
+        assertEquals(ids(heads), ids(queue.entries()));
+        assertEquals(heads.size(), queue.entries().size());
+        assertEquals(ids(expected), ids(queue));
+    }
+}
@@ -0,0 +1,136 @@
+package tests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import saxion.history.PrintRun;
+import saxion.history.RunHistory;
+import saxion.types.FilamentType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunHistoryTest {
+
+    private static final long DAY = 86_400_000L;
+
+    @TempDir
+    Path directory;
+
+    private RunHistory history;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        history = new RunHistory(directory);
+        history.open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        history.close();
+    }
+
+    private static PrintRun run(long taskId, int printerId, long endMillis) {
+        return new PrintRun(taskId, printerId, "Vase", List.of("Red", "Blue"), FilamentType.PLA,
+                endMillis - 1_000, endMillis, taskId % 2 == 0, new int[]{1, 2, 3, 4, 5});
+    }
+
+    private List<Long> scan(long fromMillis, long toMillis) throws IOException {
+        List<Long> taskIds = new ArrayList<>();
+        history.scan(fromMillis, toMillis, run -> taskIds.add(run.taskId()));
+        return taskIds;
+    }
+
+    @Test
+    void storesEveryField() throws IOException {
+        history.append(run(2, 7, 5_000));
+
+        List<PrintRun> runs = history.getRecentRuns(7, 10);
+
+        assertEquals(1, runs.size());
+        PrintRun run = runs.get(0);
+        assertEquals(2, run.taskId());
+        assertEquals("Vase", run.printName());
+        assertEquals(List.of("Red", "Blue"), run.colors());
+        assertEquals(FilamentType.PLA, run.filamentType());
+        assertEquals(1_000, run.durationMillis());
+        assertTrue(run.successful());
+        assertArrayEquals(new int[]{1, 2, 3, 4}, run.spoolIds());
+    }
+
+    @Test
+    void scanFindsTheRangeByEndTime() throws IOException {
+        for (int i = 1; i <= 100; i++) {
+            history.append(run(i, 1, i * 1_000L));
+        }
+
+        assertEquals(List.of(40L, 41L, 42L), scan(40_000, 42_000));
+        assertEquals(List.of(1L), scan(Long.MIN_VALUE, 1_000));
+        assertEquals(List.of(100L), scan(100_000, Long.MAX_VALUE));
+        assertTrue(scan(100_001, Long.MAX_VALUE).isEmpty());
+        assertTrue(scan(40_500, 40_600).isEmpty());
+    }
+
+    @Test
+    void runsArePartitionedByDay() throws IOException {
+        history.append(run(1, 1, DAY - 1));
+        history.append(run(2, 1, DAY));
+        history.append(run(3, 2, 3 * DAY + 5));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(3, files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.matches("runs-\\d{4}-\\d{2}-\\d{2}\\.dat"))
+                    .count());
+        }
+        assertEquals(List.of(1L, 2L, 3L), scan(0, 4 * DAY));
+        assertEquals(List.of(2L), scan(DAY, 2 * DAY));
+    }
+
+    @Test
+    void printerRunsComeNewestFirstAcrossPartitions() throws IOException {
+        history.append(run(1, 1, 1_000));
+        history.append(run(2, 2, 2_000));
+        history.append(run(3, 1, DAY + 1_000));
+        history.append(run(4, 2, DAY + 2_000));
+        history.append(run(5, 1, 2 * DAY + 1_000));
+
+        List<Long> taskIds = new ArrayList<>();
+        for (PrintRun run : history.getRecentRuns(1, 10)) {
+            taskIds.add(run.taskId());
+        }
+
+        assertEquals(List.of(5L, 3L, 1L), taskIds);
+        assertEquals(2, history.getRecentRuns(1, 2).size());
+    }
+
+    @Test
+    void reopenedHistoryKeepsItsRuns() throws IOException {
+        history.append(run(1, 1, 1_000));
+        history.append(run(2, 1, DAY + 1_000));
+        history.close();
+
+        history = new RunHistory(directory);
+        history.open();
+        history.append(run(3, 1, DAY + 2_000));
+
+        assertEquals(List.of(1L, 2L, 3L), scan(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(3L, history.getRecentRuns(1, 1).get(0).taskId());
+    }
+
+    @Test
+    void runEndingBeforeThePreviousOneKeepsTheOrder() throws IOException {
+        history.append(run(1, 1, 5_000));
+        history.append(run(2, 1, 3_000));
+
+        assertEquals(List.of(1L, 2L), scan(5_000, 5_000));
+    }
+}
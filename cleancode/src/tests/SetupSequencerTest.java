@@ -0,0 +1,197 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import saxion.models.ColorRun;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.models.Spool;
+import saxion.planning.SetupPlan;
+import saxion.planning.SetupSequencer;
+import saxion.printers.MultiColor;
+import saxion.printers.Printer;
+import saxion.printers.StandardFDM;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SetupSequencerTest {
+
+    private static final List<String> COLORS = List.of("Red", "Blue", "Green", "Black", "White");
+
+    private final PrintTaskQueue queue = new PrintTaskQueue();
+
+    private int prints;
+
+    private PrintTask add(FilamentType filamentType, String... colors) {
+        ArrayList<Double> lengths = new ArrayList<>();
+        for (int i = 0; i < colors.length; i++) {
+            lengths.add(1.0);
+        }
+        PrintTask task = new PrintTask(new Print("Part " + prints++, 10, 10, 10, lengths, 10), List.of(colors),
+                filamentType);
+        queue.add(task);
+        return task;
+    }
+
+    private static StandardFDM standard(String color) {
+        StandardFDM printer = new StandardFDM(1, "Ender", "Creality", 200, 200, 200);
+        printer.setCurrentSpools(List.of(new Spool(1, color, FilamentType.PLA, 1_000)));
+        return printer;
+    }
+
+    private static MultiColor multiColor(String... colors) {
+        MultiColor printer = new MultiColor(2, "Bambu", "Bambu", false, 250, 250, 250, 4);
+        List<Spool> spools = new ArrayList<>();
+        for (String color : colors) {
+            spools.add(new Spool(spools.size() + 1, color, FilamentType.PLA, 1_000));
+        }
+        printer.setCurrentSpools(spools);
+        return printer;
+    }
+
+    private static int changes(List<String> from, ColorRun to) {
+        List<String> left = new ArrayList<>(from);
+        int changes = 0;
+        for (String color : to.colors()) {
+            if (!left.remove(color)) {
+                changes++;
+            }
+        }
+        return changes;
+    }
+
+    private static int changes(List<String> loaded, List<ColorRun> order) {
+        int changes = 0;
+        List<String> from = loaded;
+        for (ColorRun run : order) {
+            changes += changes(from, run);
+            from = run.colors();
+        }
+        return changes;
+    }
+
+    private static List<String> colors(Printer printer) {
+        List<String> colors = new ArrayList<>();
+        for (Spool spool : printer.getCurrentSpools()) {
+            colors.add(spool.getColor());
+        }
+        return colors;
+    }
+
+    @Test
+    void groupsTheTasksOfARun() {
+        PrintTask red = add(FilamentType.PLA, "Red");
+        PrintTask blue = add(FilamentType.PLA, "Blue");
+        PrintTask redAgain = add(FilamentType.PLA, "Red");
+        PrintTask blueAgain = add(FilamentType.PLA, "Blue");
+
+        SetupPlan plan = new SetupSequencer(10).plan(standard("Red"), queue);
+
+        assertEquals(List.of(new ColorRun(FilamentType.PLA, List.of("Red")),
+                new ColorRun(FilamentType.PLA, List.of("Blue"))), plan.runs());
+        assertEquals(List.of(red, redAgain, blue, blueAgain), plan.tasks());
+        assertEquals(1, plan.spoolChanges());
+    }
+
+    @Test
+    void startsFromTheLoadedSpools() {
+        add(FilamentType.PLA, "Red");
+        add(FilamentType.PLA, "Green");
+        add(FilamentType.PLA, "Blue");
+
+        SetupPlan plan = new SetupSequencer(10).plan(standard("Blue"), queue);
+
+        assertEquals(List.of("Blue"), plan.runs().get(0).colors());
+        assertEquals(2, plan.spoolChanges());
+    }
+
+    @Test
+    void movingALoadedSpoolCostsNoChange() {
+        add(FilamentType.PLA, "Blue", "Red");
+        add(FilamentType.PLA, "Green", "White");
+
+        SetupPlan plan = new SetupSequencer(10).plan(multiColor("Red", "Blue"), queue);
+
+        assertEquals(List.of("Blue", "Red"), plan.runs().get(0).colors());
+        assertEquals(2, plan.spoolChanges());
+    }
+
+    @Test
+    void reportedChangesMatchTheOrderAndBeatTheQueueOrder() {
+        Random random = new Random(3);
+        for (int round = 0; round < 50; round++) {
+            queue.clear();
+            SetupSequencer sequencer = new SetupSequencer(40);
+            MultiColor printer = multiColor("Red", "Blue");
+            for (int step = 0; step < 3; step++) {
+                for (int i = 0; i < 10; i++) {
+                    String first = COLORS.get(random.nextInt(COLORS.size()));
+                    String second = COLORS.get(random.nextInt(COLORS.size()));
+                    if (random.nextBoolean()) {
+                        add(FilamentType.PLA, first);
+                    } else {
+                        add(FilamentType.PLA, first, second);
+                    }
+                }
+                for (int i = 0; i < 5 && !queue.isEmpty(); i++) {
+                    queue.poll();
+                }
+
+                SetupPlan plan = sequencer.plan(printer, queue);
+
+                List<ColorRun> queueOrder = new ArrayList<>();
+                for (PrintTask task : queue.entries()) {
+                    if (!queueOrder.contains(ColorRun.of(task))) {
+                        queueOrder.add(ColorRun.of(task));
+                    }
+                }
+                assertEquals(new HashSet<>(queueOrder), new HashSet<>(plan.runs()));
+                assertEquals(queueOrder.size(), plan.runs().size());
+                assertEquals(changes(colors(printer), plan.runs()), plan.spoolChanges());
+                assertTrue(plan.spoolChanges() <= changes(colors(printer), queueOrder));
+            }
+        }
+    }
+
+    @Test
+    void horizonCountsDistinctJobs() {
+        Print vase = new Print("Vase", 10, 10, 10, new ArrayList<>(List.of(1.0)), 10);
+        for (int i = 0; i < 5; i++) {
+            queue.add(new PrintTask(vase, List.of("Red"), FilamentType.PLA));
+        }
+        PrintTask blue = add(FilamentType.PLA, "Blue");
+        PrintTask green = add(FilamentType.PLA, "Green");
+
+        SetupPlan plan = new SetupSequencer(2).plan(standard("Red"), queue);
+
+        assertEquals(2, plan.runs().size());
+        assertEquals(2, plan.tasks().size());
+        assertTrue(plan.tasks().contains(blue));
+        assertFalse(plan.tasks().contains(green));
+    }
+
+    @Test
+    void skipsRunsThePrinterCannotPrint() {
+        add(FilamentType.PLA, "Red", "Blue");
+        add(FilamentType.ABS, "Red");
+        PrintTask printable = add(FilamentType.PETG, "Green");
+
+        SetupPlan plan = new SetupSequencer(10).plan(standard("Red"), queue);
+
+        assertEquals(List.of(printable), plan.tasks());
+    }
+
+    @Test
+    void rejectsAnEmptyHorizon() {
+        assertThrows(IllegalArgumentException.class, () -> new SetupSequencer(0));
+    }
+}
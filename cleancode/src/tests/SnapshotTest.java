@@ -0,0 +1,293 @@
+package tests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import saxion.PrintManager;
+import saxion.journal.Snapshot;
+import saxion.journal.StateStore;
+import saxion.models.PlateTask;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.Spool;
+import saxion.observer.TaskObserver;
+import saxion.printers.Printer;
+import saxion.types.FilamentType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotTest {
+
+    private static final int MAGIC = 0x534E4150;
+
+    @TempDir
+    Path directory;
+
+    private PrintManager printManager;
+
+    private String printName;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        printManager = newPrintManager();
+        printName = printManager.getPrints().get(0).getName();
+    }
+
+    private static PrintManager newPrintManager() throws IOException {
+        PrintManager printManager = new PrintManager();
+        printManager.readData(new String[0]);
+        return printManager;
+    }
+
+    private static List<String> describe(PrintManager printManager) {
+        List<String> state = new ArrayList<>();
+        for (PrintTask task : printManager.getPendingPrintTasks()) {
+            state.add("pending " + task.getId() + " " + task.getPrint().getName() + " " + task.getFilamentType()
+                    + " " + task.getColors() + " " + task.getPriority() + " " + task.getDeadlineMillis());
+        }
+        for (Printer printer : printManager.getPrinterHandler().getPrinters()) {
+            PrintTask task = printer.getTask();
+            state.add("printer " + printer.getId() + " " + (task == null ? "-" : parts(task)) + " "
+                    + spools(printer.getCurrentSpools()));
+        }
+        state.add("free " + spools(printManager.getSpoolHandler().getFreeSpools()));
+        state.add("counters " + printManager.getSpoolChangeCount() + " " + printManager.getPrintsFulfilled());
+        return state;
+    }
+
+    private static List<Long> parts(PrintTask task) {
+        List<Long> ids = new ArrayList<>();
+        for (PrintTask part : PlateTask.partsOf(task)) {
+            ids.add(part.getId());
+        }
+        return ids;
+    }
+
+    private PlateTask startPlate(PrintManager printManager) {
+        Print smallest = printManager.getPrints().get(0);
+        for (Print print : printManager.getPrints()) {
+            if (print.getWidth() * print.getLength() < smallest.getWidth() * smallest.getLength()) {
+                smallest = print;
+            }
+        }
+        String color = printManager.getSpoolHandler().getAvailableColors(1).get(0);
+        printManager.setPlatePacking(true);
+        for (int i = 0; i < 6; i++) {
+            printManager.addNewPrintTask(smallest.getName(), FilamentType.PLA, List.of(color));
+        }
+        printManager.startPrintQueue();
+        for (Printer printer : printManager.getPrinterHandler().getPrinters()) {
+            if (printer.getTask() instanceof PlateTask) {
+                return (PlateTask) printer.getTask();
+            }
+        }
+        throw new AssertionError("No plate was packed");
+    }
+
+    private static List<String> spools(List<Spool> spools) {
+        List<String> described = new ArrayList<>();
+        for (Spool spool : spools) {
+            described.add(spool.getId() + ":" + spool.getLength());
+        }
+        return described;
+    }
+
+    @Test
+    void restoresTheCapturedState() throws IOException {
+        String color = printManager.getSpoolHandler().getAvailableColors(1).get(0);
+        printManager.addNewPrintTask(printName, FilamentType.PLA, List.of(color), 3, 5_000L);
+        printManager.addNewPrintTask(printName, FilamentType.PLA, List.of(color));
+        printManager.startPrintQueue();
+        String petg = printManager.getSpoolHandler().getAvailableColors(2).get(0);
+        printManager.addNewPrintTask(printName, FilamentType.PETG, List.of(petg), 1);
+        Path file = directory.resolve("snapshot.bin");
+
+        Snapshot snapshot = Snapshot.capture(printManager, 4);
+        snapshot.write(file);
+        PrintManager restored = newPrintManager();
+        Snapshot read = Snapshot.read(file);
+        read.restore(restored);
+
+        assertEquals(4, read.getGeneration());
+        assertEquals(describe(printManager), describe(restored));
+    }
+
+    @Test
+    void readsEveryEarlierVersion() throws IOException {
+        Printer printer = printManager.getPrinterHandler().getPrinters().get(0);
+        for (int version = 1; version <= 3; version++) {
+            Path file = directory.resolve("snapshot-" + version + ".bin");
+            writeSnapshot(file, version, printer.getId());
+
+            PrintManager restored = newPrintManager();
+            Snapshot.read(file).restore(restored);
+
+            PrintTask pending = restored.getPendingPrintTasks().get(11);
+            assertEquals(List.of("Red"), pending.getColors());
+            assertEquals(version >= 2 ? 4 : PrintTask.DEFAULT_PRIORITY, pending.getPriority());
+            assertEquals(version >= 3 ? 9_000L : PrintTask.NO_DEADLINE, pending.getDeadlineMillis());
+            Printer restoredPrinter = restored.getPrinterHandler().getPrinterById(printer.getId());
+            assertEquals(12, restoredPrinter.getTask().getId());
+            assertEquals(2, restored.getSpoolChangeCount());
+        }
+    }
+
+    @Test
+    void restoresAPackedPlate() throws IOException {
+        PlateTask plate = startPlate(printManager);
+        Path file = directory.resolve("snapshot.bin");
+
+        Snapshot.capture(printManager, 1).write(file);
+        PrintManager restored = newPrintManager();
+        Snapshot.read(file).restore(restored);
+
+        assertEquals(describe(printManager), describe(restored));
+        assertTrue(restored.getPrinterHandler().getPrinters().stream()
+                .anyMatch(printer -> printer.getTask() instanceof PlateTask
+                        && parts(printer.getTask()).equals(parts(plate))));
+    }
+
+    @Test
+    void journalReplaysAPackedPlate() throws IOException {
+        Path store = directory.resolve("store");
+        StateStore stateStore = new StateStore(store, printManager, StateStore.DEFAULT_SNAPSHOT_INTERVAL);
+        stateStore.open();
+        PlateTask plate = startPlate(printManager);
+        stateStore.close();
+
+        PrintManager restored = newPrintManager();
+        StateStore reopened = new StateStore(store, restored, StateStore.DEFAULT_SNAPSHOT_INTERVAL);
+        reopened.open();
+
+        assertEquals(describe(printManager), describe(restored));
+        Printer printer = restored.getPrinterHandler().getPrinterById(
+                printManager.getPrinterHandler().getPrinters().stream()
+                        .filter(candidate -> candidate.getTask() == plate).findFirst().orElseThrow().getId());
+        assertEquals(parts(plate), parts(printer.getTask()));
+        int fulfilled = restored.getPrintsFulfilled();
+        restored.finalizeRunningTask(printer.getId(), true);
+        reopened.close();
+        assertEquals(fulfilled + plate.getParts().size(), restored.getPrintsFulfilled());
+    }
+
+    @Test
+    void journalReplayDoesNotNotifyTaskObservers() throws IOException {
+        Path store = directory.resolve("store");
+        StateStore stateStore = new StateStore(store, printManager, StateStore.DEFAULT_SNAPSHOT_INTERVAL);
+        stateStore.open();
+        String color = printManager.getSpoolHandler().getAvailableColors(1).get(0);
+        printManager.addNewPrintTask(printName, FilamentType.PLA, List.of(color));
+        printManager.addNewPrintTask(printName, FilamentType.PLA, List.of(color));
+        printManager.startPrintQueue();
+        Printer running = printManager.getPrinterHandler().getPrinters().stream()
+                .filter(printer -> printer.getTask() != null).findFirst().orElseThrow();
+        printManager.finalizeRunningTask(running.getId(), false);
+        stateStore.close();
+        PrintManager restored = newPrintManager();
+        List<String> notified = new ArrayList<>();
+        restored.addTaskObserver(new TaskObserver() {
+            @Override
+            public void taskStarted(Printer printer, PrintTask task) {
+                notified.add("started " + task.getId());
+            }
+
+            @Override
+            public void taskFinished(Printer printer, PrintTask task, boolean successful) {
+                notified.add("finished " + task.getId());
+            }
+        });
+
+        StateStore reopened = new StateStore(store, restored, StateStore.DEFAULT_SNAPSHOT_INTERVAL);
+        reopened.open();
+        reopened.close();
+
+        assertEquals(describe(printManager), describe(restored));
+        assertEquals(List.of(), notified);
+    }
+
+    @Test
+    void rejectsACorruptFile() throws IOException {
+        Path file = directory.resolve("snapshot.bin");
+        Snapshot.capture(printManager, 1).write(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1}), 12);
+        }
+
+        IOException error = assertThrows(IOException.class, () -> Snapshot.read(file));
+        assertTrue(error.getMessage().startsWith("Corrupt snapshot file"), error.getMessage());
+    }
+
+    @Test
+    void rejectsAFileOfAnotherFormat() throws IOException {
+        Path file = directory.resolve("snapshot.bin");
+        Files.write(file, new byte[]{0, 0, 0, 0, 0, 0, 0, 1});
+
+        assertThrows(IOException.class, () -> Snapshot.read(file));
+    }
+
+    @Test
+    void restoringAnEmptyFarmLeavesItIdle() throws IOException {
+        Path file = directory.resolve("snapshot.bin");
+        Snapshot.capture(printManager, 1).write(file);
+
+        PrintManager restored = newPrintManager();
+        Snapshot.read(file).restore(restored);
+
+        assertTrue(restored.getPendingPrintTasks().isEmpty());
+        assertNull(restored.getPrinterHandler().getPrinters().get(0).getTask());
+    }
+
+    private void writeSnapshot(Path file, int version, int printerId) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(version);
+        out.writeLong(1);
+        out.writeLong(20);
+        out.writeInt(2);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeInt(1);
+        writeTask(out, version, 11);
+        out.writeInt(1);
+        out.writeInt(printerId);
+        out.writeBoolean(true);
+        writeTask(out, version, 12);
+        out.writeInt(0);
+        out.flush();
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        Files.write(file, bytes.toByteArray());
+    }
+
+    private void writeTask(DataOutputStream out, int version, long id) throws IOException {
+        out.writeLong(id);
+        out.writeUTF(printName);
+        out.writeByte(FilamentType.PLA.ordinal());
+        out.writeByte(1);
+        out.writeUTF("Red");
+        if (version >= 2) {
+            out.writeInt(4);
+        }
+        if (version >= 3) {
+            out.writeLong(9_000L);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.models.Spool;
+import saxion.planning.SpoolForecast;
+import saxion.planning.SpoolForecaster;
+import saxion.planning.SpoolProjection;
+import saxion.planning.StagedSpoolChange;
+import saxion.printers.Printer;
+import saxion.printers.StandardFDM;
+import saxion.time.TimeSource;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SpoolForecasterTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private static final long NOW = 1_000 * MINUTE;
+
+    private long nanos;
+
+    private final SpoolForecaster forecaster = new SpoolForecaster(new TimeSource() {
+        @Override
+        public long currentTimeMillis() {
+            return NOW;
+        }
+
+        @Override
+        public long nanoTime() {
+            return nanos;
+        }
+    });
+
+    private final PrintTaskQueue queue = new PrintTaskQueue();
+
+    private final List<Spool> freeSpools = new ArrayList<>();
+
+    private int spools;
+
+    private Spool spool(String color, double length) {
+        return new Spool(++spools, color, FilamentType.PLA, length);
+    }
+
+    private Spool free(String color, double length) {
+        Spool spool = spool(color, length);
+        freeSpools.add(spool);
+        return spool;
+    }
+
+    private static StandardFDM printer(int id, Spool spool) {
+        StandardFDM printer = new StandardFDM(id, "Ender " + id, "Creality", 100, 100, 100);
+        printer.setCurrentSpools(List.of(spool));
+        return printer;
+    }
+
+    private static PrintTask task(String color, double length, int printTime) {
+        Print print = new Print("Part", 10, 10, 10, new ArrayList<>(List.of(length)), printTime);
+        return new PrintTask(print, List.of(color), FilamentType.PLA);
+    }
+
+    private PrintTask queued(String color, double length) {
+        PrintTask task = task(color, length, 30);
+        queue.add(task);
+        return task;
+    }
+
+    @Test
+    void projectionStopsWhenASpoolRunsShort() {
+        Spool red = spool("Red", 25);
+        StandardFDM printer = printer(1, red);
+        queued("Red", 10);
+        queued("Red", 10);
+        PrintTask blocked = queued("Red", 10);
+        queued("Red", 1);
+
+        SpoolForecast forecast = forecaster.forecast(List.of(printer), queue, freeSpools);
+
+        SpoolProjection projection = forecast.spools().get(0);
+        assertEquals(2, projection.tasksCovered());
+        assertEquals(5, projection.projectedLength(), 1e-9);
+        assertEquals(Long.valueOf(NOW + 60 * MINUTE), projection.exhaustedAtMillis());
+        assertEquals(Long.valueOf(blocked.getId()), projection.blockingTaskId());
+        StagedSpoolChange change = forecast.stagedChanges().get(0);
+        assertEquals(1, forecast.stagedChanges().size());
+        assertEquals(red.getId(), change.spoolId());
+        assertNull(change.replacementSpoolId());
+    }
+
+    @Test
+    void nextTaskOnTheLoadedSpoolsStagesAChange() {
+        Spool red = spool("Red", 15);
+        StandardFDM printer = printer(1, red);
+        PrintTask running = task("Red", 10, 30);
+        running.markStarted(0);
+        printer.setTask(running);
+        free("Red", 50);
+        Spool smallest = free("Red", 12);
+        free("Red", 8);
+        queued("Blue", 1);
+        PrintTask next = queued("Red", 10);
+
+        StagedSpoolChange change = forecaster.checkNextTask(printer, queue, freeSpools);
+
+        assertEquals(red.getId(), change.spoolId());
+        assertEquals(Integer.valueOf(smallest.getId()), change.replacementSpoolId());
+        assertEquals(next.getId(), change.taskId());
+        assertEquals(NOW + 30 * MINUTE, change.neededAtMillis());
+    }
+
+    @Test
+    void noChangeIsStagedWhileTheSpoolsLast() {
+        StandardFDM printer = printer(1, spool("Red", 100));
+        queued("Red", 10);
+
+        assertNull(forecaster.checkNextTask(printer, queue, freeSpools));
+    }
+
+    @Test
+    void aReplacementIsSuggestedOnce() {
+        StandardFDM first = printer(1, spool("Red", 5));
+        StandardFDM second = printer(2, spool("Red", 5));
+        Spool replacement = free("Red", 100);
+        queued("Red", 10);
+        queued("Red", 10);
+
+        List<StagedSpoolChange> changes = forecaster.forecast(List.<Printer>of(first, second), queue, freeSpools)
+                .stagedChanges();
+
+        assertEquals(2, changes.size());
+        assertEquals(Integer.valueOf(replacement.getId()), changes.get(0).replacementSpoolId());
+        assertNull(changes.get(1).replacementSpoolId());
+    }
+
+    @Test
+    void aRunningTaskHoldsThePrinterForItsRemainingTime() {
+        StandardFDM printer = printer(1, spool("Red", 15));
+        PrintTask running = task("Red", 10, 60);
+        running.markStarted(0);
+        printer.setTask(running);
+        nanos = 20 * MINUTE * 1_000_000;
+        queued("Red", 10);
+
+        SpoolForecast forecast = forecaster.forecast(List.of(printer), queue, freeSpools);
+
+        assertEquals(NOW + 40 * MINUTE, forecast.stagedChanges().get(0).neededAtMillis());
+        assertEquals(1, forecast.spools().get(0).tasksCovered());
+    }
+}
@@ -0,0 +1,124 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import saxion.models.ColorRun;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.models.PrintTaskQueue;
+import saxion.models.Spool;
+import saxion.printers.MultiColor;
+import saxion.strategy.ColorRunBatching;
+import saxion.strategy.EarliestDeadlineFirst;
+import saxion.strategy.LessSpoolChanges;
+import saxion.strategy.PrintingStrategy;
+import saxion.time.TimeSource;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpoolReuseTest {
+
+    private final Spool blue = new Spool(1, "Blue", FilamentType.PLA, 100);
+    private final Spool red = new Spool(2, "Red", FilamentType.PLA, 100);
+    private final Spool green = new Spool(3, "Green", FilamentType.PLA, 100);
+
+    private MultiColor printer(Spool... spools) {
+        MultiColor printer = new MultiColor(1, "Prusa", "Prusa", false, 250, 210, 200, 4);
+        printer.setCurrentSpools(List.of(spools));
+        return printer;
+    }
+
+    private PrintTask task(double length, String... colors) {
+        ArrayList<Double> lengths = new ArrayList<>();
+        for (int i = 0; i < colors.length; i++) {
+            lengths.add(length);
+        }
+        return new PrintTask(new Print("Vase", 50, 50, 50, lengths, 60), List.of(colors), FilamentType.PLA);
+    }
+
+    private String select(PrintingStrategy strategy, MultiColor printer, PrintTask task, List<Spool> freeSpools) {
+        PrintTaskQueue queue = new PrintTaskQueue();
+        queue.add(task);
+        return strategy.selectPrintTask(printer, queue, List.of(printer), freeSpools);
+    }
+
+    @Test
+    void startsOnLoadedSpoolsInOtherPositions() {
+        for (PrintingStrategy strategy : List.of(new LessSpoolChanges(), new ColorRunBatching(),
+                new EarliestDeadlineFirst(TimeSource.SYSTEM))) {
+            MultiColor printer = printer(blue, red);
+            PrintTask task = task(10, "Red", "Blue");
+
+            String messages = select(strategy, printer, task, new ArrayList<>());
+
+            assertSame(task, printer.getTask());
+            assertEquals(List.of(red, blue), printer.getCurrentSpools());
+            assertTrue(messages.contains("- Spool move: Please move spool 2"), messages);
+            assertFalse(messages.contains("Spool change"), messages);
+        }
+    }
+
+    @Test
+    void keepsUnusedLoadedSpools() {
+        MultiColor printer = printer(blue, green, red);
+
+        select(new LessSpoolChanges(), printer, task(10, "Red"), new ArrayList<>());
+
+        assertEquals(List.of(red, green, blue), printer.getCurrentSpools());
+    }
+
+    @Test
+    void missingColorIsNotAMatch() {
+        MultiColor printer = printer(red);
+
+        select(new LessSpoolChanges(), printer, task(10, "Red", "Blue"), new ArrayList<>());
+
+        assertNull(printer.getTask());
+        assertEquals(List.of(red), printer.getCurrentSpools());
+    }
+
+    @Test
+    void lengthIsCheckedOnTheMatchedSpool() {
+        Spool shortRed = new Spool(4, "Red", FilamentType.PLA, 5);
+        MultiColor printer = printer(blue, shortRed);
+
+        select(new LessSpoolChanges(), printer, task(10, "Red", "Blue"), new ArrayList<>());
+
+        assertNull(printer.getTask());
+    }
+
+    @Test
+    void spoolChangeOnlyReplacesMissingColors() {
+        MultiColor printer = printer(blue, green);
+        List<Spool> freeSpools = new ArrayList<>(List.of(red));
+
+        String messages = select(new LessSpoolChanges(), printer, task(10, "Green", "Red"), freeSpools);
+
+        assertEquals(List.of(green, red), printer.getCurrentSpools());
+        assertEquals(List.of(blue), freeSpools);
+        assertTrue(messages.contains("- Spool move: Please move spool 3"), messages);
+        assertTrue(messages.contains("- Spool change: Please place spool 2 in printer Prusa position 2"), messages);
+    }
+
+    @Test
+    void runsServedByLoadedSpools() {
+        Spool petg = new Spool(5, "Black", FilamentType.PETG, 100);
+
+        List<ColorRun> runs = ColorRun.servedBy(List.of(blue, red, petg));
+
+        assertEquals(List.of(
+                new ColorRun(FilamentType.PLA, List.of("Blue")),
+                new ColorRun(FilamentType.PLA, List.of("Red")),
+                new ColorRun(FilamentType.PETG, List.of("Black")),
+                new ColorRun(FilamentType.PLA, List.of("Blue", "Red")),
+                new ColorRun(FilamentType.PLA, List.of("Red", "Blue"))
+        ), runs);
+    }
+}
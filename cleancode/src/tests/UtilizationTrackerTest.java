@@ -0,0 +1,134 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import saxion.metrics.PrinterState;
+import saxion.metrics.Utilization;
+import saxion.metrics.UtilizationTracker;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.printers.MultiColor;
+import saxion.printers.Printer;
+import saxion.printers.StandardFDM;
+import saxion.time.TimeSource;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UtilizationTrackerTest {
+
+    private static final long SPOOL_CHANGE = 1_000;
+
+    private long millis;
+
+    private final TimeSource timeSource = new TimeSource() {
+        @Override
+        public long currentTimeMillis() {
+            return millis;
+        }
+
+        @Override
+        public long nanoTime() {
+            return millis * 1_000_000;
+        }
+    };
+
+    private final UtilizationTracker tracker = new UtilizationTracker(timeSource, 16, SPOOL_CHANGE);
+
+    private final StandardFDM printer = new StandardFDM(1, "Ender", "Creality", 100, 100, 100);
+
+    private final PrintTask task = new PrintTask(
+            new Print("Part", 10, 10, 10, new ArrayList<>(List.of(10.0)), 30), List.of("Red"), FilamentType.PLA);
+
+    private void at(long millis) {
+        this.millis = millis;
+    }
+
+    @Test
+    void aPrinterMovesThroughEveryState() {
+        at(10_000);
+        tracker.spoolsChanged(printer, List.of(), 2);
+        tracker.taskStarted(printer, task);
+        assertEquals(PrinterState.BUSY, tracker.getState(1));
+        at(30_000);
+        tracker.taskFinished(printer, task, true);
+        assertEquals(PrinterState.IDLE, tracker.getState(1));
+        at(40_000);
+        tracker.noTaskSelected(printer, true);
+        assertEquals(PrinterState.BLOCKED, tracker.getState(1));
+        at(50_000);
+
+        Utilization utilization = tracker.getUtilization(1, 50_000);
+
+        assertEquals(new Utilization(18_000, 20_000, 10_000, 2 * SPOOL_CHANGE), utilization);
+        assertEquals(36.0, utilization.percentage(PrinterState.BUSY), 1e-9);
+    }
+
+    @Test
+    void theWindowOnlyCoversRecentTime() {
+        at(10_000);
+        tracker.taskStarted(printer, task);
+        at(30_000);
+        tracker.noTaskSelected(printer, true);
+        at(40_000);
+
+        assertEquals(new Utilization(5_000, 0, 10_000, 0), tracker.getUtilization(1, 15_000));
+        assertEquals(new Utilization(20_000, 10_000, 10_000, 0), tracker.getUtilization(1, 100_000));
+    }
+
+    @Test
+    void anUnseenPrinterIsIdleSinceTrackingStarted() {
+        at(5_000);
+
+        assertEquals(PrinterState.IDLE, tracker.getState(9));
+        assertEquals(new Utilization(0, 5_000, 0, 0), tracker.getUtilization(9, 60_000));
+        assertEquals(new Utilization(0, 2_000, 0, 0), tracker.getUtilization(9, 2_000));
+    }
+
+    @Test
+    void spoolChangesOfAnUnstartedTaskAreDropped() {
+        at(1_000);
+        tracker.spoolsChanged(printer, List.of(), 1);
+        tracker.noTaskSelected(printer, false);
+        at(2_000);
+        tracker.spoolsChanged(printer, List.of(), 0);
+        tracker.taskStarted(printer, task);
+        at(3_000);
+
+        assertEquals(new Utilization(1_000, 2_000, 0, 0), tracker.getUtilization(1, 3_000));
+    }
+
+    @Test
+    void printersOfATypeAreCombined() {
+        MultiColor multiColor = new MultiColor(2, "Bambu", "Bambu", false, 250, 250, 250, 4);
+        StandardFDM other = new StandardFDM(3, "Prusa", "Prusa", 100, 100, 100);
+        at(1_000);
+        tracker.taskStarted(printer, task);
+        tracker.taskStarted(multiColor, task);
+        at(2_000);
+
+        Map<String, Utilization> byType = tracker.getUtilizationByType(List.<Printer>of(printer, multiColor, other),
+                2_000);
+
+        assertEquals(List.of("MultiColor", "StandardFDM"), new ArrayList<>(byType.keySet()));
+        assertEquals(new Utilization(1_000, 3_000, 0, 0), byType.get("StandardFDM"));
+        assertEquals(new Utilization(1_000, 1_000, 0, 0), byType.get("MultiColor"));
+    }
+
+    @Test
+    void onlyTheLatestTransitionsAreKept() {
+        UtilizationTracker small = new UtilizationTracker(timeSource, 2, SPOOL_CHANGE);
+        at(1_000);
+        small.taskStarted(printer, task);
+        at(2_000);
+        small.taskFinished(printer, task, true);
+        at(3_000);
+        small.noTaskSelected(printer, true);
+        at(4_000);
+
+        assertEquals(new Utilization(0, 1_000, 1_000, 0), small.getUtilization(1, 4_000));
+    }
+}
@@ -0,0 +1,105 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import saxion.metrics.WaitTimeStats;
+import saxion.metrics.WaitTimeTracker;
+import saxion.models.PlateTask;
+import saxion.models.Print;
+import saxion.models.PrintTask;
+import saxion.printers.StandardFDM;
+import saxion.types.FilamentType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaitTimeTrackerTest {
+
+    private final WaitTimeTracker tracker = new WaitTimeTracker();
+
+    private final StandardFDM printer = new StandardFDM(1, "Ender", "Creality", 100, 100, 100);
+
+    private static PrintTask task(String name, FilamentType filamentType) {
+        Print print = new Print(name, 10, 10, 10, new ArrayList<>(List.of(10.0)), 30);
+        return new PrintTask(print, List.of("Red"), filamentType);
+    }
+
+    private static PrintTask queued(String name, FilamentType filamentType, long enqueuedNanos) {
+        PrintTask task = task(name, filamentType);
+        task.markEnqueued(enqueuedNanos);
+        return task;
+    }
+
+    private void start(PrintTask task, long nanos) {
+        task.markStarted(nanos);
+        tracker.taskStarted(printer, task);
+    }
+
+    @Test
+    void waitTimesAreGroupedByFilamentTypeAndPrint() {
+        start(queued("Bracket", FilamentType.PLA, 0), 10);
+        start(queued("Bracket", FilamentType.PLA, 0), 30);
+        start(queued("Hook", FilamentType.PLA, 5), 25);
+        start(queued("Hook", FilamentType.PETG, 0), 40);
+
+        Map<FilamentType, WaitTimeStats> byType = tracker.getByFilamentType();
+        Map<String, WaitTimeStats> byPrint = tracker.getByPrint();
+
+        assertEquals(new WaitTimeStats(3, 20, 30, 30, 30), byType.get(FilamentType.PLA));
+        assertEquals(new WaitTimeStats(1, 40, 40, 40, 40), byType.get(FilamentType.PETG));
+        assertEquals(List.of("Bracket", "Hook"), new ArrayList<>(byPrint.keySet()));
+        assertEquals(new WaitTimeStats(2, 10, 30, 30, 30), byPrint.get("Bracket"));
+        assertEquals(new WaitTimeStats(2, 20, 40, 40, 40), byPrint.get("Hook"));
+        assertEquals(0, tracker.getRequeued().count());
+    }
+
+    @Test
+    void aRequeuedTaskWaitsFromItsRequeue() {
+        PrintTask task = queued("Bracket", FilamentType.PLA, 0);
+        start(task, 10);
+        task.markFinished(20);
+        task.markRequeued(20);
+
+        start(task, 70);
+
+        assertEquals(new WaitTimeStats(1, 50, 50, 50, 50), tracker.getRequeued());
+        assertEquals(new WaitTimeStats(2, 10, 50, 50, 50), tracker.getByFilamentType().get(FilamentType.PLA));
+    }
+
+    @Test
+    void tasksWithoutAQueueTimeAreNotCounted() {
+        start(task("Bracket", FilamentType.PLA), 10);
+
+        assertTrue(tracker.getByFilamentType().isEmpty());
+        assertTrue(tracker.getByPrint().isEmpty());
+    }
+
+    @Test
+    void everyPartOfAPlateIsCounted() {
+        PlateTask plate = new PlateTask(List.of(
+                queued("Bracket", FilamentType.PLA, 0),
+                queued("Bracket", FilamentType.PLA, 10),
+                queued("Hook", FilamentType.PLA, 20)));
+
+        start(plate, 50);
+
+        assertEquals(new WaitTimeStats(3, 40, 50, 50, 50), tracker.getByFilamentType().get(FilamentType.PLA));
+        assertEquals(2, tracker.getByPrint().get("Bracket").count());
+        assertEquals(new WaitTimeStats(1, 30, 30, 30, 30), tracker.getByPrint().get("Hook"));
+    }
+
+    @Test
+    void onlyTheLatestWaitTimesAreKept() {
+        WaitTimeTracker small = new WaitTimeTracker(2);
+        for (long wait : new long[]{100, 10, 20}) {
+            PrintTask task = queued("Bracket", FilamentType.PLA, 0);
+            task.markStarted(wait);
+            small.taskStarted(printer, task);
+        }
+
+        assertEquals(new WaitTimeStats(2, 10, 20, 20, 20), small.getByFilamentType().get(FilamentType.PLA));
+    }
+}